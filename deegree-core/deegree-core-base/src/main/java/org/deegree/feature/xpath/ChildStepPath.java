@@ -0,0 +1,153 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.feature.xpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.deegree.feature.xpath.node.ElementNode;
+import org.deegree.feature.xpath.node.XPathNode;
+import org.deegree.filter.expression.ValueReference;
+import org.jaxen.NamespaceContext;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NameStep;
+import org.jaxen.saxpath.Axis;
+
+/**
+ * Evaluates relative XPath expressions that only consist of plain child element steps (e.g.
+ * <code>app:friend/app:Philosopher/app:name</code>) by walking the child axis of the {@link GMLObjectNavigator}
+ * directly, without going through Jaxen's expression evaluation.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class ChildStepPath {
+
+    private static final GMLObjectNavigator NAVIGATOR = new GMLObjectNavigator( null );
+
+    private final QName[] steps;
+
+    private ChildStepPath( QName[] steps ) {
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a {@link ChildStepPath} for the given {@link ValueReference}.
+     * 
+     * @param propName
+     *            value reference, must not be <code>null</code>
+     * @param nsContext
+     *            namespace bindings for the prefixes used in the expression, must not be <code>null</code>
+     * @return child step path, or <code>null</code> if the expression is not a relative path of plain child element
+     *         steps
+     */
+    static ChildStepPath compile( ValueReference propName, NamespaceContext nsContext ) {
+        Expr expr = propName.getAsXPath();
+        if ( !( expr instanceof LocationPath ) ) {
+            return null;
+        }
+        LocationPath path = (LocationPath) expr;
+        if ( path.isAbsolute() || path.getSteps().isEmpty() ) {
+            return null;
+        }
+        QName[] steps = new QName[path.getSteps().size()];
+        int i = 0;
+        for ( Object o : path.getSteps() ) {
+            if ( !( o instanceof NameStep ) ) {
+                return null;
+            }
+            NameStep step = (NameStep) o;
+            if ( step.getAxis() != Axis.CHILD || !step.getPredicates().isEmpty()
+                 || "*".equals( step.getLocalName() ) ) {
+                return null;
+            }
+            String prefix = step.getPrefix();
+            if ( prefix == null || prefix.isEmpty() ) {
+                steps[i++] = new QName( step.getLocalName() );
+            } else {
+                String ns = nsContext.translateNamespacePrefixToUri( prefix );
+                if ( ns == null ) {
+                    // let Jaxen report the unbound prefix
+                    return null;
+                }
+                steps[i++] = new QName( ns, step.getLocalName() );
+            }
+        }
+        return new ChildStepPath( steps );
+    }
+
+    /**
+     * Selects the nodes that are reached from the given context node by following the child steps.
+     * 
+     * @param context
+     *            context node, must not be <code>null</code>
+     * @return selected nodes in document order, may be empty, but never <code>null</code>
+     */
+    List<XPathNode<?>> select( XPathNode<?> context ) {
+        List<XPathNode<?>> nodes = Collections.<XPathNode<?>> singletonList( context );
+        for ( QName step : steps ) {
+            List<XPathNode<?>> children = new ArrayList<XPathNode<?>>();
+            for ( XPathNode<?> node : nodes ) {
+                Iterator<?> iter = NAVIGATOR.getChildAxisIterator( node );
+                while ( iter.hasNext() ) {
+                    Object child = iter.next();
+                    if ( child instanceof ElementNode<?> && matches( (ElementNode<?>) child, step ) ) {
+                        children.add( (XPathNode<?>) child );
+                    }
+                }
+            }
+            if ( children.isEmpty() ) {
+                return children;
+            }
+            nodes = children;
+        }
+        return nodes;
+    }
+
+    private static boolean matches( ElementNode<?> node, QName name ) {
+        if ( !name.getLocalPart().equals( node.getLocalName() ) ) {
+            return false;
+        }
+        String ns = node.getNamespaceUri();
+        return name.getNamespaceURI().equals( ns == null ? "" : ns );
+    }
+}
@@ -300,19 +300,31 @@ class GMLObjectNavigator extends DefaultNavigator {
     }
 
     /**
-     * Returns the top-level document node.
+     * Returns the top-level document node. If no root has been provided, the document node is derived from the topmost
+     * ancestor of the context node.
      * 
      * @param contextNode
      *            any node in the document
      * @return the root node
      */
+    @SuppressWarnings("unchecked")
     @Override
     public Object getDocumentNode( Object contextNode ) {
-        if ( documentNode == null ) {
-            String msg = "getDocumentNode(Object) not possible, no document node provided";
-            throw new UnsupportedOperationException( msg );
+        if ( documentNode != null ) {
+            return documentNode;
+        }
+        Object node = contextNode;
+        while ( node instanceof XPathNode<?> && ( (XPathNode<?>) node ).getParent() != null ) {
+            node = ( (XPathNode<?>) node ).getParent();
+        }
+        if ( node instanceof DocumentNode ) {
+            return node;
         }
-        return documentNode;
+        if ( node instanceof GMLObjectNode<?, ?> ) {
+            return new DocumentNode( (GMLObjectNode<GMLObject, ? extends GMLObject>) node );
+        }
+        String msg = "getDocumentNode(Object) not possible, no document node provided";
+        throw new UnsupportedOperationException( msg );
     }
 
     /**
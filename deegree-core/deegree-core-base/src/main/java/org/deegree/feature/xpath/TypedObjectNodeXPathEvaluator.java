@@ -37,6 +37,8 @@ package org.deegree.feature.xpath;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.namespace.QName;
 
@@ -45,6 +47,7 @@ import org.deegree.commons.tom.TypedObjectNode;
 import org.deegree.commons.tom.gml.GMLObject;
 import org.deegree.commons.tom.gml.property.Property;
 import org.deegree.commons.tom.primitive.PrimitiveValue;
+import org.deegree.commons.xml.NamespaceBindings;
 import org.deegree.feature.Feature;
 import org.deegree.feature.xpath.node.GMLObjectNode;
 import org.deegree.feature.xpath.node.PropertyNode;
@@ -70,6 +73,11 @@ public class TypedObjectNodeXPathEvaluator implements XPathEvaluator<TypedObject
 
     private static Logger LOG = LoggerFactory.getLogger( TypedObjectNodeXPathEvaluator.class );
 
+    private static final int MAX_COMPILED_VALUE_REFERENCES = 1024;
+
+    private static final ConcurrentMap<CompiledValueReferenceKey, CompiledValueReference> compiledValueReferences =
+                            new ConcurrentHashMap<CompiledValueReferenceKey, CompiledValueReference>();
+
     private Map<String, QName> bindings;
 
     public TypedObjectNodeXPathEvaluator() {
@@ -116,90 +124,87 @@ public class TypedObjectNodeXPathEvaluator implements XPathEvaluator<TypedObject
             return props.toArray( propArray );
         }
 
-        TypedObjectNode[] resultValues = null;
+        CompiledValueReference compiled = compile( propName );
+        if ( compiled.childSteps != null ) {
+            return getValues( compiled.childSteps.select( new GMLObjectNode<GMLObject, GMLObject>( null, context ) ) );
+        }
         try {
-            synchronized ( context ) {
-                XPath xpath = new GMLObjectXPath( propName.getAsText(), context );
-                xpath.setNamespaceContext( propName.getNsContext() );
-                List<?> selectedNodes;
-                selectedNodes = xpath.selectNodes( new GMLObjectNode<GMLObject, GMLObject>( null, context ) );
-                resultValues = new TypedObjectNode[selectedNodes.size()];
-                int i = 0;
-                for ( Object node : selectedNodes ) {
-                    if ( node instanceof XPathNode<?> ) {
-                        resultValues[i++] = ( (XPathNode<?>) node ).getValue();
-                    } else if ( node instanceof String || node instanceof Double || node instanceof Boolean ) {
-                        resultValues[i++] = new PrimitiveValue( node );
-                    } else {
-                        throw new RuntimeException( "Internal error. Encountered unexpected value of type '"
-                                                    + node.getClass().getName() + "' (=" + node
-                                                    + ") during XPath-evaluation." );
-                    }
-                }
-            }
+            return getValues( compiled.xpath.selectNodes( new GMLObjectNode<GMLObject, GMLObject>( null, context ) ) );
         } catch ( JaxenException e ) {
-            e.printStackTrace();
+            LOG.trace( "Stack trace:", e );
             throw new FilterEvaluationException( e.getMessage() );
         }
-        return resultValues;
     }
 
     public TypedObjectNode[] eval( ElementNode element, ValueReference propName )
                             throws FilterEvaluationException {
-
-        TypedObjectNode[] resultValues = null;
         try {
-            XPath xpath = new GMLObjectXPath( propName.getAsText(), null );
-            xpath.setNamespaceContext( propName.getNsContext() );
-            List<?> selectedNodes;
-            selectedNodes = xpath.selectNodes( new XMLElementNode( null, element ) );
-            resultValues = new TypedObjectNode[selectedNodes.size()];
-            int i = 0;
-            for ( Object node : selectedNodes ) {
-                if ( node instanceof XPathNode<?> ) {
-                    resultValues[i++] = ( (XPathNode<?>) node ).getValue();
-                } else if ( node instanceof String || node instanceof Double || node instanceof Boolean ) {
-                    resultValues[i++] = new PrimitiveValue( node );
-                } else {
-                    throw new RuntimeException( "Internal error. Encountered unexpected value of type '"
-                                                + node.getClass().getName() + "' (=" + node
-                                                + ") during XPath-evaluation." );
-                }
-            }
+            return getValues( compile( propName ).xpath.selectNodes( new XMLElementNode( null, element ) ) );
         } catch ( JaxenException e ) {
             throw new FilterEvaluationException( e.getMessage() );
         }
-        return resultValues;
     }
 
     public TypedObjectNode[] eval( Property element, ValueReference propName )
                             throws FilterEvaluationException {
-
-        TypedObjectNode[] resultValues = null;
         try {
-            XPath xpath = new GMLObjectXPath( propName.getAsText(), null );
-            xpath.setNamespaceContext( propName.getNsContext() );
-            List<?> selectedNodes;
-            selectedNodes = xpath.selectNodes( new PropertyNode( null, element ) );
-            resultValues = new TypedObjectNode[selectedNodes.size()];
-            int i = 0;
-            for ( Object node : selectedNodes ) {
-                if ( node instanceof XPathNode<?> ) {
-                    resultValues[i++] = ( (XPathNode<?>) node ).getValue();
-                } else if ( node instanceof String || node instanceof Double || node instanceof Boolean ) {
-                    resultValues[i++] = new PrimitiveValue( node );
-                } else {
-                    throw new RuntimeException( "Internal error. Encountered unexpected value of type '"
-                                                + node.getClass().getName() + "' (=" + node
-                                                + ") during XPath-evaluation." );
-                }
-            }
+            return getValues( compile( propName ).xpath.selectNodes( new PropertyNode( null, element ) ) );
         } catch ( JaxenException e ) {
             throw new FilterEvaluationException( e.getMessage() );
         }
+    }
+
+    private static TypedObjectNode[] getValues( List<?> selectedNodes ) {
+        TypedObjectNode[] resultValues = new TypedObjectNode[selectedNodes.size()];
+        int i = 0;
+        for ( Object node : selectedNodes ) {
+            if ( node instanceof XPathNode<?> ) {
+                resultValues[i++] = ( (XPathNode<?>) node ).getValue();
+            } else if ( node instanceof String || node instanceof Double || node instanceof Boolean ) {
+                resultValues[i++] = new PrimitiveValue( node );
+            } else {
+                throw new RuntimeException( "Internal error. Encountered unexpected value of type '"
+                                            + node.getClass().getName() + "' (=" + node
+                                            + ") during XPath-evaluation." );
+            }
+        }
         return resultValues;
     }
 
+    /**
+     * Returns the compiled form of the given {@link ValueReference}. Compiled expressions are shared between all
+     * evaluator instances and threads, as the XPath parsing is by far the most expensive part of the evaluation.
+     * 
+     * @param propName
+     *            value reference, must not be <code>null</code>
+     * @return compiled expression, never <code>null</code>
+     * @throws FilterEvaluationException
+     *             if the expression is not a valid XPath 1.0 expression
+     */
+    private static CompiledValueReference compile( ValueReference propName )
+                            throws FilterEvaluationException {
+        CompiledValueReferenceKey key = new CompiledValueReferenceKey( propName.getAsText(), propName.getNsContext() );
+        CompiledValueReference compiled = compiledValueReferences.get( key );
+        if ( compiled == null ) {
+            // copy the bindings, so later changes to the value reference cannot affect the cache
+            NamespaceBindings nsContext = new NamespaceBindings( propName.getNsContext() );
+            try {
+                GMLObjectXPath xpath = new GMLObjectXPath( propName.getAsText(), null );
+                xpath.setNamespaceContext( nsContext );
+                compiled = new CompiledValueReference( xpath, ChildStepPath.compile( propName, nsContext ) );
+            } catch ( JaxenException e ) {
+                LOG.trace( "Stack trace:", e );
+                throw new FilterEvaluationException( e.getMessage() );
+            }
+            if ( compiledValueReferences.size() >= MAX_COMPILED_VALUE_REFERENCES ) {
+                compiledValueReferences.clear();
+            }
+            compiledValueReferences.putIfAbsent( new CompiledValueReferenceKey( propName.getAsText(), nsContext ),
+                                                 compiled );
+        }
+        return compiled;
+    }
+
     @Override
     public String getId( TypedObjectNode context ) {
         if ( context instanceof GMLObject ) {
@@ -208,4 +213,50 @@ public class TypedObjectNodeXPathEvaluator implements XPathEvaluator<TypedObject
         // TODO implement fallback to generic gml:id attribute
         return null;
     }
+
+    /**
+     * Key for the compiled expressions: expression text plus the namespace bindings.
+     */
+    private static final class CompiledValueReferenceKey {
+
+        private final String text;
+
+        private final NamespaceBindings nsContext;
+
+        CompiledValueReferenceKey( String text, NamespaceBindings nsContext ) {
+            this.text = text;
+            this.nsContext = nsContext;
+        }
+
+        @Override
+        public boolean equals( Object obj ) {
+            if ( !( obj instanceof CompiledValueReferenceKey ) ) {
+                return false;
+            }
+            CompiledValueReferenceKey that = (CompiledValueReferenceKey) obj;
+            return text.equals( that.text ) && nsContext.equals( that.nsContext );
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + nsContext.hashCode();
+        }
+    }
+
+    /**
+     * Compiled form of a {@link ValueReference}. The Jaxen {@link XPath} is configured once and is not modified
+     * afterwards, so it may be used by concurrent threads.
+     */
+    private static final class CompiledValueReference {
+
+        private final XPath xpath;
+
+        // only set if the expression consists of plain child element steps
+        private final ChildStepPath childSteps;
+
+        CompiledValueReference( XPath xpath, ChildStepPath childSteps ) {
+            this.xpath = xpath;
+            this.childSteps = childSteps;
+        }
+    }
 }
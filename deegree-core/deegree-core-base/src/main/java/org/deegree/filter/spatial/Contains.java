@@ -41,6 +41,8 @@ import org.deegree.filter.FilterEvaluationException;
 import org.deegree.filter.XPathEvaluator;
 import org.deegree.geometry.Geometry;
 
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
 /**
  * If a geometry is spatially contained in an other geometry.
  * 
@@ -64,8 +66,17 @@ public class Contains extends SpatialOperator {
         for ( TypedObjectNode paramValue : propName.evaluate( obj, xpathEvaluator ) ) {
             Geometry geom = checkGeometryOrNull( paramValue );
             if ( geom != null ) {
-                Geometry transformedLiteral = getCompatibleGeometry( geom, geometry );
-                return geom.contains( transformedLiteral );
+                PreparedGeometry prepared = getPreparedGeometry( geom, geometry );
+                com.vividsolutions.jts.geom.Geometry jtsGeom = getJTSGeometry( geom );
+                if ( prepared == null || jtsGeom == null ) {
+                    Geometry transformedLiteral = getCompatibleGeometry( geom, geometry );
+                    return geom.contains( transformedLiteral );
+                }
+                if ( !jtsGeom.getEnvelopeInternal().contains( prepared.getGeometry().getEnvelopeInternal() ) ) {
+                    return false;
+                }
+                // a contains b <=> b within a
+                return prepared.within( jtsGeom );
             }
         }
         return false;
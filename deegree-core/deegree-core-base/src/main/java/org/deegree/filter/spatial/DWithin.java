@@ -42,6 +42,8 @@ import org.deegree.filter.FilterEvaluationException;
 import org.deegree.filter.XPathEvaluator;
 import org.deegree.geometry.Geometry;
 
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
 /**
  * If geometries are within the specified distance of one another.
  * 
@@ -69,6 +71,14 @@ public class DWithin extends SpatialOperator {
             Geometry geom = checkGeometryOrNull( param1Value );
             if ( geom != null ) {
                 Geometry transformedLiteral = getCompatibleGeometry( geom, geometry );
+                PreparedGeometry prepared = getPreparedGeometry( geom, geometry );
+                com.vividsolutions.jts.geom.Geometry jtsGeom = getJTSGeometry( geom );
+                if ( prepared != null && jtsGeom != null ) {
+                    com.vividsolutions.jts.geom.Envelope literalEnv = prepared.getGeometry().getEnvelopeInternal();
+                    if ( literalEnv.distance( jtsGeom.getEnvelopeInternal() ) > distance.getValueAsDouble() ) {
+                        return false;
+                    }
+                }
                 // TODO what about the units of the distance when transforming?
                 return geom.isWithinDistance( transformedLiteral, distance );
             }
@@ -46,6 +46,8 @@ import org.deegree.geometry.Geometry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
 /**
  * Responsible for representing and evaluating the <code>Intersects</code> operator.
  * 
@@ -80,8 +82,7 @@ public class Intersects extends SpatialOperator {
             for ( TypedObjectNode paramValue : param1.evaluate( obj, xpathEvaluator ) ) {
                 Geometry param1Value = checkGeometryOrNull( paramValue );
                 if ( param1Value != null ) {
-                    Geometry transformedGeom = getCompatibleGeometry( param1Value, geometry );
-                    return transformedGeom.intersects( param1Value );
+                    return intersectsLiteral( param1Value );
                 }
             }
         } else if ( obj instanceof Feature ) {
@@ -91,9 +92,7 @@ public class Intersects extends SpatialOperator {
             for ( Property prop : f.getProperties() ) {
                 if ( prop.getValue() instanceof Geometry ) {
                     foundGeom = true;
-                    Geometry geom = (Geometry) prop.getValue();
-                    Geometry transformedGeom = getCompatibleGeometry( geometry, geom );
-                    if ( transformedGeom.intersects( geometry ) ) {
+                    if ( intersectsLiteral( (Geometry) prop.getValue() ) ) {
                         return true;
                     }
                 }
@@ -101,8 +100,7 @@ public class Intersects extends SpatialOperator {
             if ( !foundGeom ) {
                 Envelope env = f.getEnvelope();
                 if ( env != null ) {
-                    Geometry g = getCompatibleGeometry( geometry, env );
-                    if ( g.intersects( geometry ) ) {
+                    if ( intersectsLiteral( env ) ) {
                         return true;
                     }
                 }
@@ -110,9 +108,7 @@ public class Intersects extends SpatialOperator {
             if ( f.getExtraProperties() != null ) {
                 for ( Property prop : f.getExtraProperties().getProperties() ) {
                     if ( prop.getValue() instanceof Geometry ) {
-                        Geometry geom = (Geometry) prop.getValue();
-                        Geometry transformedGeom = getCompatibleGeometry( geometry, geom );
-                        if ( transformedGeom.intersects( geometry ) ) {
+                        if ( intersectsLiteral( (Geometry) prop.getValue() ) ) {
                             return true;
                         }
                     }
@@ -124,6 +120,19 @@ public class Intersects extends SpatialOperator {
         return false;
     }
 
+    private boolean intersectsLiteral( Geometry param )
+                            throws FilterEvaluationException {
+        PreparedGeometry prepared = getPreparedGeometry( param, geometry );
+        com.vividsolutions.jts.geom.Geometry jtsParam = getJTSGeometry( param );
+        if ( prepared == null || jtsParam == null ) {
+            return getCompatibleGeometry( param, geometry ).intersects( param );
+        }
+        if ( !prepared.getGeometry().getEnvelopeInternal().intersects( jtsParam.getEnvelopeInternal() ) ) {
+            return false;
+        }
+        return prepared.intersects( jtsParam );
+    }
+
     /**
      * @return the geometry
      */
@@ -35,8 +35,8 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.filter.spatial;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.deegree.commons.tom.TypedObjectNode;
 import org.deegree.commons.tom.genericxml.GenericXMLElement;
@@ -49,9 +49,14 @@ import org.deegree.filter.expression.ValueReference;
 import org.deegree.filter.i18n.Messages;
 import org.deegree.geometry.Geometry;
 import org.deegree.geometry.GeometryTransformer;
+import org.deegree.geometry.refs.GeometryReference;
+import org.deegree.geometry.standard.AbstractDefaultGeometry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+
 /**
  * Defines a topological predicate that can be evaluated on {@link Geometry} valued objects.
  * 
@@ -64,7 +69,13 @@ public abstract class SpatialOperator implements Operator {
 
     private static final Logger LOG = LoggerFactory.getLogger( SpatialOperator.class );
 
-    private final Map<String, Geometry> srsNameToTransformedGeometry = new HashMap<String, Geometry>();
+    // key used for literals without srs (ConcurrentHashMap does not permit null keys)
+    private static final String NO_SRS = "";
+
+    // operators may be shared between threads that evaluate them concurrently (e.g. cached filters)
+    private final Map<String, Geometry> srsNameToTransformedGeometry = new ConcurrentHashMap<String, Geometry>();
+
+    private final Map<String, PreparedGeometry> srsNameToPrepared = new ConcurrentHashMap<String, PreparedGeometry>();
 
     protected final Expression propName;
 
@@ -193,7 +204,7 @@ public abstract class SpatialOperator implements Operator {
         Geometry transformedLiteral = literal;
         ICRS paramCRS = param.getCoordinateSystem();
         ICRS literalCRS = literal.getCoordinateSystem();
-        if ( literalCRS != null && !( paramCRS.equals( literalCRS ) ) ) {
+        if ( literalCRS != null && paramCRS != null && !( paramCRS.equals( literalCRS ) ) ) {
             LOG.debug( "Need transformed literal geometry for evaluation: " + literalCRS.getAlias() + " -> "
                        + paramCRS.getAlias() );
             transformedLiteral = srsNameToTransformedGeometry.get( paramCRS.getAlias() );
@@ -210,5 +221,54 @@ public abstract class SpatialOperator implements Operator {
         return transformedLiteral;
     }
 
+    /**
+     * Returns a prepared JTS version of the given geometry literal that has the same srs as the given geometry
+     * parameter. The prepared geometry is built only once per srs and allows for fast repeated evaluation of
+     * predicates against many parameter geometries.
+     * 
+     * @param param
+     *            geometry parameter, must not be <code>null</code>
+     * @param literal
+     *            geometry literal, must not be <code>null</code>
+     * @return prepared literal geometry with the same srs as the parameter geometry, or <code>null</code> if the
+     *         literal has no JTS representation
+     * @throws FilterEvaluationException
+     *             if the transformation failed
+     */
+    protected PreparedGeometry getPreparedGeometry( Geometry param, Geometry literal )
+                            throws FilterEvaluationException {
+        Geometry compatibleLiteral = getCompatibleGeometry( param, literal );
+        ICRS crs = compatibleLiteral.getCoordinateSystem();
+        String srsName = crs != null && crs.getAlias() != null ? crs.getAlias() : NO_SRS;
+        PreparedGeometry prepared = srsNameToPrepared.get( srsName );
+        if ( prepared == null ) {
+            com.vividsolutions.jts.geom.Geometry jtsLiteral = getJTSGeometry( compatibleLiteral );
+            if ( jtsLiteral == null ) {
+                return null;
+            }
+            prepared = PreparedGeometryFactory.prepare( jtsLiteral );
+            // concurrent callers may prepare the literal more than once, the results are equivalent
+            srsNameToPrepared.put( srsName, prepared );
+        }
+        return prepared;
+    }
+
+    /**
+     * Returns the JTS representation of the given geometry.
+     * 
+     * @param geom
+     *            geometry, must not be <code>null</code>
+     * @return the JTS representation, or <code>null</code> if the geometry is not backed by a JTS geometry
+     */
+    protected static com.vividsolutions.jts.geom.Geometry getJTSGeometry( Geometry geom ) {
+        if ( geom instanceof GeometryReference<?> ) {
+            geom = ( (GeometryReference<?>) geom ).getReferencedObject();
+        }
+        if ( geom instanceof AbstractDefaultGeometry ) {
+            return ( (AbstractDefaultGeometry) geom ).getJTSGeometry();
+        }
+        return null;
+    }
+
     public abstract Object[] getParams();
 }
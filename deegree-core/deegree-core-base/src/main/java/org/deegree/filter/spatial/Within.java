@@ -41,6 +41,8 @@ import org.deegree.filter.FilterEvaluationException;
 import org.deegree.filter.XPathEvaluator;
 import org.deegree.geometry.Geometry;
 
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+
 /**
  * TODO add documentation here
  * 
@@ -63,8 +65,17 @@ public class Within extends SpatialOperator {
         for ( TypedObjectNode paramValue : propName.evaluate( obj, xpathEvaluator ) ) {
             Geometry geom = checkGeometryOrNull( paramValue );
             if ( geom != null ) {
-                Geometry transformedLiteral = getCompatibleGeometry( geom, geometry );
-                return geom.isWithin( transformedLiteral );
+                PreparedGeometry prepared = getPreparedGeometry( geom, geometry );
+                com.vividsolutions.jts.geom.Geometry jtsGeom = getJTSGeometry( geom );
+                if ( prepared == null || jtsGeom == null ) {
+                    Geometry transformedLiteral = getCompatibleGeometry( geom, geometry );
+                    return geom.isWithin( transformedLiteral );
+                }
+                if ( !prepared.getGeometry().getEnvelopeInternal().contains( jtsGeom.getEnvelopeInternal() ) ) {
+                    return false;
+                }
+                // a within b <=> b contains a
+                return prepared.contains( jtsGeom );
             }
         }
         return false;
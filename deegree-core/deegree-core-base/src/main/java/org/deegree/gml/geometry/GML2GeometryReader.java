@@ -37,12 +37,10 @@ package org.deegree.gml.geometry;
 import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
 import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.StringTokenizer;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
@@ -74,6 +72,7 @@ import org.deegree.geometry.refs.GeometryReference;
 import org.deegree.geometry.refs.LineStringReference;
 import org.deegree.geometry.refs.PointReference;
 import org.deegree.geometry.refs.PolygonReference;
+import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.gml.GMLStreamReader;
 import org.deegree.gml.commons.AbstractGMLObjectReader;
 import org.slf4j.Logger;
@@ -154,6 +153,8 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
 
     private GeometryFactory geomFac;
 
+    private final OrdinateParser ordinateParser = new OrdinateParser();
+
     /**
      * Creates a new {@link GML2GeometryReader} for the given {@link GMLStreamReader}.
      * 
@@ -600,24 +601,25 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
         ICRS crs = determineActiveCRS( xmlStream, defaultCRS );
         xmlStream.nextTag();
 
-        List<Point> points = null;
+        Points points = null;
         if ( xmlStream.getEventType() == XMLStreamConstants.START_ELEMENT ) {
             String name = xmlStream.getLocalName();
             if ( "coordinates".equals( name ) ) {
                 points = parseCoordinates( xmlStream, crs );
                 xmlStream.nextTag();
             } else {
-                points = new LinkedList<Point>();
+                PointsBuilder builder = new PointsBuilder( geomFac, crs );
                 do {
                     if ( "coord".equals( name ) ) {
                         double[] coords = parseCoordType( xmlStream );
                         // anonymous point (no registering necessary)
-                        points.add( geomFac.createPoint( null, coords, crs ) );
+                        builder.add( coords );
                     } else {
                         String msg = "Error in 'gml:Envelope' element.";
                         throw new XMLParsingException( xmlStream, msg );
                     }
                 } while ( xmlStream.nextTag() == XMLStreamConstants.START_ELEMENT );
+                points = builder.build();
             }
         }
 
@@ -653,24 +655,25 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
         ICRS crs = determineActiveCRS( xmlStream, defaultCRS );
         xmlStream.nextTag();
 
-        List<Point> points = null;
+        Points points = null;
         if ( xmlStream.getEventType() == XMLStreamConstants.START_ELEMENT ) {
             String name = xmlStream.getLocalName();
             if ( "coordinates".equals( name ) ) {
                 points = parseCoordinates( xmlStream, crs );
                 xmlStream.nextTag();
             } else {
-                points = new LinkedList<Point>();
+                PointsBuilder builder = new PointsBuilder( geomFac, crs );
                 do {
                     if ( "coord".equals( name ) ) {
                         double[] coords = parseCoordType( xmlStream );
                         // anonymous point (no registering necessary)
-                        points.add( geomFac.createPoint( null, coords, crs ) );
+                        builder.add( coords );
                     } else {
                         String msg = "Error in 'gml:LineString' element.";
                         throw new XMLParsingException( xmlStream, msg );
                     }
                 } while ( xmlStream.nextTag() == XMLStreamConstants.START_ELEMENT );
+                points = builder.build();
             }
         }
 
@@ -678,7 +681,7 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
             String msg = "Error in 'gml:LineString' element. Must consist of two points at least.";
             throw new XMLParsingException( xmlStream, msg );
         }
-        LineString lineString = geomFac.createLineString( gid, crs, geomFac.createPoints( points ) );
+        LineString lineString = geomFac.createLineString( gid, crs, points );
         idContext.addObject( lineString );
         return lineString;
     }
@@ -780,7 +783,7 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
 
     private Points parseControlPoints( XMLStreamReaderWrapper xmlStream, ICRS crs )
                             throws XMLStreamException {
-        List<Point> controlPoints = null;
+        Points controlPoints = null;
 
         if ( xmlStream.getEventType() == XMLStreamConstants.START_ELEMENT ) {
             String name = xmlStream.getLocalName();
@@ -788,20 +791,21 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
                 controlPoints = parseCoordinates( xmlStream, crs );
                 xmlStream.nextTag();
             } else {
-                controlPoints = new LinkedList<Point>();
+                PointsBuilder builder = new PointsBuilder( geomFac, crs );
                 do {
                     name = xmlStream.getLocalName();
                     if ( "coord".equals( name ) ) {
                         double[] coords = parseCoordType( xmlStream );
                         // anonymous point (no registering necessary)
-                        controlPoints.add( geomFac.createPoint( null, coords, crs ) );
+                        builder.add( coords );
                     } else {
                         break;
                     }
                 } while ( xmlStream.nextTag() == XMLStreamConstants.START_ELEMENT );
+                controlPoints = builder.build();
             }
         }
-        return geomFac.createPoints( controlPoints );
+        return controlPoints;
     }
 
     /**
@@ -831,7 +835,7 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
         if ( xmlStream.getEventType() == START_ELEMENT ) {
             String name = xmlStream.getLocalName();
             if ( "coordinates".equals( name ) ) {
-                List<Point> points = parseCoordinates( xmlStream, crs );
+                Points points = parseCoordinates( xmlStream, crs );
                 if ( points.size() != 1 ) {
                     String msg = "A gml:Point element must contain exactly one tuple of coordinates.";
                     throw new XMLParsingException( xmlStream, msg );
@@ -903,48 +907,28 @@ public class GML2GeometryReader extends AbstractGMLObjectReader implements GMLGe
         return new double[] { x, y, z };
     }
 
-    private List<Point> parseCoordinates( XMLStreamReaderWrapper xmlStream, ICRS crs )
+    private Points parseCoordinates( XMLStreamReaderWrapper xmlStream, ICRS crs )
                             throws XMLStreamException {
 
-        String decimalSeparator = xmlStream.getAttributeValueWDefault( "decimal", "." );
-        if ( !".".equals( decimalSeparator ) ) {
-            String msg = "Currently, only '.' is supported as decimal separator.";
-            throw new XMLParsingException( xmlStream, msg );
-        }
-
-        String coordinateSeparator = xmlStream.getAttributeValueWDefault( "cs", "," );
-        String tupleSeparator = xmlStream.getAttributeValueWDefault( "ts", " " );
+        char decimalSeparator = getSeparator( xmlStream, "decimal", "." );
+        char coordinateSeparator = getSeparator( xmlStream, "cs", "," );
+        char tupleSeparator = getSeparator( xmlStream, "ts", " " );
 
-        String text = xmlStream.getElementText();
-
-        List<String> tuples = new LinkedList<String>();
-        StringTokenizer tupleTokenizer = new StringTokenizer( text, tupleSeparator + "\n" );
-        while ( tupleTokenizer.hasMoreTokens() ) {
-            String newToken = tupleTokenizer.nextToken();
-            if ( newToken != null && newToken.trim().length() > 0 ) {
-                tuples.add( newToken );
-            }
-        }
+        // scans the text events directly, no intermediate strings or points
+        double[] ordinates = ordinateParser.parseCoordinates( xmlStream, decimalSeparator, coordinateSeparator,
+                                                              tupleSeparator );
+        int coordDim = ordinateParser.getTupleDimension();
+        return new PackedPoints( crs, ordinates, coordDim == -1 ? 2 : coordDim );
+    }
 
-        List<Point> points = new ArrayList<Point>( tuples.size() );
-        for ( int i = 0; i < tuples.size(); i++ ) {
-            StringTokenizer coordinateTokenizer = new StringTokenizer( tuples.get( i ), coordinateSeparator );
-            List<String> tokens = new ArrayList<String>();
-            while ( coordinateTokenizer.hasMoreTokens() ) {
-                tokens.add( coordinateTokenizer.nextToken() );
-            }
-            double[] tuple = new double[tokens.size()];
-            for ( int j = 0; j < tuple.length; j++ ) {
-                try {
-                    tuple[j] = Double.parseDouble( tokens.get( j ) );
-                } catch ( NumberFormatException e ) {
-                    String msg = "Value '" + tokens.get( j ) + "' cannot be parsed as a double.";
-                    throw new XMLParsingException( xmlStream, msg );
-                }
-            }
-            points.add( geomFac.createPoint( null, tuple, crs ) );
+    private char getSeparator( XMLStreamReaderWrapper xmlStream, String attrName, String defaultValue ) {
+        String separator = xmlStream.getAttributeValueWDefault( attrName, defaultValue );
+        if ( separator.length() != 1 ) {
+            String msg = "Invalid value (='" + separator + "') for attribute '" + attrName
+                         + "'. Only single character separators are supported.";
+            throw new XMLParsingException( xmlStream, msg );
         }
-        return points;
+        return separator.charAt( 0 );
     }
 
     private ICRS determineActiveCRS( XMLStreamReaderWrapper xmlStream, ICRS defaultCRS ) {
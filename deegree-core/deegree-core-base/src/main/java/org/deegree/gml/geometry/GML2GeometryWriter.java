@@ -56,6 +56,7 @@ import org.deegree.geometry.composite.CompositeCurve;
 import org.deegree.geometry.composite.CompositeGeometry;
 import org.deegree.geometry.composite.CompositeSolid;
 import org.deegree.geometry.composite.CompositeSurface;
+import org.deegree.geometry.io.CoordinateCharBuffer;
 import org.deegree.geometry.io.CoordinateFormatter;
 import org.deegree.geometry.io.DecimalCoordinateFormatter;
 import org.deegree.geometry.multi.MultiCurve;
@@ -102,6 +103,9 @@ public class GML2GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
 
     private CoordinateFormatter formatter;
 
+    // reused for assembling coordinates contents
+    private final CoordinateCharBuffer coordinateBuffer = new CoordinateCharBuffer();
+
     private CoordinateTransformer transformer;
 
     private double[] transformedOrdinates;
@@ -221,21 +225,22 @@ public class GML2GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
         writer.writeAttribute( "decimal", "." );
         writer.writeAttribute( "cs", "," );
         writer.writeAttribute( "ts", " " );
-        StringBuilder sb = new StringBuilder();
+        CoordinateCharBuffer sb = coordinateBuffer;
+        sb.reset();
         boolean first = true;
         for ( Point point : points ) {
             if ( !first ) {
-                sb.append( " " );
+                sb.append( ' ' );
             }
             double[] ords = getTransformedCoordinate( point.getCoordinateSystem(), point.getAsArray() );
-            sb.append( formatter.format( ords[0] ) );
+            sb.append( ords[0], formatter );
             for ( int i = 1; i < ords.length; i++ ) {
-                sb.append( "," );
-                sb.append( formatter.format( ords[i] ) );
+                sb.append( ',' );
+                sb.append( ords[i], formatter );
             }
             first = false;
         }
-        writer.writeCharacters( sb.toString() );
+        writer.writeCharacters( sb.getChars(), 0, sb.length() );
         writer.writeEndElement();
     }
 
@@ -36,10 +36,6 @@
 package org.deegree.gml.geometry;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.StringTokenizer;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
@@ -54,7 +50,9 @@ import org.deegree.cs.coordinatesystems.CRS;
 import org.deegree.cs.coordinatesystems.ICRS;
 import org.deegree.cs.persistence.CRSManager;
 import org.deegree.geometry.GeometryFactory;
+import org.deegree.geometry.points.Points;
 import org.deegree.geometry.primitive.Point;
+import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.gml.GMLStreamReader;
 import org.deegree.gml.commons.AbstractGMLObjectReader;
 import org.slf4j.Logger;
@@ -82,6 +80,8 @@ class GML3GeometryBaseReader extends AbstractGMLObjectReader {
 
     private final int defaultCoordDim;
 
+    private final OrdinateParser ordinateParser = new OrdinateParser();
+
     protected GML3GeometryBaseReader( GMLStreamReader gmlStream ) {
         super( gmlStream );
         this.geomFac = gmlStream.getGeometryFactory();
@@ -95,27 +95,25 @@ class GML3GeometryBaseReader extends AbstractGMLObjectReader {
                             throws XMLParsingException, XMLStreamException {
 
         ICRS crs = determineActiveCRS( xmlStream, defaultCRS );
+        double[] doubles = ordinateParser.parseList( xmlStream );
+        return geomFac.createPoint( null, doubles, crs );
+    }
 
-        String s = xmlStream.getElementText();
-        // don't use String.split(regex) here (speed)
-        StringTokenizer st = new StringTokenizer( s );
-        List<String> tokens = new ArrayList<String>();
-        while ( st.hasMoreTokens() ) {
-            tokens.add( st.nextToken() );
-        }
-        double[] doubles = new double[tokens.size()];
-        for ( int i = 0; i < doubles.length; i++ ) {
-            try {
-                doubles[i] = Double.parseDouble( tokens.get( i ) );
-            } catch ( NumberFormatException e ) {
-                String msg = "Value '" + tokens.get( i ) + "' cannot be parsed as a double.";
-                throw new XMLParsingException( xmlStream, msg );
-            }
+    /**
+     * Parses a <code>gml:pos</code> element and adds it to the given builder.
+     */
+    protected void parsePos( XMLStreamReaderWrapper xmlStream, ICRS defaultCRS, PointsBuilder points )
+                            throws XMLParsingException, XMLStreamException {
+        ICRS crs = determineActiveCRS( xmlStream, defaultCRS );
+        double[] coords = ordinateParser.parseList( xmlStream );
+        if ( crs == defaultCRS ) {
+            points.add( coords );
+        } else {
+            points.add( geomFac.createPoint( null, coords, crs ) );
         }
-        return geomFac.createPoint( null, doubles, crs );
     }
 
-    protected List<Point> parsePosList( XMLStreamReaderWrapper xmlStream, ICRS crs )
+    protected Points parsePosList( XMLStreamReaderWrapper xmlStream, ICRS crs )
                             throws XMLParsingException, XMLStreamException {
 
         int coordDim = determineCoordDimensions( xmlStream, -1 );
@@ -134,78 +132,42 @@ class GML3GeometryBaseReader extends AbstractGMLObjectReader {
             coordDim = defaultCoordDim;
         }
 
-        String s = xmlStream.getElementText();
-        // don't use String.split(regex) here (speed)
-        StringTokenizer st = new StringTokenizer( s );
-        List<String> tokens = new ArrayList<String>();
-        while ( st.hasMoreTokens() ) {
-            tokens.add( st.nextToken() );
-        }
-        int numCoords = tokens.size();
+        // scans the text events directly, no intermediate strings or points
+        double[] ordinates = ordinateParser.parseList( xmlStream );
+        int numCoords = ordinates.length;
         if ( numCoords % coordDim != 0 ) {
-            String msg = "Cannot parse 'gml:posList': contains " + tokens.size()
-                         + " values, but coordinate dimension is " + coordDim + ". This does not match.";
+            String msg = "Cannot parse 'gml:posList': contains " + numCoords + " values, but coordinate dimension is "
+                         + coordDim + ". This does not match.";
             throw new XMLParsingException( xmlStream, msg );
         }
-
-        int numPoints = numCoords / coordDim;
-        List<Point> points = new ArrayList<Point>();
-
-        int tokenPos = 0;
-        for ( int i = 0; i < numPoints; i++ ) {
-            double[] pointCoords = new double[coordDim];
-            for ( int j = 0; j < coordDim; j++ ) {
-                try {
-                    pointCoords[j] = Double.parseDouble( tokens.get( tokenPos++ ) );
-                } catch ( NumberFormatException e ) {
-                    String msg = "Value '" + tokens.get( tokenPos - 1 ) + "' cannot be parsed as a double.";
-                    throw new XMLParsingException( xmlStream, msg );
-                }
-            }
-            points.add( geomFac.createPoint( null, pointCoords, crs ) );
-        }
-        return points;
+        return new PackedPoints( crs, ordinates, coordDim );
     }
 
-    protected List<Point> parseCoordinates( XMLStreamReaderWrapper xmlStream, ICRS crs )
+    protected Points parseCoordinates( XMLStreamReaderWrapper xmlStream, ICRS crs )
                             throws XMLParsingException, XMLStreamException {
 
-        String decimalSeparator = xmlStream.getAttributeValueWDefault( "decimal", "." );
-        if ( !".".equals( decimalSeparator ) ) {
-            String msg = "Currently, only '.' is supported as decimal separator.";
-            throw new XMLParsingException( xmlStream, msg );
-        }
-
-        String coordinateSeparator = xmlStream.getAttributeValueWDefault( "cs", "," );
-        String tupleSeparator = xmlStream.getAttributeValueWDefault( "ts", " " );
+        char decimalSeparator = getSeparator( xmlStream, "decimal", "." );
+        char coordinateSeparator = getSeparator( xmlStream, "cs", "," );
+        char tupleSeparator = getSeparator( xmlStream, "ts", " " );
 
-        String text = xmlStream.getElementText();
-
-        List<String> tuples = new LinkedList<String>();
-        StringTokenizer tupleTokenizer = new StringTokenizer( text, tupleSeparator );
-        while ( tupleTokenizer.hasMoreTokens() ) {
-            tuples.add( tupleTokenizer.nextToken() );
+        double[] ordinates = ordinateParser.parseCoordinates( xmlStream, decimalSeparator, coordinateSeparator,
+                                                              tupleSeparator );
+        int coordDim = ordinateParser.getTupleDimension();
+        if ( coordDim == -1 ) {
+            return new PackedPoints( crs, ordinates, defaultCoordDim );
         }
+        return new PackedPoints( crs, ordinates, coordDim );
+    }
 
-        List<Point> points = new ArrayList<Point>( tuples.size() );
-        for ( int i = 0; i < tuples.size(); i++ ) {
-            StringTokenizer coordinateTokenizer = new StringTokenizer( tuples.get( i ), coordinateSeparator );
-            List<String> tokens = new ArrayList<String>();
-            while ( coordinateTokenizer.hasMoreTokens() ) {
-                tokens.add( coordinateTokenizer.nextToken() );
-            }
-            double[] tuple = new double[tokens.size()];
-            for ( int j = 0; j < tuple.length; j++ ) {
-                try {
-                    tuple[j] = Double.parseDouble( tokens.get( j ) );
-                } catch ( NumberFormatException e ) {
-                    String msg = "Value '" + tokens.get( j ) + "' cannot be parsed as a double.";
-                    throw new XMLParsingException( xmlStream, msg );
-                }
-            }
-            points.add( geomFac.createPoint( null, tuple, crs ) );
+    private char getSeparator( XMLStreamReaderWrapper xmlStream, String attrName, String defaultValue )
+                            throws XMLParsingException {
+        String separator = xmlStream.getAttributeValueWDefault( attrName, defaultValue );
+        if ( separator.length() != 1 ) {
+            String msg = "Invalid value (='" + separator + "') for attribute '" + attrName
+                         + "'. Only single character separators are supported.";
+            throw new XMLParsingException( xmlStream, msg );
         }
-        return points;
+        return separator.charAt( 0 );
     }
 
     protected double[] parseCoordType( XMLStreamReaderWrapper xmlStream )
@@ -328,23 +290,7 @@ class GML3GeometryBaseReader extends AbstractGMLObjectReader {
 
     protected double[] parseDoubleList( XMLStreamReaderWrapper xmlStream )
                             throws XMLParsingException, XMLStreamException {
-        String s = xmlStream.getElementText();
-        // don't use String.split(regex) here (speed)
-        StringTokenizer st = new StringTokenizer( s );
-        List<String> tokens = new ArrayList<String>();
-        while ( st.hasMoreTokens() ) {
-            tokens.add( st.nextToken() );
-        }
-        double[] doubles = new double[tokens.size()];
-        for ( int i = 0; i < doubles.length; i++ ) {
-            try {
-                doubles[i] = Double.parseDouble( tokens.get( i ) );
-            } catch ( NumberFormatException e ) {
-                String msg = "Value '" + tokens.get( i ) + "' cannot be parsed as a double.";
-                throw new XMLParsingException( xmlStream, msg );
-            }
-        }
-        return doubles;
+        return ordinateParser.parseList( xmlStream );
     }
 
     /**
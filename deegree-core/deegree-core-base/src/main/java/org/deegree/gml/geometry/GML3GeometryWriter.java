@@ -67,6 +67,7 @@ import org.deegree.geometry.composite.CompositeCurve;
 import org.deegree.geometry.composite.CompositeGeometry;
 import org.deegree.geometry.composite.CompositeSolid;
 import org.deegree.geometry.composite.CompositeSurface;
+import org.deegree.geometry.io.CoordinateCharBuffer;
 import org.deegree.geometry.io.CoordinateFormatter;
 import org.deegree.geometry.io.DecimalCoordinateFormatter;
 import org.deegree.geometry.multi.MultiCurve;
@@ -145,6 +146,9 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
 
     private CoordinateFormatter formatter;
 
+    // reused for assembling pos/posList contents
+    private final CoordinateCharBuffer coordinateBuffer = new CoordinateCharBuffer();
+
     private CoordinateTransformer transformer;
 
     private GeometryTransformer geoTransformer;
@@ -417,10 +421,7 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
 
         writer.writeStartElement( gmlNs, "pos" );
         double[] ordinates = getTransformedCoordinate( point.getCoordinateSystem(), point.getAsArray() );
-        writer.writeCharacters( formatter.format( ordinates[0] ) );
-        for ( int i = 1; i < ordinates.length; i++ ) {
-            writer.writeCharacters( " " + formatter.format( ordinates[i] ) );
-        }
+        writeOrdinates( ordinates );
         writer.writeEndElement();
     }
 
@@ -883,10 +884,7 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
             writer.writeStartElement( "gml", "lowerCorner", gmlNs );
         }
         double[] ordinates = env.getMin().getAsArray();
-        writer.writeCharacters( formatter.format( ordinates[0] ) );
-        for ( int i = 1; i < ordinates.length; i++ ) {
-            writer.writeCharacters( " " + formatter.format( ordinates[i] ) );
-        }
+        writeOrdinates( ordinates );
         writer.writeEndElement();
 
         if ( version == GML_30 ) {
@@ -895,10 +893,7 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
             writer.writeStartElement( "gml", "upperCorner", gmlNs );
         }
         ordinates = env.getMax().getAsArray();
-        writer.writeCharacters( formatter.format( ordinates[0] ) );
-        for ( int i = 1; i < ordinates.length; i++ ) {
-            writer.writeCharacters( " " + formatter.format( ordinates[i] ) );
-        }
+        writeOrdinates( ordinates );
         writer.writeEndElement();
         writer.writeEndElement();
     }
@@ -1510,18 +1505,8 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
             writer.writeStartElement( "gml", "posList", gmlNs );
             // TODO CITE
             // writer.writeAttribute( "srsDimension", String.valueOf( srsDimension ) );
-            boolean first = true;
-            for ( final Point p : points ) {
-                final double[] ordinates = getTransformedCoordinate( p.getCoordinateSystem(), p.getAsArray() );
-                for ( int i = 0; i < ordinates.length; i++ ) {
-                    if ( !first ) {
-                        writer.writeCharacters( " " + formatter.format( ordinates[i] ) );
-                    } else {
-                        writer.writeCharacters( formatter.format( ordinates[i] ) );
-                        first = false;
-                    }
-                }
-            }
+            final double[] ordinates = getTransformedOrdinates( points );
+            writeOrdinates( ordinates );
             writer.writeEndElement();
         } else {
             for ( final Point p : points ) {
@@ -1530,6 +1515,22 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
         }
     }
 
+    /**
+     * Writes the given ordinates as a whitespace separated list using a single character event.
+     */
+    private void writeOrdinates( final double[] ordinates )
+                            throws XMLStreamException {
+        final CoordinateCharBuffer buffer = coordinateBuffer;
+        buffer.reset();
+        for ( int i = 0; i < ordinates.length; i++ ) {
+            if ( i > 0 ) {
+                buffer.append( ' ' );
+            }
+            buffer.append( ordinates[i], formatter );
+        }
+        writer.writeCharacters( buffer.getChars(), 0, buffer.length() );
+    }
+
     private void exportPointsAsProperties( final Points points )
                             throws XMLStreamException, UnknownCRSException, TransformationException {
         for ( final Point point : points ) {
@@ -1622,6 +1623,28 @@ public class GML3GeometryWriter extends AbstractGMLObjectWriter implements GMLGe
         return inputCoordinate;
     }
 
+    /**
+     * Returns the ordinates of all points (with a stride of {@link Points#getDimension()}), transformed in one go if
+     * necessary.
+     */
+    private double[] getTransformedOrdinates( Points points )
+                            throws TransformationException, UnknownCRSException {
+        if ( points.size() == 0 ) {
+            return new double[0];
+        }
+        ICRS inputCRS = points.get( 0 ).getCoordinateSystem();
+        if ( inputCRS != null && outputCRS != null && !inputCRS.equals( outputCRS ) ) {
+            if ( transformer == null ) {
+                throw new UnknownCRSException( outputCRS.getAlias() );
+            }
+            // the array of packed points is not a copy
+            double[] ordinates = points.getAsArray().clone();
+            transformer.transform( inputCRS, ordinates, 0, points.size(), points.getDimension() );
+            return ordinates;
+        }
+        return points.getAsArray();
+    }
+
     private Envelope getTransformedEnvelope( Envelope env )
                             throws TransformationException, UnknownCRSException {
         ICRS inputCRS = env.getCoordinateSystem();
@@ -182,23 +182,25 @@ class GML3SurfacePatchReader extends GML3GeometryBaseReader {
         List<Points> grid = new ArrayList<Points>();
         while ( xmlStream.getLocalName().equals( "row" ) ) {
             xmlStream.nextTag();
-            List<Point> currentRow = new LinkedList<Point>();
+            Points currentRow = null;
             if ( xmlStream.getLocalName().equals( "posList" ) ) {
                 currentRow = geometryParser.parsePosList( xmlStream, defaultCRS );
                 xmlStream.nextTag();
             } else {
+                PointsBuilder builder = new PointsBuilder( geomFac, defaultCRS );
                 while ( xmlStream.getLocalName().equals( "pos" ) || xmlStream.getLocalName().equals( "pointProperty" ) ) {
                     if ( xmlStream.getLocalName().equals( "pos" ) ) {
                         Point point = geometryParser.parsePoint( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     } else {
                         Point point = geometryParser.parsePointProperty( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     }
                     xmlStream.nextTag();
                 }
+                currentRow = builder.build();
             }
-            grid.add( geomFac.createPoints( currentRow ) );
+            grid.add( currentRow );
             xmlStream.require( END_ELEMENT, gmlNs, "row" );
             xmlStream.nextTag();
         }
@@ -244,23 +246,25 @@ class GML3SurfacePatchReader extends GML3GeometryBaseReader {
         List<Points> grid = new ArrayList<Points>();
         while ( xmlStream.getLocalName().equals( "row" ) ) {
             xmlStream.nextTag();
-            List<Point> currentRow = new LinkedList<Point>();
+            Points currentRow = null;
             if ( xmlStream.getLocalName().equals( "posList" ) ) {
                 currentRow = geometryParser.parsePosList( xmlStream, defaultCRS );
                 xmlStream.nextTag();
             } else {
+                PointsBuilder builder = new PointsBuilder( geomFac, defaultCRS );
                 while ( xmlStream.getLocalName().equals( "pos" ) || xmlStream.getLocalName().equals( "pointProperty" ) ) {
                     if ( xmlStream.getLocalName().equals( "pos" ) ) {
                         Point point = geometryParser.parsePoint( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     } else {
                         Point point = geometryParser.parsePointProperty( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     }
                     xmlStream.nextTag();
                 }
+                currentRow = builder.build();
             }
-            grid.add( geomFac.createPoints( currentRow ) );
+            grid.add( currentRow );
             xmlStream.require( END_ELEMENT, gmlNs, "row" );
             xmlStream.nextTag();
         }
@@ -306,23 +310,25 @@ class GML3SurfacePatchReader extends GML3GeometryBaseReader {
         List<Points> grid = new ArrayList<Points>();
         while ( xmlStream.getLocalName().equals( "row" ) ) {
             xmlStream.nextTag();
-            List<Point> currentRow = new LinkedList<Point>();
+            Points currentRow = null;
             if ( xmlStream.getLocalName().equals( "posList" ) ) {
                 currentRow = geometryParser.parsePosList( xmlStream, defaultCRS );
                 xmlStream.nextTag();
             } else {
+                PointsBuilder builder = new PointsBuilder( geomFac, defaultCRS );
                 while ( xmlStream.getLocalName().equals( "pos" ) || xmlStream.getLocalName().equals( "pointProperty" ) ) {
                     if ( xmlStream.getLocalName().equals( "pos" ) ) {
                         Point point = geometryParser.parsePoint( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     } else {
                         Point point = geometryParser.parsePointProperty( xmlStream, defaultCRS );
-                        currentRow.add( point );
+                        builder.add( point );
                     }
                     xmlStream.nextTag();
                 }
+                currentRow = builder.build();
             }
-            grid.add( geomFac.createPoints( currentRow ) );
+            grid.add( currentRow );
             xmlStream.require( END_ELEMENT, gmlNs, "row" );
             xmlStream.nextTag();
         }
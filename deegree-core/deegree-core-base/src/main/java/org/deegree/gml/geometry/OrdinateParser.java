@@ -0,0 +1,368 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.gml.geometry;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.ENTITY_REFERENCE;
+import static javax.xml.stream.XMLStreamConstants.PROCESSING_INSTRUCTION;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.deegree.commons.xml.XMLParsingException;
+import org.deegree.commons.xml.stax.XMLStreamReaderWrapper;
+
+/**
+ * Parses ordinate lists (<code>gml:pos</code>, <code>gml:posList</code>, <code>gml:coordinates</code>) from the text
+ * events of an <code>XMLStreamReader</code> into a <code>double</code> array.
+ * <p>
+ * The characters are scanned directly from {@link XMLStreamReaderWrapper#getTextCharacters()}, so no element text
+ * <code>String</code>, token <code>String</code>s or intermediate {@link org.deegree.geometry.primitive.Point} objects
+ * are created. Numbers with up to 15 significant digits and moderate exponents are converted exactly without
+ * <code>Double.parseDouble</code>, all others are delegated to it.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; they are meant to be held per reader.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class OrdinateParser {
+
+    // all powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                                                   1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // largest mantissa that is exactly representable as a double (2^53)
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private double[] ordinates = new double[256];
+
+    private int size;
+
+    private char[] token = new char[32];
+
+    private int tokenLength;
+
+    // mode flags for the current scan
+    private boolean coordinatesMode;
+
+    private char decimalSeparator;
+
+    private char coordinateSeparator;
+
+    private char tupleSeparator;
+
+    private boolean whitespaceTupleSeparator;
+
+    private int tupleDimension;
+
+    private int currentTupleSize;
+
+    /**
+     * Parses the whitespace separated list of doubles contained in the current element.
+     * <ul>
+     * <li>Precondition: cursor must point at the <code>START_ELEMENT</code> event</li>
+     * <li>Postcondition: cursor points at the corresponding <code>END_ELEMENT</code> event</li>
+     * </ul>
+     * 
+     * @param xmlStream
+     *            must not be <code>null</code>
+     * @return parsed values, never <code>null</code>
+     * @throws XMLParsingException
+     *             if a token cannot be parsed as a double
+     * @throws XMLStreamException
+     */
+    double[] parseList( XMLStreamReaderWrapper xmlStream )
+                            throws XMLParsingException, XMLStreamException {
+        size = 0;
+        tokenLength = 0;
+        coordinatesMode = false;
+        decimalSeparator = '.';
+        scanElementText( xmlStream );
+        return toArray();
+    }
+
+    /**
+     * Parses the tuples contained in the current (GML 2 style) <code>coordinates</code> element. After the call, the
+     * number of ordinates per tuple is available from {@link #getTupleDimension()}.
+     * <ul>
+     * <li>Precondition: cursor must point at the <code>START_ELEMENT</code> event</li>
+     * <li>Postcondition: cursor points at the corresponding <code>END_ELEMENT</code> event</li>
+     * </ul>
+     * 
+     * @param xmlStream
+     *            must not be <code>null</code>
+     * @param decimal
+     *            decimal separator
+     * @param cs
+     *            separator between the ordinates of a tuple
+     * @param ts
+     *            separator between tuples, if this is a whitespace character, any whitespace separates tuples
+     * @return parsed ordinates of all tuples, never <code>null</code>
+     * @throws XMLParsingException
+     *             if a token cannot be parsed as a double or the tuples have different dimensions
+     * @throws XMLStreamException
+     */
+    double[] parseCoordinates( XMLStreamReaderWrapper xmlStream, char decimal, char cs, char ts )
+                            throws XMLParsingException, XMLStreamException {
+        if ( decimal == cs || decimal == ts || cs == ts ) {
+            String msg = "Invalid 'coordinates' element: decimal ('" + decimal + "'), coordinate ('" + cs
+                         + "') and tuple ('" + ts + "') separators must be different.";
+            throw new XMLParsingException( xmlStream, msg );
+        }
+        size = 0;
+        tokenLength = 0;
+        coordinatesMode = true;
+        decimalSeparator = decimal;
+        coordinateSeparator = cs;
+        tupleSeparator = ts;
+        whitespaceTupleSeparator = isWhitespace( ts );
+        tupleDimension = -1;
+        currentTupleSize = 0;
+        scanElementText( xmlStream );
+        endTuple( xmlStream );
+        return toArray();
+    }
+
+    /**
+     * Returns the number of ordinates per tuple determined by the last call of
+     * {@link #parseCoordinates(XMLStreamReaderWrapper, char, char, char)}.
+     * 
+     * @return number of ordinates per tuple, <code>-1</code> if no tuple has been encountered
+     */
+    int getTupleDimension() {
+        return tupleDimension;
+    }
+
+    private void scanElementText( XMLStreamReaderWrapper xmlStream )
+                            throws XMLParsingException, XMLStreamException {
+        if ( xmlStream.getEventType() != START_ELEMENT ) {
+            throw new XMLStreamException( "parser must be on START_ELEMENT to read next text", xmlStream.getLocation() );
+        }
+        int eventType = xmlStream.next();
+        while ( eventType != END_ELEMENT ) {
+            switch ( eventType ) {
+            case CHARACTERS:
+            case CDATA:
+            case SPACE:
+                scan( xmlStream, xmlStream.getTextCharacters(), xmlStream.getTextStart(), xmlStream.getTextLength() );
+                break;
+            case ENTITY_REFERENCE:
+                String text = xmlStream.getText();
+                scan( xmlStream, text.toCharArray(), 0, text.length() );
+                break;
+            case PROCESSING_INSTRUCTION:
+            case COMMENT:
+                // skipping
+                break;
+            case START_ELEMENT:
+                throw new XMLStreamException( "element text content may not contain START_ELEMENT",
+                                              xmlStream.getLocation() );
+            default:
+                throw new XMLStreamException( "Unexpected event type " + eventType, xmlStream.getLocation() );
+            }
+            eventType = xmlStream.next();
+        }
+        endToken( xmlStream );
+    }
+
+    private void scan( XMLStreamReaderWrapper xmlStream, char[] chars, int start, int length )
+                            throws XMLParsingException {
+        int end = start + length;
+        for ( int i = start; i < end; i++ ) {
+            char c = chars[i];
+            if ( coordinatesMode ) {
+                if ( c == tupleSeparator || ( whitespaceTupleSeparator && isWhitespace( c ) ) ) {
+                    endToken( xmlStream );
+                    endTuple( xmlStream );
+                    continue;
+                } else if ( c == coordinateSeparator || isWhitespace( c ) ) {
+                    endToken( xmlStream );
+                    continue;
+                } else if ( c == decimalSeparator ) {
+                    c = '.';
+                }
+            } else if ( isWhitespace( c ) ) {
+                endToken( xmlStream );
+                continue;
+            }
+            if ( tokenLength == token.length ) {
+                char[] newToken = new char[token.length * 2];
+                System.arraycopy( token, 0, newToken, 0, tokenLength );
+                token = newToken;
+            }
+            token[tokenLength++] = c;
+        }
+    }
+
+    private void endToken( XMLStreamReaderWrapper xmlStream )
+                            throws XMLParsingException {
+        if ( tokenLength == 0 ) {
+            return;
+        }
+        if ( size == ordinates.length ) {
+            double[] newOrdinates = new double[ordinates.length * 2];
+            System.arraycopy( ordinates, 0, newOrdinates, 0, size );
+            ordinates = newOrdinates;
+        }
+        ordinates[size++] = parseToken( xmlStream );
+        tokenLength = 0;
+        currentTupleSize++;
+    }
+
+    private void endTuple( XMLStreamReaderWrapper xmlStream )
+                            throws XMLParsingException {
+        if ( currentTupleSize == 0 ) {
+            return;
+        }
+        if ( tupleDimension == -1 ) {
+            tupleDimension = currentTupleSize;
+        } else if ( tupleDimension != currentTupleSize ) {
+            String msg = "Invalid 'coordinates' element: tuples have different dimensions (" + tupleDimension
+                         + " and " + currentTupleSize + ").";
+            throw new XMLParsingException( xmlStream, msg );
+        }
+        currentTupleSize = 0;
+    }
+
+    private double parseToken( XMLStreamReaderWrapper xmlStream )
+                            throws XMLParsingException {
+        double value = parseTokenFast();
+        if ( !Double.isNaN( value ) ) {
+            return value;
+        }
+        String s = new String( token, 0, tokenLength );
+        try {
+            return Double.parseDouble( s );
+        } catch ( NumberFormatException e ) {
+            String msg = "Value '" + s + "' cannot be parsed as a double.";
+            throw new XMLParsingException( xmlStream, msg );
+        }
+    }
+
+    /**
+     * Converts the current token if it is a plain decimal number whose mantissa and power of ten are both exactly
+     * representable, so a single (correctly rounded) multiplication or division yields the same result as
+     * <code>Double.parseDouble</code>.
+     * 
+     * @return converted value, or <code>NaN</code> if the token has to be handled by <code>Double.parseDouble</code>
+     */
+    private double parseTokenFast() {
+        int i = 0;
+        boolean negative = false;
+        char c = token[0];
+        if ( c == '-' || c == '+' ) {
+            negative = c == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean seenPoint = false;
+        for ( ; i < tokenLength; i++ ) {
+            c = token[i];
+            if ( c >= '0' && c <= '9' ) {
+                if ( mantissa >= MAX_EXACT_MANTISSA / 10 ) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + ( c - '0' );
+                digits++;
+                if ( seenPoint ) {
+                    exponent--;
+                }
+            } else if ( c == '.' && !seenPoint ) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if ( digits == 0 ) {
+            return Double.NaN;
+        }
+        if ( i < tokenLength ) {
+            if ( ( c != 'e' && c != 'E' ) || ++i == tokenLength ) {
+                return Double.NaN;
+            }
+            boolean negativeExponent = false;
+            c = token[i];
+            if ( c == '-' || c == '+' ) {
+                negativeExponent = c == '-';
+                if ( ++i == tokenLength ) {
+                    return Double.NaN;
+                }
+            }
+            int explicitExponent = 0;
+            for ( ; i < tokenLength; i++ ) {
+                c = token[i];
+                if ( c < '0' || c > '9' || explicitExponent > 1000 ) {
+                    return Double.NaN;
+                }
+                explicitExponent = explicitExponent * 10 + ( c - '0' );
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        double value = mantissa;
+        if ( exponent < 0 ) {
+            if ( exponent < -22 ) {
+                return Double.NaN;
+            }
+            value /= POWERS_OF_TEN[-exponent];
+        } else if ( exponent > 0 ) {
+            if ( exponent > 22 ) {
+                return Double.NaN;
+            }
+            value *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private double[] toArray() {
+        double[] result = new double[size];
+        System.arraycopy( ordinates, 0, result, 0, size );
+        return result;
+    }
+
+    private static boolean isWhitespace( char c ) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+}
@@ -0,0 +1,150 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.gml.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.geometry.points.Points;
+import org.deegree.geometry.primitive.Point;
+import org.deegree.geometry.standard.points.PackedPoints;
+
+/**
+ * Collects the points of a sequence of <code>gml:pos</code> (and point property) elements.
+ * <p>
+ * As long as only anonymous positions of the same dimension are added, the ordinates are packed into a single array
+ * and the result is a {@link PackedPoints} instance. As soon as a {@link Point} object (e.g. from a
+ * <code>gml:pointProperty</code>) or a position with a different dimension is added, the builder switches to a list of
+ * {@link Point} objects.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class PointsBuilder {
+
+    private final GeometryFactory geomFac;
+
+    private final ICRS crs;
+
+    private double[] ordinates = new double[64];
+
+    private int numOrdinates;
+
+    private int dimension = -1;
+
+    // only used once a point cannot be packed
+    private List<Point> points;
+
+    PointsBuilder( GeometryFactory geomFac, ICRS crs ) {
+        this.geomFac = geomFac;
+        this.crs = crs;
+    }
+
+    /**
+     * Adds an anonymous position.
+     * 
+     * @param coords
+     *            ordinates of the position, must not be <code>null</code>
+     */
+    void add( double[] coords ) {
+        if ( points == null && ( dimension == -1 || dimension == coords.length ) && coords.length > 0 ) {
+            dimension = coords.length;
+            if ( numOrdinates + coords.length > ordinates.length ) {
+                double[] newOrdinates = new double[Math.max( ordinates.length * 2, numOrdinates + coords.length )];
+                System.arraycopy( ordinates, 0, newOrdinates, 0, numOrdinates );
+                ordinates = newOrdinates;
+            }
+            System.arraycopy( coords, 0, ordinates, numOrdinates, coords.length );
+            numOrdinates += coords.length;
+        } else {
+            switchToList();
+            points.add( geomFac.createPoint( null, coords, crs ) );
+        }
+    }
+
+    /**
+     * Adds a point.
+     * 
+     * @param point
+     *            point to add, must not be <code>null</code>
+     */
+    void add( Point point ) {
+        switchToList();
+        points.add( point );
+    }
+
+    /**
+     * Returns the number of points added so far.
+     * 
+     * @return number of points
+     */
+    int size() {
+        if ( points != null ) {
+            return points.size();
+        }
+        return dimension == -1 ? 0 : numOrdinates / dimension;
+    }
+
+    /**
+     * Returns the collected points.
+     * 
+     * @return collected points, never <code>null</code>
+     */
+    Points build() {
+        if ( points != null ) {
+            return geomFac.createPoints( points );
+        }
+        double[] packed = new double[numOrdinates];
+        System.arraycopy( ordinates, 0, packed, 0, numOrdinates );
+        return new PackedPoints( crs, packed, dimension == -1 ? 2 : dimension );
+    }
+
+    private void switchToList() {
+        if ( points != null ) {
+            return;
+        }
+        points = new ArrayList<Point>();
+        for ( int i = 0; i < numOrdinates; i += dimension ) {
+            double[] coords = new double[dimension];
+            System.arraycopy( ordinates, i, coords, 0, dimension );
+            points.add( geomFac.createPoint( null, coords, crs ) );
+        }
+    }
+}
@@ -380,6 +380,32 @@ public class GMLObjectXPathTest {
         assertEquals( "POLYGON_1", ( (PrimitiveValue) result[0] ).getAsText() );
     }
 
+    @Test
+    public void testXPath25()
+                            throws FilterEvaluationException {
+        // plain child steps are evaluated without Jaxen, must match the Jaxen result
+        String xpath = "gml:featureMember/app:Philosopher/app:placeOfBirth/app:Place/app:name";
+        String jaxenXPath = "gml:featureMember/app:Philosopher[true()]/app:placeOfBirth/app:Place/app:name";
+        TypedObjectNodeXPathEvaluator evaluator = new TypedObjectNodeXPathEvaluator();
+        TypedObjectNode[] result = evaluator.eval( fc, new ValueReference( xpath, nsContext ) );
+        TypedObjectNode[] expected = evaluator.eval( fc, new ValueReference( jaxenXPath, nsContext ) );
+        assertTrue( result.length > 0 );
+        Assert.assertArrayEquals( expected, result );
+    }
+
+    @Test
+    public void testXPath26()
+                            throws FilterEvaluationException {
+        // same expression text, but different namespace bindings
+        String xpath = "gml:featureMember/app:Philosopher";
+        TypedObjectNodeXPathEvaluator evaluator = new TypedObjectNodeXPathEvaluator();
+        assertEquals( 7, evaluator.eval( fc, new ValueReference( xpath, nsContext ) ).length );
+        SimpleNamespaceContext otherContext = new SimpleNamespaceContext();
+        otherContext.addNamespace( "gml", "http://www.opengis.net/gml" );
+        otherContext.addNamespace( "app", "http://www.deegree.org/other" );
+        assertEquals( 0, evaluator.eval( fc, new ValueReference( xpath, otherContext ) ).length );
+    }
+
     // @Test
     // public void testXPath23()
     // throws FilterEvaluationException {
@@ -0,0 +1,166 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.filter.spatial;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.deegree.commons.tom.TypedObjectNode;
+import org.deegree.commons.uom.Measure;
+import org.deegree.filter.Expression;
+import org.deegree.filter.FilterEvaluationException;
+import org.deegree.filter.XPathEvaluator;
+import org.deegree.geometry.Geometry;
+import org.deegree.geometry.GeometryFactory;
+import org.junit.Test;
+
+/**
+ * Tests the evaluation of {@link SpatialOperator}s against in-memory geometries, including the envelope pre-checks and
+ * the reuse of the prepared literal geometry for multiple candidates.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class SpatialOperatorEvaluationTest {
+
+    private static final GeometryFactory FAC = new GeometryFactory();
+
+    @Test
+    public void testIntersects()
+                            throws FilterEvaluationException {
+        Intersects op = new Intersects( new Value(), FAC.createEnvelope( 0, 0, 10, 10, null ) );
+        assertTrue( evaluate( op, FAC.createPoint( null, 5, 5, null ) ) );
+        assertFalse( evaluate( op, FAC.createPoint( null, 20, 20, null ) ) );
+        assertTrue( evaluate( op, FAC.createEnvelope( 9, 9, 20, 20, null ) ) );
+        assertFalse( evaluate( op, FAC.createEnvelope( 11, 0, 20, 20, null ) ) );
+    }
+
+    @Test
+    public void testWithin()
+                            throws FilterEvaluationException {
+        Within op = new Within( new Value(), FAC.createEnvelope( 0, 0, 10, 10, null ) );
+        assertTrue( evaluate( op, FAC.createEnvelope( 1, 1, 2, 2, null ) ) );
+        assertFalse( evaluate( op, FAC.createEnvelope( 5, 5, 15, 15, null ) ) );
+        assertFalse( evaluate( op, FAC.createPoint( null, 20, 20, null ) ) );
+    }
+
+    @Test
+    public void testContains()
+                            throws FilterEvaluationException {
+        Contains op = new Contains( new Value(), FAC.createPoint( null, 1, 1, null ) );
+        assertTrue( evaluate( op, FAC.createEnvelope( 0, 0, 10, 10, null ) ) );
+        assertFalse( evaluate( op, FAC.createEnvelope( 2, 2, 10, 10, null ) ) );
+        op = new Contains( new Value(), FAC.createEnvelope( 0, 0, 20, 20, null ) );
+        assertFalse( evaluate( op, FAC.createEnvelope( 0, 0, 10, 10, null ) ) );
+    }
+
+    @Test
+    public void testDWithin()
+                            throws FilterEvaluationException {
+        Geometry literal = FAC.createPoint( null, 0, 0, null );
+        assertTrue( evaluate( new DWithin( new Value(), literal, new Measure( "5.1", null ) ),
+                              FAC.createPoint( null, 3, 4, null ) ) );
+        assertFalse( evaluate( new DWithin( new Value(), literal, new Measure( "4.9", null ) ),
+                               FAC.createPoint( null, 3, 4, null ) ) );
+    }
+
+    @Test
+    public void testSharedOperatorConcurrentEvaluation()
+                            throws Throwable {
+        final Intersects op = new Intersects( new Value(), FAC.createEnvelope( 0, 0, 10, 10, null ) );
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[8];
+        for ( int i = 0; i < threads.length; i++ ) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for ( int j = 0; j < 2000; j++ ) {
+                            assertTrue( evaluate( op, FAC.createPoint( null, j % 10, 5, null ) ) );
+                            assertFalse( evaluate( op, FAC.createPoint( null, 11 + j % 10, 5, null ) ) );
+                        }
+                    } catch ( Throwable t ) {
+                        synchronized ( failure ) {
+                            failure[0] = t;
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        synchronized ( failure ) {
+            if ( failure[0] != null ) {
+                throw failure[0];
+            }
+        }
+    }
+
+    private boolean evaluate( SpatialOperator op, Geometry geom )
+                            throws FilterEvaluationException {
+        return op.evaluate( geom, null );
+    }
+
+    /**
+     * Expression that evaluates to the object itself.
+     */
+    private static class Value implements Expression {
+
+        @Override
+        public Type getType() {
+            return Type.VALUE_REFERENCE;
+        }
+
+        @Override
+        public <T> TypedObjectNode[] evaluate( T obj, XPathEvaluator<T> xpathEvaluator ) {
+            return new TypedObjectNode[] { (TypedObjectNode) obj };
+        }
+
+        @Override
+        public Expression[] getParams() {
+            return new Expression[0];
+        }
+
+        @Override
+        public String toString( String indent ) {
+            return indent + "-Value";
+        }
+    }
+
+}
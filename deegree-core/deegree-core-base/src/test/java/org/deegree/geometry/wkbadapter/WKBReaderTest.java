@@ -35,10 +35,15 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.geometry.wkbadapter;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
@@ -49,11 +54,25 @@ import org.deegree.cs.coordinatesystems.ICRS;
 import org.deegree.cs.persistence.CRSManager;
 import org.deegree.geometry.Geometry.GeometryType;
 import org.deegree.geometry.io.WKBReader;
+import org.deegree.geometry.multi.MultiPolygon;
+import org.deegree.geometry.primitive.Point;
 import org.deegree.geometry.primitive.Polygon;
+import org.deegree.geometry.standard.AbstractDefaultGeometry;
+import org.deegree.geometry.standard.points.PackedPoints;
+import org.deegree.geometry.standard.primitive.DefaultPoint;
 import org.deegree.gml.GMLOutputFactory;
 import org.deegree.gml.GMLStreamWriter;
 import org.deegree.gml.GMLVersion;
+import org.junit.Ignore;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKBWriter;
 
 /**
  * TODO add class documentation here
@@ -65,6 +84,8 @@ import org.junit.Test;
  */
 public class WKBReaderTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger( WKBReaderTest.class );
+
     private final String BASE_DIR = "../wkb/";
 
     @Test
@@ -91,4 +112,137 @@ public class WKBReaderTest {
         String s = "<gml:posList>5.148530 59.951879 5.134692 59.736522 5.561175 59.728897 5.577771 59.944188 5.148530 59.951879</gml:posList>";
         assertTrue( sw.toString().contains( s ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEWKBWithSridAndZ()
+                            throws Exception {
+        // SRID=4326;POINT Z (1 2 3), little endian
+        byte[] ewkb = toBytes( "01010000A0E6100000000000000000F03F00000000000000400000000000000840" );
+        Point point = (Point) WKBReader.read( ewkb, null );
+        assertEquals( "EPSG:4326", point.getCoordinateSystem().getAlias() );
+        assertArrayEquals( new double[] { 1.0, 2.0, 3.0 }, point.getAsArray(), 0.0 );
+    }
+
+    @Test
+    public void testISOWKBWithM()
+                            throws Exception {
+        // POINT ZM (1 2 3 4), little endian, M value is dropped
+        byte[] wkb = toBytes( "01B90B0000000000000000F03F000000000000004000000000000008400000000000001040" );
+        Point point = (Point) WKBReader.read( wkb, null );
+        assertArrayEquals( new double[] { 1.0, 2.0, 3.0 }, point.getAsArray(), 0.0 );
+    }
+
+    @Test
+    public void testPolygonDatasetMatchesJTS()
+                            throws Exception {
+        List<byte[]> dataset = createPolygonDataset( 200, 500 );
+        AbstractDefaultGeometry jtsConverter = new DefaultPoint( null, null, null, new double[] { 0.0, 0.0 } );
+        for ( byte[] wkb : dataset ) {
+            com.vividsolutions.jts.geom.Geometry jtsGeom = new com.vividsolutions.jts.io.WKBReader().read( wkb );
+            MultiPolygon expected = (MultiPolygon) jtsConverter.createFromJTS( jtsGeom, null );
+            MultiPolygon actual = (MultiPolygon) WKBReader.read( wkb, null );
+            assertEquals( expected.size(), actual.size() );
+            for ( int i = 0; i < expected.size(); i++ ) {
+                Polygon expectedPolygon = expected.get( i );
+                Polygon actualPolygon = actual.get( i );
+                assertTrue( actualPolygon.getExteriorRing().getControlPoints() instanceof PackedPoints );
+                assertArrayEquals( expectedPolygon.getExteriorRing().getControlPoints().getAsArray(),
+                                   actualPolygon.getExteriorRing().getControlPoints().getAsArray(), 0.0 );
+                assertEquals( expectedPolygon.getInteriorRings().size(), actualPolygon.getInteriorRings().size() );
+            }
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void testPolygonWithCorruptRingCount()
+                            throws Exception {
+        // POLYGON announcing Integer.MAX_VALUE rings, little endian
+        WKBReader.read( toBytes( "0103000000FFFFFF7F" ), null );
+    }
+
+    @Test(expected = ParseException.class)
+    public void testMultiPolygonWithCorruptMemberCount()
+                            throws Exception {
+        // MULTIPOLYGON announcing Integer.MAX_VALUE members, little endian
+        WKBReader.read( toBytes( "0106000000FFFFFF7F" ), null );
+    }
+
+    @Test(expected = ParseException.class)
+    public void testGeometryCollectionWithCorruptMemberCount()
+                            throws Exception {
+        // GEOMETRYCOLLECTION announcing 3 members but carrying only one point, big endian
+        WKBReader.read( toBytes( "00000000070000000300000000013FF00000000000004000000000000000" ), null );
+    }
+
+    @Ignore("benchmark, prints timings only")
+    @Test
+    public void benchmarkPolygonDataset()
+                            throws Exception {
+        List<byte[]> dataset = createPolygonDataset( 1000, 1000 );
+        AbstractDefaultGeometry jtsConverter = new DefaultPoint( null, null, null, new double[] { 0.0, 0.0 } );
+        long jtsTime = 0;
+        long nativeTime = 0;
+        for ( int round = 0; round < 5; round++ ) {
+            long start = System.nanoTime();
+            for ( byte[] wkb : dataset ) {
+                jtsConverter.createFromJTS( new com.vividsolutions.jts.io.WKBReader().read( wkb ), null );
+            }
+            long middle = System.nanoTime();
+            for ( byte[] wkb : dataset ) {
+                WKBReader.read( wkb, null );
+            }
+            jtsTime = middle - start;
+            nativeTime = System.nanoTime() - middle;
+        }
+        LOG.info( "Decoding " + dataset.size() + " multipolygons: JTS + createFromJTS " + jtsTime / 1000000
+                  + " ms, native " + nativeTime / 1000000 + " ms" );
+    }
+
+    /**
+     * Creates (E)WKB encoded multipolygons that resemble parcel/administrative boundaries: irregular outlines with up
+     * to <code>maxVertices</code> vertices and occasional holes.
+     */
+    private static List<byte[]> createPolygonDataset( int count, int maxVertices ) {
+        Random random = new Random( 4711 );
+        GeometryFactory fac = new GeometryFactory();
+        WKBWriter writer = new WKBWriter( 2, random.nextBoolean() ? 1 : 2 );
+        List<byte[]> dataset = new ArrayList<byte[]>( count );
+        for ( int i = 0; i < count; i++ ) {
+            double cx = 350000 + random.nextDouble() * 100000;
+            double cy = 5600000 + random.nextDouble() * 100000;
+            int numPolygons = 1 + random.nextInt( 3 );
+            com.vividsolutions.jts.geom.Polygon[] polygons = new com.vividsolutions.jts.geom.Polygon[numPolygons];
+            for ( int j = 0; j < numPolygons; j++ ) {
+                double x = cx + j * 5000;
+                LinearRing shell = createRing( fac, random, x, cy, 2000, 4 + random.nextInt( maxVertices ) );
+                LinearRing[] holes = new LinearRing[random.nextInt( 3 )];
+                for ( int k = 0; k < holes.length; k++ ) {
+                    holes[k] = createRing( fac, random, x, cy, 200 + k * 300, 4 + random.nextInt( 50 ) );
+                }
+                polygons[j] = fac.createPolygon( shell, holes );
+            }
+            dataset.add( writer.write( fac.createMultiPolygon( polygons ) ) );
+        }
+        return dataset;
+    }
+
+    private static LinearRing createRing( GeometryFactory fac, Random random, double cx, double cy, double radius,
+                                          int numVertices ) {
+        Coordinate[] coords = new Coordinate[numVertices + 1];
+        for ( int i = 0; i < numVertices; i++ ) {
+            double angle = 2 * Math.PI * i / numVertices;
+            double r = radius * ( 0.8 + 0.2 * random.nextDouble() );
+            coords[i] = new Coordinate( cx + r * Math.cos( angle ), cy + r * Math.sin( angle ) );
+        }
+        coords[numVertices] = coords[0];
+        return fac.createLinearRing( coords );
+    }
+
+    private static byte[] toBytes( String hex ) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for ( int i = 0; i < bytes.length; i++ ) {
+            bytes[i] = (byte) Integer.parseInt( hex.substring( 2 * i, 2 * i + 2 ), 16 );
+        }
+        return bytes;
+    }
+}
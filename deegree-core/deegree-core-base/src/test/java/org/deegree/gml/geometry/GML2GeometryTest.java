@@ -37,6 +37,7 @@ package org.deegree.gml.geometry;
 import static org.deegree.gml.GMLVersion.GML_2;
 
 import java.io.IOException;
+import java.net.URL;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -47,6 +48,7 @@ import javax.xml.stream.XMLStreamException;
 
 import junit.framework.TestCase;
 
+import org.deegree.commons.xml.XMLParsingException;
 import org.deegree.commons.xml.stax.SchemaLocationXMLStreamWriter;
 import org.deegree.commons.xml.stax.XMLStreamReaderWrapper;
 import org.deegree.cs.exceptions.TransformationException;
@@ -61,6 +63,7 @@ import org.deegree.geometry.points.Points;
 import org.deegree.geometry.primitive.LineString;
 import org.deegree.geometry.primitive.Point;
 import org.deegree.geometry.primitive.Polygon;
+import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.gml.GMLInputFactory;
 import org.deegree.gml.GMLOutputFactory;
 import org.deegree.gml.GMLStreamReader;
@@ -94,6 +97,10 @@ public class GML2GeometryTest extends TestCase {
 
     private static final String LINESTRING_FILE = "LineString.gml";
 
+    private static final String LINESTRING_COORDINATES_3D_FILE = "LineString_coordinates_3d.gml";
+
+    private static final String LINESTRING_COORDINATES_MIXED_FILE = "LineString_coordinates_mixed.gml";
+
     private static final String MULTIGEOMETRY_FILE = "MultiGeometry.gml";
 
     private static final String MULTILINESTRING_FILE = "MultiLineString.gml";
@@ -341,6 +348,49 @@ public class GML2GeometryTest extends TestCase {
         XMLAssert.assertValidity( memoryWriter.getReader(), SCHEMA_LOCATION );
     }
 
+    /**
+     * @throws XMLStreamException
+     * @throws FactoryConfigurationError
+     * @throws IOException
+     */
+    @Test
+    public void testLineStringCoordinates3D()
+                            throws XMLStreamException, FactoryConfigurationError, IOException {
+        URL url = this.getClass().getResource( BASE_DIR + LINESTRING_COORDINATES_3D_FILE );
+        XMLStreamReaderWrapper xmlReader = new XMLStreamReaderWrapper( url );
+        xmlReader.nextTag();
+
+        LineString lineString = getGML2GeometryReader( xmlReader ).parseLineString( xmlReader, null );
+        Assert.assertEquals( XMLStreamConstants.END_ELEMENT, xmlReader.getEventType() );
+        Assert.assertEquals( new QName( GML21NS, "LineString" ), xmlReader.getName() );
+
+        Points controlPoints = lineString.getControlPoints();
+        Assert.assertTrue( controlPoints instanceof PackedPoints );
+        Assert.assertEquals( 3, controlPoints.getDimension() );
+        Assert.assertArrayEquals( new double[] { 0.5, 1.25, 10.0, 20.0, 35.75, -2.5, 100.0, 100.0, 0.0 },
+                                  controlPoints.getAsArray(), DELTA );
+    }
+
+    /**
+     * @throws XMLStreamException
+     * @throws FactoryConfigurationError
+     * @throws IOException
+     */
+    @Test
+    public void testLineStringCoordinatesMixedDimensions()
+                            throws XMLStreamException, FactoryConfigurationError, IOException {
+        URL url = this.getClass().getResource( BASE_DIR + LINESTRING_COORDINATES_MIXED_FILE );
+        XMLStreamReaderWrapper xmlReader = new XMLStreamReaderWrapper( url );
+        xmlReader.nextTag();
+
+        try {
+            getGML2GeometryReader( xmlReader ).parseLineString( xmlReader, null );
+            fail( "Tuples with different dimensions must be rejected." );
+        } catch ( XMLParsingException e ) {
+            // expected
+        }
+    }
+
     /**
      * @throws XMLStreamException
      * @throws FactoryConfigurationError
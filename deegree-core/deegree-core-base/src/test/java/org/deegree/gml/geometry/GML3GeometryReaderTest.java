@@ -87,6 +87,7 @@ import org.deegree.geometry.multi.MultiPoint;
 import org.deegree.geometry.multi.MultiPolygon;
 import org.deegree.geometry.multi.MultiSolid;
 import org.deegree.geometry.multi.MultiSurface;
+import org.deegree.geometry.points.Points;
 import org.deegree.geometry.primitive.Curve;
 import org.deegree.geometry.primitive.Curve.CurveType;
 import org.deegree.geometry.primitive.LineString;
@@ -105,6 +106,7 @@ import org.deegree.geometry.primitive.TriangulatedSurface;
 import org.deegree.geometry.primitive.patches.PolygonPatch;
 import org.deegree.geometry.primitive.segments.Arc;
 import org.deegree.geometry.primitive.segments.LineStringSegment;
+import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.gml.GMLInputFactory;
 import org.deegree.gml.GMLStreamReader;
 import org.deegree.gml.GMLVersion;
@@ -237,6 +239,103 @@ public class GML3GeometryReaderTest {
         Assert.assertEquals( 52.52, curve.getAsLineString().getControlPoints().get( 2 ).get1(), DELTA );
     }
 
+    @Test
+    public void parseLineStringCoordinatesCustomSeparators()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_coordinates_separators.gml" );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        assertTrue( points instanceof PackedPoints );
+        Assert.assertEquals( 3, points.size() );
+        Assert.assertEquals( 7.12, points.get( 0 ).get0(), DELTA );
+        Assert.assertEquals( 50.72, points.get( 0 ).get1(), DELTA );
+        Assert.assertEquals( 9.98, points.get( 1 ).get0(), DELTA );
+        Assert.assertEquals( 53.55, points.get( 1 ).get1(), DELTA );
+        Assert.assertEquals( 13.42, points.get( 2 ).get0(), DELTA );
+        Assert.assertEquals( 52.52, points.get( 2 ).get1(), DELTA );
+    }
+
+    @Test
+    public void parseLineStringPosListPacked()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_posList.gml" );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        assertTrue( points instanceof PackedPoints );
+        Assert.assertArrayEquals( new double[] { 7.12, 50.72, 9.98, 53.55, 13.42, 52.52 }, points.getAsArray(), DELTA );
+    }
+
+    @Test
+    public void parseLineStringPos3DPacked()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_pos_3d.gml" );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        assertTrue( points instanceof PackedPoints );
+        Assert.assertEquals( 3, points.getDimension() );
+        Assert.assertEquals( 3, points.size() );
+        Assert.assertArrayEquals( new double[] { 7.12, 50.72, 100.5, 9.98, 53.55, -2.25, 13.42, 52.52, 34.0 },
+                                  points.getAsArray(), DELTA );
+    }
+
+    @Test
+    public void parseLineStringPosMixedDimensions()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_pos_mixed.gml" );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        Assert.assertFalse( points instanceof PackedPoints );
+        Assert.assertEquals( 3, points.size() );
+        Assert.assertEquals( 2, points.get( 0 ).getCoordinateDimension() );
+        Assert.assertEquals( 7.12, points.get( 0 ).get0(), DELTA );
+        Assert.assertEquals( 50.72, points.get( 0 ).get1(), DELTA );
+        Assert.assertEquals( 3, points.get( 1 ).getCoordinateDimension() );
+        Assert.assertEquals( -2.25, points.get( 1 ).get2(), DELTA );
+        Assert.assertEquals( 2, points.get( 2 ).getCoordinateDimension() );
+        Assert.assertEquals( 52.52, points.get( 2 ).get1(), DELTA );
+    }
+
+    @Test
+    public void parseLineStringPosListDefaultDimension()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_posList_default_dim.gml" );
+        gmlReader.setDefaultCoordinateDimension( 3 );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        assertTrue( points instanceof PackedPoints );
+        Assert.assertEquals( 3, points.getDimension() );
+        Assert.assertEquals( 2, points.size() );
+        Assert.assertEquals( 100.5, points.get( 0 ).get2(), DELTA );
+        Assert.assertEquals( 9.98, points.get( 1 ).get0(), DELTA );
+    }
+
+    @Test(expected = XMLParsingException.class)
+    public void parseLineStringPosListDefaultDimensionMismatch()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_posList_default_dim.gml" );
+        gmlReader.setDefaultCoordinateDimension( 4 );
+        gmlReader.readGeometry();
+    }
+
+    @Test
+    public void parseLineStringCoordinates3D()
+                            throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
+                            UnknownCRSException {
+        GMLStreamReader gmlReader = getParser( "LineString_coordinates_3d.gml" );
+        Curve curve = (Curve) gmlReader.readGeometry();
+        Points points = curve.getAsLineString().getControlPoints();
+        assertTrue( points instanceof PackedPoints );
+        Assert.assertEquals( 3, points.getDimension() );
+        Assert.assertArrayEquals( new double[] { 7.12, 50.72, 100.5, 9.98, 53.55, -2.25, 13.42, 52.52, 34.0 },
+                                  points.getAsArray(), DELTA );
+    }
+
     @Test
     public void parseLineStringPointProperty()
                             throws XMLStreamException, FactoryConfigurationError, IOException, XMLParsingException,
@@ -0,0 +1,206 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.gml.geometry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.Random;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.deegree.commons.xml.XMLParsingException;
+import org.deegree.commons.xml.stax.XMLStreamReaderWrapper;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OrdinateParser}, in particular that its fast path yields exactly the same values as
+ * <code>Double.parseDouble</code>.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class OrdinateParserTest {
+
+    private final OrdinateParser parser = new OrdinateParser();
+
+    @Test
+    public void testRandomTokensMatchParseDouble()
+                            throws XMLStreamException {
+        Random random = new Random( 7 );
+        for ( int n = 0; n < 1000; n++ ) {
+            String[] tokens = new String[50];
+            StringBuilder sb = new StringBuilder( "<pos>" );
+            for ( int i = 0; i < tokens.length; i++ ) {
+                tokens[i] = randomToken( random );
+                sb.append( ' ' ).append( tokens[i] );
+            }
+            sb.append( "</pos>" );
+            assertParsedLikeParseDouble( tokens, parser.parseList( reader( sb.toString() ) ) );
+        }
+    }
+
+    @Test
+    public void testFastPathLimitsMatchParseDouble()
+                            throws XMLStreamException {
+        // mantissas around 2^53, powers of ten around 10^22, denormals and extremes
+        String[] tokens = { "9007199254740991", "9007199254740992", "9007199254740993", "900719925474099.3",
+                           "90071992547409910", "1e22", "1e23", "1e-22", "1e-23", "123456789012345e22",
+                           "123456789012345e-22", "-0", "-0.0", "+0", "0e999", "4.9e-324", "1.7976931348623157e308",
+                           "2.2250738585072014E-308", ".5", "5.", "00000000000000000000001.5", "1E+2", "-1.e-2" };
+        StringBuilder sb = new StringBuilder( "<pos>" );
+        for ( String token : tokens ) {
+            sb.append( token ).append( '\n' );
+        }
+        sb.append( "</pos>" );
+        assertParsedLikeParseDouble( tokens, parser.parseList( reader( sb.toString() ) ) );
+    }
+
+    @Test
+    public void testTokensSplitAcrossTextEvents()
+                            throws XMLStreamException {
+        double[] values = parser.parseList( reader( "<pos>1.2<![CDATA[34]]> 5<!-- comment -->6 7</pos>" ) );
+        assertArrayEquals( new double[] { 1.234, 56, 7 }, values, 0 );
+    }
+
+    @Test
+    public void testEmptyList()
+                            throws XMLStreamException {
+        assertEquals( 0, parser.parseList( reader( "<pos> </pos>" ) ).length );
+    }
+
+    @Test(expected = XMLParsingException.class)
+    public void testInvalidToken()
+                            throws XMLStreamException {
+        parser.parseList( reader( "<pos>1.0 1.0e 2.0</pos>" ) );
+    }
+
+    @Test
+    public void testCoordinatesDefaultSeparators()
+                            throws XMLStreamException {
+        double[] values = parser.parseCoordinates( reader( "<c> 1.5,2,3\n4,5.25,6 </c>" ), '.', ',', ' ' );
+        assertArrayEquals( new double[] { 1.5, 2, 3, 4, 5.25, 6 }, values, 0 );
+        assertEquals( 3, parser.getTupleDimension() );
+    }
+
+    @Test
+    public void testCoordinatesCustomSeparators()
+                            throws XMLStreamException {
+        double[] values = parser.parseCoordinates( reader( "<c>1,5;2 3;4,25</c>" ), ',', ';', ' ' );
+        assertArrayEquals( new double[] { 1.5, 2, 3, 4.25 }, values, 0 );
+        assertEquals( 2, parser.getTupleDimension() );
+
+        values = parser.parseCoordinates( reader( "<c>1 2|3 4|5 6</c>" ), '.', ' ', '|' );
+        assertArrayEquals( new double[] { 1, 2, 3, 4, 5, 6 }, values, 0 );
+        assertEquals( 2, parser.getTupleDimension() );
+    }
+
+    @Test
+    public void testCoordinatesWithoutTuples()
+                            throws XMLStreamException {
+        assertEquals( 0, parser.parseCoordinates( reader( "<c/>" ), '.', ',', ' ' ).length );
+        assertEquals( -1, parser.getTupleDimension() );
+    }
+
+    @Test(expected = XMLParsingException.class)
+    public void testCoordinatesMixedDimensions()
+                            throws XMLStreamException {
+        parser.parseCoordinates( reader( "<c>1,2 3,4,5</c>" ), '.', ',', ' ' );
+    }
+
+    @Test(expected = XMLParsingException.class)
+    public void testCoordinatesAmbiguousSeparators()
+                            throws XMLStreamException {
+        parser.parseCoordinates( reader( "<c>1,2</c>" ), ',', ',', ' ' );
+    }
+
+    private static void assertParsedLikeParseDouble( String[] tokens, double[] values ) {
+        assertEquals( tokens.length, values.length );
+        for ( int i = 0; i < tokens.length; i++ ) {
+            // compare the bits, so -0.0 and 0.0 are distinguished
+            assertEquals( tokens[i], Double.doubleToLongBits( Double.parseDouble( tokens[i] ) ),
+                          Double.doubleToLongBits( values[i] ) );
+        }
+    }
+
+    private static String randomToken( Random random ) {
+        StringBuilder sb = new StringBuilder();
+        appendSign( random, sb );
+        int intDigits = random.nextInt( 20 );
+        int fractionDigits = random.nextInt( 20 );
+        if ( intDigits + fractionDigits == 0 ) {
+            intDigits = 1;
+        }
+        appendDigits( random, sb, intDigits );
+        if ( fractionDigits > 0 || random.nextBoolean() ) {
+            sb.append( '.' );
+            appendDigits( random, sb, fractionDigits );
+        }
+        if ( random.nextInt( 3 ) == 0 ) {
+            sb.append( random.nextBoolean() ? 'e' : 'E' );
+            appendSign( random, sb );
+            // mostly moderate exponents (fast path), sometimes large ones (fallback)
+            sb.append( random.nextInt( random.nextBoolean() ? 30 : 330 ) );
+        }
+        return sb.toString();
+    }
+
+    private static void appendSign( Random random, StringBuilder sb ) {
+        int sign = random.nextInt( 3 );
+        if ( sign == 1 ) {
+            sb.append( '-' );
+        } else if ( sign == 2 ) {
+            sb.append( '+' );
+        }
+    }
+
+    private static void appendDigits( Random random, StringBuilder sb, int digits ) {
+        for ( int i = 0; i < digits; i++ ) {
+            sb.append( (char) ( '0' + random.nextInt( 10 ) ) );
+        }
+    }
+
+    private static XMLStreamReaderWrapper reader( String xml )
+                            throws XMLStreamException {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader( new StringReader( xml ) );
+        XMLStreamReaderWrapper xmlStream = new XMLStreamReaderWrapper( reader, null );
+        xmlStream.nextTag();
+        return xmlStream;
+    }
+}
@@ -0,0 +1,116 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.gml.geometry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.geometry.points.Points;
+import org.deegree.geometry.standard.points.PackedPoints;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PointsBuilder}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class PointsBuilderTest {
+
+    private static final double DELTA = 0.00000001;
+
+    private final GeometryFactory geomFac = new GeometryFactory();
+
+    @Test
+    public void testEmpty() {
+        PointsBuilder builder = new PointsBuilder( geomFac, null );
+        assertEquals( 0, builder.size() );
+        Points points = builder.build();
+        assertTrue( points instanceof PackedPoints );
+        assertEquals( 0, points.size() );
+        assertEquals( 2, points.getDimension() );
+    }
+
+    @Test
+    public void testSameDimensionIsPacked() {
+        PointsBuilder builder = new PointsBuilder( geomFac, null );
+        // more positions than the initial capacity
+        for ( int i = 0; i < 50; i++ ) {
+            builder.add( new double[] { i, i + 0.5, -i } );
+        }
+        assertEquals( 50, builder.size() );
+        Points points = builder.build();
+        assertTrue( points instanceof PackedPoints );
+        assertEquals( 3, points.getDimension() );
+        assertEquals( 50, points.size() );
+        assertArrayEquals( new double[] { 49, 49.5, -49 }, points.get( 49 ).getAsArray(), DELTA );
+    }
+
+    @Test
+    public void testMixedDimensionsSwitchToList() {
+        PointsBuilder builder = new PointsBuilder( geomFac, null );
+        builder.add( new double[] { 1, 2 } );
+        builder.add( new double[] { 3, 4 } );
+        builder.add( new double[] { 5, 6, 7 } );
+        builder.add( new double[] { 8, 9 } );
+        assertEquals( 4, builder.size() );
+        Points points = builder.build();
+        assertFalse( points instanceof PackedPoints );
+        assertEquals( 4, points.size() );
+        assertArrayEquals( new double[] { 1, 2 }, points.get( 0 ).getAsArray(), DELTA );
+        assertArrayEquals( new double[] { 3, 4 }, points.get( 1 ).getAsArray(), DELTA );
+        assertArrayEquals( new double[] { 5, 6, 7 }, points.get( 2 ).getAsArray(), DELTA );
+        assertArrayEquals( new double[] { 8, 9 }, points.get( 3 ).getAsArray(), DELTA );
+    }
+
+    @Test
+    public void testPointSwitchesToList() {
+        PointsBuilder builder = new PointsBuilder( geomFac, null );
+        builder.add( new double[] { 1, 2 } );
+        builder.add( geomFac.createPoint( "P1", 3, 4, null ) );
+        builder.add( new double[] { 5, 6 } );
+        assertEquals( 3, builder.size() );
+        Points points = builder.build();
+        assertFalse( points instanceof PackedPoints );
+        assertEquals( 3, points.size() );
+        assertEquals( "P1", points.get( 1 ).getId() );
+        assertArrayEquals( new double[] { 1, 2 }, points.get( 0 ).getAsArray(), DELTA );
+        assertArrayEquals( new double[] { 5, 6 }, points.get( 2 ).getAsArray(), DELTA );
+    }
+}
@@ -0,0 +1,4 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<LineString gml:id="L1" xmlns="http://www.opengis.net/gml" xmlns:gml="http://www.opengis.net/gml" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:schemaLocation="http://www.opengis.net/gml http://schemas.opengis.net/gml/3.1.1/base/geometryBasic0d1d.xsd">
+  <posList>7.12 50.72 100.5 9.98 53.55 -2.25</posList>
+</LineString>
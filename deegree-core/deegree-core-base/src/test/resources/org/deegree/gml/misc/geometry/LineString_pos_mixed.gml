@@ -0,0 +1,6 @@
+<?xml version="1.0" encoding="UTF-8"?>
+<LineString gml:id="L1" xmlns="http://www.opengis.net/gml" xmlns:gml="http://www.opengis.net/gml" srsName="EPSG:4326" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:schemaLocation="http://www.opengis.net/gml http://schemas.opengis.net/gml/3.1.1/base/geometryBasic0d1d.xsd">
+  <pos>7.12 50.72</pos>
+  <pos>9.98 53.55 -2.25</pos>
+  <pos>13.42 52.52</pos>
+</LineString>
@@ -0,0 +1,5 @@
+<LineString xmlns="http://www.opengis.net/gml"
+	srsName="http://www.opengis.net/gml/srs/epsg.xml#4326">
+	<coordinates decimal="," cs=";" ts="|">0,5;1,25;10|20;35,75;-2,5|
+		100;100;0</coordinates>
+</LineString>
@@ -0,0 +1,4 @@
+<LineString xmlns="http://www.opengis.net/gml"
+	srsName="http://www.opengis.net/gml/srs/epsg.xml#4326">
+	<coordinates>0.0,0.0 20.0,35.0,1.0 100.0,100.0</coordinates>
+</LineString>
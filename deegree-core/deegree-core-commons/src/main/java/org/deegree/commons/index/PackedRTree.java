@@ -0,0 +1,501 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.commons.index;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deegree.commons.utils.Pair;
+import org.slf4j.Logger;
+
+/**
+ * Static, packed R-tree that keeps its nodes in flat primitive arrays.
+ * <p>
+ * The tree is bulk loaded by sorting the objects along a Hilbert curve (using the centers of their envelopes) and
+ * packing consecutive runs of <code>nodeSize</code> entries into parent nodes, level by level. Because of this layout
+ * the children of a node can be computed from its position, so apart from the node envelopes (four floats per node)
+ * no structural information has to be stored. Queries do not allocate any objects per visited node.
+ * </p>
+ * <p>
+ * Trees with <code>Long</code> values (e.g. record offsets) can be written to disk. When loaded again, the file is
+ * memory mapped instead of being read onto the heap, so opening even very large indexes is cheap.
+ * </p>
+ * <p>
+ * Single objects can not be inserted after the bulk load. Removal is supported for heap based trees only.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ * @param <T>
+ *            of objects the tree will hold.
+ */
+public class PackedRTree<T> extends SpatialIndex<T> {
+
+    private static final Logger LOG = getLogger( PackedRTree.class );
+
+    /* "DPRT" */
+    private static final int MAGIC = 0x44505254;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+
+    private static final int DEFAULT_NODE_SIZE = 16;
+
+    private static final int HILBERT_MAX = ( 1 << 16 ) - 1;
+
+    private final int nodeSize;
+
+    private int numItems;
+
+    /* start index of each level, the last element is the total number of nodes */
+    private int[] levelBounds = new int[] { 0 };
+
+    /* minx, miny, maxx, maxy of every node, items first, root last */
+    private FloatBuffer boxes = FloatBuffer.allocate( 0 );
+
+    /* values of heap based trees */
+    private Object[] values = new Object[0];
+
+    /* values of memory mapped trees */
+    private LongBuffer longValues;
+
+    private boolean extraFlag;
+
+    /**
+     * Creates a new, empty {@link PackedRTree}, use {@link #insertBulk(List)} to fill it.
+     * 
+     * @param nodeSize
+     *            maximum number of entries per node, if less than 2, a default of 16 is used
+     */
+    public PackedRTree( int nodeSize ) {
+        this.nodeSize = nodeSize < 2 ? DEFAULT_NODE_SIZE : nodeSize;
+    }
+
+    private PackedRTree( int nodeSize, int numItems, FloatBuffer boxes, LongBuffer longValues, boolean extraFlag ) {
+        this.nodeSize = nodeSize;
+        this.numItems = numItems;
+        this.levelBounds = calcLevelBounds( numItems, nodeSize );
+        this.boxes = boxes;
+        this.values = null;
+        this.longValues = longValues;
+        this.extraFlag = extraFlag;
+    }
+
+    /**
+     * Opens a tree that has been written using {@link #writeTreeToDisk(String)}. The file is memory mapped, so the
+     * returned tree is read-only.
+     * 
+     * @param storagePath
+     *            absolute path to the file
+     * @return a new instance, never <code>null</code>
+     * @throws IOException
+     *             if the file could not be read or is not a packed rtree file
+     */
+    public static PackedRTree<Long> loadFromDisk( String storagePath )
+                            throws IOException {
+        RandomAccessFile raf = new RandomAccessFile( new File( storagePath ), "r" );
+        MappedByteBuffer buffer;
+        int nodeSize, numItems, numNodes;
+        boolean extraFlag;
+        try {
+            // validate the header before mapping, so stale or foreign files are rejected without touching them further
+            long fileSize = raf.length();
+            if ( fileSize < HEADER_SIZE || raf.readInt() != MAGIC ) {
+                throw new IOException( "File '" + storagePath + "' is not a packed rtree index." );
+            }
+            int version = raf.readInt();
+            if ( version != VERSION ) {
+                throw new IOException( "Unsupported packed rtree version " + version + "." );
+            }
+            nodeSize = raf.readInt();
+            numItems = raf.readInt();
+            numNodes = raf.readInt();
+            extraFlag = ( raf.readInt() & 1 ) != 0;
+            long expectedSize = HEADER_SIZE + 16L * numNodes + 8L * numItems;
+            if ( nodeSize < 2 || numItems < 0 || fileSize != expectedSize ) {
+                throw new IOException( "Packed rtree index '" + storagePath + "' is corrupt." );
+            }
+            int[] levelBounds = calcLevelBounds( numItems, nodeSize );
+            if ( levelBounds[levelBounds.length - 1] != numNodes ) {
+                throw new IOException( "Packed rtree index '" + storagePath + "' is corrupt." );
+            }
+            buffer = raf.getChannel().map( MapMode.READ_ONLY, 0, fileSize );
+        } finally {
+            // the mapping stays valid after the file has been closed
+            raf.close();
+        }
+
+        buffer.position( HEADER_SIZE );
+        FloatBuffer boxes = buffer.slice().asFloatBuffer();
+        buffer.position( HEADER_SIZE + 16 * numNodes );
+        LongBuffer longValues = buffer.slice().asLongBuffer();
+        return new PackedRTree<Long>( nodeSize, numItems, boxes, longValues, extraFlag );
+    }
+
+    /**
+     * Persist the tree to the given location. Only supported if all values are {@link Number}s.
+     * <p>
+     * The tree is written to a temporary file in the same directory which then replaces the target, so trees that are
+     * currently mapped from the target file are not affected.
+     * </p>
+     * 
+     * @param storagePath
+     * @throws IOException
+     *             if the tree could not be written
+     */
+    public void writeTreeToDisk( String storagePath )
+                            throws IOException {
+        File target = new File( storagePath ).getAbsoluteFile();
+        File tmp = File.createTempFile( target.getName(), ".tmp", target.getParentFile() );
+        boolean written = false;
+        try {
+            DataOutputStream output = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+            try {
+                int numNodes = levelBounds[levelBounds.length - 1];
+                output.writeInt( MAGIC );
+                output.writeInt( VERSION );
+                output.writeInt( nodeSize );
+                output.writeInt( numItems );
+                output.writeInt( numNodes );
+                output.writeInt( extraFlag ? 1 : 0 );
+                for ( int i = 0; i < numNodes * 4; ++i ) {
+                    output.writeFloat( boxes.get( i ) );
+                }
+                for ( int i = 0; i < numItems; ++i ) {
+                    Number value = (Number) getValue( i );
+                    output.writeLong( value == null ? Long.MIN_VALUE : value.longValue() );
+                }
+            } finally {
+                output.close();
+            }
+            // atomic on POSIX file systems, other platforms refuse to replace an existing file
+            if ( !tmp.renameTo( target ) && !( target.delete() && tmp.renameTo( target ) ) ) {
+                throw new IOException( "Could not replace packed rtree index '" + storagePath + "'." );
+            }
+            written = true;
+        } finally {
+            if ( !written && !tmp.delete() ) {
+                LOG.debug( "Could not delete temporary file '{}'.", tmp );
+            }
+        }
+    }
+
+    @Override
+    public List<T> query( float[] envelope ) {
+        List<T> result = new ArrayList<T>();
+        if ( numItems == 0 ) {
+            return result;
+        }
+
+        int topLevel = levelBounds.length - 2;
+        if ( !intersects( envelope, levelBounds[topLevel] ) ) {
+            return result;
+        }
+        // at most nodeSize pending siblings per level (stored as node/level pairs)
+        int[] stack = new int[2 * ( nodeSize * ( topLevel + 1 ) + 1 )];
+        int sp = 0;
+        stack[sp++] = levelBounds[topLevel];
+        stack[sp++] = topLevel;
+
+        while ( sp > 0 ) {
+            int level = stack[--sp];
+            int node = stack[--sp];
+            if ( level == 0 ) {
+                T value = getValue( node );
+                if ( value != null ) {
+                    result.add( value );
+                }
+                continue;
+            }
+            int firstChild = levelBounds[level - 1] + ( node - levelBounds[level] ) * nodeSize;
+            int lastChild = Math.min( firstChild + nodeSize, levelBounds[level] );
+            for ( int child = firstChild; child < lastChild; ++child ) {
+                if ( intersects( envelope, child ) ) {
+                    stack[sp++] = child;
+                    stack[sp++] = level - 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the index from the given objects with their envelope. Objects without an envelope are ignored.
+     * 
+     * @param listOfObjects
+     */
+    @Override
+    public void insertBulk( List<Pair<float[], T>> listOfObjects ) {
+        List<Pair<float[], T>> objects = new ArrayList<Pair<float[], T>>( listOfObjects.size() );
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for ( Pair<float[], T> p : listOfObjects ) {
+            float[] env = p.first;
+            if ( env == null ) {
+                continue;
+            }
+            objects.add( p );
+            minX = Math.min( minX, env[0] );
+            minY = Math.min( minY, env[1] );
+            maxX = Math.max( maxX, env[2] );
+            maxY = Math.max( maxY, env[3] );
+        }
+
+        numItems = objects.size();
+        levelBounds = calcLevelBounds( numItems, nodeSize );
+        int numNodes = levelBounds[levelBounds.length - 1];
+        float[] nodes = new float[numNodes * 4];
+        values = new Object[numItems];
+        longValues = null;
+
+        // sort by hilbert value, the original index is kept in the lower 32 bits, the sign bit is flipped to compare
+        // the (unsigned) hilbert values correctly
+        double width = maxX - minX;
+        double height = maxY - minY;
+        long[] keys = new long[numItems];
+        for ( int i = 0; i < numItems; ++i ) {
+            float[] env = objects.get( i ).first;
+            int x = width > 0 ? (int) ( HILBERT_MAX * ( ( env[0] + env[2] ) / 2 - minX ) / width ) : 0;
+            int y = height > 0 ? (int) ( HILBERT_MAX * ( ( env[1] + env[3] ) / 2 - minY ) / height ) : 0;
+            keys[i] = ( ( (long) hilbert( x, y ) << 32 ) | i ) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort( keys );
+
+        for ( int i = 0; i < numItems; ++i ) {
+            Pair<float[], T> p = objects.get( (int) keys[i] );
+            System.arraycopy( p.first, 0, nodes, i * 4, 4 );
+            values[i] = p.second;
+        }
+
+        for ( int level = 0; level < levelBounds.length - 2; ++level ) {
+            int end = levelBounds[level + 1];
+            int parent = end;
+            for ( int i = levelBounds[level]; i < end; i += nodeSize ) {
+                int last = Math.min( i + nodeSize, end );
+                float nMinX = Float.POSITIVE_INFINITY, nMinY = Float.POSITIVE_INFINITY;
+                float nMaxX = Float.NEGATIVE_INFINITY, nMaxY = Float.NEGATIVE_INFINITY;
+                for ( int child = i; child < last; ++child ) {
+                    nMinX = Math.min( nMinX, nodes[child * 4] );
+                    nMinY = Math.min( nMinY, nodes[child * 4 + 1] );
+                    nMaxX = Math.max( nMaxX, nodes[child * 4 + 2] );
+                    nMaxY = Math.max( nMaxY, nodes[child * 4 + 3] );
+                }
+                nodes[parent * 4] = nMinX;
+                nodes[parent * 4 + 1] = nMinY;
+                nodes[parent * 4 + 2] = nMaxX;
+                nodes[parent * 4 + 3] = nMaxY;
+                parent++;
+            }
+        }
+        boxes = FloatBuffer.wrap( nodes );
+        LOG.debug( "Packed {} objects into {} nodes.", numItems, numNodes );
+    }
+
+    @Override
+    public void clear() {
+        numItems = 0;
+        levelBounds = new int[] { 0 };
+        boxes = FloatBuffer.allocate( 0 );
+        values = new Object[0];
+        longValues = null;
+    }
+
+    /**
+     * Not supported, packed trees can only be bulk loaded.
+     * 
+     * @throws UnsupportedOperationException
+     *             always
+     */
+    @Override
+    public boolean insert( float[] envelope, T object ) {
+        throw new UnsupportedOperationException( "Packed rtrees do not support inserting single objects." );
+    }
+
+    /**
+     * Removes the given object from this tree (the node envelopes are not shrunk).
+     * 
+     * @throws UnsupportedOperationException
+     *             if the tree has been loaded from disk
+     */
+    @Override
+    public boolean remove( T object ) {
+        if ( values == null ) {
+            throw new UnsupportedOperationException( "Memory mapped packed rtrees are read-only." );
+        }
+        for ( int i = 0; i < numItems; ++i ) {
+            if ( values[i] != null && values[i].equals( object ) ) {
+                values[i] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of objects the tree was built from
+     */
+    public int size() {
+        return numItems;
+    }
+
+    /**
+     * @return extra flag that is stored along with the tree (used for hacking around buggy shp files)
+     */
+    public boolean getExtraFlag() {
+        return extraFlag;
+    }
+
+    /**
+     * @param extraFlag
+     *            extra flag that is stored along with the tree (used for hacking around buggy shp files)
+     */
+    public void setExtraFlag( boolean extraFlag ) {
+        this.extraFlag = extraFlag;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue( int i ) {
+        if ( values != null ) {
+            return (T) values[i];
+        }
+        long value = longValues.get( i );
+        return value == Long.MIN_VALUE ? null : (T) Long.valueOf( value );
+    }
+
+    private boolean intersects( float[] envelope, int node ) {
+        if ( envelope == null ) {
+            return true;
+        }
+        int offset = node * 4;
+        return boxes.get( offset ) <= envelope[2] && envelope[0] <= boxes.get( offset + 2 )
+               && boxes.get( offset + 1 ) <= envelope[3] && envelope[1] <= boxes.get( offset + 3 );
+    }
+
+    /**
+     * @return start index of every level (items first), followed by the total number of nodes
+     */
+    private static int[] calcLevelBounds( int numItems, int nodeSize ) {
+        List<Integer> bounds = new ArrayList<Integer>();
+        int count = numItems;
+        int total = numItems;
+        bounds.add( 0 );
+        bounds.add( total );
+        while ( count > 1 ) {
+            count = ( count + nodeSize - 1 ) / nodeSize;
+            total += count;
+            bounds.add( total );
+        }
+        int[] result = new int[bounds.size()];
+        for ( int i = 0; i < result.length; ++i ) {
+            result[i] = bounds.get( i );
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the position of the given (16 bit) coordinates on a Hilbert curve, see
+     * http://threadlocalmutex.com/?p=126.
+     */
+    private static int hilbert( int x, int y ) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ ( x | y );
+        int d = x & ( y ^ 0xFFFF );
+
+        int A = a | ( b >> 1 );
+        int B = ( a >> 1 ) ^ a;
+        int C = ( ( c >> 1 ) ^ ( b & ( d >> 1 ) ) ) ^ c;
+        int D = ( ( a & ( c >> 1 ) ) ^ ( d >> 1 ) ) ^ d;
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = ( ( a & ( a >> 2 ) ) ^ ( b & ( b >> 2 ) ) );
+        B = ( ( a & ( b >> 2 ) ) ^ ( b & ( ( a ^ b ) >> 2 ) ) );
+        C ^= ( ( a & ( c >> 2 ) ) ^ ( b & ( d >> 2 ) ) );
+        D ^= ( ( b & ( c >> 2 ) ) ^ ( ( a ^ b ) & ( d >> 2 ) ) );
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = ( ( a & ( a >> 4 ) ) ^ ( b & ( b >> 4 ) ) );
+        B = ( ( a & ( b >> 4 ) ) ^ ( b & ( ( a ^ b ) >> 4 ) ) );
+        C ^= ( ( a & ( c >> 4 ) ) ^ ( b & ( d >> 4 ) ) );
+        D ^= ( ( b & ( c >> 4 ) ) ^ ( ( a ^ b ) & ( d >> 4 ) ) );
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        C ^= ( ( a & ( c >> 8 ) ) ^ ( b & ( d >> 8 ) ) );
+        D ^= ( ( b & ( c >> 8 ) ) ^ ( ( a ^ b ) & ( d >> 8 ) ) );
+
+        a = C ^ ( C >> 1 );
+        b = D ^ ( D >> 1 );
+
+        int i0 = x ^ y;
+        int i1 = b | ( 0xFFFF ^ ( i0 | a ) );
+
+        return ( interleave( i1 ) << 1 ) | interleave( i0 );
+    }
+
+    private static int interleave( int i ) {
+        i = ( i | ( i << 8 ) ) & 0x00FF00FF;
+        i = ( i | ( i << 4 ) ) & 0x0F0F0F0F;
+        i = ( i | ( i << 2 ) ) & 0x33333333;
+        return ( i | ( i << 1 ) ) & 0x55555555;
+    }
+
+}
@@ -40,12 +40,16 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.dbcp.ConnectionFactory;
 import org.apache.commons.dbcp.DelegatingConnection;
 import org.apache.commons.dbcp.DriverManagerConnectionFactory;
 import org.apache.commons.dbcp.PoolableConnectionFactory;
 import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.KeyedObjectPool;
+import org.apache.commons.pool.KeyedObjectPoolFactory;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.deegree.commons.annotations.LoggingNotes;
 import org.slf4j.Logger;
@@ -69,8 +73,14 @@ public class ConnectionPool {
 
     private final GenericObjectPool<Connection> pool;
 
+    private final int maxOpenStatements;
+
+    private final AtomicLong statementHits = new AtomicLong();
+
+    private final AtomicLong statementMisses = new AtomicLong();
+
     /**
-     * Creates a new {@link ConnectionPool} instance.
+     * Creates a new {@link ConnectionPool} instance (without prepared statement pooling).
      * 
      * @param id
      * @param connectURI
@@ -82,15 +92,40 @@ public class ConnectionPool {
      */
     public ConnectionPool( String id, String connectURI, String user, String password, boolean readOnly, int minIdle,
                     int maxActive ) {
+        this( id, connectURI, user, password, readOnly, minIdle, maxActive, 0 );
+    }
+
+    /**
+     * Creates a new {@link ConnectionPool} instance.
+     * 
+     * @param id
+     * @param connectURI
+     * @param user
+     * @param password
+     * @param readOnly
+     * @param minIdle
+     * @param maxActive
+     * @param maxOpenStatements
+     *            maximum number of prepared statements that are kept open (for reuse) per pooled connection, a value
+     *            of zero or less disables statement pooling
+     */
+    public ConnectionPool( String id, String connectURI, String user, String password, boolean readOnly, int minIdle,
+                    int maxActive, int maxOpenStatements ) {
 
         this.id = id;
+        this.maxOpenStatements = maxOpenStatements;
         pool = new GenericObjectPool<Connection>( null );
         pool.setMinIdle( minIdle );
         pool.setMaxActive( maxActive );
 
         ConnectionFactory connectionFactory = new DriverManagerConnectionFactory( connectURI, user, password );
-        // TODO make this configurable
-        new PoolableConnectionFactory( connectionFactory, pool, null, null, readOnly, true );
+        // statements are pooled per connection and keyed by their SQL text, so repeated queries that only differ in
+        // their bind values (e.g. map requests with different bboxes) don't need to be prepared again
+        KeyedObjectPoolFactory<Object, Object> stmtPoolFactory = null;
+        if ( maxOpenStatements > 0 ) {
+            stmtPoolFactory = new StatementPoolFactory();
+        }
+        new PoolableConnectionFactory( connectionFactory, pool, stmtPoolFactory, null, readOnly, true );
         ds = new PoolingDataSource( pool );
         // needed, so users can retrieve the underlying connection from pooled
         // connections, e.g. to access the
@@ -108,9 +143,31 @@ public class ConnectionPool {
                             throws SQLException {
         LOG.debug( "For connection id '{}': active connections: {}, idle connections: {}",
                    new Object[] { id, pool.getNumActive(), pool.getNumIdle() } );
+        if ( maxOpenStatements > 0 && LOG.isDebugEnabled() ) {
+            LOG.debug( "For connection id '{}': prepared statement cache hits: {}, misses: {}",
+                       new Object[] { id, statementHits.get(), statementMisses.get() } );
+        }
         return ds.getConnection();
     }
 
+    /**
+     * Returns the number of prepared statements that have been served from the statement pool.
+     * 
+     * @return number of statement pool hits, always zero if statement pooling is disabled
+     */
+    public long getStatementCacheHits() {
+        return statementHits.get();
+    }
+
+    /**
+     * Returns the number of prepared statements that had to be prepared by the driver.
+     * 
+     * @return number of statement pool misses, always zero if statement pooling is disabled
+     */
+    public long getStatementCacheMisses() {
+        return statementMisses.get();
+    }
+
     /**
      * @throws Exception
      */
@@ -124,4 +181,35 @@ public class ConnectionPool {
         conn.getDelegate().close();
         pool.invalidateObject( conn );
     }
+
+    private class StatementPoolFactory implements KeyedObjectPoolFactory<Object, Object> {
+
+        @Override
+        public KeyedObjectPool<Object, Object> createPool() {
+            return new CountingStatementPool();
+        }
+    }
+
+    /**
+     * Statement pool of a single connection that keeps track of hits and misses.
+     */
+    private class CountingStatementPool extends GenericKeyedObjectPool<Object, Object> {
+
+        CountingStatementPool() {
+            // the statement factory is set by the PoolingConnection afterwards
+            super( null, -1, WHEN_EXHAUSTED_GROW, 0, 1 );
+            setMaxTotal( maxOpenStatements );
+        }
+
+        @Override
+        public Object borrowObject( Object key )
+                                throws Exception {
+            if ( getNumIdle( key ) > 0 ) {
+                statementHits.incrementAndGet();
+            } else {
+                statementMisses.incrementAndGet();
+            }
+            return super.borrowObject( key );
+        }
+    }
 }
@@ -0,0 +1,169 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.commons.utils.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Alternative to {@link ByteArrayOutputStream} that stores the written bytes in fixed-size chunks taken from a shared
+ * pool.
+ * <p>
+ * No memory is allocated until the first byte is written, the buffer grows one chunk at a time (no copying of already
+ * written data) and {@link #release()} hands the chunks back to the pool, so subsequent buffers can reuse them instead
+ * of producing garbage.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+    /** Size of a single chunk (8 KB) */
+    public static final int CHUNK_SIZE = 8 * 1024;
+
+    // at most 2048 chunks (16 MB) are kept for reuse
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<byte[]>( 2048 );
+
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+
+    private byte[] current;
+
+    // number of valid bytes in the current chunk
+    private int pos;
+
+    private int size;
+
+    /**
+     * Returns the number of bytes written to this stream.
+     * 
+     * @return the number of valid bytes in this buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void write( int b ) {
+        if ( current == null || pos == CHUNK_SIZE ) {
+            nextChunk();
+        }
+        current[pos++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) {
+        while ( len > 0 ) {
+            if ( current == null || pos == CHUNK_SIZE ) {
+                nextChunk();
+            }
+            int n = Math.min( len, CHUNK_SIZE - pos );
+            System.arraycopy( b, off, current, pos, n );
+            pos += n;
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * Writes the complete contents of this buffer to the given stream, without copying it first.
+     * 
+     * @param out
+     *            stream to write to, must not be <code>null</code>
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public void writeTo( OutputStream out )
+                            throws IOException {
+        int last = chunks.size() - 1;
+        for ( int i = 0; i < last; i++ ) {
+            out.write( chunks.get( i ), 0, CHUNK_SIZE );
+        }
+        if ( last >= 0 ) {
+            out.write( current, 0, pos );
+        }
+    }
+
+    /**
+     * Returns a copy of the contents of this buffer.
+     * 
+     * @return copy of the written bytes, never <code>null</code>
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[size];
+        int off = 0;
+        int last = chunks.size() - 1;
+        for ( int i = 0; i < last; i++ ) {
+            System.arraycopy( chunks.get( i ), 0, bytes, off, CHUNK_SIZE );
+            off += CHUNK_SIZE;
+        }
+        if ( last >= 0 ) {
+            System.arraycopy( current, 0, bytes, off, pos );
+        }
+        return bytes;
+    }
+
+    /**
+     * Discards the contents of this buffer and returns its chunks to the pool. The stream may be written to again
+     * afterwards.
+     */
+    public void release() {
+        for ( byte[] chunk : chunks ) {
+            POOL.offer( chunk );
+        }
+        chunks.clear();
+        current = null;
+        pos = 0;
+        size = 0;
+    }
+
+    private void nextChunk() {
+        current = POOL.poll();
+        if ( current == null ) {
+            current = new byte[CHUNK_SIZE];
+        }
+        chunks.add( current );
+        pos = 0;
+    }
+}
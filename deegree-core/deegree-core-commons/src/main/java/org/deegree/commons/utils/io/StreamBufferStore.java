@@ -52,6 +52,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Scalable alternative to {@link ByteArrayOutputStream} that automatically switches to file-based storage if the amount
  * of written bytes exceeds a given limit.
+ * <p>
+ * In-memory storage is backed by a {@link PooledByteArrayOutputStream}: memory is only allocated when bytes are
+ * actually written and is returned to the shared pool by {@link #reset()}.
+ * </p>
  * 
  * @author <a href="mailto:schneider@lat-lon.de">Markus Schneider</a>
  * @author last edited by: $Author$
@@ -69,7 +73,9 @@ public class StreamBufferStore extends OutputStream {
 
     private int bytesWritten = 0;
 
-    private OutputStream os;
+    private final PooledByteArrayOutputStream memory = new PooledByteArrayOutputStream();
+
+    private OutputStream os = memory;
 
     private File tmpFile;
 
@@ -92,7 +98,6 @@ public class StreamBufferStore extends OutputStream {
      */
     public StreamBufferStore( int limit ) {
         this.limit = limit;
-        os = new ByteArrayOutputStream( limit );
     }
 
     /**
@@ -106,7 +111,6 @@ public class StreamBufferStore extends OutputStream {
      */
     public StreamBufferStore( int limit, File targetFile ) {
         this.limit = limit;
-        os = new ByteArrayOutputStream( limit );
         this.targetFile = targetFile;
     }
 
@@ -129,7 +133,7 @@ public class StreamBufferStore extends OutputStream {
                             throws IOException {
         os.flush();
         if ( tmpFile == null ) {
-            return new ByteArrayInputStream( ( (ByteArrayOutputStream) os ).toByteArray() );
+            return new ByteArrayInputStream( memory.toByteArray() );
         }
         return new FileInputStream( tmpFile );
     }
@@ -187,6 +191,10 @@ public class StreamBufferStore extends OutputStream {
      */
     public void writeTo( OutputStream outputStream )
                             throws IOException {
+        if ( tmpFile == null ) {
+            memory.writeTo( outputStream );
+            return;
+        }
         BufferedInputStream is = new BufferedInputStream( getInputStream() );
         byte[] buffer = new byte[10240];
         int read = -1;
@@ -197,7 +205,7 @@ public class StreamBufferStore extends OutputStream {
     }
 
     /**
-     * Clears any data that exists in the buffer.
+     * Clears any data that exists in the buffer and returns the memory to the pool.
      */
     public void reset() {
         try {
@@ -207,11 +215,11 @@ public class StreamBufferStore extends OutputStream {
         }
         if ( tmpFile != null ) {
             tmpFile.delete();
-            os = new ByteArrayOutputStream( limit );
             tmpFile = null;
-        } else {
-            os = new ByteArrayOutputStream( limit );
         }
+        memory.release();
+        os = memory;
+        bytesWritten = 0;
     }
 
     private void switchToFile()
@@ -224,7 +232,8 @@ public class StreamBufferStore extends OutputStream {
         }
         LOG.debug( "Using file: " + tmpFile );
         OutputStream fileOs = new BufferedOutputStream( new FileOutputStream( tmpFile ) );
-        ( (ByteArrayOutputStream) os ).writeTo( fileOs );
+        memory.writeTo( fileOs );
+        memory.release();
         os = fileOs;
     }
 }
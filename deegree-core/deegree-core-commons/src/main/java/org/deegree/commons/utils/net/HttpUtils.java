@@ -65,6 +65,7 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
@@ -78,6 +79,7 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.protocol.BasicHttpContext;
@@ -482,7 +484,36 @@ public class HttpUtils {
     }
 
     public static void handleProxies( String protocol, DefaultHttpClient client, String host ) {
+        HttpHost proxy = getProxy( protocol, client.getCredentialsProvider(), host );
+        if ( proxy != null ) {
+            client.getParams().setParameter( ConnRoutePNames.DEFAULT_PROXY, proxy );
+        }
+    }
+
+    /**
+     * Configures the proxy for a client created by an {@link HttpClientBuilder}, using the same system properties as
+     * {@link #handleProxies(String, DefaultHttpClient, String)}.
+     * 
+     * @param protocol
+     *            protocol of the target url (e.g. 'http'), may be <code>null</code>
+     * @param builder
+     *            builder of the client, must not be <code>null</code>
+     * @param credentials
+     *            credentials provider of the client, proxy credentials are added to it, must not be <code>null</code>
+     * @param host
+     *            target host, must not be <code>null</code>
+     */
+    public static void handleProxies( String protocol, HttpClientBuilder builder, CredentialsProvider credentials,
+                                      String host ) {
+        HttpHost proxy = getProxy( protocol, credentials, host );
+        if ( proxy != null ) {
+            builder.setProxy( proxy );
+        }
+    }
+
+    private static HttpHost getProxy( String protocol, CredentialsProvider credentials, String host ) {
         TreeSet<String> nops = new TreeSet<String>();
+        HttpHost proxy = null;
 
         String proxyHost = getProperty( ( protocol == null ? "" : protocol + "." ) + "proxyHost" );
 
@@ -507,7 +538,7 @@ public class HttpUtils {
 
             if ( proxyUser != null ) {
                 Credentials creds = new UsernamePasswordCredentials( proxyUser, proxyPass );
-                client.getCredentialsProvider().setCredentials( new AuthScope( proxyHost, proxyPort ), creds );
+                credentials.setCredentials( new AuthScope( proxyHost, proxyPort ), creds );
             }
 
             if ( !nops.contains( host ) ) {
@@ -517,8 +548,7 @@ public class HttpUtils {
                         LOG.debug( "This overrides the protocol specific settings, if there were any." );
                     }
                 }
-                HttpHost proxy = new HttpHost( proxyHost, proxyPort );
-                client.getParams().setParameter( ConnRoutePNames.DEFAULT_PROXY, proxy );
+                proxy = new HttpHost( proxyHost, proxyPort );
             } else {
                 if ( LOG.isDebugEnabled() ) {
                     LOG.debug( "Proxy was set, but {} was contained in the no-/nonProxyList!", host );
@@ -530,8 +560,12 @@ public class HttpUtils {
         }
 
         if ( protocol != null ) {
-            handleProxies( null, client, host );
+            HttpHost generic = getProxy( null, credentials, host );
+            if ( generic != null ) {
+                proxy = generic;
+            }
         }
+        return proxy;
     }
 
     public static <T> Pair<T, HttpResponse> getFullResponse( Worker<T> worker, String url, Map<String, String> headers,
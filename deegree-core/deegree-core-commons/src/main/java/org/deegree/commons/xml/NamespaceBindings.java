@@ -175,6 +175,22 @@ public class NamespaceBindings implements org.jaxen.NamespaceContext, javax.xml.
         return prefixToNs.keySet().iterator();
     }
 
+    @Override
+    public boolean equals( Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !( obj instanceof NamespaceBindings ) ) {
+            return false;
+        }
+        return prefixToNs.equals( ( (NamespaceBindings) obj ).prefixToNs );
+    }
+
+    @Override
+    public int hashCode() {
+        return prefixToNs.hashCode();
+    }
+
     @Override
     public String toString() {
         return prefixToNs.toString();
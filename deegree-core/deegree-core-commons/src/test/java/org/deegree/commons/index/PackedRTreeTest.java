@@ -0,0 +1,180 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.commons.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.deegree.commons.utils.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PackedRTree} against a brute force search.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class PackedRTreeTest {
+
+    private final List<Pair<float[], Long>> objects = new ArrayList<Pair<float[], Long>>();
+
+    private final PackedRTree<Long> tree = new PackedRTree<Long>( 4 );
+
+    @Before
+    public void buildTree() {
+        Random random = new Random( 42 );
+        for ( long i = 0; i < 1000; i++ ) {
+            float x = random.nextFloat() * 1000;
+            float y = random.nextFloat() * 1000;
+            float[] env = new float[] { x, y, x + random.nextFloat() * 20, y + random.nextFloat() * 20 };
+            objects.add( new Pair<float[], Long>( env, i ) );
+        }
+        tree.insertBulk( objects );
+    }
+
+    @Test
+    public void testQuery() {
+        assertQueries( tree );
+    }
+
+    @Test
+    public void testQueryAll() {
+        assertEquals( objects.size(), tree.query( null ).size() );
+        assertEquals( objects.size(), tree.query( new float[] { -1, -1, 2000, 2000 } ).size() );
+        assertTrue( tree.query( new float[] { 2000, 2000, 3000, 3000 } ).isEmpty() );
+    }
+
+    @Test
+    public void testEmptyAndSingleObject() {
+        PackedRTree<Long> small = new PackedRTree<Long>( 4 );
+        assertTrue( small.query( null ).isEmpty() );
+        List<Pair<float[], Long>> single = new ArrayList<Pair<float[], Long>>();
+        single.add( new Pair<float[], Long>( new float[] { 0, 0, 1, 1 }, 7l ) );
+        small.insertBulk( single );
+        assertEquals( 1, small.query( new float[] { 0.5f, 0.5f, 2, 2 } ).size() );
+        assertTrue( small.query( new float[] { 2, 2, 3, 3 } ).isEmpty() );
+    }
+
+    @Test
+    public void testRemove() {
+        assertTrue( tree.remove( 17l ) );
+        assertEquals( objects.size() - 1, tree.query( null ).size() );
+    }
+
+    @Test
+    public void testFromStorage()
+                            throws IOException {
+        File tempFile = File.createTempFile( "packedrtree", "rti" );
+        tempFile.deleteOnExit();
+        tree.setExtraFlag( true );
+        tree.writeTreeToDisk( tempFile.getCanonicalPath() );
+
+        PackedRTree<Long> mapped = PackedRTree.loadFromDisk( tempFile.getCanonicalPath() );
+        assertEquals( objects.size(), mapped.size() );
+        assertTrue( mapped.getExtraFlag() );
+        assertQueries( mapped );
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidFile()
+                            throws IOException {
+        File tempFile = File.createTempFile( "rtree", "rti" );
+        tempFile.deleteOnExit();
+        PackedRTree.loadFromDisk( tempFile.getCanonicalPath() );
+    }
+
+    @Test
+    public void testRewriteWhileMapped()
+                            throws IOException {
+        File tempFile = File.createTempFile( "packedrtree", "rti" );
+        tempFile.deleteOnExit();
+        tree.writeTreeToDisk( tempFile.getCanonicalPath() );
+        PackedRTree<Long> mapped = PackedRTree.loadFromDisk( tempFile.getCanonicalPath() );
+
+        PackedRTree<Long> other = new PackedRTree<Long>( 4 );
+        other.insertBulk( objects.subList( 0, 10 ) );
+        other.writeTreeToDisk( tempFile.getCanonicalPath() );
+
+        // the old mapping still sees the old tree, the file contains the new one
+        assertQueries( mapped );
+        assertEquals( 10, PackedRTree.loadFromDisk( tempFile.getCanonicalPath() ).size() );
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadUnsupportedVersion()
+                            throws IOException {
+        File tempFile = File.createTempFile( "packedrtree", "rti" );
+        tempFile.deleteOnExit();
+        tree.writeTreeToDisk( tempFile.getCanonicalPath() );
+        RandomAccessFile raf = new RandomAccessFile( tempFile, "rw" );
+        try {
+            raf.seek( 4 );
+            raf.writeInt( 42 );
+        } finally {
+            raf.close();
+        }
+        PackedRTree.loadFromDisk( tempFile.getCanonicalPath() );
+    }
+
+    private void assertQueries( PackedRTree<Long> index ) {
+        Random random = new Random( 23 );
+        for ( int i = 0; i < 100; i++ ) {
+            float x = random.nextFloat() * 1000;
+            float y = random.nextFloat() * 1000;
+            float[] query = new float[] { x, y, x + random.nextFloat() * 200, y + random.nextFloat() * 200 };
+            Set<Long> expected = new HashSet<Long>();
+            for ( Pair<float[], Long> p : objects ) {
+                float[] env = p.first;
+                if ( env[0] <= query[2] && query[0] <= env[2] && env[1] <= query[3] && query[1] <= env[3] ) {
+                    expected.add( p.second );
+                }
+            }
+            assertEquals( expected, new HashSet<Long>( index.query( query ) ) );
+        }
+    }
+
+}
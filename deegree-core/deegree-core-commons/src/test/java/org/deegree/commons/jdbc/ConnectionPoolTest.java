@@ -0,0 +1,111 @@
+//$HeadURL: svn+ssh://mschneider@svn.wald.intevation.org/deegree/base/trunk/resources/eclipse/files_template.xml $
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.commons.jdbc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the prepared statement pooling of {@link ConnectionPool}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @After
+    public void tearDown()
+                            throws Exception {
+        if ( pool != null ) {
+            pool.destroy();
+        }
+    }
+
+    @Test
+    public void testStatementsAreReused()
+                            throws SQLException {
+        pool = new ConnectionPool( "test", "jdbc:h2:mem:stmtpool1", "SA", "", false, 1, 1, 2 );
+        String sql = "SELECT 1 FROM DUAL WHERE 1 = ?";
+        prepareAndClose( sql );
+        prepareAndClose( sql );
+        prepareAndClose( sql );
+        assertEquals( 2, pool.getStatementCacheHits() );
+        assertEquals( 1, pool.getStatementCacheMisses() );
+    }
+
+    @Test
+    public void testNumberOfOpenStatementsIsLimited()
+                            throws SQLException {
+        pool = new ConnectionPool( "test", "jdbc:h2:mem:stmtpool2", "SA", "", false, 1, 1, 2 );
+        prepareAndClose( "SELECT 1 FROM DUAL" );
+        prepareAndClose( "SELECT 2 FROM DUAL" );
+        prepareAndClose( "SELECT 3 FROM DUAL" );
+        // only two statements are kept open, so the oldest one has to be prepared again
+        prepareAndClose( "SELECT 1 FROM DUAL" );
+        assertEquals( 0, pool.getStatementCacheHits() );
+        assertEquals( 4, pool.getStatementCacheMisses() );
+    }
+
+    @Test
+    public void testStatementPoolingDisabled()
+                            throws SQLException {
+        pool = new ConnectionPool( "test", "jdbc:h2:mem:stmtpool3", "SA", "", false, 1, 1, 0 );
+        prepareAndClose( "SELECT 1 FROM DUAL" );
+        prepareAndClose( "SELECT 1 FROM DUAL" );
+        assertEquals( 0, pool.getStatementCacheHits() );
+        assertEquals( 0, pool.getStatementCacheMisses() );
+    }
+
+    private void prepareAndClose( String sql )
+                            throws SQLException {
+        Connection conn = pool.getConnection();
+        try {
+            PreparedStatement stmt = conn.prepareStatement( sql );
+            stmt.close();
+        } finally {
+            conn.close();
+        }
+    }
+}
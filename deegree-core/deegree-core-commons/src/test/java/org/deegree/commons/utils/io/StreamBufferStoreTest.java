@@ -35,6 +35,7 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.commons.utils.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -69,4 +70,30 @@ public class StreamBufferStoreTest {
         }
         os.close();
     }
+
+    @Test
+    public void testResetAndReuse()
+                            throws IOException {
+
+        StreamBufferStore os = new StreamBufferStore();
+        Assert.assertEquals( 0, os.size() );
+        byte[] bytes = new byte[3 * PooledByteArrayOutputStream.CHUNK_SIZE + 17];
+        for ( int i = 0; i < bytes.length; i++ ) {
+            bytes[i] = (byte) i;
+        }
+        os.write( bytes );
+        os.reset();
+        Assert.assertEquals( 0, os.size() );
+
+        os.write( bytes, 17, bytes.length - 17 );
+        Assert.assertEquals( bytes.length - 17, os.size() );
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        os.writeTo( target );
+        byte[] written = target.toByteArray();
+        Assert.assertEquals( bytes.length - 17, written.length );
+        for ( int i = 0; i < written.length; i++ ) {
+            Assert.assertEquals( bytes[i + 17], written[i] );
+        }
+        os.reset();
+    }
 }
@@ -222,4 +222,30 @@ public class CoordinateTransformer extends Transformer {
         trans.doTransform( input, 0, out, 0, input.length );
         return out;
     }
+
+    /**
+     * Transforms the given ordinates in place to the CoordinateTransformer's coordinate system.
+     * 
+     * @param sourceCRS
+     *            in which the given ordinates are referenced.
+     * @param ordinates
+     *            to transform, will be overwritten with the transformed ordinates
+     * @param offset
+     *            index of the first ordinate to transform
+     * @param count
+     *            number of points to transform
+     * @param dim
+     *            number of ordinates per point (2 or 3)
+     * @throws TransformationException
+     *             if no transformation could be created for the given source and target crs.
+     * @throws IllegalArgumentException
+     *             if the sourceCRS is <code>null</code>
+     */
+    public void transform( ICRS sourceCRS, double[] ordinates, int offset, int count, int dim )
+                            throws IllegalArgumentException, TransformationException {
+        Transformation trans = createCRSTransformation( sourceCRS );
+        if ( !TransformationFactory.isIdentity( trans ) ) {
+            trans.transform( ordinates, offset, count, dim );
+        }
+    }
 }
@@ -50,6 +50,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamReader;
@@ -98,6 +100,16 @@ public class CRSManager implements Initializable, Destroyable {
 
     private static Map<String, TransformationFactory> idToTransF = new HashMap<String, TransformationFactory>();
 
+    // caches in front of the stores, cleared whenever the set of stores changes
+    private static final int MAX_CACHED_ENTRIES = 1024;
+
+    private static final ConcurrentMap<String, ICRS> nameToCRS = new ConcurrentHashMap<String, ICRS>();
+
+    private static final ConcurrentMap<String, ICRS> codeToCRS = new ConcurrentHashMap<String, ICRS>();
+
+    private static final ConcurrentMap<TransformationKey, Transformation> transformations =
+                            new ConcurrentHashMap<TransformationKey, Transformation>();
+
     private Workspace workspace;
 
     private static boolean defaultInitialized = false;
@@ -135,10 +147,13 @@ public class CRSManager implements Initializable, Destroyable {
     @Override
     public void destroy( Workspace workspace ) {
         LOG.info( "Clear CRS store and transformation map" );
-        idToCRSStore.clear();
-        idToTransF.clear();
-        storeIds.clear();
-        defaultInitialized = false;
+        synchronized ( CRSManager.class ) {
+            idToCRSStore.clear();
+            idToTransF.clear();
+            storeIds.clear();
+            clearCaches();
+            defaultInitialized = false;
+        }
         new CRSManager().initDefault();
     }
 
@@ -270,18 +285,23 @@ public class CRSManager implements Initializable, Destroyable {
     private static void registerAndInit( CRSStore crss, String id, boolean prefer )
                             throws CRSStoreException {
         if ( id != null ) {
-            if ( idToCRSStore.containsKey( id ) ) {
-                throw new CRSStoreException( Messages.getMessage( "CRSManager.DUPLICATE_ID", id ) );
-            }
-            LOG.info( "Registering global crs store with id '" + id + "', type: '" + crss.getClass().getName() + "'" );
-            idToTransF.put( id, new TransformationFactory( crss ) );
-            idToCRSStore.put( id, crss );
-            if ( prefer ) {
-                storeIds.add( 0, id );
-            } else {
-                storeIds.add( id );
+            synchronized ( CRSManager.class ) {
+                if ( idToCRSStore.containsKey( id ) ) {
+                    throw new CRSStoreException( Messages.getMessage( "CRSManager.DUPLICATE_ID", id ) );
+                }
+                LOG.info( "Registering global crs store with id '" + id + "', type: '" + crss.getClass().getName()
+                          + "'" );
+                idToTransF.put( id, new TransformationFactory( crss ) );
+                idToCRSStore.put( id, crss );
+                if ( prefer ) {
+                    storeIds.add( 0, id );
+                } else {
+                    storeIds.add( id );
+                }
+                crss.init();
+                // lookups are cached under the same lock, so none of them can miss the new store
+                clearCaches();
             }
-            crss.init();
         }
     }
 
@@ -416,7 +436,7 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( String name )
+    public static ICRS lookup( String name )
                             throws UnknownCRSException {
         return lookup( name, false );
     }
@@ -436,7 +456,7 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( String name, boolean forceXY )
+    public static ICRS lookup( String name, boolean forceXY )
                             throws UnknownCRSException {
         return lookup( null, name, forceXY );
     }
@@ -452,7 +472,7 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( CRSCodeType codeType )
+    public static ICRS lookup( CRSCodeType codeType )
                             throws UnknownCRSException {
         return lookup( null, codeType );
     }
@@ -471,7 +491,7 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( String storeId, String name )
+    public static ICRS lookup( String storeId, String name )
                             throws UnknownCRSException {
         return lookup( storeId, name, false );
     }
@@ -493,7 +513,21 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( String storeIdName, String name, boolean forceXY )
+    public static ICRS lookup( String storeIdName, String name, boolean forceXY )
+                            throws UnknownCRSException {
+        String key = ( storeIdName == null ? "" : storeIdName ) + '|' + forceXY + '|' + name;
+        ICRS crs = nameToCRS.get( key );
+        if ( crs != null ) {
+            return crs;
+        }
+        synchronized ( CRSManager.class ) {
+            crs = lookupUncached( storeIdName, name, forceXY );
+            putBounded( nameToCRS, key, crs );
+        }
+        return crs;
+    }
+
+    private static ICRS lookupUncached( String storeIdName, String name, boolean forceXY )
                             throws UnknownCRSException {
         CRSStore crsStore = get( storeIdName );
         if ( crsStore != null ) {
@@ -527,7 +561,21 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws UnknownCRSException
      *             if a {@link ICRS} with the name is not known
      */
-    public synchronized static ICRS lookup( String storeId, CRSCodeType crsCodeType )
+    public static ICRS lookup( String storeId, CRSCodeType crsCodeType )
+                            throws UnknownCRSException {
+        String key = ( storeId == null ? "" : storeId ) + '|' + crsCodeType.getOriginal();
+        ICRS crs = codeToCRS.get( key );
+        if ( crs != null ) {
+            return crs;
+        }
+        synchronized ( CRSManager.class ) {
+            crs = lookupUncached( storeId, crsCodeType );
+            putBounded( codeToCRS, key, crs );
+        }
+        return crs;
+    }
+
+    private static ICRS lookupUncached( String storeId, CRSCodeType crsCodeType )
                             throws UnknownCRSException {
         CRSStore crsStore = get( storeId );
         if ( crsStore != null ) {
@@ -689,7 +737,7 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws TransformationException
      * @throws IllegalArgumentException
      */
-    public synchronized static Transformation getTransformation( String storeId, ICRS sourceCRS, ICRS targetCRS )
+    public static Transformation getTransformation( String storeId, ICRS sourceCRS, ICRS targetCRS )
                             throws IllegalArgumentException, TransformationException {
         return getTransformation( storeId, sourceCRS, targetCRS, null );
     }
@@ -713,8 +761,35 @@ public class CRSManager implements Initializable, Destroyable {
      * @throws TransformationException
      * @throws IllegalArgumentException
      */
-    public synchronized static Transformation getTransformation( String storeId, ICRS sourceCRS, ICRS targetCRS,
-                                                                 List<Transformation> transformationsToBeUsed )
+    public static Transformation getTransformation( String storeId, ICRS sourceCRS, ICRS targetCRS,
+                                                    List<Transformation> transformationsToBeUsed )
+                            throws IllegalArgumentException, TransformationException {
+        if ( transformationsToBeUsed != null && !transformationsToBeUsed.isEmpty() ) {
+            synchronized ( CRSManager.class ) {
+                return createTransformation( storeId, sourceCRS, targetCRS, transformationsToBeUsed );
+            }
+        }
+        if ( sourceCRS == null || targetCRS == null ) {
+            synchronized ( CRSManager.class ) {
+                return createTransformation( storeId, sourceCRS, targetCRS, null );
+            }
+        }
+        TransformationKey key = new TransformationKey( storeId, sourceCRS, targetCRS );
+        Transformation trans = transformations.get( key );
+        if ( trans != null ) {
+            return trans;
+        }
+        synchronized ( CRSManager.class ) {
+            trans = createTransformation( storeId, sourceCRS, targetCRS, null );
+            if ( trans != null ) {
+                putBounded( transformations, key, trans );
+            }
+        }
+        return trans;
+    }
+
+    private static Transformation createTransformation( String storeId, ICRS sourceCRS, ICRS targetCRS,
+                                                        List<Transformation> transformationsToBeUsed )
                             throws IllegalArgumentException, TransformationException {
         if ( storeId != null ) {
             TransformationFactory fac = getTransformationFactory( storeId );
@@ -730,6 +805,24 @@ public class CRSManager implements Initializable, Destroyable {
         return null;
     }
 
+    /**
+     * Removes all cached {@link ICRS} and {@link Transformation} lookups. Called whenever the set of {@link CRSStore}s
+     * changes, may be called by clients that modified a {@link CRSStore} directly.
+     */
+    public static void clearCaches() {
+        nameToCRS.clear();
+        codeToCRS.clear();
+        transformations.clear();
+    }
+
+    private static <K, V> void putBounded( ConcurrentMap<K, V> cache, K key, V value ) {
+        if ( cache.size() >= MAX_CACHED_ENTRIES ) {
+            // rarely hit, simply start over instead of tracking access order
+            cache.clear();
+        }
+        cache.putIfAbsent( key, value );
+    }
+
     /**
      * Get a {@link Transformation} with given id, or <code>null</code> if it does not exist.
      * 
@@ -760,9 +853,59 @@ public class CRSManager implements Initializable, Destroyable {
 
     protected void remove( String id ) {
         if ( id != null ) {
-            storeIds.remove( id );
-            idToCRSStore.remove( id );
-            idToTransF.remove( id );
+            synchronized ( CRSManager.class ) {
+                storeIds.remove( id );
+                idToCRSStore.remove( id );
+                idToTransF.remove( id );
+                clearCaches();
+            }
+        }
+    }
+
+    /**
+     * Key of the transformation cache, source and target are compared with {@link ICRS#equals(java.lang.Object)} to
+     * respect axis order, the hash code is derived from the ids as {@link ICRS#hashCode()} is rather coarse.
+     */
+    private static final class TransformationKey {
+
+        private final String storeId;
+
+        private final ICRS source;
+
+        private final ICRS target;
+
+        private final int hash;
+
+        TransformationKey( String storeId, ICRS source, ICRS target ) {
+            this.storeId = storeId;
+            this.source = source;
+            this.target = target;
+            int h = storeId == null ? 0 : storeId.hashCode();
+            h = 31 * h + hash( source.getId() );
+            h = 31 * h + hash( target.getId() );
+            this.hash = h;
+        }
+
+        private static int hash( String id ) {
+            return id == null ? 0 : id.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( java.lang.Object obj ) {
+            if ( this == obj ) {
+                return true;
+            }
+            if ( !( obj instanceof TransformationKey ) ) {
+                return false;
+            }
+            TransformationKey that = (TransformationKey) obj;
+            return hash == that.hash && ( storeId == null ? that.storeId == null : storeId.equals( that.storeId ) )
+                   && source.equals( that.source ) && target.equals( that.target );
         }
     }
 
@@ -73,6 +73,16 @@ public class AxisFlipTransformation extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            double tmpX = ordinates[o];
+            ordinates[o] = ordinates[o + 1];
+            ordinates[o + 1] = tmpX;
+        }
+    }
+
     @Override
     public boolean isIdentity() {
         return false;
@@ -36,7 +36,7 @@
 
 package org.deegree.cs.transformations;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.vecmath.Point3d;
@@ -130,6 +130,59 @@ public abstract class Transformation extends CRSIdentifiable {
      */
     public abstract boolean isIdentity();
 
+    /**
+     * Transforms the given ordinates in place. The points are expected to be stored consecutively with a stride of the
+     * given dimension, e.g. x_1, y_1, x_2, y_2 for 2 dimensional points. If only two ordinates are given, the third
+     * (height) ordinate is assumed to be undefined ({@link Double#NaN}) and will not be written back.
+     * <p>
+     * This default implementation wraps the ordinates into {@link Point3d}s and calls {@link #doTransform(List)},
+     * subclasses should override it to work directly on the array.
+     * </p>
+     * 
+     * @param ordinates
+     *            the array holding the ordinates, will be overwritten with the transformed ordinates
+     * @param offset
+     *            the index of the first ordinate to transform
+     * @param count
+     *            the number of points to transform
+     * @param dim
+     *            the number of ordinates per point, must be 2 or 3
+     * @throws TransformationException
+     *             if a transform could not be calculated.
+     * @throws IllegalArgumentException
+     *             if the dimension is not 2 or 3
+     */
+    public void transform( double[] ordinates, int offset, int count, int dim )
+                            throws TransformationException {
+        checkDimension( dim );
+        List<Point3d> points = new ArrayList<Point3d>( count );
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            points.add( new Point3d( ordinates[o], ordinates[o + 1], dim == 3 ? ordinates[o + 2] : Double.NaN ) );
+        }
+        List<Point3d> result = doTransform( points );
+        int o = offset;
+        for ( Point3d p : result ) {
+            ordinates[o] = p.x;
+            ordinates[o + 1] = p.y;
+            if ( dim == 3 ) {
+                ordinates[o + 2] = p.z;
+            }
+            o += dim;
+        }
+    }
+
+    /**
+     * @param dim
+     *            number of ordinates per point
+     * @throws IllegalArgumentException
+     *             if the given dimension is not 2 or 3
+     */
+    protected static void checkDimension( int dim ) {
+        if ( dim < 2 || dim > 3 ) {
+            throw new IllegalArgumentException( "Only 2 or 3 dimensional points can be transformed, not: " + dim );
+        }
+    }
+
     /**
      * Little helper function to create a temporary id or name.
      * 
@@ -144,7 +197,7 @@ public abstract class Transformation extends CRSIdentifiable {
     }
 
     /**
-     * Wraps the incoming coordinates into a List<Point3d> and calls the {@link #doTransform(List)}. The source array
+     * Copies the incoming coordinates and calls {@link #transform(double[], int, int, int)}. The source array
      * will be read according to the dimension of the source CRS {@link #getSourceDimension()} and the target
      * coordinates will be put according to the dimension of the targetCRS {@link #getTargetDimension()}. If the
      * sourceDim &lt; 2 or &gt; 3 a transformation exception will be thrown.
@@ -199,19 +252,15 @@ public abstract class Transformation extends CRSIdentifiable {
             throw new IllegalArgumentException( Messages.getMessage( "CRS_TRANSFORM_LAST_LT_START" ) );
         }
 
-        List<Point3d> sourceCoords = new LinkedList<Point3d>();
         final int dim = getSourceDimension();
         if ( dim > 3 || dim < 2 ) {
             throw new TransformationException( Messages.getMessage( "CRS_TRANSFORM_WRONG_CRS_DIM", "source" ) );
         }
-        for ( int i = startPositionSrc; ( ( i + ( dim - 1 ) ) < ( startPositionSrc + length ) ); i += dim ) {
-            sourceCoords.add( new Point3d( srcOrdinates[i], srcOrdinates[i + 1], ( dim == 3 ) ? srcOrdinates[i + 2] : 0 ) );
-        }
-        List<Point3d> result = doTransform( sourceCoords );
+        final int numPoints = length / dim;
         if ( startPositionDest < 0 ) {
             startPositionDest = 0;
         }
-        final int requiredSpace = result.size() * getTargetDimension();
+        final int requiredSpace = numPoints * getTargetDimension();
         if ( destOrdinates == null ) {
             startPositionDest = 0;
             destOrdinates = new double[requiredSpace];
@@ -226,18 +275,30 @@ public abstract class Transformation extends CRSIdentifiable {
         if ( dimDest > 3 || dimDest < 2 ) {
             throw new TransformationException( Messages.getMessage( "CRS_TRANSFORM_WRONG_CRS_DIM", "target" ) );
         }
+        if ( dim == dimDest ) {
+            System.arraycopy( srcOrdinates, startPositionSrc, destOrdinates, startPositionDest, requiredSpace );
+            transform( destOrdinates, startPositionDest, numPoints, dim );
+            return;
+        }
+        final double[] tmp = new double[numPoints * 3];
+        for ( int i = 0, src = startPositionSrc; i < numPoints; ++i, src += dim ) {
+            tmp[i * 3] = srcOrdinates[src];
+            tmp[i * 3 + 1] = srcOrdinates[src + 1];
+            tmp[i * 3 + 2] = dim == 3 ? srcOrdinates[src + 2] : Double.NaN;
+        }
+        transform( tmp, 0, numPoints, 3 );
         int arrayPos = startPositionDest;
-        for ( Point3d coord : result ) {
-            destOrdinates[arrayPos++] = coord.x;
-            destOrdinates[arrayPos++] = coord.y;
+        for ( int i = 0; i < numPoints; ++i ) {
+            destOrdinates[arrayPos++] = tmp[i * 3];
+            destOrdinates[arrayPos++] = tmp[i * 3 + 1];
             if ( dimDest == 3 ) {
-                destOrdinates[arrayPos++] = coord.z;
+                destOrdinates[arrayPos++] = tmp[i * 3 + 2];
             }
         }
     }
 
     /**
-     * Transforms a single point3d (by calling the doTransform( List<Point3d>).
+     * Transforms a single point3d in place (by calling {@link #transform(double[], int, int, int)}).
      * 
      * @param coordinate
      *            to transform, if <code>null</code> null will be returned.
@@ -250,9 +311,10 @@ public abstract class Transformation extends CRSIdentifiable {
         if ( coordinate == null ) {
             return null;
         }
-        List<Point3d> coord = new LinkedList<Point3d>();
-        coord.add( coordinate );
-        return doTransform( coord ).get( 0 );
+        double[] ordinates = new double[] { coordinate.x, coordinate.y, coordinate.z };
+        transform( ordinates, 0, 1, 3 );
+        coordinate.set( ordinates );
+        return coordinate;
     }
 
     /**
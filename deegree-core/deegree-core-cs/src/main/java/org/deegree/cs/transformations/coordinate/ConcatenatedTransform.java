@@ -125,6 +125,33 @@ public class ConcatenatedTransform extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim )
+                            throws TransformationException {
+        checkDimension( dim );
+        if ( isIdentitiy ) {
+            return;
+        }
+        if ( dim == 3 ) {
+            firstTransform.transform( ordinates, offset, count, dim );
+            secondTransform.transform( ordinates, offset, count, dim );
+            return;
+        }
+        // intermediate steps (e.g. geocentric coordinates) may need the height, so work on 3d copies
+        double[] tmp = new double[count * 3];
+        for ( int i = 0, o = offset; i < count; ++i, o += 2 ) {
+            tmp[i * 3] = ordinates[o];
+            tmp[i * 3 + 1] = ordinates[o + 1];
+            tmp[i * 3 + 2] = Double.NaN;
+        }
+        firstTransform.transform( tmp, 0, count, 3 );
+        secondTransform.transform( tmp, 0, count, 3 );
+        for ( int i = 0, o = offset; i < count; ++i, o += 2 ) {
+            ordinates[o] = tmp[i * 3];
+            ordinates[o + 1] = tmp[i * 3 + 1];
+        }
+    }
+
     @Override
     public void inverse() {
         super.inverse();
@@ -191,26 +191,62 @@ public class GeocentricTransform extends Transformation {
         return result;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        if ( isInverseTransform() ) {
+            toGeographic( ordinates, offset, count, dim );
+        } else {
+            toGeoCentric( ordinates, offset, count, dim );
+        }
+    }
+
     /**
      * Converts geocentric coordinates (x, y, z) to geodetic coordinates (longitude, latitude, height), according to the
-     * current ellipsoid parameters. The method used here is derived from "An Improved Algorithm for Geocentric to
-     * Geodetic Coordinate Conversion", by Ralph Toms, Feb 1996 UCRL-JC-123138.
+     * current ellipsoid parameters.
      * 
      * @param srcPts
      *            the points which must be transformed.
+     * @see #toGeographic(double[], int, int, int)
      */
     protected void toGeographic( List<Point3d> srcPts ) {
+        final double[] ordinates = new double[3];
         for ( Point3d p : srcPts ) {
+            p.get( ordinates );
+            toGeographic( ordinates, 0, 1, 3 );
+            p.set( ordinates );
+        }
+    }
+
+    /**
+     * Converts geocentric coordinates (x, y, z) to geodetic coordinates (longitude, latitude, height), according to the
+     * current ellipsoid parameters. The method used here is derived from "An Improved Algorithm for Geocentric to
+     * Geodetic Coordinate Conversion", by Ralph Toms, Feb 1996 UCRL-JC-123138.
+     * 
+     * @param ordinates
+     *            the ordinates to transform in place
+     * @param offset
+     *            index of the first ordinate
+     * @param count
+     *            number of points
+     * @param dim
+     *            number of ordinates per point
+     */
+    private void toGeographic( double[] ordinates, int offset, int count, int dim ) {
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double x = ordinates[o];
+            final double y = ordinates[o + 1];
+            final double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
             // Note: Variable names follow the notation used in Toms, Feb 1996
 
-            final double T0 = p.z * AD_C; // initial estimate of vertical component
-            final double W = length( p.x, p.y );// distance from Z axis
+            final double T0 = z * AD_C; // initial estimate of vertical component
+            final double W = length( x, y );// distance from Z axis
             final double S0 = length( T0, W );// initial estimate of horizontal component
 
             final double sin_B0 = T0 / S0; // sin(B0), B0 is estimate of Bowring variable
             final double cos_B0 = W / S0; // cos(B0)
             final double sin3_B0 = sin_B0 * sin_B0 * sin_B0; // cube of sin(B0)
-            final double T1 = p.z + semiMinorAxis * ep2 * sin3_B0; // corrected estimate of vertical component
+            final double T1 = z + semiMinorAxis * ep2 * sin3_B0; // corrected estimate of vertical component
 
             // numerator of cos(phi1)
             final double sum = W - semiMajorAxis * squaredEccentricity * ( cos_B0 * cos_B0 * cos_B0 );
@@ -223,23 +259,25 @@ public class GeocentricTransform extends Transformation {
             final double cosPhi = sum / S1; // cos(phi)
 
             // Lambda in tom.
-            p.x = Math.atan2( p.y, p.x );// longitude;
-            p.y = Math.atan( sinPhi / cosPhi );// latitude;
-            if ( hasHeight ) {
-                double height;
-                // rn = radius of curvature of the prime vertical, of the ellipsoid at location
-                final double rn = semiMajorAxis / Math.sqrt( 1 - squaredEccentricity * ( sinPhi * sinPhi ) );
-
-                if ( cosPhi >= +COS_67P5 ) {
-                    height = W / +cosPhi - rn;
-                } else if ( cosPhi <= -COS_67P5 ) {
-                    height = W / -cosPhi - rn;
+            ordinates[o] = Math.atan2( y, x );// longitude;
+            ordinates[o + 1] = Math.atan( sinPhi / cosPhi );// latitude;
+            if ( dim == 3 ) {
+                if ( hasHeight ) {
+                    double height;
+                    // rn = radius of curvature of the prime vertical, of the ellipsoid at location
+                    final double rn = semiMajorAxis / Math.sqrt( 1 - squaredEccentricity * ( sinPhi * sinPhi ) );
+
+                    if ( cosPhi >= +COS_67P5 ) {
+                        height = W / +cosPhi - rn;
+                    } else if ( cosPhi <= -COS_67P5 ) {
+                        height = W / -cosPhi - rn;
+                    } else {
+                        height = z / sinPhi + rn * ( squaredEccentricity - 1.0 );
+                    }
+                    ordinates[o + 2] = height;
                 } else {
-                    height = p.z / sinPhi + rn * ( squaredEccentricity - 1.0 );
+                    ordinates[o + 2] = defaultHeightValue;
                 }
-                p.z = height;
-            } else {
-                p.z = defaultHeightValue;
             }
         }
     }
@@ -249,25 +287,50 @@ public class GeocentricTransform extends Transformation {
      * 
      * @param srcPts
      *            to convert.
+     * @see #toGeoCentric(double[], int, int, int)
      */
     protected void toGeoCentric( List<Point3d> srcPts ) {
+        final double[] ordinates = new double[3];
         for ( Point3d p : srcPts ) {
-            final double lambda = p.x; // Longitude
-            final double phi = p.y; // Latitude
-            // first check the p.z value if it is defined, if not, use the defaultheight value, which will be
+            p.get( ordinates );
+            toGeoCentric( ordinates, 0, 1, 3 );
+            p.set( ordinates );
+        }
+    }
+
+    /**
+     * Converts geographic (longitude, latitude, height) to cartesian (x,y,z) coordinates.
+     * 
+     * @param ordinates
+     *            the ordinates to transform in place
+     * @param offset
+     *            index of the first ordinate
+     * @param count
+     *            number of points
+     * @param dim
+     *            number of ordinates per point, if 2, the cartesian z value is lost
+     */
+    private void toGeoCentric( double[] ordinates, int offset, int count, int dim ) {
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double lambda = ordinates[o]; // Longitude
+            final double phi = ordinates[o + 1]; // Latitude
+            double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
+            // first check the z value if it is defined, if not, use the defaultheight value, which will be
             // initialized with 0 or the configured compound crs value.
-            if ( Double.isNaN( p.z ) || Math.abs( p.z ) < EPS11 ) {
-                p.z = defaultHeightValue;
+            if ( Double.isNaN( z ) || Math.abs( z ) < EPS11 ) {
+                z = defaultHeightValue;
             }
-            final double h = hasHeight ? p.z : 0; // Height above the ellipsoid (metres).
+            final double h = hasHeight ? z : 0; // Height above the ellipsoid (metres).
 
             final double cosPhi = Math.cos( phi );
             final double sinPhi = Math.sin( phi );
             final double rn = semiMajorAxis / Math.sqrt( 1 - squaredEccentricity * ( sinPhi * sinPhi ) );
 
-            p.x = ( rn + h ) * cosPhi * Math.cos( lambda );
-            p.y = ( rn + h ) * cosPhi * Math.sin( lambda );
-            p.z = ( rn * ( 1 - squaredEccentricity ) + h ) * sinPhi;
+            ordinates[o] = ( rn + h ) * cosPhi * Math.cos( lambda );
+            ordinates[o + 1] = ( rn + h ) * cosPhi * Math.sin( lambda );
+            if ( dim == 3 ) {
+                ordinates[o + 2] = ( rn * ( 1 - squaredEccentricity ) + h ) * sinPhi;
+            }
         }
     }
 
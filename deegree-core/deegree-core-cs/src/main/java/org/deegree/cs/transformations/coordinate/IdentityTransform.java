@@ -69,6 +69,11 @@ public class IdentityTransform extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        // nothing to do
+    }
+
     @Override
     public String getImplementationName() {
         return "Identity";
@@ -296,6 +296,21 @@ public class MatrixTransform extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        if ( isIdentity() ) {
+            return;
+        }
+        if ( matrix3D != null ) {
+            transform( isInverseTransform() ? invertMatrix3D : matrix3D, ordinates, offset, count, dim );
+        } else if ( matrix4D != null ) {
+            transform( isInverseTransform() ? invertMatrix4D : matrix4D, ordinates, offset, count, dim );
+        } else {
+            transform( isInverseTransform() ? invertMatrix : matrix, ordinates, offset, count, dim );
+        }
+    }
+
     /**
      * @return the dimension of input points.
      */
@@ -462,6 +477,85 @@ public class MatrixTransform extends Transformation {
 
     }
 
+    /**
+     * Array based version of {@link #transform(GMatrix, List)}, transforms the ordinates in place.
+     */
+    private void transform( GMatrix gm, double[] ordinates, int offset, int count, int dim ) {
+        final int inputDimension = numCol - 1;
+        final int outputDimension = numRow - 1;
+        if ( inputDimension > 3 || outputDimension > 3 ) {
+            throw new IllegalArgumentException( "The dimension of the given matrix (" + numRow + "x" + numCol
+                                                + ") exceeds the maximum dimension (3) supported by this Transformation" );
+        }
+
+        final double[] tmpPoint = new double[numRow];
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double x = ordinates[o];
+            final double y = ordinates[o + 1];
+            final double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
+            final double zOrOne = ( !Double.isNaN( z ) && !Double.isInfinite( z ) ) ? z : 1;
+            for ( int row = 0; row < numRow; ++row ) {
+                tmpPoint[row] = gm.getElement( row, 0 ) * x;
+                if ( numCol >= 2 ) {
+                    tmpPoint[row] += gm.getElement( row, 1 ) * y;
+                    if ( numCol >= 3 ) {
+                        tmpPoint[row] += gm.getElement( row, 2 ) * zOrOne;
+                        if ( numCol == 4 ) { // assume 1
+                            tmpPoint[row] += gm.getElement( row, 3 );
+                        }
+                    }
+                }
+            }
+            final double w = tmpPoint[outputDimension];
+            if ( outputDimension >= 1 ) {
+                ordinates[o] = tmpPoint[0] / w;
+                if ( outputDimension >= 2 ) {
+                    ordinates[o + 1] = tmpPoint[1] / w;
+                    if ( outputDimension == 3 && dim == 3 ) {
+                        ordinates[o + 2] = tmpPoint[2] / w;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Array based version of {@link #transform(Matrix4d, List)}, transforms the ordinates in place.
+     */
+    private static void transform( Matrix4d m, double[] ordinates, int offset, int count, int dim ) {
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double x = ordinates[o];
+            final double y = ordinates[o + 1];
+            final double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
+            // an undefined height is treated as 0 (and stays undefined), otherwise it would turn x and y into NaN
+            final boolean zIsNaN = Double.isNaN( z );
+            final double h = zIsNaN ? 0 : z;
+            ordinates[o] = m.m00 * x + m.m01 * y + m.m02 * h + m.m03;
+            ordinates[o + 1] = m.m10 * x + m.m11 * y + m.m12 * h + m.m13;
+            if ( dim == 3 && !zIsNaN ) {
+                ordinates[o + 2] = m.m20 * x + m.m21 * y + m.m22 * h + m.m23;
+            }
+        }
+    }
+
+    /**
+     * Array based version of {@link #transform(Matrix3d, List)}, transforms the ordinates in place.
+     */
+    private static void transform( Matrix3d m, double[] ordinates, int offset, int count, int dim ) {
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double x = ordinates[o];
+            final double y = ordinates[o + 1];
+            final double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
+            // an undefined height is treated as the homogeneous coordinate
+            final double h = Double.isNaN( z ) ? 1 : z;
+            ordinates[o] = m.m00 * x + m.m01 * y + m.m02 * h;
+            ordinates[o + 1] = m.m10 * x + m.m11 * y + m.m12 * h;
+            if ( dim == 3 && !Double.isNaN( z ) ) {
+                ordinates[o + 2] = m.m20 * x + m.m21 * y + m.m22 * h;
+            }
+        }
+    }
+
     /**
      * Use the given GMatrix to transform the given points inplace.
      * 
@@ -150,6 +150,28 @@ public class ProjectionTransform extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        final boolean inverse = isInverseTransform();
+        // axis order of the incoming and the outgoing ordinates
+        final boolean swapIn = inverse ? swapAxisTarget : swapAxisSource;
+        final boolean swapOut = inverse ? swapAxisSource : swapAxisTarget;
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double first = swapIn ? ordinates[o + 1] : ordinates[o];
+            final double second = swapIn ? ordinates[o] : ordinates[o + 1];
+            try {
+                Point2d tmp = inverse ? projectedCRS.doInverseProjection( first, second )
+                                     : projectedCRS.doProjection( first, second );
+                ordinates[o] = swapOut ? tmp.y : tmp.x;
+                ordinates[o + 1] = swapOut ? tmp.x : tmp.y;
+            } catch ( ProjectionException e ) {
+                LOG.trace( "Stack trace:", e );
+                LOG.warn( "Transformation error: {}", e.getLocalizedMessage() );
+            }
+        }
+    }
+
     /**
      * @param srcPts
      */
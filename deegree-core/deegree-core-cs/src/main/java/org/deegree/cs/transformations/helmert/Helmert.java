@@ -484,21 +484,7 @@ public class Helmert extends Transformation {
             return srcPts;
         }
 
-        // lazy instantiation
-        if ( transformMatrix == null ) {
-            transformMatrix = getAsAffineTransform();
-        }
-        Matrix4d matrix = transformMatrix;
-
-        // create the inverse matrix
-        if ( isInverseTransform() ) {
-            if ( inverseMatrix == null ) {
-                inverseMatrix = getAsAffineTransform();
-                inverseMatrix.invert();
-            }
-            matrix = inverseMatrix;
-        }
-
+        Matrix4d matrix = getMatrix();
         for ( Point3d p : srcPts ) {
             boolean zIsNaN = Double.isNaN( p.z );
             if ( zIsNaN ) {
@@ -513,6 +499,43 @@ public class Helmert extends Transformation {
         return srcPts;
     }
 
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        if ( count == 0 ) {
+            return;
+        }
+        Matrix4d m = getMatrix();
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            final double x = ordinates[o];
+            final double y = ordinates[o + 1];
+            final double z = dim == 3 ? ordinates[o + 2] : Double.NaN;
+            final double h = Double.isNaN( z ) ? 1 : z;
+            ordinates[o] = m.m00 * x + m.m01 * y + m.m02 * h + m.m03;
+            ordinates[o + 1] = m.m10 * x + m.m11 * y + m.m12 * h + m.m13;
+            if ( dim == 3 && !Double.isNaN( z ) ) {
+                ordinates[o + 2] = m.m20 * x + m.m21 * y + m.m22 * h + m.m23;
+            }
+        }
+    }
+
+    /**
+     * @return the (lazily created) forward or inverse matrix, depending on the state of this transformation
+     */
+    private synchronized Matrix4d getMatrix() {
+        if ( transformMatrix == null ) {
+            transformMatrix = getAsAffineTransform();
+        }
+        if ( isInverseTransform() ) {
+            if ( inverseMatrix == null ) {
+                inverseMatrix = getAsAffineTransform();
+                inverseMatrix.invert();
+            }
+            return inverseMatrix;
+        }
+        return transformMatrix;
+    }
+
     @Override
     public String getImplementationName() {
         return "Helmert";
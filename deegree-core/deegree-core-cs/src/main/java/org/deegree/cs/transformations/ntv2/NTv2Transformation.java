@@ -231,62 +231,82 @@ public class NTv2Transformation extends Transformation {
     public List<Point3d> doTransform( List<Point3d> srcPts )
                             throws TransformationException {
         GridShift shifter = new GridShift();
-
+        double[] ordinates = new double[2];
         for ( Point3d p : srcPts ) {
-            // rb: only degrees are supported :-)
-            shifter.setLonPositiveEastDegrees( p.x * ProjectionUtils.RTD );
-            shifter.setLatDegrees( p.y * ProjectionUtils.RTD );
-            boolean shift = false;
-            try {
-                if ( isInverseTransform() ) {
-                    shift = gsf.gridShiftReverse( shifter );
-                } else {
-                    shift = gsf.gridShiftForward( shifter );
-                }
-            } catch ( IOException e ) {
-                LOG.debug( "Exception occurred: " + e.getLocalizedMessage(), e );
-                LOG.error( "Exception occurred: " + e.getLocalizedMessage() );
+            ordinates[0] = p.x;
+            ordinates[1] = p.y;
+            shift( shifter, ordinates, 0 );
+            p.x = ordinates[0];
+            p.y = ordinates[1];
+        }
+        return srcPts;
+    }
+
+    @Override
+    public void transform( double[] ordinates, int offset, int count, int dim ) {
+        checkDimension( dim );
+        GridShift shifter = new GridShift();
+        for ( int i = 0, o = offset; i < count; ++i, o += dim ) {
+            shift( shifter, ordinates, o );
+        }
+    }
+
+    /**
+     * Shifts the (lon/lat) point at the given position of the array (in place).
+     */
+    private void shift( GridShift shifter, double[] ordinates, int o ) {
+        // rb: only degrees are supported :-)
+        shifter.setLonPositiveEastDegrees( ordinates[o] * ProjectionUtils.RTD );
+        shifter.setLatDegrees( ordinates[o + 1] * ProjectionUtils.RTD );
+        boolean shift = false;
+        try {
+            if ( isInverseTransform() ) {
+                shift = gsf.gridShiftReverse( shifter );
+            } else {
+                shift = gsf.gridShiftForward( shifter );
             }
-            if ( !shift ) {
-                StringBuilder sb = new StringBuilder( "Could not do " );
-                sb.append( ( isInverseTransform() ? "an inverse" : "a forward" ) ).append( " transform because: " );
-                sb.append( "gridfile is loaded: " ).append( gsf.isLoaded() );
-                SubGrid[] subGridTree = gsf.getSubGridTree();
-                if ( subGridTree == null ) {
-                    sb.append( "no sub grid tree could be retrieved." );
-                } else {
-                    sb.append( "Getting SubGrid for coordinates: " );
-                    sb.append( shifter.getLonPositiveEastDegrees() ).append( "," ).append( shifter.getLatDegrees() );
-                    SubGrid sg = subGridTree[0];
-                    SubGrid forCoord = sg.getSubGridForCoord( shifter.getLonPositiveWestSeconds(),
-                                                              shifter.getLatSeconds() );
-                    if ( forCoord == null ) {
-                        sb.append( ". Retrieval of SubGrid for coordinates: " );
-                        sb.append( shifter.getLonPositiveEastDegrees() ).append( "," );
-                        sb.append( shifter.getLatDegrees() );
-                        sb.append( " Failed." );
-                    }
-                }
-                LOG.info( sb.toString() );
+        } catch ( IOException e ) {
+            LOG.debug( "Exception occurred: " + e.getLocalizedMessage(), e );
+            LOG.error( "Exception occurred: " + e.getLocalizedMessage() );
+        }
+        if ( !shift ) {
+            StringBuilder sb = new StringBuilder( "Could not do " );
+            sb.append( ( isInverseTransform() ? "an inverse" : "a forward" ) ).append( " transform because: " );
+            sb.append( "gridfile is loaded: " ).append( gsf.isLoaded() );
+            SubGrid[] subGridTree = gsf.getSubGridTree();
+            if ( subGridTree == null ) {
+                sb.append( "no sub grid tree could be retrieved." );
             } else {
-                StringBuilder sb = new StringBuilder( "Successfully applied " );
-                sb.append( ( isInverseTransform() ? "an inverse" : "a forward" ) ).append(
-                                                                                           " transform for incoming points: " );
+                sb.append( "Getting SubGrid for coordinates: " );
                 sb.append( shifter.getLonPositiveEastDegrees() ).append( "," ).append( shifter.getLatDegrees() );
-                sb.append( ", result->" );
-                sb.append( shifter.getShiftedLonPositiveEastDegrees() ).append( "," ).append(
-                                                                                              shifter.getShiftedLatDegrees() );
-                LOG.debug( sb.toString() );
+                SubGrid sg = subGridTree[0];
+                SubGrid forCoord = sg.getSubGridForCoord( shifter.getLonPositiveWestSeconds(),
+                                                          shifter.getLatSeconds() );
+                if ( forCoord == null ) {
+                    sb.append( ". Retrieval of SubGrid for coordinates: " );
+                    sb.append( shifter.getLonPositiveEastDegrees() ).append( "," );
+                    sb.append( shifter.getLatDegrees() );
+                    sb.append( " Failed." );
+                }
             }
-            // if ( swapToTarget ) {
-            // p.x = shifter.getShiftedLatDegrees() * DTR;
-            // p.y = shifter.getShiftedLonPositiveEastDegrees() * DTR;
-            // } else {
-            p.x = shifter.getShiftedLonPositiveEastDegrees() * DTR;
-            p.y = shifter.getShiftedLatDegrees() * DTR;
-            // }
+            LOG.info( sb.toString() );
+        } else if ( LOG.isDebugEnabled() ) {
+            StringBuilder sb = new StringBuilder( "Successfully applied " );
+            sb.append( ( isInverseTransform() ? "an inverse" : "a forward" ) ).append(
+                                                                                       " transform for incoming points: " );
+            sb.append( shifter.getLonPositiveEastDegrees() ).append( "," ).append( shifter.getLatDegrees() );
+            sb.append( ", result->" );
+            sb.append( shifter.getShiftedLonPositiveEastDegrees() ).append( "," ).append(
+                                                                                          shifter.getShiftedLatDegrees() );
+            LOG.debug( sb.toString() );
         }
-        return srcPts;
+        // if ( swapToTarget ) {
+        // p.x = shifter.getShiftedLatDegrees() * DTR;
+        // p.y = shifter.getShiftedLonPositiveEastDegrees() * DTR;
+        // } else {
+        ordinates[o] = shifter.getShiftedLonPositiveEastDegrees() * DTR;
+        ordinates[o + 1] = shifter.getShiftedLatDegrees() * DTR;
+        // }
     }
 
     @Override
@@ -0,0 +1,117 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.cs.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.cs.transformations.Transformation;
+import org.junit.Test;
+
+/**
+ * Runs {@link CRSManager} lookups from many threads and checks that all threads get the cached instances.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class CRSManagerConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testConcurrentLookupAndTransformation()
+                            throws Exception {
+        final ICRS source = CRSManager.lookup( "EPSG:4326" );
+        final ICRS target = CRSManager.lookup( "EPSG:31467" );
+        final Transformation expected = CRSManager.getTransformation( null, source, target );
+        assertNotNull( expected );
+
+        ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for ( int i = 0; i < THREADS; i++ ) {
+                results.add( executor.submit( new Callable<Integer>() {
+                    @Override
+                    public Integer call()
+                                            throws Exception {
+                        // number of iterations that got the very instances cached by the first lookups
+                        int hits = 0;
+                        for ( int j = 0; j < ITERATIONS; j++ ) {
+                            ICRS s = CRSManager.lookup( "EPSG:4326" );
+                            ICRS t = CRSManager.lookup( "EPSG:31467" );
+                            if ( s == source && t == target
+                                 && CRSManager.getTransformation( null, s, t ) == expected ) {
+                                hits++;
+                            }
+                        }
+                        return hits;
+                    }
+                } ) );
+            }
+            for ( Future<Integer> result : results ) {
+                assertEquals( ITERATIONS, result.get().intValue() );
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testClearCaches()
+                            throws Exception {
+        ICRS source = CRSManager.lookup( "EPSG:4326" );
+        ICRS target = CRSManager.lookup( "EPSG:31467" );
+        Transformation first = CRSManager.getTransformation( null, source, target );
+        assertSame( first, CRSManager.getTransformation( null, source, target ) );
+        CRSManager.clearCaches();
+        assertNotNull( CRSManager.getTransformation( null, source, target ) );
+        assertEquals( source, CRSManager.lookup( "EPSG:4326" ) );
+        assertSame( CRSManager.lookup( "EPSG:4326" ), CRSManager.lookup( "EPSG:4326" ) );
+    }
+
+}
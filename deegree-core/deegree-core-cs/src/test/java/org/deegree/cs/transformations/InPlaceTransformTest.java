@@ -0,0 +1,147 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.cs.transformations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.vecmath.Matrix4d;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+
+import org.deegree.cs.CRSCodeType;
+import org.deegree.cs.CRSIdentifiable;
+import org.deegree.cs.CoordinateTransformer;
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.cs.persistence.CRSManager;
+import org.deegree.cs.transformations.coordinate.MatrixTransform;
+import org.junit.Test;
+
+/**
+ * Checks that the array based (in place) transformation path yields the same results as the {@link Point3d} based one.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class InPlaceTransformTest {
+
+    private static final double[] GK2_POINTS = new double[] { 2365253.9171053073, 5838184.758315763, 2366000.5,
+                                                             5839000.25, 2364000, 5837000 };
+
+    private static final double[] WGS84_POINTS = new double[] { 4.00788999689501, 52.659800083701924, 7.1, 50.7,
+                                                               -3.5, 40.4 };
+
+    @Test
+    public void test31466To4326()
+                            throws Exception {
+        assertSameResults( "epsg:31466", "epsg:4326", GK2_POINTS );
+    }
+
+    @Test
+    public void test31466To4314()
+                            throws Exception {
+        assertSameResults( "epsg:31466", "epsg:4314", GK2_POINTS );
+    }
+
+    @Test
+    public void test4326To900913()
+                            throws Exception {
+        assertSameResults( "epsg:4326", "epsg:900913", WGS84_POINTS );
+    }
+
+    @Test
+    public void test4326To25832()
+                            throws Exception {
+        assertSameResults( "epsg:4326", "epsg:25832", WGS84_POINTS );
+    }
+
+    @Test
+    public void testMatrix4dWithUndefinedHeight()
+                            throws Exception {
+        ICRS crs = CRSManager.lookup( "epsg:4326" );
+        Matrix4d m = new Matrix4d();
+        m.setIdentity();
+        m.setTranslation( new Vector3d( 10, 20, 30 ) );
+        MatrixTransform trans = new MatrixTransform( crs, crs, m, new CRSIdentifiable( new CRSCodeType( "test" ) ) );
+
+        double[] ordinates2d = new double[] { 1, 2, 3, 4 };
+        trans.transform( ordinates2d, 0, 2, 2 );
+        assertArrayEquals( new double[] { 11, 22, 13, 24 }, ordinates2d, 1E-9 );
+
+        // a NaN height must not turn x and y into NaN and stays undefined
+        double[] ordinates3d = new double[] { 1, 2, Double.NaN, 3, 4, 5 };
+        trans.transform( ordinates3d, 0, 2, 3 );
+        assertArrayEquals( new double[] { 11, 22, Double.NaN, 13, 24, 35 }, ordinates3d, 1E-9 );
+    }
+
+    private void assertSameResults( String source, String target, double[] points2d )
+                            throws Exception {
+        ICRS sourceCRS = CRSManager.lookup( source );
+        ICRS targetCRS = CRSManager.lookup( target );
+        CoordinateTransformer transformer = new CoordinateTransformer( targetCRS );
+
+        List<Point3d> expected = new ArrayList<Point3d>();
+        for ( int i = 0; i < points2d.length; i += 2 ) {
+            expected.add( new Point3d( points2d[i], points2d[i + 1], Double.NaN ) );
+        }
+        expected = transformer.transform( sourceCRS, expected );
+
+        double[] ordinates = points2d.clone();
+        transformer.transform( sourceCRS, ordinates, 0, points2d.length / 2, 2 );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertEquals( expected.get( i ).x, ordinates[i * 2], 1E-9 );
+            assertEquals( expected.get( i ).y, ordinates[i * 2 + 1], 1E-9 );
+        }
+
+        // same with a stride of 3 and an offset
+        double[] ordinates3d = new double[points2d.length / 2 * 3 + 1];
+        for ( int i = 0; i < expected.size(); i++ ) {
+            ordinates3d[1 + i * 3] = points2d[i * 2];
+            ordinates3d[1 + i * 3 + 1] = points2d[i * 2 + 1];
+            ordinates3d[1 + i * 3 + 2] = Double.NaN;
+        }
+        transformer.transform( sourceCRS, ordinates3d, 1, expected.size(), 3 );
+        for ( int i = 0; i < expected.size(); i++ ) {
+            assertEquals( expected.get( i ).x, ordinates3d[1 + i * 3], 1E-9 );
+            assertEquals( expected.get( i ).y, ordinates3d[1 + i * 3 + 1], 1E-9 );
+        }
+    }
+
+}
@@ -63,6 +63,12 @@ import org.deegree.workspace.ResourceMetadata;
  */
 public class LegacyConnectionProvider implements ConnectionProvider {
 
+    /**
+     * Default number of prepared statements kept open per pooled connection. Each of them holds a database cursor, so
+     * this is kept well below the usual open cursor limits (e.g. 50 for Oracle's OPEN_CURSORS).
+     */
+    public static final int DEFAULT_MAX_OPEN_STATEMENTS = 10;
+
     private LegacyConnectionProviderMetadata metadata;
 
     private ConnectionPool pool;
@@ -71,17 +77,23 @@ public class LegacyConnectionProvider implements ConnectionProvider {
 
     public LegacyConnectionProvider( String url, String user, String password, boolean readOnly,
                                      LegacyConnectionProviderMetadata metadata ) {
+        this( url, user, password, readOnly, DEFAULT_MAX_OPEN_STATEMENTS, metadata );
+    }
+
+    /**
+     * @param maxOpenStatements
+     *            maximum number of prepared statements kept open per pooled connection, zero or less disables
+     *            statement pooling
+     */
+    public LegacyConnectionProvider( String url, String user, String password, boolean readOnly,
+                                     int maxOpenStatements, LegacyConnectionProviderMetadata metadata ) {
         this.metadata = metadata;
         // hardcoded as until 3.2
         int poolMinSize = 5;
         int poolMaxSize = 25;
 
-        if ( metadata != null ) {
-            pool = new ConnectionPool( metadata.getIdentifier().getId(), url, user, password, readOnly, poolMinSize,
-                                       poolMaxSize );
-        } else {
-            pool = new ConnectionPool( "<unspecified>", url, user, password, readOnly, poolMinSize, poolMaxSize );
-        }
+        String id = metadata != null ? metadata.getIdentifier().getId() : "<unspecified>";
+        pool = new ConnectionPool( id, url, user, password, readOnly, poolMinSize, poolMaxSize, maxOpenStatements );
     }
 
     public void setDialect( SQLDialect dialect ) {
@@ -125,6 +137,24 @@ public class LegacyConnectionProvider implements ConnectionProvider {
         return dialect;
     }
 
+    /**
+     * Returns the number of prepared statements that have been reused from the statement pool.
+     * 
+     * @return number of hits, always zero if statement pooling is disabled
+     */
+    public long getStatementCacheHits() {
+        return pool.getStatementCacheHits();
+    }
+
+    /**
+     * Returns the number of prepared statements that had to be prepared by the driver.
+     * 
+     * @return number of misses, always zero if statement pooling is disabled
+     */
+    public long getStatementCacheMisses() {
+        return pool.getStatementCacheMisses();
+    }
+
     @Override
     public void invalidate( Connection conn ) {
         try {
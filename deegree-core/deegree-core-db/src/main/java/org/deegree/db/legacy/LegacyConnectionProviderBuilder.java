@@ -41,6 +41,7 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.db.legacy;
 
+import static org.deegree.db.legacy.LegacyConnectionProvider.DEFAULT_MAX_OPEN_STATEMENTS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.sql.Connection;
@@ -84,9 +85,14 @@ public class LegacyConnectionProviderBuilder implements ResourceBuilder<Connecti
     @Override
     public ConnectionProvider build() {
         String url = config.getUrl();
+        int maxOpenStatements = DEFAULT_MAX_OPEN_STATEMENTS;
+        if ( config.getMaxOpenStatements() != null ) {
+            maxOpenStatements = config.getMaxOpenStatements();
+        }
         LegacyConnectionProvider cprov;
         cprov = new LegacyConnectionProvider( url, config.getUser(), config.getPassword(),
-                                              config.isReadOnly() == null ? false : config.isReadOnly(), metadata );
+                                              config.isReadOnly() == null ? false : config.isReadOnly(),
+                                              maxOpenStatements, metadata );
 
         ServiceLoader<SqlDialectProvider> dialectLoader = ServiceLoader.load( SqlDialectProvider.class,
                                                                               workspace.getModuleClassLoader() );
@@ -53,6 +53,8 @@ import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.geometry.standard.points.PointsArray;
 import org.deegree.geometry.standard.points.PointsList;
 
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
+
 /**
  * Contains utility methods for common tasks on {@link Geometry} objects.
  * 
@@ -223,6 +225,32 @@ public class Geometries {
         return ( (AbstractDefaultGeometry) geom ).createFromJTS( jtsGeom, geom.getCoordinateSystem() );
     }
 
+    /**
+     * Simplifies the given {@link Geometry} (Douglas-Peucker), preserving its topology.
+     * <p>
+     * Points and geometries that cannot be simplified (e.g. curves with non-linear segments) are returned unchanged.
+     * </p>
+     * 
+     * @param geom
+     *            geometry to simplify, must not be <code>null</code>
+     * @param tolerance
+     *            maximum distance between the original and the simplified geometry (in units of the geometry's CRS)
+     * @return simplified geometry (without id), never <code>null</code>
+     */
+    public static Geometry simplify( Geometry geom, double tolerance ) {
+        if ( geom instanceof Point || !( geom instanceof AbstractDefaultGeometry ) ) {
+            return geom;
+        }
+        try {
+            AbstractDefaultGeometry defaultGeom = (AbstractDefaultGeometry) geom;
+            com.vividsolutions.jts.geom.Geometry jtsGeom = defaultGeom.getJTSGeometry();
+            jtsGeom = TopologyPreservingSimplifier.simplify( jtsGeom, tolerance );
+            return defaultGeom.createFromJTS( jtsGeom, geom.getCoordinateSystem() );
+        } catch ( UnsupportedOperationException e ) {
+            return geom;
+        }
+    }
+
     /**
      * Samples points on a line string using the specified distance.
      * 
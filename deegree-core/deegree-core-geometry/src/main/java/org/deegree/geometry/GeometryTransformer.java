@@ -42,8 +42,6 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import javax.vecmath.Point3d;
-
 import org.deegree.commons.uom.Length;
 import org.deegree.cs.Transformer;
 import org.deegree.cs.coordinatesystems.CRS;
@@ -110,6 +108,7 @@ import org.deegree.geometry.primitive.segments.LineStringSegment;
 import org.deegree.geometry.primitive.segments.OffsetCurve;
 import org.deegree.geometry.primitive.segments.CurveSegment.CurveSegmentType;
 import org.deegree.geometry.standard.curvesegments.AffinePlacement;
+import org.deegree.geometry.standard.points.PackedPoints;
 import org.deegree.geometry.standard.points.PointsList;
 import org.slf4j.Logger;
 
@@ -538,29 +537,31 @@ public class GeometryTransformer extends Transformer {
         double axis0Step = span0 / ( pointsPerSide + 1 );
         double axis1Step = span1 / ( pointsPerSide + 1 );
 
-        List<Point3d> points = new ArrayList<Point3d>( pointsPerSide * 4 + 4 );
+        final int count = ( pointsPerSide + 2 ) * 4;
+        final double[] ordinates = new double[count * 3];
         double zValue = Double.NaN;
         if ( trans.getSourceCRS() != null ) {
             zValue = trans.getSourceCRS().getDimension() == 3 ? 1 : Double.NaN;
         }
 
+        int o = 0;
         for ( int i = 0; i <= pointsPerSide + 1; i++ ) {
-            points.add( new Point3d( axis0Min + i * axis0Step, axis1Min, zValue ) );
-            points.add( new Point3d( axis0Min + i * axis0Step, axis1Max, zValue ) );
-            points.add( new Point3d( axis0Min, axis1Min + i * axis1Step, zValue ) );
-            points.add( new Point3d( axis0Max, axis1Min + i * axis1Step, zValue ) );
+            o = setOrdinates( ordinates, o, axis0Min + i * axis0Step, axis1Min, zValue );
+            o = setOrdinates( ordinates, o, axis0Min + i * axis0Step, axis1Max, zValue );
+            o = setOrdinates( ordinates, o, axis0Min, axis1Min + i * axis1Step, zValue );
+            o = setOrdinates( ordinates, o, axis0Max, axis1Min + i * axis1Step, zValue );
         }
 
-        points = trans.doTransform( points );
+        trans.transform( ordinates, 0, count, 3 );
         axis0Min = Double.MAX_VALUE;
         axis1Min = Double.MAX_VALUE;
         axis0Max = Double.NEGATIVE_INFINITY;
         axis1Max = Double.NEGATIVE_INFINITY;
-        for ( Point3d p : points ) {
-            axis0Min = Math.min( p.x, axis0Min );
-            axis1Min = Math.min( p.y, axis1Min );
-            axis0Max = Math.max( p.x, axis0Max );
-            axis1Max = Math.max( p.y, axis1Max );
+        for ( o = 0; o < ordinates.length; o += 3 ) {
+            axis0Min = Math.min( ordinates[o], axis0Min );
+            axis1Min = Math.min( ordinates[o + 1], axis1Min );
+            axis0Max = Math.max( ordinates[o], axis0Max );
+            axis1Max = Math.max( ordinates[o + 1], axis1Max );
         }
 
         // pass the 3rd coordinate if exist and dimension of source and target CRS is 2
@@ -578,6 +579,13 @@ public class GeometryTransformer extends Transformer {
         return geomFactory.createEnvelope( min, max, CRSManager.getCRSRef( this.getTargetCRS() ) );
     }
 
+    private static int setOrdinates( double[] ordinates, int offset, double x, double y, double z ) {
+        ordinates[offset] = x;
+        ordinates[offset + 1] = y;
+        ordinates[offset + 2] = z;
+        return offset + 3;
+    }
+
     private LineString transform( LineString geo, Transformation trans )
                             throws TransformationException {
         LineStringSegment segment = (LineStringSegment) geo.getCurveSegments().get( 0 ); // only one for a line string?
@@ -816,21 +824,49 @@ public class GeometryTransformer extends Transformer {
     private Points transform( Points points, Transformation trans )
                             throws TransformationException {
 
-        List<Point> result = new ArrayList<Point>( points.size() );
+        final int size = points.size();
+        boolean is2d = true;
+        boolean hasIds = false;
         for ( Point point : points ) {
-            Point3d coord = new Point3d( point.get0(), point.get1(), point.get2() );
-            Point3d tmp = new Point3d( coord );
+            is2d &= Double.isNaN( point.get2() );
+            hasIds |= point.getId() != null;
+        }
 
-            tmp = trans.doTransform( coord );
+        if ( is2d && !hasIds ) {
+            // 2d input has no height at all, the transformation treats it as undefined instead of a NaN ordinate
+            double[] packed = new double[size * 2];
+            int i = 0;
+            for ( Point point : points ) {
+                packed[i++] = point.get0();
+                packed[i++] = point.get1();
+            }
+            trans.transform( packed, 0, size, 2 );
+            return new PackedPoints( getTargetCRS(), packed, 2 );
+        }
 
+        final double[] ordinates = new double[size * 3];
+        int i = 0;
+        for ( Point point : points ) {
+            ordinates[i++] = point.get0();
+            ordinates[i++] = point.get1();
+            ordinates[i++] = point.get2();
+        }
+        trans.transform( ordinates, 0, size, 3 );
+
+        // pass the 3rd coordinate if exist and dimension of source and target CRS is 2
+        final boolean keepZ = trans.getSourceCRS() != null && trans.getTargetCRS() != null
+                              && trans.getSourceCRS().getDimension() == 2 && trans.getTargetCRS().getDimension() == 2;
+
+        List<Point> result = new ArrayList<Point>( size );
+        i = 0;
+        for ( Point point : points ) {
+            double x = ordinates[i++];
+            double y = ordinates[i++];
+            double z = ordinates[i++];
             if ( Double.isNaN( point.get2() ) ) {
-                result.add( geomFactory.createPoint( point.getId(), new double[] { tmp.x, tmp.y }, getTargetCRS() ) );
+                result.add( geomFactory.createPoint( point.getId(), new double[] { x, y }, getTargetCRS() ) );
             } else {
-                // pass the 3rd coordinate if exist and dimension of source and target CRS is 2
-                if ( trans.getSourceCRS().getDimension() == 2 && trans.getTargetCRS().getDimension() == 2 ) {
-                    tmp.z = point.get2();
-                }
-                result.add( geomFactory.createPoint( point.getId(), new double[] { tmp.x, tmp.y, tmp.z },
+                result.add( geomFactory.createPoint( point.getId(), new double[] { x, y, keepZ ? point.get2() : z },
                                                      getTargetCRS() ) );
             }
         }
@@ -845,17 +881,15 @@ public class GeometryTransformer extends Transformer {
     private Point transform( Point geo, Transformation trans )
                             throws TransformationException {
 
-        Point3d coord = new Point3d( geo.get0(), geo.get1(), geo.get2() );
-        Point3d result = new Point3d( coord );
-
-        result = trans.doTransform( coord );
+        double[] result = new double[] { geo.get0(), geo.get1(), geo.get2() };
+        trans.transform( result, 0, 1, 3 );
         if ( Double.isNaN( geo.get2() ) ) {
-            return geomFactory.createPoint( geo.getId(), new double[] { result.x, result.y }, getTargetCRS() );
+            return geomFactory.createPoint( geo.getId(), new double[] { result[0], result[1] }, getTargetCRS() );
         } else if ( trans.getSourceCRS().getDimension() == 2 && trans.getTargetCRS().getDimension() == 2 ) {
             // pass the 3rd coordinate if exist and dimension of source and target CRS is 2
-            result.z = geo.get2();
+            result[2] = geo.get2();
         }
-        return geomFactory.createPoint( geo.getId(), new double[] { result.x, result.y, result.z }, getTargetCRS() );
+        return geomFactory.createPoint( geo.getId(), result, getTargetCRS() );
     }
 
     /**
@@ -0,0 +1,158 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.geometry.io;
+
+/**
+ * Reusable character buffer for assembling coordinate lists (e.g. GML <code>posList</code> or
+ * <code>coordinates</code> contents) that can be handed to a writer as a single block.
+ * <p>
+ * Ordinates appended via {@link #append(double, CoordinateFormatter)} are written without intermediate
+ * <code>String</code> objects if the formatter is a {@link DecimalCoordinateFormatter} (but not a subclass, which may
+ * override {@link DecimalCoordinateFormatter#format(double)}). Not thread-safe; intended to be held per writer
+ * instance.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class CoordinateCharBuffer {
+
+    private char[] chars;
+
+    private int length;
+
+    /**
+     * Creates a new {@link CoordinateCharBuffer} with an initial capacity of 1024 characters.
+     */
+    public CoordinateCharBuffer() {
+        this( 1024 );
+    }
+
+    /**
+     * Creates a new {@link CoordinateCharBuffer} with the given initial capacity.
+     * 
+     * @param capacity
+     *            initial capacity in characters, must be positive
+     */
+    public CoordinateCharBuffer( int capacity ) {
+        chars = new char[capacity];
+    }
+
+    /**
+     * Discards the contents, the allocated capacity is retained.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Appends a single character.
+     * 
+     * @param c
+     *            character to append
+     */
+    public void append( char c ) {
+        ensureCapacity( 1 );
+        chars[length++] = c;
+    }
+
+    /**
+     * Appends the given string.
+     * 
+     * @param s
+     *            string to append, must not be <code>null</code>
+     */
+    public void append( String s ) {
+        int len = s.length();
+        ensureCapacity( len );
+        s.getChars( 0, len, chars, length );
+        length += len;
+    }
+
+    /**
+     * Appends the formatted representation of the given ordinate.
+     * 
+     * @param ordinate
+     *            ordinate to append
+     * @param formatter
+     *            formatter to use, must not be <code>null</code>
+     */
+    public void append( double ordinate, CoordinateFormatter formatter ) {
+        if ( formatter.getClass() == DecimalCoordinateFormatter.class ) {
+            DecimalCoordinateFormatter decimalFormatter = (DecimalCoordinateFormatter) formatter;
+            ensureCapacity( decimalFormatter.getMaxFastLength() );
+            int newLength = decimalFormatter.format( ordinate, chars, length );
+            if ( newLength >= 0 ) {
+                length = newLength;
+                return;
+            }
+        }
+        append( formatter.format( ordinate ) );
+    }
+
+    /**
+     * Returns the backing array, valid characters are at positions <code>0</code> to {@link #length()} (exclusive).
+     * 
+     * @return backing array, never <code>null</code>
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns the number of characters in the buffer.
+     * 
+     * @return number of characters
+     */
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String( chars, 0, length );
+    }
+
+    private void ensureCapacity( int additional ) {
+        int required = length + additional;
+        if ( required > chars.length ) {
+            char[] newChars = new char[Math.max( required, chars.length * 2 )];
+            System.arraycopy( chars, 0, newChars, 0, length );
+            chars = newChars;
+        }
+    }
+}
@@ -57,8 +57,25 @@ public class DecimalCoordinateFormatter implements CoordinateFormatter {
     /** Number of decimal places used for metric coordinates (3). **/
     private static final int DEFAULT_PLACES_METRE = 3;
 
+    /** Maximum number of decimal places supported by the allocation-free formatting path. **/
+    private static final int MAX_FAST_PLACES = 10;
+
+    // scaled values must stay well below 2^53 to keep the rounding decision exact
+    private static final double MAX_FAST_SCALED = 1e12;
+
+    // distance of the scaled fraction to .5 below which the rounding is delegated to the DecimalFormat
+    private static final double TIE_MARGIN = 1e-3;
+
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+                                                 100000000L, 1000000000L, 10000000000L };
+
     private final DecimalFormat decimalFormat;
 
+    // number of decimal places for the fast path, -1 if the DecimalFormat must always be used
+    private final int fastPlaces;
+
+    private final long fastScale;
+
     /**
      * Creates a new {@link DecimalCoordinateFormatter} instance that uses {@link #DEFAULT_PLACES}.
      */
@@ -73,20 +90,7 @@ public class DecimalCoordinateFormatter implements CoordinateFormatter {
      *            unit-of-measure, may be <code>null</code>
      */
     public DecimalCoordinateFormatter( IUnit uom ) {
-        int decimalPlaces = DEFAULT_PLACES;
-        if ( uom == Unit.METRE ) {
-            decimalPlaces = DEFAULT_PLACES_METRE;
-        }
-        StringBuffer pattern = new StringBuffer( "0" );
-        if ( decimalPlaces > 0 ) {
-            pattern.append( "." );
-            for ( int i = 0; i < decimalPlaces; i++ ) {
-                pattern.append( "0" );
-            }
-        }
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
-        symbols.setDecimalSeparator( '.' );
-        decimalFormat = new DecimalFormat( pattern.toString(), symbols );
+        this( uom == Unit.METRE ? DEFAULT_PLACES_METRE : DEFAULT_PLACES );
     }
 
     /**
@@ -106,6 +110,14 @@ public class DecimalCoordinateFormatter implements CoordinateFormatter {
         DecimalFormatSymbols symbols = new DecimalFormatSymbols();
         symbols.setDecimalSeparator( '.' );
         decimalFormat = new DecimalFormat( pattern.toString(), symbols );
+        if ( decimalPlaces >= 0 && decimalPlaces <= MAX_FAST_PLACES && symbols.getZeroDigit() == '0'
+             && symbols.getMinusSign() == '-' ) {
+            fastPlaces = decimalPlaces;
+            fastScale = POWERS_OF_TEN[decimalPlaces];
+        } else {
+            fastPlaces = -1;
+            fastScale = 1;
+        }
     }
 
     /**
@@ -116,10 +128,93 @@ public class DecimalCoordinateFormatter implements CoordinateFormatter {
      */
     public DecimalCoordinateFormatter( DecimalFormat decimalFormat ) {
         this.decimalFormat = decimalFormat;
+        this.fastPlaces = -1;
+        this.fastScale = 1;
     }
 
     @Override
     public String format( double number ) {
         return decimalFormat.format( number );
     }
+
+    /**
+     * Writes the formatted representation of the given number into the specified buffer, without allocating
+     * intermediate objects.
+     * <p>
+     * The written characters are identical to the result of {@link #format(double)}. If the fixed-precision fast path
+     * cannot be used for the value (non-finite or very large numbers, values that lie almost exactly between two
+     * representable results, custom {@link DecimalFormat}s), <code>-1</code> is returned and nothing is written, so
+     * the caller has to fall back to {@link #format(double)}.
+     * </p>
+     * 
+     * @param number
+     *            number to be formatted
+     * @param buffer
+     *            buffer to write to, must have room for at least {@link #getMaxFastLength()} characters after
+     *            <code>offset</code>
+     * @param offset
+     *            position of the first character to be written
+     * @return position after the last written character, or <code>-1</code> if the value has not been written
+     */
+    public int format( double number, char[] buffer, int offset ) {
+        if ( fastPlaces < 0 ) {
+            return -1;
+        }
+        double scaled = number * fastScale;
+        if ( !( scaled < MAX_FAST_SCALED && scaled > -MAX_FAST_SCALED ) ) {
+            // also catches NaN
+            return -1;
+        }
+        boolean negative = number < 0 || ( number == 0 && 1 / number < 0 );
+        if ( negative ) {
+            scaled = -scaled;
+        }
+        long integral = (long) scaled;
+        double fraction = scaled - integral;
+        if ( fraction > 0.5 - TIE_MARGIN && fraction < 0.5 + TIE_MARGIN ) {
+            return -1;
+        }
+        if ( fraction > 0.5 ) {
+            integral++;
+        }
+
+        int pos = offset;
+        if ( negative ) {
+            buffer[pos++] = '-';
+        }
+        long intPart = integral / fastScale;
+        long fracPart = integral - intPart * fastScale;
+
+        // integer part, written backwards
+        int start = pos;
+        do {
+            buffer[pos++] = (char) ( '0' + ( intPart % 10 ) );
+            intPart /= 10;
+        } while ( intPart != 0 );
+        for ( int i = start, j = pos - 1; i < j; i++, j-- ) {
+            char c = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = c;
+        }
+
+        if ( fastPlaces > 0 ) {
+            buffer[pos++] = '.';
+            for ( int i = pos + fastPlaces - 1; i >= pos; i-- ) {
+                buffer[i] = (char) ( '0' + ( fracPart % 10 ) );
+                fracPart /= 10;
+            }
+            pos += fastPlaces;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the maximum number of characters written by a successful call of {@link #format(double, char[], int)}.
+     * 
+     * @return maximum number of characters
+     */
+    public int getMaxFastLength() {
+        // sign, 13 integer digits, separator, decimal places
+        return 15 + MAX_FAST_PLACES;
+    }
 }
\ No newline at end of file
@@ -35,21 +35,42 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.geometry.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.cs.persistence.CRSManager;
 import org.deegree.geometry.Geometry;
-import org.deegree.geometry.standard.AbstractDefaultGeometry;
+import org.deegree.geometry.points.Points;
+import org.deegree.geometry.primitive.LineString;
+import org.deegree.geometry.primitive.Point;
+import org.deegree.geometry.primitive.Polygon;
+import org.deegree.geometry.primitive.Ring;
+import org.deegree.geometry.standard.multi.DefaultMultiGeometry;
+import org.deegree.geometry.standard.multi.DefaultMultiLineString;
+import org.deegree.geometry.standard.multi.DefaultMultiPoint;
+import org.deegree.geometry.standard.multi.DefaultMultiPolygon;
+import org.deegree.geometry.standard.points.PackedPoints;
+import org.deegree.geometry.standard.primitive.DefaultLineString;
+import org.deegree.geometry.standard.primitive.DefaultLinearRing;
 import org.deegree.geometry.standard.primitive.DefaultPoint;
+import org.deegree.geometry.standard.primitive.DefaultPolygon;
 
-import com.vividsolutions.jts.io.InputStreamInStream;
 import com.vividsolutions.jts.io.ParseException;
 
 /**
  * Reads {@link Geometry} objects encoded as Well-Known Binary (WKB).
+ * <p>
+ * The bytes are decoded directly into deegree geometries with {@link PackedPoints} coordinate sequences, no
+ * intermediate JTS geometries are created. Besides OGC/ISO WKB (type codes 1000+ for Z, 2000+ for M, 3000+ for ZM),
+ * PostGIS EWKB (high bit flags for Z, M and SRID) is understood. Z values are retained, M values are skipped. If no
+ * CRS is passed and the EWKB carries an SRID, the CRS is set to the corresponding <code>EPSG</code> code.
+ * </p>
  * 
- * TODO re-implement without delegating to JTS TODO add support for non-SFS geometries (e.g. non-linear curves)
+ * TODO add support for non-SFS geometries (e.g. non-linear curves)
  * 
  * @author <a href="mailto:schneider@lat-lon.de">Markus Schneider</a>
  * @author last edited by: $Author$
@@ -58,20 +79,271 @@ import com.vividsolutions.jts.io.ParseException;
  */
 public class WKBReader {
 
-    // TODO remove the need for this object
-    private static AbstractDefaultGeometry defaultGeom = new DefaultPoint( null, null, null, new double[] { 0.0, 0.0 } );
+    private static final int WKB_POINT = 1;
 
+    private static final int WKB_LINESTRING = 2;
+
+    private static final int WKB_POLYGON = 3;
+
+    private static final int WKB_MULTIPOINT = 4;
+
+    private static final int WKB_MULTILINESTRING = 5;
+
+    private static final int WKB_MULTIPOLYGON = 6;
+
+    private static final int WKB_GEOMETRYCOLLECTION = 7;
+
+    private static final int EWKB_Z_FLAG = 0x80000000;
+
+    private static final int EWKB_M_FLAG = 0x40000000;
+
+    private static final int EWKB_SRID_FLAG = 0x20000000;
+
+    // byte order marker, geometry type and at least one count
+    private static final int MIN_GEOMETRY_BYTES = 9;
+
+    private final byte[] wkb;
+
+    private int pos;
+
+    private boolean littleEndian;
+
+    private WKBReader( byte[] wkb ) {
+        this.wkb = wkb;
+    }
+
+    /**
+     * Decodes the given WKB or EWKB bytes.
+     * 
+     * @param wkb
+     *            encoded geometry, must not be <code>null</code>
+     * @param crs
+     *            crs of the geometry, may be <code>null</code> (SRID of the EWKB is used, if present)
+     * @return decoded geometry, <code>null</code> if the encoded geometry is empty
+     * @throws ParseException
+     *             if the bytes are not a valid (E)WKB encoding
+     */
     public static Geometry read( byte[] wkb, ICRS crs )
                             throws ParseException {
-        // com.vividsolutions.jts.io.WKBReader() is not thread safe        
-        return defaultGeom.createFromJTS( new com.vividsolutions.jts.io.WKBReader().read( wkb ), crs );
+        // instances hold the decoding position, so a new one is used for every call (thread safety)
+        WKBReader reader = new WKBReader( wkb );
+        try {
+            return reader.readGeometry( crs );
+        } catch ( ArrayIndexOutOfBoundsException e ) {
+            throw new ParseException( "Unexpected end of WKB data (" + wkb.length + " bytes)." );
+        }
     }
 
+    /**
+     * Decodes the WKB or EWKB bytes provided by the given stream.
+     * 
+     * @param is
+     *            stream to read from, must not be <code>null</code>
+     * @param crs
+     *            crs of the geometry, may be <code>null</code> (SRID of the EWKB is used, if present)
+     * @return decoded geometry, <code>null</code> if the encoded geometry is empty
+     * @throws IOException
+     *             if reading from the stream fails
+     * @throws ParseException
+     *             if the bytes are not a valid (E)WKB encoding
+     */
     public static Geometry read( InputStream is, ICRS crs )
                             throws IOException, ParseException {
-        // com.vividsolutions.jts.io.WKBReader() is not thread safe
-        return defaultGeom.createFromJTS(
-                                          new com.vividsolutions.jts.io.WKBReader().read( new InputStreamInStream( is ) ),
-                                          crs );
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ( ( read = is.read( buffer ) ) != -1 ) {
+            bos.write( buffer, 0, read );
+        }
+        return read( bos.toByteArray(), crs );
+    }
+
+    private Geometry readGeometry( ICRS crs )
+                            throws ParseException {
+
+        byte byteOrder = wkb[pos++];
+        if ( byteOrder == 0 ) {
+            littleEndian = false;
+        } else if ( byteOrder == 1 ) {
+            littleEndian = true;
+        } else {
+            throw new ParseException( "Invalid WKB byte order marker: " + byteOrder + "." );
+        }
+
+        int typeInt = readInt();
+        boolean hasZ = ( typeInt & EWKB_Z_FLAG ) != 0;
+        boolean hasM = ( typeInt & EWKB_M_FLAG ) != 0;
+        if ( ( typeInt & EWKB_SRID_FLAG ) != 0 ) {
+            int srid = readInt();
+            if ( crs == null && srid > 0 ) {
+                crs = CRSManager.getCRSRef( "EPSG:" + srid );
+            }
+        }
+        int type = typeInt & 0x0FFFFFFF;
+        if ( type > 1000 ) {
+            // ISO WKB
+            int dimensionCode = type / 1000;
+            hasZ |= dimensionCode == 1 || dimensionCode == 3;
+            hasM |= dimensionCode == 2 || dimensionCode == 3;
+            type = type % 1000;
+        }
+        int inputDim = 2 + ( hasZ ? 1 : 0 ) + ( hasM ? 1 : 0 );
+        int outputDim = hasZ ? 3 : 2;
+
+        switch ( type ) {
+        case WKB_POINT:
+            return readPoint( crs, inputDim, outputDim );
+        case WKB_LINESTRING: {
+            Points points = readPoints( crs, inputDim, outputDim );
+            if ( points.size() == 0 ) {
+                return null;
+            }
+            return new DefaultLineString( null, crs, null, points );
+        }
+        case WKB_POLYGON:
+            return readPolygon( crs, inputDim, outputDim );
+        case WKB_MULTIPOINT: {
+            int numGeometries = readCount( MIN_GEOMETRY_BYTES );
+            List<Point> members = new ArrayList<Point>( numGeometries );
+            for ( int i = 0; i < numGeometries; i++ ) {
+                addIfNotEmpty( members, (Point) readMember( crs, Point.class ) );
+            }
+            return members.isEmpty() ? null : new DefaultMultiPoint( null, crs, null, members );
+        }
+        case WKB_MULTILINESTRING: {
+            int numGeometries = readCount( MIN_GEOMETRY_BYTES );
+            List<LineString> members = new ArrayList<LineString>( numGeometries );
+            for ( int i = 0; i < numGeometries; i++ ) {
+                addIfNotEmpty( members, (LineString) readMember( crs, LineString.class ) );
+            }
+            return members.isEmpty() ? null : new DefaultMultiLineString( null, crs, null, members );
+        }
+        case WKB_MULTIPOLYGON: {
+            int numGeometries = readCount( MIN_GEOMETRY_BYTES );
+            List<Polygon> members = new ArrayList<Polygon>( numGeometries );
+            for ( int i = 0; i < numGeometries; i++ ) {
+                addIfNotEmpty( members, (Polygon) readMember( crs, Polygon.class ) );
+            }
+            return members.isEmpty() ? null : new DefaultMultiPolygon( null, crs, null, members );
+        }
+        case WKB_GEOMETRYCOLLECTION: {
+            int numGeometries = readCount( MIN_GEOMETRY_BYTES );
+            List<Geometry> members = new ArrayList<Geometry>( numGeometries );
+            for ( int i = 0; i < numGeometries; i++ ) {
+                addIfNotEmpty( members, readMember( crs, Geometry.class ) );
+            }
+            return members.isEmpty() ? null : new DefaultMultiGeometry<Geometry>( null, crs, null, members );
+        }
+        default:
+            throw new ParseException( "Unsupported WKB geometry type: " + type + "." );
+        }
+    }
+
+    private Geometry readMember( ICRS crs, Class<? extends Geometry> expected )
+                            throws ParseException {
+        Geometry member = readGeometry( crs );
+        if ( member != null && !expected.isInstance( member ) ) {
+            throw new ParseException( "Invalid WKB: unexpected member geometry of type "
+                                      + member.getClass().getSimpleName() + "." );
+        }
+        return member;
+    }
+
+    private static <T> void addIfNotEmpty( List<T> members, T member ) {
+        if ( member != null ) {
+            members.add( member );
+        }
+    }
+
+    private Point readPoint( ICRS crs, int inputDim, int outputDim ) {
+        double[] coords = new double[outputDim];
+        for ( int i = 0; i < outputDim; i++ ) {
+            coords[i] = readDouble();
+        }
+        pos += ( inputDim - outputDim ) * 8;
+        if ( Double.isNaN( coords[0] ) && Double.isNaN( coords[1] ) ) {
+            // POINT EMPTY
+            return null;
+        }
+        return new DefaultPoint( null, crs, null, coords );
+    }
+
+    private Polygon readPolygon( ICRS crs, int inputDim, int outputDim )
+                            throws ParseException {
+        int numRings = readCount( 4 );
+        if ( numRings == 0 ) {
+            return null;
+        }
+        Ring exteriorRing = new DefaultLinearRing( null, crs, null, readPoints( crs, inputDim, outputDim ) );
+        List<Ring> interiorRings = new ArrayList<Ring>( numRings - 1 );
+        for ( int i = 1; i < numRings; i++ ) {
+            interiorRings.add( new DefaultLinearRing( null, crs, null, readPoints( crs, inputDim, outputDim ) ) );
+        }
+        return new DefaultPolygon( null, crs, null, exteriorRing, interiorRings );
+    }
+
+    private Points readPoints( ICRS crs, int inputDim, int outputDim )
+                            throws ParseException {
+        int numPoints = readCount( inputDim * 8 );
+        double[] coordinates = new double[numPoints * outputDim];
+        int skip = ( inputDim - outputDim ) * 8;
+        int idx = 0;
+        for ( int i = 0; i < numPoints; i++ ) {
+            for ( int d = 0; d < outputDim; d++ ) {
+                coordinates[idx++] = readDouble();
+            }
+            pos += skip;
+        }
+        return new PackedPoints( crs, coordinates, outputDim );
+    }
+
+    /**
+     * Reads an element count and checks it against the remaining bytes, so that a corrupt count cannot trigger huge
+     * allocations.
+     * 
+     * @param minElementBytes
+     *            minimum number of bytes that each element occupies
+     */
+    private int readCount( int minElementBytes )
+                            throws ParseException {
+        int count = readInt();
+        if ( count < 0 ) {
+            throw new ParseException( "Invalid WKB: negative element count (" + count + ")." );
+        }
+        if ( (long) count * minElementBytes > wkb.length - pos ) {
+            String msg = "Invalid WKB: " + count + " elements announced, but only " + ( wkb.length - pos )
+                         + " bytes left.";
+            throw new ParseException( msg );
+        }
+        return count;
+    }
+
+    private int readInt() {
+        byte[] b = wkb;
+        int p = pos;
+        pos += 4;
+        if ( littleEndian ) {
+            return ( b[p] & 0xff ) | ( ( b[p + 1] & 0xff ) << 8 ) | ( ( b[p + 2] & 0xff ) << 16 )
+                   | ( ( b[p + 3] & 0xff ) << 24 );
+        }
+        return ( ( b[p] & 0xff ) << 24 ) | ( ( b[p + 1] & 0xff ) << 16 ) | ( ( b[p + 2] & 0xff ) << 8 )
+               | ( b[p + 3] & 0xff );
+    }
+
+    private double readDouble() {
+        byte[] b = wkb;
+        int p = pos;
+        pos += 8;
+        long bits;
+        if ( littleEndian ) {
+            bits = ( b[p] & 0xffL ) | ( ( b[p + 1] & 0xffL ) << 8 ) | ( ( b[p + 2] & 0xffL ) << 16 )
+                   | ( ( b[p + 3] & 0xffL ) << 24 ) | ( ( b[p + 4] & 0xffL ) << 32 ) | ( ( b[p + 5] & 0xffL ) << 40 )
+                   | ( ( b[p + 6] & 0xffL ) << 48 ) | ( ( b[p + 7] & 0xffL ) << 56 );
+        } else {
+            bits = ( ( b[p] & 0xffL ) << 56 ) | ( ( b[p + 1] & 0xffL ) << 48 ) | ( ( b[p + 2] & 0xffL ) << 40 )
+                   | ( ( b[p + 3] & 0xffL ) << 32 ) | ( ( b[p + 4] & 0xffL ) << 24 ) | ( ( b[p + 5] & 0xffL ) << 16 )
+                   | ( ( b[p + 6] & 0xffL ) << 8 ) | ( b[p + 7] & 0xffL );
+        }
+        return Double.longBitsToDouble( bits );
     }
-}
\ No newline at end of file
+}
@@ -117,6 +117,9 @@ public class WKTWriter {
 
     private CoordinateFormatter formatter;
 
+    // reused for assembling point coordinates
+    private final CoordinateCharBuffer coordinateBuffer = new CoordinateCharBuffer( 64 );
+
     private int linearizedControlPoints = 5;
 
     /**
@@ -289,20 +292,16 @@ public class WKTWriter {
     private void writePointWithoutPrefix( Point geometry, Writer writer )
                             throws IOException {
 
+        CoordinateCharBuffer buffer = coordinateBuffer;
+        buffer.reset();
+        buffer.append( geometry.get0(), formatter );
+        buffer.append( ' ' );
+        buffer.append( geometry.get1(), formatter );
         if ( flags.contains( WKTFlag.USE_3D ) ) {
-            writer.append( formatter.format( geometry.get0() ) );
-            writer.append( ' ' );
-            writer.append( formatter.format( geometry.get1() ) );
-            writer.append( ' ' );
-            writer.append( formatter.format( geometry.get2() ) );
-
-        } else {
-            writer.append( formatter.format( geometry.get0() ) );
-            writer.append( ' ' );
-            writer.append( formatter.format( geometry.get1() ) );
-
+            buffer.append( ' ' );
+            buffer.append( geometry.get2(), formatter );
         }
-
+        writer.write( buffer.getChars(), 0, buffer.length() );
     }
 
     /**
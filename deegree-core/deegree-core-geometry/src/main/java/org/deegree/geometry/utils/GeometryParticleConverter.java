@@ -50,6 +50,18 @@ import org.deegree.geometry.Geometry;
  */
 public interface GeometryParticleConverter extends ParticleConverter<Geometry> {
 
+    /**
+     * Returns an SQL snippet for selecting a simplified version of the geometry, e.g. for rendering maps at a coarse
+     * resolution.
+     * 
+     * @param tableAlias
+     *            alias to use for qualifying the column, can be <code>null</code>
+     * @param tolerance
+     *            simplification tolerance (in units of the storage CRS), must be positive
+     * @return SQL snippet, <code>null</code> if the database does not support server-side simplification
+     */
+    public String getSimplifiedSelectSnippet( String tableAlias, double tolerance );
+
     public String getSrid();
 
     public ICRS getCrs();
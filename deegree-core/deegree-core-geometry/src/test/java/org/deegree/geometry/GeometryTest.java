@@ -35,6 +35,8 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.geometry;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.deegree.cs.coordinatesystems.ICRS;
@@ -104,6 +106,20 @@ public class GeometryTest {
         assertTrue( env1.intersects( p4 ) );
     }
 
+    @Test
+    public void testSimplify() {
+        ICRS crs = CRSManager.getCRSRef( "EPSG:4326" );
+        LineString ls = geomFactory.createLineString( null, crs, new PackedPoints( crs, new double[] { 0.0, 0.0, 5.0,
+                                                                                                      0.01, 10.0, 0.0 },
+                                                                                  2 ) );
+        LineString simplified = (LineString) Geometries.simplify( ls, 0.1 );
+        assertEquals( 2, simplified.getControlPoints().size() );
+        assertEquals( crs, simplified.getCoordinateSystem() );
+        LineString unchanged = (LineString) Geometries.simplify( ls, 0.001 );
+        assertEquals( 3, unchanged.getControlPoints().size() );
+        assertSame( p1, Geometries.simplify( p1, 0.1 ) );
+    }
+
     //    
     //
     // /**
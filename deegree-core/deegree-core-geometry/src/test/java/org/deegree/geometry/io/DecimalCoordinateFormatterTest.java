@@ -0,0 +1,202 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.geometry.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the allocation-free formatting path of {@link DecimalCoordinateFormatter} and {@link CoordinateCharBuffer}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class DecimalCoordinateFormatterTest {
+
+    private static final double[] SPECIAL_VALUES = { 0.0, -0.0, 1e-9, -1e-9, 0.5, -0.5, 1.5, 2.5, 0.125, 0.0005,
+                                                    -0.0005, 0.1 + 0.2, 123456.7895, 1e11, -1e11, 1e15, Double.NaN,
+                                                    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                                                    Double.MIN_VALUE, Double.MAX_VALUE };
+
+    @Test
+    public void testSpecialValues() {
+        for ( int places = 0; places <= 10; places++ ) {
+            DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter( places );
+            for ( double value : SPECIAL_VALUES ) {
+                assertFastEqualsFormat( formatter, value );
+            }
+        }
+    }
+
+    @Test
+    public void testRandomValues() {
+        Random random = new Random( 4711 );
+        for ( int places = 0; places <= 10; places++ ) {
+            DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter( places );
+            for ( int i = 0; i < 100000; i++ ) {
+                assertFastEqualsFormat( formatter, random.nextDouble() * 360 - 180 );
+                assertFastEqualsFormat( formatter, ( random.nextDouble() - 0.5 ) * 2e7 );
+                assertFastEqualsFormat( formatter, Math.round( random.nextDouble() * 1e6 ) / 1000.0 );
+                assertFastEqualsFormat( formatter, Double.longBitsToDouble( random.nextLong() ) );
+            }
+        }
+    }
+
+    @Test
+    public void testCustomDecimalFormatUsesFallback() {
+        DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter( new DecimalFormat( "#,##0.00" ) );
+        assertEquals( -1, formatter.format( 1234.5, new char[64], 0 ) );
+        CoordinateCharBuffer buffer = new CoordinateCharBuffer( 1 );
+        buffer.append( 1234.5, formatter );
+        assertEquals( formatter.format( 1234.5 ), buffer.toString() );
+    }
+
+    @Test
+    public void testBufferMatchesConcatenation() {
+        DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter();
+        double[] ordinates = randomOrdinates( 5000 );
+        CoordinateCharBuffer buffer = new CoordinateCharBuffer( 16 );
+        appendAll( buffer, formatter, ordinates );
+        assertEquals( concatenate( formatter, ordinates ), buffer.toString() );
+
+        buffer.reset();
+        buffer.append( "x" );
+        assertEquals( "x", buffer.toString() );
+    }
+
+    @Test
+    public void testBufferMatchesPlainDecimalFormat() {
+        Random random = new Random( 42 );
+        for ( int places = 0; places <= 10; places++ ) {
+            DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter( places );
+            DecimalFormat reference = createReferenceFormat( places );
+            double scale = Math.pow( 10, places );
+            CoordinateCharBuffer buffer = new CoordinateCharBuffer( 16 );
+            for ( int i = 0; i < 20000; i++ ) {
+                double value = ( random.nextDouble() - 0.5 ) * 2e6;
+                assertBufferEqualsReference( buffer, formatter, reference, value );
+                // values exactly or almost exactly between two results of the target precision
+                double tie = ( Math.floor( value * scale ) + 0.5 ) / scale;
+                assertBufferEqualsReference( buffer, formatter, reference, tie );
+                assertBufferEqualsReference( buffer, formatter, reference, Math.nextUp( tie ) );
+                assertBufferEqualsReference( buffer, formatter, reference, Math.nextAfter( tie, -1e300 ) );
+                double smallTie = ( random.nextInt( 2000 ) - 1000 + 0.5 ) / scale;
+                assertBufferEqualsReference( buffer, formatter, reference, smallTie );
+            }
+        }
+    }
+
+    @Test
+    public void testBufferUsesSubclassFormat() {
+        DecimalCoordinateFormatter formatter = new DecimalCoordinateFormatter() {
+            @Override
+            public String format( double number ) {
+                return "[" + super.format( number ) + "]";
+            }
+        };
+        CoordinateCharBuffer buffer = new CoordinateCharBuffer( 1 );
+        buffer.append( 1.5, formatter );
+        assertEquals( "[1.500000]", buffer.toString() );
+    }
+
+    private void assertFastEqualsFormat( DecimalCoordinateFormatter formatter, double value ) {
+        char[] buffer = new char[formatter.getMaxFastLength() + 2];
+        buffer[0] = '#';
+        int end = formatter.format( value, buffer, 1 );
+        if ( end >= 0 ) {
+            assertEquals( "Value: " + value, formatter.format( value ), new String( buffer, 1, end - 1 ) );
+        }
+        assertEquals( '#', buffer[0] );
+    }
+
+    private void assertBufferEqualsReference( CoordinateCharBuffer buffer, DecimalCoordinateFormatter formatter,
+                                              DecimalFormat reference, double value ) {
+        buffer.reset();
+        buffer.append( value, formatter );
+        assertEquals( "Value: " + value, reference.format( value ), buffer.toString() );
+    }
+
+    // formats like the DecimalCoordinateFormatter did before the fast path was added
+    private static DecimalFormat createReferenceFormat( int decimalPlaces ) {
+        StringBuffer pattern = new StringBuffer( "0" );
+        if ( decimalPlaces > 0 ) {
+            pattern.append( "." );
+            for ( int i = 0; i < decimalPlaces; i++ ) {
+                pattern.append( "0" );
+            }
+        }
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setDecimalSeparator( '.' );
+        return new DecimalFormat( pattern.toString(), symbols );
+    }
+
+    private static double[] randomOrdinates( int size ) {
+        Random random = new Random( 42 );
+        double[] ordinates = new double[size];
+        for ( int i = 0; i < ordinates.length; i++ ) {
+            ordinates[i] = random.nextDouble() * 1e6;
+        }
+        return ordinates;
+    }
+
+    private static void appendAll( CoordinateCharBuffer buffer, CoordinateFormatter formatter, double[] ordinates ) {
+        buffer.reset();
+        for ( int i = 0; i < ordinates.length; i++ ) {
+            if ( i > 0 ) {
+                buffer.append( ' ' );
+            }
+            buffer.append( ordinates[i], formatter );
+        }
+    }
+
+    private static String concatenate( CoordinateFormatter formatter, double[] ordinates ) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < ordinates.length; i++ ) {
+            if ( i > 0 ) {
+                sb.append( " " + formatter.format( ordinates[i] ) );
+            } else {
+                sb.append( formatter.format( ordinates[i] ) );
+            }
+        }
+        return sb.toString();
+    }
+}
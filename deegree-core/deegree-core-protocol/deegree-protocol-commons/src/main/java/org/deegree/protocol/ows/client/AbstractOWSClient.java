@@ -160,14 +160,16 @@ public abstract class AbstractOWSClient<T extends OWSCapabilitiesAdapter> {
 
         if ( shouldUseGet( capaUrl ) ) {
             OwsHttpResponse response = httpClient.doGet( capaUrl, null, null );
-            response.assertHttpStatus200();
-            XMLStreamReader responseAsXMLStream = response.getAsXMLStream();
-
             try {
-                XMLAdapter xmlAdapter = new XMLAdapter( responseAsXMLStream );
-                initCapabilities( xmlAdapter );
+                response.assertHttpStatus200();
+                XMLStreamReader responseAsXMLStream = response.getAsXMLStream();
+                try {
+                    XMLAdapter xmlAdapter = new XMLAdapter( responseAsXMLStream );
+                    initCapabilities( xmlAdapter );
+                } finally {
+                    responseAsXMLStream.close();
+                }
             } finally {
-                responseAsXMLStream.close();
                 response.close();
             }
         } else {
@@ -303,6 +305,25 @@ public abstract class AbstractOWSClient<T extends OWSCapabilitiesAdapter> {
         return metadata.getPostUrls( operationName );
     }
 
+    /**
+     * Returns the client used for HTTP communication.
+     * 
+     * @return http client, never <code>null</code>
+     */
+    public OwsHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Releases the pooled connections of the HTTP client (if it is an {@link OwsHttpClientImpl}). The client must not
+     * be used afterwards.
+     */
+    public void close() {
+        if ( httpClient instanceof OwsHttpClientImpl ) {
+            ( (OwsHttpClientImpl) httpClient ).close();
+        }
+    }
+
     protected void closeQuietly( OwsHttpResponse response ) {
         if (response != null) {
             response.close();
@@ -42,23 +42,44 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
 import org.deegree.commons.utils.io.StreamBufferStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Default implementation of {@link OwsHttpClient}.
+ * <p>
+ * All requests issued by an instance share a pooled connection manager, so connections to the remote endpoint are kept
+ * alive and reused instead of being opened (and torn down) for every request. Connections that have been idle for
+ * longer than the configured idle timeout are evicted in the background. Call {@link #close()} when the client is not
+ * needed anymore.
+ * </p>
  * 
  * @author <a href="mailto:schneider@occamlabs.de">Markus Schneider</a>
  * @author last edited by: $Author$
@@ -73,6 +94,28 @@ public class OwsHttpClientImpl implements OwsHttpClient {
 
     private static final int DEFAULT_READ_TIMEOUT_MILLIS = 30 * 1000;
 
+    /** Default maximum number of pooled connections per route (remote host). */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    /** Default time (in milliseconds) after which idle pooled connections are closed. */
+    public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 60 * 1000;
+
+    private static final long EVICTION_INTERVAL_MILLIS = 5 * 1000;
+
+    private static final Set<OwsHttpClientImpl> POOLED_CLIENTS =
+                            Collections.newSetFromMap( new WeakHashMap<OwsHttpClientImpl, Boolean>() );
+
+    private static Thread evictor;
+
+    private final PoolingHttpClientConnectionManager connManager;
+
+    // key: protocol://host:port, value: client (proxies, credentials and timeouts already set), all clients share the
+    // connection manager and are not closed individually
+    private final ConcurrentMap<String, CloseableHttpClient> clients =
+                            new ConcurrentHashMap<String, CloseableHttpClient>();
+
+    private final int idleTimeoutMillis;
+
     private final String user;
 
     private final String pass;
@@ -95,6 +138,29 @@ public class OwsHttpClientImpl implements OwsHttpClient {
      */
     public OwsHttpClientImpl( int connectionTimeoutMillis, int readTimeoutMillis, String httpBasicUser,
                               String httpBasicPass ) {
+        this( connectionTimeoutMillis, readTimeoutMillis, httpBasicUser, httpBasicPass,
+              DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_IDLE_TIMEOUT_MILLIS );
+    }
+
+    /**
+     * Creates a new {@link OwsHttpClientImpl} instance.
+     * 
+     * @param connectionTimeoutMillis
+     *            timeout for establishing the connection, not applied if zero or negative
+     * @param readTimeoutMillis
+     *            timeout for reading from the connection, not applied if zero or negative
+     * @param httpBasicUser
+     *            user name for http basic authentication, can be <code>null</code> (no authentication)
+     * @param httpBasicPass
+     *            password for http basic authentication, can be <code>null</code> (no authentication)
+     * @param maxConnectionsPerRoute
+     *            maximum number of pooled connections per remote host, default is used if zero or negative
+     * @param idleTimeoutMillis
+     *            time after which idle connections are closed (also used as keep-alive duration if the server does
+     *            not announce one), default is used if zero or negative
+     */
+    public OwsHttpClientImpl( int connectionTimeoutMillis, int readTimeoutMillis, String httpBasicUser,
+                              String httpBasicPass, int maxConnectionsPerRoute, int idleTimeoutMillis ) {
         if ( connectionTimeoutMillis > 0 ) {
             this.connectionTimeoutMillis = connectionTimeoutMillis;
         } else {
@@ -107,6 +173,12 @@ public class OwsHttpClientImpl implements OwsHttpClient {
         }
         this.user = httpBasicUser;
         this.pass = httpBasicPass;
+        this.idleTimeoutMillis = idleTimeoutMillis > 0 ? idleTimeoutMillis : DEFAULT_IDLE_TIMEOUT_MILLIS;
+        int maxPerRoute = maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        connManager = new PoolingHttpClientConnectionManager();
+        connManager.setDefaultMaxPerRoute( maxPerRoute );
+        connManager.setMaxTotal( maxPerRoute * 2 );
+        registerForEviction( this );
     }
 
     /**
@@ -141,10 +213,10 @@ public class OwsHttpClientImpl implements OwsHttpClient {
 
             query = new URI( sb.toString() );
             HttpGet httpGet = new HttpGet( query );
-            DefaultHttpClient httpClient = getInitializedHttpClient( endPoint );
+            CloseableHttpClient httpClient = getInitializedHttpClient( endPoint );
             LOG.debug( "Performing GET request: " + query );
             HttpResponse httpResponse = httpClient.execute( httpGet );
-            response = new OwsHttpResponseImpl( httpResponse, httpClient.getConnectionManager(), sb.toString() );
+            response = new OwsHttpResponseImpl( httpResponse, sb.toString() );
         } catch ( Throwable e ) {
             e.printStackTrace();
             String msg = "Error performing GET request on '" + query + "': " + e.getMessage();
@@ -160,14 +232,14 @@ public class OwsHttpClientImpl implements OwsHttpClient {
         OwsHttpResponse response = null;
         try {
             HttpPost httpPost = new HttpPost( endPoint.toURI() );
-            DefaultHttpClient httpClient = getInitializedHttpClient( endPoint );
+            CloseableHttpClient httpClient = getInitializedHttpClient( endPoint );
             LOG.debug( "Performing POST request on " + endPoint );
             LOG.debug( "post size: " + body.size() );
             InputStreamEntity entity = new InputStreamEntity( body.getInputStream(), (long) body.size() );
             entity.setContentType( contentType );
             httpPost.setEntity( entity );
             HttpResponse httpResponse = httpClient.execute( httpPost );
-            response = new OwsHttpResponseImpl( httpResponse, httpClient.getConnectionManager(), endPoint.toString() );
+            response = new OwsHttpResponseImpl( httpResponse, endPoint.toString() );
         } catch ( Throwable e ) {
             String msg = "Error performing POST request on '" + endPoint + "': " + e.getMessage();
             throw new IOException( msg );
@@ -175,30 +247,69 @@ public class OwsHttpClientImpl implements OwsHttpClient {
         return response;
     }
 
-    private DefaultHttpClient getInitializedHttpClient( URL url ) {
-        DefaultHttpClient client = new DefaultHttpClient();
-        setTimeouts( client );
-        setProxies( url, client );
-        setCredentials( url, client );
-        return client;
+    /**
+     * Returns statistics on the connection pool (leased, pending, available and maximum number of connections).
+     * 
+     * @return pool statistics, never <code>null</code>
+     */
+    public PoolStats getPoolStats() {
+        return connManager.getTotalStats();
     }
 
-    private void setProxies( URL url, DefaultHttpClient client ) {
-        String host = url.getHost();
-        String protocol = url.getProtocol().toLowerCase();
-        handleProxies( protocol, client, host );
+    /**
+     * Closes all pooled connections. The client must not be used afterwards.
+     */
+    public void close() {
+        synchronized ( POOLED_CLIENTS ) {
+            POOLED_CLIENTS.remove( this );
+        }
+        clients.clear();
+        connManager.shutdown();
     }
 
-    private void setTimeouts( DefaultHttpClient client ) {
-        HttpConnectionParams.setConnectionTimeout( client.getParams(), connectionTimeoutMillis );
-        HttpConnectionParams.setSoTimeout( client.getParams(), readTimeoutMillis );
+    private CloseableHttpClient getInitializedHttpClient( URL url ) {
+        String key = url.getProtocol().toLowerCase() + "://" + url.getHost() + ":" + url.getPort();
+        CloseableHttpClient client = clients.get( key );
+        if ( client == null ) {
+            CredentialsProvider credentials = new BasicCredentialsProvider();
+            HttpClientBuilder builder = HttpClientBuilder.create().setConnectionManager( connManager );
+            builder.setDefaultRequestConfig( getRequestConfig() );
+            builder.setKeepAliveStrategy( getKeepAliveStrategy() );
+            handleProxies( url.getProtocol().toLowerCase(), builder, credentials, url.getHost() );
+            if ( user != null ) {
+                credentials.setCredentials( new AuthScope( url.getHost(), url.getPort() ),
+                                            new UsernamePasswordCredentials( user, pass ) );
+            }
+            builder.setDefaultCredentialsProvider( credentials );
+            client = builder.build();
+            CloseableHttpClient existing = clients.putIfAbsent( key, client );
+            if ( existing != null ) {
+                client = existing;
+            }
+        }
+        return client;
     }
 
-    private void setCredentials( URL url, DefaultHttpClient client ) {
-        if ( user != null ) {
-            client.getCredentialsProvider().setCredentials( new AuthScope( url.getHost(), url.getPort() ),
-                                                            new UsernamePasswordCredentials( user, pass ) );
-        }
+    private RequestConfig getRequestConfig() {
+        RequestConfig.Builder config = RequestConfig.custom();
+        config.setConnectTimeout( connectionTimeoutMillis );
+        config.setSocketTimeout( readTimeoutMillis );
+        // don't wait forever for a pooled connection if all connections to the remote host are in use
+        config.setConnectionRequestTimeout( connectionTimeoutMillis );
+        return config.build();
+    }
+
+    private DefaultConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration( HttpResponse response, HttpContext context ) {
+                long keepAlive = super.getKeepAliveDuration( response, context );
+                if ( keepAlive == -1 ) {
+                    keepAlive = idleTimeoutMillis;
+                }
+                return keepAlive;
+            }
+        };
     }
 
     protected URL normalizeGetUrl( URL url )
@@ -216,4 +327,48 @@ public class OwsHttpClientImpl implements OwsHttpClient {
         }
         return new URL( s );
     }
+
+    private static void registerForEviction( OwsHttpClientImpl client ) {
+        synchronized ( POOLED_CLIENTS ) {
+            POOLED_CLIENTS.add( client );
+            if ( evictor == null ) {
+                evictor = new Thread( new Runnable() {
+                    @Override
+                    public void run() {
+                        evictIdleConnections();
+                    }
+                }, "ows-http-idle-evictor" );
+                evictor.setDaemon( true );
+                evictor.start();
+            }
+        }
+    }
+
+    private static void evictIdleConnections() {
+        while ( true ) {
+            try {
+                Thread.sleep( EVICTION_INTERVAL_MILLIS );
+            } catch ( InterruptedException e ) {
+                return;
+            }
+            List<OwsHttpClientImpl> pooled;
+            synchronized ( POOLED_CLIENTS ) {
+                if ( POOLED_CLIENTS.isEmpty() ) {
+                    // all clients closed (or collected), restarted by the next client
+                    evictor = null;
+                    return;
+                }
+                pooled = new ArrayList<OwsHttpClientImpl>( POOLED_CLIENTS );
+            }
+            for ( OwsHttpClientImpl client : pooled ) {
+                try {
+                    client.connManager.closeExpiredConnections();
+                    client.connManager.closeIdleConnections( client.idleTimeoutMillis, TimeUnit.MILLISECONDS );
+                } catch ( Throwable t ) {
+                    LOG.debug( "Evicting idle connections failed: " + t.getMessage() );
+                    LOG.trace( "Stack trace:", t );
+                }
+            }
+        }
+    }
 }
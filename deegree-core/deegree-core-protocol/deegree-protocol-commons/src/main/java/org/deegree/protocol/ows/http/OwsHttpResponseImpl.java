@@ -35,6 +35,7 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.protocol.ows.http;
 
+import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.deegree.commons.ows.exception.OWSException.NO_APPLICABLE_CODE;
 import static org.deegree.commons.xml.stax.XMLStreamUtils.skipStartDocument;
 import static org.deegree.protocol.ows.exception.OWSExceptionReader.isExceptionReport;
@@ -80,11 +81,25 @@ public class OwsHttpResponseImpl implements OwsHttpResponse {
 
     private final InputStream is;
 
+    /**
+     * Creates a new {@link OwsHttpResponseImpl} instance for a connection leased from a pool. Closing the response
+     * releases the connection back to the pool.
+     * 
+     * @param httpResponse
+     * @param url
+     * @throws IllegalStateException
+     * @throws IOException
+     */
+    OwsHttpResponseImpl( HttpResponse httpResponse, String url ) throws IllegalStateException, IOException {
+        this( httpResponse, null, url );
+    }
+
     /**
      * Creates a new {@link OwsHttpResponseImpl} instance.
      * 
      * @param httpResponse
-     * @param httpClient
+     * @param connManager
+     *            connection manager to shut down on {@link #close()}, can be <code>null</code> (pooled connection)
      * @param url
      * @throws IllegalStateException
      * @throws IOException
@@ -176,6 +191,10 @@ public class OwsHttpResponseImpl implements OwsHttpResponse {
 
     @Override
     public void close() {
-        connManager.shutdown();
+        if ( connManager != null ) {
+            connManager.shutdown();
+        } else {
+            closeQuietly( is );
+        }
     }
 }
@@ -0,0 +1,160 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.protocol.ows.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for {@link OwsHttpClientImpl} against a local HTTP server.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class OwsHttpClientImplTest {
+
+    private static final byte[] BODY = "<Capabilities/>".getBytes();
+
+    private HttpServer server;
+
+    private URL endpoint;
+
+    // client side ports of the connections the server has seen
+    private final Set<Integer> clientPorts = Collections.newSetFromMap( new ConcurrentHashMap<Integer, Boolean>() );
+
+    @Before
+    public void setup()
+                            throws IOException {
+        server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        server.createContext( "/ows", new HttpHandler() {
+            @Override
+            public void handle( HttpExchange exchange )
+                                    throws IOException {
+                clientPorts.add( exchange.getRemoteAddress().getPort() );
+                exchange.getResponseHeaders().add( "Content-Type", "text/xml" );
+                exchange.sendResponseHeaders( 200, BODY.length );
+                OutputStream os = exchange.getResponseBody();
+                os.write( BODY );
+                os.close();
+            }
+        } );
+        server.start();
+        endpoint = new URL( "http://localhost:" + server.getAddress().getPort() + "/ows" );
+    }
+
+    @After
+    public void tearDown() {
+        server.stop( 0 );
+    }
+
+    @Test
+    public void testConnectionIsReused()
+                            throws IOException {
+        OwsHttpClientImpl client = new OwsHttpClientImpl( 1000, 1000, null, null, 2, 60000 );
+        try {
+            for ( int i = 0; i < 3; ++i ) {
+                assertEquals( BODY.length, read( client.doGet( endpoint, null, null ) ).length );
+            }
+            assertEquals( 1, clientPorts.size() );
+            PoolStats stats = client.getPoolStats();
+            assertEquals( 0, stats.getLeased() );
+            assertEquals( 1, stats.getAvailable() );
+            assertEquals( 4, stats.getMax() );
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testConnectionIsLeasedUntilResponseIsClosed()
+                            throws IOException {
+        OwsHttpClientImpl client = new OwsHttpClientImpl( 1000, 1000, null, null, 2, 60000 );
+        try {
+            OwsHttpResponse response = client.doGet( endpoint, null, null );
+            assertEquals( 1, client.getPoolStats().getLeased() );
+            read( response );
+            assertEquals( 0, client.getPoolStats().getLeased() );
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testClosedClientCannotBeUsed()
+                            throws IOException {
+        OwsHttpClientImpl client = new OwsHttpClientImpl( 1000, 1000, null, null, 2, 60000 );
+        read( client.doGet( endpoint, null, null ) );
+        client.close();
+        try {
+            client.doGet( endpoint, null, null );
+            fail( "Closed client performed a request." );
+        } catch ( IOException e ) {
+            // expected
+        }
+        assertEquals( 1, clientPorts.size() );
+    }
+
+    private static byte[] read( OwsHttpResponse response )
+                            throws IOException {
+        InputStream is = response.getAsBinaryStream();
+        try {
+            return IOUtils.toByteArray( is );
+        } finally {
+            response.close();
+        }
+    }
+
+}
@@ -231,11 +231,15 @@ public class CSWClient extends AbstractOWSClient<CSWCapabilitiesAdapter> {
         Map<String, String> params = getGetRecordByIdKvpParams( fileIdentifier, schema );
 
         OwsHttpResponse response = httpClient.doGet( endPoint, params, null );
-
-        XMLStreamReader xmlStream = response.getAsXMLStream();
-        XMLStreamUtils.skipStartDocument( xmlStream );
-        moveToNextStartElement( xmlStream );
-        return MetadataRecordFactory.create( xmlStream );
+        try {
+            XMLStreamReader xmlStream = response.getAsXMLStream();
+            XMLStreamUtils.skipStartDocument( xmlStream );
+            moveToNextStartElement( xmlStream );
+            // the factory copies the record, so the response can be released afterwards
+            return MetadataRecordFactory.create( xmlStream );
+        } finally {
+            response.close();
+        }
     }
 
     private Map<String, String> getGetRecordByIdKvpParams( String fileIdentifier, String schema ) {
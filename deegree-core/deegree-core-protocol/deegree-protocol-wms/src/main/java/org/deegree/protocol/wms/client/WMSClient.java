@@ -39,8 +39,6 @@ package org.deegree.protocol.wms.client;
 import static java.awt.image.BufferedImage.TYPE_4BYTE_ABGR;
 import static java.lang.Math.abs;
 import static org.deegree.commons.ows.exception.OWSException.NO_APPLICABLE_CODE;
-import static org.deegree.commons.proxy.ProxySettings.getHttpProxyPassword;
-import static org.deegree.commons.proxy.ProxySettings.getHttpProxyUser;
 import static org.deegree.commons.utils.ArrayUtils.join;
 import static org.deegree.commons.utils.kvp.KVPUtils.toQueryString;
 import static org.deegree.commons.utils.math.MathUtils.round;
@@ -52,6 +50,8 @@ import static org.deegree.coverage.raster.utils.RasterFactory.rasterDataToImage;
 import static org.deegree.protocol.i18n.Messages.get;
 import static org.deegree.protocol.oldwms.WMSConstants.VERSION_111;
 import static org.deegree.protocol.oldwms.WMSConstants.VERSION_130;
+import static org.deegree.protocol.ows.http.OwsHttpClientImpl.DEFAULT_IDLE_TIMEOUT_MILLIS;
+import static org.deegree.protocol.ows.http.OwsHttpClientImpl.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
 import static org.deegree.protocol.wms.WMSConstants.WMSRequestType.GetCapabilities;
 import static org.deegree.protocol.wms.WMSConstants.WMSRequestType.GetFeatureInfo;
 import static org.deegree.protocol.wms.WMSConstants.WMSRequestType.GetMap;
@@ -60,12 +60,12 @@ import static org.slf4j.LoggerFactory.getLogger;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -79,9 +79,10 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.apache.axiom.om.OMElement;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
 import org.deegree.commons.concurrent.Executor;
 import org.deegree.commons.ows.exception.OWSException;
-import org.deegree.commons.proxy.ProxySettings;
 import org.deegree.commons.struct.Tree;
 import org.deegree.commons.tom.ows.Version;
 import org.deegree.commons.utils.Pair;
@@ -162,7 +163,29 @@ public class WMSClient extends AbstractOWSClient<WMSCapabilitiesAdapter> {
      */
     public WMSClient( URL url, int connectionTimeout, int requestTimeout, String user, String pass )
                             throws IOException, OWSExceptionReport, XMLStreamException {
-        super( url, new OwsHttpClientImpl( connectionTimeout * 1000, requestTimeout * 1000, user, pass ) );
+        this( url, connectionTimeout, requestTimeout, user, pass, DEFAULT_MAX_CONNECTIONS_PER_ROUTE );
+    }
+
+    /**
+     * @param url
+     * @param connectionTimeout
+     *            default is 5 seconds
+     * @param requestTimeout
+     *            default is 60 seconds
+     * @param user
+     *            http basic username
+     * @param pass
+     *            http basic password
+     * @param maxConnections
+     *            maximum number of pooled (keep-alive) connections to the server
+     * @throws XMLStreamException
+     * @throws OWSExceptionReport
+     * @throws IOException
+     */
+    public WMSClient( URL url, int connectionTimeout, int requestTimeout, String user, String pass, int maxConnections )
+                            throws IOException, OWSExceptionReport, XMLStreamException {
+        super( url, new OwsHttpClientImpl( connectionTimeout * 1000, requestTimeout * 1000, user, pass,
+                                           maxConnections, DEFAULT_IDLE_TIMEOUT_MILLIS ) );
         this.connectionTimeout = connectionTimeout;
         this.requestTimeout = requestTimeout;
         capaDoc.parseWMSSpecificCapabilities( getOperations() );
@@ -563,29 +586,28 @@ public class WMSClient extends AbstractOWSClient<WMSCapabilitiesAdapter> {
 
                 URL theUrl = new URL( url );
                 LOG.debug( "Connecting to URL " + theUrl );
-                URLConnection conn = ProxySettings.openURLConnection( theUrl, ProxySettings.getHttpProxyUser( true ),
-                                                                      ProxySettings.getHttpProxyPassword( true ),
-                                                                      httpBasicUser, httpBasicPass );
-                conn.setConnectTimeout( connectionTimeout * 1000 );
-                conn.setReadTimeout( requestTimeout * 1000 );
-                conn.connect();
-                LOG.debug( "Connected." );
-                if ( LOG.isTraceEnabled() ) {
-                    LOG.trace( "Requesting from " + theUrl );
-                    LOG.trace( "Content type is " + conn.getContentType() );
-                    LOG.trace( "Content encoding is " + conn.getContentEncoding() );
-                }
-                if ( conn.getContentType() != null && conn.getContentType().startsWith( format ) ) {
-                    res.first = IMAGE.work( conn.getInputStream() );
-                } else if ( conn.getContentType() != null
-                            && conn.getContentType().startsWith( "application/vnd.ogc.se_xml" ) ) {
-                    res.second = XmlHttpUtils.XML.work( conn.getInputStream() ).toString();
-                } else { // try and find out the hard way
-                    res.first = IMAGE.work( conn.getInputStream() );
-                    if ( res.first == null ) {
-                        conn = theUrl.openConnection();
-                        res.second = XmlHttpUtils.XML.work( conn.getInputStream() ).toString();
+                OwsHttpResponse response = httpClient.doGet( theUrl, null, null );
+                try {
+                    LOG.debug( "Connected." );
+                    String contentType = getHeader( response, "Content-Type" );
+                    if ( LOG.isTraceEnabled() ) {
+                        LOG.trace( "Requesting from " + theUrl );
+                        LOG.trace( "Content type is " + contentType );
+                        LOG.trace( "Content encoding is " + getHeader( response, "Content-Encoding" ) );
+                    }
+                    if ( contentType != null && contentType.startsWith( format ) ) {
+                        res.first = IMAGE.work( response.getAsBinaryStream() );
+                    } else if ( contentType != null && contentType.startsWith( "application/vnd.ogc.se_xml" ) ) {
+                        res.second = XmlHttpUtils.XML.work( response.getAsBinaryStream() ).toString();
+                    } else { // try and find out the hard way
+                        byte[] body = IOUtils.toByteArray( response.getAsBinaryStream() );
+                        res.first = IMAGE.work( new ByteArrayInputStream( body ) );
+                        if ( res.first == null ) {
+                            res.second = XmlHttpUtils.XML.work( new ByteArrayInputStream( body ) ).toString();
+                        }
                     }
+                } finally {
+                    closeQuietly( response );
                 }
 
                 // hack to ensure correct raster transformations. 4byte_abgr seems to be working best with current api
@@ -775,26 +797,28 @@ public class WMSClient extends AbstractOWSClient<WMSCapabilitiesAdapter> {
 
         URL theUrl = new URL( query );
         LOG.debug( "Connecting to URL " + theUrl );
-        URLConnection conn = ProxySettings.openURLConnection( theUrl, getHttpProxyUser( true ),
-                                                              getHttpProxyPassword( true ), httpBasicUser,
-                                                              httpBasicPass );
-        conn.setConnectTimeout( connectionTimeout * 1000 );
-        conn.setReadTimeout( requestTimeout * 1000 );
-        conn.connect();
+        OwsHttpResponse response = httpClient.doGet( theUrl, null, null );
         LOG.debug( "Connected." );
 
-        String fld = conn.getHeaderField( "Content-Type" );
+        String fld = getHeader( response, "Content-Type" );
         if ( fld != null && !( fld.startsWith( getMap.getFormat() ) || fld.startsWith( "image" ) ) ) {
             XMLInputFactory fac = XMLInputFactory.newInstance();
             try {
-                OWSExceptionReport rep = OWSExceptionReader.parseExceptionReport( fac.createXMLStreamReader( conn.getInputStream() ) );
+                OWSExceptionReport rep = OWSExceptionReader.parseExceptionReport( fac.createXMLStreamReader( response.getAsBinaryStream() ) );
                 throw rep.getExceptions().get( 0 );
             } catch ( Throwable e ) {
                 throw new OWSException( e.getMessage(), e, NO_APPLICABLE_CODE );
+            } finally {
+                closeQuietly( response );
             }
         }
 
-        return conn.getInputStream();
+        return response.getAsBinaryStream();
+    }
+
+    private static String getHeader( OwsHttpResponse response, String name ) {
+        Header header = response.getAsHttpResponse().getFirstHeader( name );
+        return header == null ? null : header.getValue();
     }
 
     private boolean axisFlipped( ICRS crs ) {
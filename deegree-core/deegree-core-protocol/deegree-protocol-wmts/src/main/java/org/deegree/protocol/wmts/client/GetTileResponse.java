@@ -76,10 +76,9 @@ public class GetTileResponse {
     public BufferedImage getAsImage()
                             throws IOException, OWSExceptionReport, XMLStreamException {
 
-        rawResponse.assertNoXmlContentTypeAndExceptionReport();
-
         BufferedImage image = null;
         try {
+            rawResponse.assertNoXmlContentTypeAndExceptionReport();
             InputStream is = rawResponse.getAsBinaryStream();
             image = HttpUtils.IMAGE.work( is );
         } finally {
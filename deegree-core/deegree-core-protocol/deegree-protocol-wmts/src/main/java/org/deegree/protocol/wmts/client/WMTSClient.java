@@ -193,11 +193,27 @@ public class WMTSClient extends AbstractOWSClient<WMTSCapabilitiesAdapter> {
         }
         URL endPoint = getGetUrl( WMTSConstants.WMTSRequestType.GetTile.name() );
         OwsHttpResponse response = httpClient.doGet( endPoint, kvp, null );
-        response.assertHttpStatus200();
-        response.assertNoXmlContentTypeAndExceptionReport();
+        assertNoErrorResponse( response );
         return new GetTileResponse( response );
     }
 
+    /**
+     * Checks that the given response is not an error response and closes it if it is, so the connection is released.
+     */
+    private void assertNoErrorResponse( OwsHttpResponse response )
+                            throws OWSExceptionReport, XMLStreamException {
+        boolean ok = false;
+        try {
+            response.assertHttpStatus200();
+            response.assertNoXmlContentTypeAndExceptionReport();
+            ok = true;
+        } finally {
+            if ( !ok ) {
+                response.close();
+            }
+        }
+    }
+
     private Map<String, String> buildGetTileKvpMap( GetTile request ) {
         Map<String, String> kvp = new LinkedHashMap<String, String>();
         kvp.put( "service", "WMTS" );
@@ -226,8 +242,7 @@ public class WMTSClient extends AbstractOWSClient<WMTSCapabilitiesAdapter> {
         }
         URL endPoint = getGetUrl( WMTSConstants.WMTSRequestType.GetTile.name() );
         OwsHttpResponse response = httpClient.doGet( endPoint, kvp, null );
-        response.assertHttpStatus200();
-        response.assertNoXmlContentTypeAndExceptionReport();
+        assertNoErrorResponse( response );
         return new GetFeatureInfoResponse( response, request );
     }
 
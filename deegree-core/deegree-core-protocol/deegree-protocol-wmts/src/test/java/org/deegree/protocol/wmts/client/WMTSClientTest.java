@@ -36,15 +36,26 @@
 package org.deegree.protocol.wmts.client;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
 
 import javax.xml.stream.XMLStreamException;
 
+import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.protocol.ows.exception.OWSExceptionReport;
+import org.deegree.protocol.ows.http.OwsHttpClient;
 import org.deegree.protocol.ows.http.OwsHttpClientMock;
+import org.deegree.protocol.ows.http.OwsHttpResponse;
 import org.deegree.protocol.wmts.ops.GetTile;
 import org.deegree.tile.TileMatrixSet;
 import org.junit.Assert;
@@ -120,6 +131,25 @@ public class WMTSClientTest {
         response.getAsImage();
     }
 
+    @Test
+    public void testGetTileClosesResponseOnError()
+                            throws IOException, OWSExceptionReport, XMLStreamException {
+        OwsHttpResponse response = mock( OwsHttpResponse.class );
+        OWSExceptionReport report = new OWSExceptionReport( Collections.<OWSException> emptyList(), null, null );
+        doThrow( report ).when( response ).assertHttpStatus200();
+        OwsHttpClient httpClient = mock( OwsHttpClient.class );
+        when( httpClient.doGet( any( URL.class ), anyMapOf( String.class, String.class ),
+                                anyMapOf( String.class, String.class ) ) ).thenReturn( response );
+        URL capaUrl = WMTSClientTest.class.getResource( "wmts100_capabilities_example.xml" );
+        WMTSClient client = new WMTSClient( capaUrl, httpClient );
+        try {
+            client.getTile( buildExampleRequest() );
+            fail( "Expected OWSExceptionReport." );
+        } catch ( OWSExceptionReport e ) {
+            verify( response ).close();
+        }
+    }
+
     @Test
     public void testGetLayers()
                             throws XMLStreamException {
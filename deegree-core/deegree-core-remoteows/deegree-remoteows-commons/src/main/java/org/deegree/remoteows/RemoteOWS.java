@@ -35,6 +35,7 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.remoteows;
 
+import org.deegree.protocol.ows.client.AbstractOWSClient;
 import org.deegree.workspace.Resource;
 
 /**
@@ -47,6 +48,12 @@ import org.deegree.workspace.Resource;
  */
 public interface RemoteOWS extends Resource {
 
-    // probably does not make much sense to define something here, as the services are very different
+    /**
+     * Returns the client for accessing the remote service. Its pooled HTTP connections are released when the resource
+     * is destroyed.
+     * 
+     * @return client, never <code>null</code>
+     */
+    AbstractOWSClient<?> getClient();
 
 }
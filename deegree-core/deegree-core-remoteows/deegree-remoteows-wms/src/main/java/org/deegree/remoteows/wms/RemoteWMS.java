@@ -61,13 +61,14 @@ public class RemoteWMS implements RemoteOWS {
         this.metadata = metadata;
     }
 
+    @Override
     public WMSClient getClient() {
         return client;
     }
 
     @Override
     public void destroy() {
-        // nothing to do
+        client.close();
     }
 
     @Override
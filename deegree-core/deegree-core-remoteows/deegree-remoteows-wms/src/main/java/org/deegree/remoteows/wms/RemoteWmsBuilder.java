@@ -63,6 +63,7 @@ public class RemoteWmsBuilder implements ResourceBuilder<RemoteOWS> {
 
             int connTimeout = cfg.getConnectionTimeout() == null ? 5 : cfg.getConnectionTimeout();
             int reqTimeout = cfg.getRequestTimeout() == null ? 60 : cfg.getRequestTimeout();
+            int maxConnections = cfg.getMaxConnections() == null ? 20 : cfg.getMaxConnections();
 
             WMSClient client;
 
@@ -74,7 +75,7 @@ public class RemoteWmsBuilder implements ResourceBuilder<RemoteOWS> {
                 user = basic.getUsername();
                 pass = basic.getPassword();
             }
-            client = new WMSClient( capas, connTimeout, reqTimeout, user, pass );
+            client = new WMSClient( capas, connTimeout, reqTimeout, user, pass, maxConnections );
 
             return new org.deegree.remoteows.wms.RemoteWMS( client, metadata );
         } catch ( Exception e ) {
@@ -72,13 +72,14 @@ public class RemoteWMTS implements RemoteOWS {
      * 
      * @return client for accessing the remote WMTS, never <code>null</code>
      */
+    @Override
     public WMTSClient getClient() {
         return client;
     }
 
     @Override
     public void destroy() {
-        // nothing to do
+        client.close();
     }
 
     @Override
@@ -57,6 +57,8 @@ public class RemoteWmtsBuilder implements ResourceBuilder<RemoteOWS> {
 
     private static final int DEFAULT_REQUEST_TIMEOUT_SECS = 60;
 
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+
     private RemoteWMTSConfig config;
 
     private ResourceMetadata<RemoteOWS> metadata;
@@ -95,6 +97,10 @@ public class RemoteWmtsBuilder implements ResourceBuilder<RemoteOWS> {
         if ( config.getRequestTimeout() != null ) {
             reqTimeout = config.getRequestTimeout();
         }
+        int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        if ( config.getMaxConnections() != null ) {
+            maxConnections = config.getMaxConnections();
+        }
 
         AuthenticationType type = config.getAuthentication() == null ? null : config.getAuthentication().getValue();
         String user = null;
@@ -104,7 +110,8 @@ public class RemoteWmtsBuilder implements ResourceBuilder<RemoteOWS> {
             user = basic.getUsername();
             pass = basic.getPassword();
         }
-        return new OwsHttpClientImpl( connTimeout * 1000, reqTimeout * 1000, user, pass );
+        return new OwsHttpClientImpl( connTimeout * 1000, reqTimeout * 1000, user, pass, maxConnections,
+                                      OwsHttpClientImpl.DEFAULT_IDLE_TIMEOUT_MILLIS );
     }
 
 }
@@ -36,12 +36,15 @@
 package org.deegree.remoteows.wmts;
 
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import org.deegree.protocol.wmts.client.WMTSClient;
 import org.deegree.remoteows.RemoteOWSProvider;
 import org.deegree.workspace.ResourceInitException;
 import org.deegree.workspace.WorkspaceUtils;
@@ -86,6 +89,13 @@ public class RemoteWMTSProviderTest {
         assertNotNull( wmts );
     }
 
+    @Test
+    public void testDestroyClosesClient() {
+        WMTSClient client = mock( WMTSClient.class );
+        new RemoteWMTS( client, null ).destroy();
+        verify( client ).close();
+    }
+
     @Test(expected = ResourceInitException.class)
     public void testCreateFromInvalidConfig()
                             throws ResourceInitException, IOException, URISyntaxException {
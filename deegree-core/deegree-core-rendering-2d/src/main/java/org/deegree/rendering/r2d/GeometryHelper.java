@@ -46,7 +46,6 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D.Double;
-import java.util.Iterator;
 
 import org.deegree.cs.coordinatesystems.ICRS;
 import org.deegree.cs.exceptions.TransformationException;
@@ -76,12 +75,29 @@ class GeometryHelper {
 
     private static final GeometryLinearizer linearizer = new GeometryLinearizer();
 
+    // same margin as the GeometryClipper, keeps line caps and joins of clipped parts out of sight
+    private static final double CLIP_MARGIN = 100;
+
+    // dropping vertices closer than a quarter pixel does not change the rasterized result
+    private static final double GENERALIZATION_TOLERANCE = 0.25;
+
     private GeometryTransformer transformer;
 
     private AffineTransform worldToScreen;
 
+    private final ScreenPathBuilder pathBuilder;
+
+    private double[] coords = new double[256];
+
     GeometryHelper( Envelope bbox, int width, AffineTransform worldToScreen ) {
         this.worldToScreen = worldToScreen;
+        double[] corners = { bbox.getMin().get0(), bbox.getMin().get1(), bbox.getMax().get0(), bbox.getMax().get1() };
+        worldToScreen.transform( corners, 0, corners, 0, 2 );
+        pathBuilder = new ScreenPathBuilder( Math.min( corners[0], corners[2] ) - CLIP_MARGIN,
+                                             Math.min( corners[1], corners[3] ) - CLIP_MARGIN,
+                                             Math.max( corners[0], corners[2] ) + CLIP_MARGIN,
+                                             Math.max( corners[1], corners[3] ) + CLIP_MARGIN,
+                                             GENERALIZATION_TOLERANCE );
         try {
             if ( bbox.getCoordinateSystem() != null && ( !bbox.getCoordinateSystem().getAlias().equals( "CRS:1" ) ) ) {
                 transformer = new GeometryTransformer( bbox.getCoordinateSystem() );
@@ -93,6 +109,24 @@ class GeometryHelper {
     }
 
     Double fromCurve( Curve curve, boolean close ) {
+        return fromCurve( curve, close, true );
+    }
+
+    /**
+     * Converts the curve into a screen space path. Vertices closer than {@link #GENERALIZATION_TOLERANCE} pixels to
+     * their predecessor are dropped (tiny rings keep their extreme vertices) and, if requested, the path is clipped
+     * against the viewport enlarged by {@link #CLIP_MARGIN} pixels (lines are split, rings are clipped as areas if
+     * <code>close</code> is true).
+     * 
+     * @param curve
+     *            curve in world CRS, must not be <code>null</code>
+     * @param close
+     *            true, if the curve is a ring that should be closed
+     * @param clip
+     *            true, if the path may be clipped against the viewport
+     * @return the path in screen coordinates, never <code>null</code>
+     */
+    Double fromCurve( Curve curve, boolean close, boolean clip ) {
         Double line = new Double();
 
         // TODO use error criterion
@@ -100,25 +134,37 @@ class GeometryHelper {
         curve = linearizer.linearize( curve, new NumPointsCriterion( 100 ) );
         curve.setCoordinateSystem( crs );
         Points points = curve.getControlPoints();
-        Iterator<Point> iter = points.iterator();
-        Point p = iter.next();
-        double x = p.get0(), y = p.get1();
-        line.moveTo( x, y );
-        while ( iter.hasNext() ) {
-            p = iter.next();
-            if ( iter.hasNext() ) {
-                line.lineTo( p.get0(), p.get1() );
-            } else {
-                if ( close && isZero( x - p.get0() ) && isZero( y - p.get1() ) ) {
+        int n = points.size();
+        if ( n == 0 ) {
+            return line;
+        }
+        if ( coords.length < 2 * n ) {
+            coords = new double[2 * n];
+        }
+        int i = 0;
+        for ( Point p : points ) {
+            coords[i++] = p.get0();
+            coords[i++] = p.get1();
+        }
+        boolean closed = close && n > 1 && isZero( coords[0] - coords[2 * n - 2] )
+                         && isZero( coords[1] - coords[2 * n - 1] );
+        worldToScreen.transform( coords, 0, coords, 0, n );
+        n = pathBuilder.generalize( coords, n, close );
+
+        if ( !clip ) {
+            line.moveTo( coords[0], coords[1] );
+            for ( i = 1; i < n; ++i ) {
+                if ( i == n - 1 && closed ) {
                     line.closePath();
                 } else {
-                    line.lineTo( p.get0(), p.get1() );
+                    line.lineTo( coords[2 * i], coords[2 * i + 1] );
                 }
             }
+        } else if ( close ) {
+            pathBuilder.appendRing( line, coords, closed ? n - 1 : n, closed );
+        } else {
+            pathBuilder.appendLine( line, coords, n );
         }
-
-        line.transform( worldToScreen );
-
         return line;
     }
 
@@ -37,7 +37,6 @@
 package org.deegree.rendering.r2d;
 
 import static org.deegree.geometry.utils.GeometryUtils.envelopeToPolygon;
-import static org.deegree.rendering.r2d.GeometryClipper.isGenerationExpensive;
 import static org.deegree.rendering.r2d.RenderHelper.calculateResolution;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -176,15 +175,8 @@ public class Java2DRenderer implements Renderer {
             LOG.warn( "Trying to render point with line styling." );
             return;
         }
-        Geometry renderGeometry = null;
-        if ( isGenerationExpensive( styling ) ) {
-            renderGeometry = transformToWorldCrsAndClip( geom );
-            if ( renderGeometry == null ) {
-                return;
-            }
-        } else {
-            renderGeometry = rendererContext.geomHelper.transform( geom );
-        }
+        // clipping against the viewport happens in screen space when the paths are built
+        Geometry renderGeometry = rendererContext.geomHelper.transform( geom );
         if ( renderGeometry instanceof Curve ) {
             final Double line = rendererContext.geomHelper.fromCurve( (Curve) renderGeometry, false );
             rendererContext.strokeRenderer.applyStroke( styling.stroke, styling.uom, line, styling.perpendicularOffset,
@@ -210,15 +202,8 @@ public class Java2DRenderer implements Renderer {
         } else if ( geom instanceof Curve ) {
             LOG.warn( "Trying to render line with polygon styling." );
         }
-        Geometry renderGeometry = null;
-        if ( isGenerationExpensive( styling ) ) {
-            renderGeometry = transformToWorldCrsAndClip( geom );
-            if ( renderGeometry == null ) {
-                return;
-            }
-        } else {
-            renderGeometry = rendererContext.geomHelper.transform( geom );
-        }
+        // clipping against the viewport happens in screen space when the paths are built
+        Geometry renderGeometry = rendererContext.geomHelper.transform( geom );
         if ( renderGeometry instanceof Envelope ) {
             renderGeometry = envelopeToPolygon( (Envelope) renderGeometry );
         }
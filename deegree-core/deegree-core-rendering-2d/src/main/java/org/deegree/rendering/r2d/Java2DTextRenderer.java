@@ -217,7 +217,7 @@ public class Java2DTextRenderer implements TextRenderer {
             return;
         }
         stroke = applyOffset( styling, stroke );
-        Double line = renderer.rendererContext.geomHelper.fromCurve( c, false );
+        Double line = renderer.rendererContext.geomHelper.fromCurve( c, false, false );
         if ( styling.halo != null ) {
             Stroke haloStroke = new HaloStroke( text, font, styling.linePlacement, styling.halo, styling.uom,
                                                 renderer.rendererContext.uomCalculator );
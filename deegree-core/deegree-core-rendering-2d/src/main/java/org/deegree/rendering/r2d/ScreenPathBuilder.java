@@ -0,0 +1,381 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+ and
+ - Occam Labs UG (haftungsbeschränkt) -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.rendering.r2d;
+
+import java.awt.geom.Path2D.Double;
+
+/**
+ * Builds screen space {@link Double} paths from raw coordinate arrays, dropping sub-pixel vertices and clipping against
+ * a rectangle (Liang-Barsky for lines, Sutherland-Hodgman for rings) without creating intermediate geometries.
+ * <p>
+ * Instances reuse internal buffers and are not thread safe.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class ScreenPathBuilder {
+
+    private static final int OUTSIDE = -1;
+
+    private static final int START_CLIPPED = 1;
+
+    private static final int END_CLIPPED = 2;
+
+    private final double minX, minY, maxX, maxY;
+
+    private final double tolerance;
+
+    private double[] in = new double[64];
+
+    private double[] out = new double[64];
+
+    private final double[] seg = new double[4];
+
+    private final double[] t = new double[2];
+
+    // vertices with minimum x, maximum x, minimum y and maximum y seen by generalize: indices and coordinates
+    private final int[] extremeIndex = new int[4];
+
+    private final double[] extremeXY = new double[8];
+
+    /**
+     * @param minX
+     *            minimum x of the clip rectangle (screen coordinates)
+     * @param minY
+     *            minimum y of the clip rectangle (screen coordinates)
+     * @param maxX
+     *            maximum x of the clip rectangle (screen coordinates)
+     * @param maxY
+     *            maximum y of the clip rectangle (screen coordinates)
+     * @param tolerance
+     *            vertices closer than this (in pixels, per axis) to the previously kept vertex are dropped
+     */
+    ScreenPathBuilder( double minX, double minY, double maxX, double maxY, double tolerance ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Removes consecutive vertices that are closer than the tolerance to the last kept vertex. The first and the last
+     * vertex are always kept. If a ring would collapse to less than four vertices, its first, last and extreme (minimum
+     * and maximum x and y) vertices are kept instead, so that tiny rings are still rendered as a dot.
+     * 
+     * @param xy
+     *            interleaved screen coordinates, modified in place
+     * @param n
+     *            number of vertices
+     * @param ring
+     *            true, if the vertices describe a ring
+     * @return number of remaining vertices
+     */
+    int generalize( double[] xy, int n, boolean ring ) {
+        if ( n < 3 ) {
+            return n;
+        }
+        for ( int i = 0; i < 4; ++i ) {
+            setExtreme( i, 0, xy[0], xy[1] );
+        }
+        int kept = 1;
+        double lastX = xy[0], lastY = xy[1];
+        for ( int i = 1; i < n - 1; ++i ) {
+            double x = xy[2 * i], y = xy[2 * i + 1];
+            if ( ring ) {
+                updateExtremes( i, x, y );
+            }
+            if ( Math.abs( x - lastX ) < tolerance && Math.abs( y - lastY ) < tolerance ) {
+                continue;
+            }
+            xy[2 * kept] = x;
+            xy[2 * kept + 1] = y;
+            lastX = x;
+            lastY = y;
+            ++kept;
+        }
+        if ( ring && kept + 1 < 4 && kept + 1 < n ) {
+            kept = keepExtremes( xy );
+        }
+        xy[2 * kept] = xy[2 * ( n - 1 )];
+        xy[2 * kept + 1] = xy[2 * ( n - 1 ) + 1];
+        return kept + 1;
+    }
+
+    private void updateExtremes( int i, double x, double y ) {
+        if ( x < extremeXY[0] ) {
+            setExtreme( 0, i, x, y );
+        }
+        if ( x > extremeXY[2] ) {
+            setExtreme( 1, i, x, y );
+        }
+        if ( y < extremeXY[5] ) {
+            setExtreme( 2, i, x, y );
+        }
+        if ( y > extremeXY[7] ) {
+            setExtreme( 3, i, x, y );
+        }
+    }
+
+    private void setExtreme( int slot, int i, double x, double y ) {
+        extremeIndex[slot] = i;
+        extremeXY[2 * slot] = x;
+        extremeXY[2 * slot + 1] = y;
+    }
+
+    // writes the extreme vertices (in their original order, without duplicates) after the first vertex
+    private int keepExtremes( double[] xy ) {
+        int kept = 1;
+        int previous = 0;
+        while ( true ) {
+            int next = -1;
+            for ( int slot = 0; slot < 4; ++slot ) {
+                int index = extremeIndex[slot];
+                if ( index > previous && ( next == -1 || index < extremeIndex[next] ) ) {
+                    next = slot;
+                }
+            }
+            if ( next == -1 ) {
+                return kept;
+            }
+            xy[2 * kept] = extremeXY[2 * next];
+            xy[2 * kept + 1] = extremeXY[2 * next + 1];
+            previous = extremeIndex[next];
+            ++kept;
+        }
+    }
+
+    /**
+     * Appends a (clipped) line string to the path. Parts of the line outside the clip rectangle are omitted, each
+     * re-entry into the rectangle starts a new sub path.
+     * 
+     * @param path
+     *            to append to, never <code>null</code>
+     * @param xy
+     *            interleaved screen coordinates
+     * @param n
+     *            number of vertices
+     */
+    void appendLine( Double path, double[] xy, int n ) {
+        if ( n == 0 ) {
+            return;
+        }
+        if ( isInside( xy, n ) ) {
+            appendVertices( path, xy, n );
+            return;
+        }
+        boolean penDown = false;
+        for ( int i = 0; i < n - 1; ++i ) {
+            double x0 = xy[2 * i], y0 = xy[2 * i + 1];
+            double x1 = xy[2 * i + 2], y1 = xy[2 * i + 3];
+            int result = clipSegment( x0, y0, x1, y1 );
+            if ( result == OUTSIDE ) {
+                penDown = false;
+                continue;
+            }
+            if ( !penDown || ( result & START_CLIPPED ) != 0 ) {
+                path.moveTo( seg[0], seg[1] );
+            }
+            path.lineTo( seg[2], seg[3] );
+            penDown = ( result & END_CLIPPED ) == 0;
+        }
+    }
+
+    /**
+     * Appends a (clipped) ring to the path. The ring is clipped as an area, so the result may contain edges along the
+     * clip rectangle.
+     * 
+     * @param path
+     *            to append to, never <code>null</code>
+     * @param xy
+     *            interleaved screen coordinates, without repeating the first vertex at the end
+     * @param n
+     *            number of vertices
+     * @param close
+     *            whether to close the sub path
+     */
+    void appendRing( Double path, double[] xy, int n, boolean close ) {
+        if ( n == 0 ) {
+            return;
+        }
+        if ( isInside( xy, n ) ) {
+            appendVertices( path, xy, n );
+            if ( close ) {
+                path.closePath();
+            }
+            return;
+        }
+        if ( in.length < 2 * n ) {
+            in = new double[2 * n];
+        }
+        System.arraycopy( xy, 0, in, 0, 2 * n );
+        n = clipEdge( n, 0, minX );
+        n = clipEdge( n, 1, minY );
+        n = clipEdge( n, 2, maxX );
+        n = clipEdge( n, 3, maxY );
+        if ( n < 3 ) {
+            return;
+        }
+        appendVertices( path, in, n );
+        if ( close ) {
+            path.closePath();
+        }
+    }
+
+    // Liang-Barsky, returns OUTSIDE or a combination of START_CLIPPED/END_CLIPPED
+    private int clipSegment( double x0, double y0, double x1, double y1 ) {
+        double dx = x1 - x0, dy = y1 - y0;
+        t[0] = 0;
+        t[1] = 1;
+        if ( !clipT( -dx, x0 - minX, t ) || !clipT( dx, maxX - x0, t ) || !clipT( -dy, y0 - minY, t )
+             || !clipT( dy, maxY - y0, t ) ) {
+            return OUTSIDE;
+        }
+        int result = 0;
+        seg[0] = x0;
+        seg[1] = y0;
+        seg[2] = x1;
+        seg[3] = y1;
+        if ( t[0] > 0 ) {
+            seg[0] = x0 + t[0] * dx;
+            seg[1] = y0 + t[0] * dy;
+            result |= START_CLIPPED;
+        }
+        if ( t[1] < 1 ) {
+            seg[2] = x0 + t[1] * dx;
+            seg[3] = y0 + t[1] * dy;
+            result |= END_CLIPPED;
+        }
+        return result;
+    }
+
+    private static boolean clipT( double p, double q, double[] t ) {
+        if ( p == 0 ) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if ( p < 0 ) {
+            if ( r > t[1] ) {
+                return false;
+            }
+            if ( r > t[0] ) {
+                t[0] = r;
+            }
+        } else {
+            if ( r < t[0] ) {
+                return false;
+            }
+            if ( r < t[1] ) {
+                t[1] = r;
+            }
+        }
+        return true;
+    }
+
+    // Sutherland-Hodgman step against one edge: 0 = minX, 1 = minY, 2 = maxX, 3 = maxY; reads 'in', swaps to 'out'
+    private int clipEdge( int n, int edge, double value ) {
+        // every input vertex yields at most two output vertices
+        if ( out.length < 4 * n ) {
+            out = new double[4 * n];
+        }
+        int m = 0;
+        if ( n > 0 ) {
+            double px = in[2 * ( n - 1 )], py = in[2 * ( n - 1 ) + 1];
+            boolean pIn = isInside( px, py, edge, value );
+            for ( int i = 0; i < n; ++i ) {
+                double cx = in[2 * i], cy = in[2 * i + 1];
+                boolean cIn = isInside( cx, cy, edge, value );
+                if ( cIn != pIn ) {
+                    double t = ( edge & 1 ) == 0 ? ( value - px ) / ( cx - px ) : ( value - py ) / ( cy - py );
+                    out[2 * m] = ( edge & 1 ) == 0 ? value : px + t * ( cx - px );
+                    out[2 * m + 1] = ( edge & 1 ) == 0 ? py + t * ( cy - py ) : value;
+                    ++m;
+                }
+                if ( cIn ) {
+                    out[2 * m] = cx;
+                    out[2 * m + 1] = cy;
+                    ++m;
+                }
+                px = cx;
+                py = cy;
+                pIn = cIn;
+            }
+        }
+        double[] tmp = in;
+        in = out;
+        out = tmp;
+        return m;
+    }
+
+    private static boolean isInside( double x, double y, int edge, double value ) {
+        switch ( edge ) {
+        case 0:
+            return x >= value;
+        case 1:
+            return y >= value;
+        case 2:
+            return x <= value;
+        default:
+            return y <= value;
+        }
+    }
+
+    private boolean isInside( double[] xy, int n ) {
+        for ( int i = 0; i < n; ++i ) {
+            double x = xy[2 * i], y = xy[2 * i + 1];
+            if ( x < minX || x > maxX || y < minY || y > maxY ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendVertices( Double path, double[] xy, int n ) {
+        path.moveTo( xy[0], xy[1] );
+        for ( int i = 1; i < n; ++i ) {
+            path.lineTo( xy[2 * i], xy[2 * i + 1] );
+        }
+    }
+
+}
@@ -39,6 +39,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.deegree.rendering.r2d.Label;
@@ -47,6 +48,8 @@ import org.deegree.rendering.r2d.RendererContext;
 import org.deegree.rendering.r2d.Java2DRenderer;
 import org.deegree.style.utils.UomCalculator;
 
+import com.vividsolutions.jts.geom.Envelope;
+
 /**
  * <code>Automatic Label Placement, based on org.deegree.graphics.optimizers.LabelOptimizer from deegree2 </code>
  * 
@@ -68,8 +71,14 @@ public class AutoLabelPlacement {
 
     private ArrayList<PointLabelPositionOptions> labelPositionsList;
     
-    // collision matrix of PointLabelPositionOptions that may overlap
-    private boolean[][] collisionMatrix;
+    // neighbors (PointLabelPositionOptions that may overlap) of label i are
+    // neighborIndex[neighborStart[i]] to neighborIndex[neighborStart[i + 1] - 1]
+    private int[] neighborStart;
+
+    private int[] neighborIndex;
+
+    // number of label pairs tested by buildNeighbors
+    int testedPairs;
     
     float placementQuality = 0.0f;
     int intersectionQuality = 0;
@@ -94,7 +103,7 @@ public class AutoLabelPlacement {
         LOG.debug( "Added "+labelPositionsList.size() + " Labels of " + labelList.size() + " to auto placement" );
     
         if( labelPositionsList.size() > 1 ){
-            buildCollisionMatrix();
+            buildNeighbors();
     
             // do the magic
             try {
@@ -110,6 +119,28 @@ public class AutoLabelPlacement {
         }
     }
 
+    /**
+     * Only determines the neighbors of the given label positions, without optimizing them.
+     * 
+     * @param labelPositionsList
+     *            label positions, must not be <code>null</code>
+     */
+    AutoLabelPlacement( ArrayList<PointLabelPositionOptions> labelPositionsList ) {
+        this.labelPositionsList = labelPositionsList;
+        buildNeighbors();
+    }
+
+    /**
+     * Returns the neighbors determined by {@link #buildNeighbors()}.
+     * 
+     * @param i
+     *            index of the label position
+     * @return indices of the label positions that may overlap with label position <code>i</code>
+     */
+    int[] getNeighbors( int i ) {
+        return Arrays.copyOfRange( neighborIndex, neighborStart[i], neighborStart[i + 1] );
+    }
+
     /**
      * Performs "Simulated Annealing" on the array of {@link PointLabelPositionOptions}.
      */
@@ -178,26 +209,124 @@ public class AutoLabelPlacement {
     }
 
     /**
-     * Builds the collision matrix for all <code>PointLabelPositionOptions</code>.
+     * Determines the neighbors of all <code>PointLabelPositionOptions</code>, i.e. the labels whose possible
+     * positions may overlap. Candidates are looked up in a uniform grid over the bounding boxes of all possible
+     * positions, so only labels sharing a grid cell are tested against each other.
      */
-    private void buildCollisionMatrix() {
-        
+    private void buildNeighbors() {
+
         long now = System.currentTimeMillis();
-        collisionMatrix = new boolean[labelPositionsList.size()][labelPositionsList.size()];
-        
-        for ( int i = 0; i < labelPositionsList.size(); i++ ) {
+        int n = labelPositionsList.size();
+
+        // bounding boxes of all possible positions (rotated labels included)
+        double[] bbox = new double[4 * n];
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        double sumW = 0, sumH = 0;
+        for ( int i = 0; i < n; i++ ) {
+            Envelope env = labelPositionsList.get( i ).totalPolygon.getEnvelopeInternal();
+            bbox[4 * i] = env.getMinX();
+            bbox[4 * i + 1] = env.getMinY();
+            bbox[4 * i + 2] = env.getMaxX();
+            bbox[4 * i + 3] = env.getMaxY();
+            minX = Math.min( minX, env.getMinX() );
+            minY = Math.min( minY, env.getMinY() );
+            maxX = Math.max( maxX, env.getMaxX() );
+            maxY = Math.max( maxY, env.getMaxY() );
+            sumW += env.getWidth();
+            sumH += env.getHeight();
+        }
+
+        // cells of average label size, coarsened until the grid has at most 4n cells in total, so that its size stays
+        // linear in the number of labels even if they are spread over a large area
+        double cellW = Math.max( sumW / n, 1 );
+        double cellH = Math.max( sumH / n, 1 );
+        while ( ( ( maxX - minX ) / cellW + 1 ) * ( ( maxY - minY ) / cellH + 1 ) > 4.0 * n ) {
+            cellW *= 2;
+            cellH *= 2;
+        }
+        int cols = (int) ( ( maxX - minX ) / cellW ) + 1;
+        int rows = (int) ( ( maxY - minY ) / cellH ) + 1;
+
+        // label indices per grid cell: cellIndex[cellStart[cell]] to cellIndex[cellStart[cell + 1] - 1]
+        int[] cellRange = new int[4 * n];
+        int[] cellStart = new int[cols * rows + 1];
+        for ( int i = 0; i < n; i++ ) {
+            cellRange[4 * i] = (int) ( ( bbox[4 * i] - minX ) / cellW );
+            cellRange[4 * i + 1] = (int) ( ( bbox[4 * i + 1] - minY ) / cellH );
+            cellRange[4 * i + 2] = (int) ( ( bbox[4 * i + 2] - minX ) / cellW );
+            cellRange[4 * i + 3] = (int) ( ( bbox[4 * i + 3] - minY ) / cellH );
+            for ( int r = cellRange[4 * i + 1]; r <= cellRange[4 * i + 3]; r++ ) {
+                for ( int c = cellRange[4 * i]; c <= cellRange[4 * i + 2]; c++ ) {
+                    cellStart[r * cols + c + 1]++;
+                }
+            }
+        }
+        for ( int cell = 0; cell < cols * rows; cell++ ) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        int[] cellIndex = new int[cellStart[cols * rows]];
+        int[] cellFill = new int[cols * rows];
+        System.arraycopy( cellStart, 0, cellFill, 0, cols * rows );
+        for ( int i = 0; i < n; i++ ) {
+            for ( int r = cellRange[4 * i + 1]; r <= cellRange[4 * i + 3]; r++ ) {
+                for ( int c = cellRange[4 * i]; c <= cellRange[4 * i + 2]; c++ ) {
+                    cellIndex[cellFill[r * cols + c]++] = i;
+                }
+            }
+        }
+
+        // test each pair sharing a cell once
+        int[] pairs = new int[2 * n];
+        int numPairs = 0;
+        int[] degree = new int[n];
+        int[] lastTested = new int[n];
+        Arrays.fill( lastTested, -1 );
+        for ( int i = 0; i < n; i++ ) {
             PointLabelPositionOptions choice1 = labelPositionsList.get( i );
-            
-            for ( int j = i + 1; j < labelPositionsList.size(); j++ ) {
-                PointLabelPositionOptions choice2 = labelPositionsList.get( j );
-                collisionMatrix[i][j] = choice1.intersectsAny( choice2 );
+            for ( int r = cellRange[4 * i + 1]; r <= cellRange[4 * i + 3]; r++ ) {
+                for ( int c = cellRange[4 * i]; c <= cellRange[4 * i + 2]; c++ ) {
+                    int cell = r * cols + c;
+                    for ( int k = cellStart[cell]; k < cellStart[cell + 1]; k++ ) {
+                        int j = cellIndex[k];
+                        if ( j <= i || lastTested[j] == i ) {
+                            continue;
+                        }
+                        lastTested[j] = i;
+                        testedPairs++;
+                        if ( choice1.intersectsAny( labelPositionsList.get( j ) ) ) {
+                            if ( 2 * numPairs + 2 > pairs.length ) {
+                                int[] tmp = new int[2 * pairs.length];
+                                System.arraycopy( pairs, 0, tmp, 0, 2 * numPairs );
+                                pairs = tmp;
+                            }
+                            pairs[2 * numPairs] = i;
+                            pairs[2 * numPairs + 1] = j;
+                            numPairs++;
+                            degree[i]++;
+                            degree[j]++;
+                        }
+                    }
+                }
             }
-            
         }
-        
-        LOG.debug( "Building of collision matrix took: " + ( System.currentTimeMillis() - now ) + " millis." );
+
+        neighborStart = new int[n + 1];
+        for ( int i = 0; i < n; i++ ) {
+            neighborStart[i + 1] = neighborStart[i] + degree[i];
+        }
+        neighborIndex = new int[2 * numPairs];
+        int[] neighborFill = new int[n];
+        System.arraycopy( neighborStart, 0, neighborFill, 0, n );
+        for ( int p = 0; p < numPairs; p++ ) {
+            int i = pairs[2 * p], j = pairs[2 * p + 1];
+            neighborIndex[neighborFill[i]++] = j;
+            neighborIndex[neighborFill[j]++] = i;
+        }
+
+        LOG.debug( "Finding " + numPairs + " possibly overlapping label pairs took: "
+                   + ( System.currentTimeMillis() - now ) + " millis." );
     }
-    
+
     /**
      * Updates the quality value for the currently selected combination of {@link Label}s and lets the label select a new random position
      * 
@@ -209,24 +338,9 @@ public class AutoLabelPlacement {
      */
     private void updateChoiceAndQuality(PointLabelPositionOptions changedLabel, int choice) {
        
-        int changedLabelIntersectionQuality = 0;
-        
-        
         //calculate, how much the (to bee) changedLabel does contribute to the intersectionQuality
-        for ( int i = 0; i < choice; i++ ) {
-            PointLabelPositionOptions choice1 = labelPositionsList.get( i );
-            if ( collisionMatrix[i][choice] && ( changedLabel.intersectsSelection(choice1) )) {
-                changedLabelIntersectionQuality += 40;
-            }
-        }
-        
-        for (int i = choice+1; i <  labelPositionsList.size(); i++ ) {
-            PointLabelPositionOptions choice1 = labelPositionsList.get( i );
-            if ( collisionMatrix[choice][i] && ( changedLabel.intersectsSelection(choice1) )) {
-                changedLabelIntersectionQuality += 40;
-            }
-        }
-        
+        int changedLabelIntersectionQuality = getIntersectionQuality( changedLabel, choice );
+
         //subtract the qualities of the label which is going to be changed
         intersectionQuality -= changedLabelIntersectionQuality;
         placementQuality -= changedLabel.getQuality();
@@ -235,28 +349,34 @@ public class AutoLabelPlacement {
         //select a new position randomly
         changedLabel.selectLabelPositionRandomly();
 
-        
+
         //calculate, how much the changedLabel does contribute to the intersectionQuality
-        changedLabelIntersectionQuality = 0;
-        for ( int i = 0; i < choice; i++ ) {
-            PointLabelPositionOptions choice1 = labelPositionsList.get( i );
-            if ( collisionMatrix[i][choice] && ( changedLabel.intersectsSelection(choice1) )) {
-                changedLabelIntersectionQuality += 40;
-            }
-        }
-        
-        for (int i = choice+1; i <  labelPositionsList.size(); i++ ) {
-            PointLabelPositionOptions choice1 = labelPositionsList.get( i );
-            if ( collisionMatrix[choice][i] && ( changedLabel.intersectsSelection(choice1) )) {
-                changedLabelIntersectionQuality += 40;
-            }
-        }
-        
+        changedLabelIntersectionQuality = getIntersectionQuality( changedLabel, choice );
+
         //add the new qualities
         intersectionQuality += changedLabelIntersectionQuality;
         placementQuality += changedLabel.getQuality();
     }
-    
+
+    /**
+     * Calculates the intersection quality of a label with all its neighbors, using their current selection.
+     * 
+     * @param label
+     *          the label
+     * 
+     * @param choice
+     *          the index of the label in the labelPositionsList
+     */
+    private int getIntersectionQuality( PointLabelPositionOptions label, int choice ) {
+        int quality = 0;
+        for ( int k = neighborStart[choice]; k < neighborStart[choice + 1]; k++ ) {
+            if ( label.intersectsSelection( labelPositionsList.get( neighborIndex[k] ) ) ) {
+                quality += 40;
+            }
+        }
+        return quality;
+    }
+
     /**
      * Calculates the initial quality values for the currently selected combination of {@link Label}s.
      *
@@ -271,12 +391,10 @@ public class AutoLabelPlacement {
             //placementQuality += choice1.getQuality() + 1.0f;
             placementQuality += choice1.getQuality();
             
-            for ( int j = i + 1; j < labelPositionsList.size(); j++ ) {
-                if ( collisionMatrix[i][j] ) {
-                    PointLabelPositionOptions choice2 = labelPositionsList.get( j );
-                    if ( choice1.intersectsSelection( choice2 ) ) {
-                        intersectionQuality += 40;
-                    }
+            for ( int k = neighborStart[i]; k < neighborStart[i + 1]; k++ ) {
+                int j = neighborIndex[k];
+                if ( j > i && choice1.intersectsSelection( labelPositionsList.get( j ) ) ) {
+                    intersectionQuality += 40;
                 }
             }
         }
@@ -0,0 +1,175 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+ and
+ - Occam Labs UG (haftungsbeschränkt) -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.rendering.r2d;
+
+import static java.awt.geom.PathIterator.SEG_CLOSE;
+import static java.awt.geom.PathIterator.SEG_LINETO;
+import static java.awt.geom.PathIterator.SEG_MOVETO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Path2D.Double;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link ScreenPathBuilder}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class ScreenPathBuilderTest {
+
+    private static final double DELTA = 1e-9;
+
+    private ScreenPathBuilder builder;
+
+    @Before
+    public void setup() {
+        builder = new ScreenPathBuilder( 0, 0, 100, 100, 0.25 );
+    }
+
+    @Test
+    public void generalizeDropsSubPixelVertices() {
+        double[] xy = { 0, 0, 0.1, 0.1, 0.2, 0, 10, 10, 10.1, 10, 10.2, 10 };
+        int n = builder.generalize( xy, 6, false );
+        assertEquals( 3, n );
+        assertArrayEquals( new double[] { 0, 0, 10, 10, 10.2, 10 }, copyOf( xy, 6 ), DELTA );
+    }
+
+    @Test
+    public void generalizeKeepsExtremesOfTinyRing() {
+        double[] xy = tinyRing();
+        int n = builder.generalize( xy, 7, true );
+        assertEquals( 6, n );
+        assertArrayEquals( new double[] { 50, 50, 50.2, 50.1, 50.1, 50.2, 49.9, 50.1, 50, 49.8, 50, 50 },
+                           copyOf( xy, 12 ), DELTA );
+    }
+
+    @Test
+    public void generalizeCollapsesTinyLine() {
+        double[] xy = tinyRing();
+        int n = builder.generalize( xy, 7, false );
+        assertEquals( 2, n );
+        assertArrayEquals( new double[] { 50, 50, 50, 50 }, copyOf( xy, 4 ), DELTA );
+    }
+
+    @Test
+    public void appendTinyRingDrawsDot() {
+        double[] xy = tinyRing();
+        int n = builder.generalize( xy, 7, true );
+        Double path = new Double();
+        builder.appendRing( path, xy, n - 1, true );
+        assertSegments( path, SEG_MOVETO, 50, 50, SEG_LINETO, 50.2, 50.1, SEG_LINETO, 50.1, 50.2, SEG_LINETO, 49.9,
+                        50.1, SEG_LINETO, 50, 49.8, SEG_CLOSE );
+    }
+
+    @Test
+    public void appendLineInsideIsUnchanged() {
+        Double path = new Double();
+        builder.appendLine( path, new double[] { 10, 10, 20, 20, 30, 10 }, 3 );
+        assertSegments( path, SEG_MOVETO, 10, 10, SEG_LINETO, 20, 20, SEG_LINETO, 30, 10 );
+    }
+
+    @Test
+    public void appendLineSplitsOnReentry() {
+        Double path = new Double();
+        builder.appendLine( path, new double[] { 50, 50, 150, 50, 150, 60, 50, 60 }, 4 );
+        assertSegments( path, SEG_MOVETO, 50, 50, SEG_LINETO, 100, 50, SEG_MOVETO, 100, 60, SEG_LINETO, 50, 60 );
+    }
+
+    @Test
+    public void appendLineOutside() {
+        Double path = new Double();
+        builder.appendLine( path, new double[] { -10, -10, -20, 150, 200, 200 }, 3 );
+        assertSegments( path );
+    }
+
+    @Test
+    public void appendRingCoveringViewport() {
+        Double path = new Double();
+        builder.appendRing( path, new double[] { -50, -50, 150, -50, 150, 150, -50, 150 }, 4, true );
+        assertSegments( path, SEG_MOVETO, 0, 100, SEG_LINETO, 0, 0, SEG_LINETO, 100, 0, SEG_LINETO, 100, 100,
+                        SEG_CLOSE );
+    }
+
+    @Test
+    public void appendRingPartiallyInside() {
+        Double path = new Double();
+        builder.appendRing( path, new double[] { 50, 50, 150, 50, 150, 80, 50, 80 }, 4, true );
+        assertSegments( path, SEG_MOVETO, 50, 50, SEG_LINETO, 100, 50, SEG_LINETO, 100, 80, SEG_LINETO, 50, 80,
+                        SEG_CLOSE );
+    }
+
+    // closed ring within a quarter pixel, (50.05, 50.05) is the only vertex that is not extreme
+    private static double[] tinyRing() {
+        return new double[] { 50, 50, 50.2, 50.1, 50.05, 50.05, 50.1, 50.2, 49.9, 50.1, 50, 49.8, 50, 50 };
+    }
+
+    private static double[] copyOf( double[] values, int length ) {
+        double[] copy = new double[length];
+        System.arraycopy( values, 0, copy, 0, length );
+        return copy;
+    }
+
+    private static void assertSegments( Double path, double... expected ) {
+        List<java.lang.Double> actual = new ArrayList<java.lang.Double>();
+        double[] coords = new double[6];
+        for ( PathIterator iter = path.getPathIterator( null ); !iter.isDone(); iter.next() ) {
+            int type = iter.currentSegment( coords );
+            actual.add( (double) type );
+            if ( type != SEG_CLOSE ) {
+                actual.add( coords[0] );
+                actual.add( coords[1] );
+            }
+        }
+        assertEquals( expected.length, actual.size() );
+        for ( int i = 0; i < expected.length; ++i ) {
+            assertEquals( expected[i], actual.get( i ), DELTA );
+        }
+    }
+
+}
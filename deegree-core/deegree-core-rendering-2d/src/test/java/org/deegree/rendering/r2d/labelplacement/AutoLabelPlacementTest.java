@@ -0,0 +1,153 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+ and
+ - Occam Labs UG (haftungsbeschränkt) -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.rendering.r2d.labelplacement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.deegree.rendering.r2d.Label;
+import org.deegree.style.styling.TextStyling;
+import org.deegree.style.utils.UomCalculator;
+import org.junit.Test;
+
+/**
+ * Test cases for the neighbor search of {@link AutoLabelPlacement}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class AutoLabelPlacementTest {
+
+    private static final FontRenderContext FRC = new FontRenderContext( null, true, true );
+
+    private static final UomCalculator UOM_CALCULATOR = new UomCalculator( 0.28, 1 );
+
+    @Test
+    public void testNeighborsMatchBruteForce() {
+        Random random = new Random( 4711 );
+        ArrayList<PointLabelPositionOptions> labels = new ArrayList<PointLabelPositionOptions>();
+        // dense cluster with many overlaps
+        for ( int i = 0; i < 300; i++ ) {
+            labels.add( createLabel( random, 0, 0, 600, 12, i % 10 == 0 ? 30 : 0 ) );
+        }
+        // sparse labels further away
+        for ( int i = 0; i < 300; i++ ) {
+            labels.add( createLabel( random, 1000, 1000, 20000, 12, i % 10 == 0 ? 75 : 0 ) );
+        }
+        // a few large labels spanning many grid cells
+        for ( int i = 0; i < 5; i++ ) {
+            labels.add( createLabel( random, 0, 0, 20000, 400, 0 ) );
+        }
+
+        AutoLabelPlacement placement = new AutoLabelPlacement( labels );
+        int numNeighbors = 0;
+        for ( int i = 0; i < labels.size(); i++ ) {
+            Set<Integer> expected = new TreeSet<Integer>();
+            for ( int j = 0; j < labels.size(); j++ ) {
+                if ( i != j && labels.get( i ).intersectsAny( labels.get( j ) ) ) {
+                    expected.add( j );
+                }
+            }
+            Set<Integer> actual = new TreeSet<Integer>();
+            for ( int j : placement.getNeighbors( i ) ) {
+                actual.add( j );
+            }
+            assertEquals( "neighbors of label " + i, expected, actual );
+            numNeighbors += expected.size();
+        }
+        assertTrue( numNeighbors > 0 );
+    }
+
+    @Test
+    public void testTestedPairsGrowLinearly() {
+        int small = countTestedPairs( 2000 );
+        int large = countTestedPairs( 8000 );
+        // all pairs would be 2 million and 32 million
+        assertTrue( "tested pairs: " + small, small < 10 * 2000 );
+        assertTrue( "tested pairs: " + large, large < 10 * 8000 );
+        assertTrue( "tested pairs: " + small + " -> " + large, large < 8 * small );
+    }
+
+    // labels spread uniformly, the area grows with the number of labels
+    private static int countTestedPairs( int n ) {
+        Random random = new Random( 4711 );
+        double extent = Math.sqrt( n ) * 500;
+        ArrayList<PointLabelPositionOptions> labels = new ArrayList<PointLabelPositionOptions>();
+        for ( int i = 0; i < n; i++ ) {
+            labels.add( createLabel( random, 0, 0, extent, 12, 0 ) );
+        }
+        return new AutoLabelPlacement( labels ).testedPairs;
+    }
+
+    private static PointLabelPositionOptions createLabel( Random random, double x, double y, double extent,
+                                                          float fontSize, double rotation ) {
+        StringBuilder text = new StringBuilder();
+        int length = 3 + random.nextInt( 10 );
+        for ( int i = 0; i < length; i++ ) {
+            text.append( (char) ( 'a' + random.nextInt( 26 ) ) );
+        }
+        java.awt.Font font = new java.awt.Font( "SansSerif", java.awt.Font.PLAIN, 1 ).deriveFont( fontSize );
+        TextStyling styling = new TextStyling();
+        styling.auto = true;
+        styling.rotation = rotation;
+        styling.displacementX = random.nextInt( 3 ) * 2;
+        styling.displacementY = random.nextInt( 3 ) * 2;
+
+        Label label = mock( Label.class );
+        when( label.getStyling() ).thenReturn( styling );
+        when( label.getLayout() ).thenReturn( new TextLayout( text.toString(), font, FRC ) );
+        when( label.getOrigin() ).thenReturn( new Point2D.Double( x + random.nextDouble() * extent,
+                                                                  y + random.nextDouble() * extent ) );
+        return new PointLabelPositionOptions( label, UOM_CALCULATOR );
+    }
+
+}
@@ -56,4 +56,19 @@ public abstract class AbstractSQLDialect implements SQLDialect{
         return defaultEscapeChar;
     }
 
+    /**
+     * Returns <code>false</code>, dialects that support row limiting clauses override this method and
+     * {@link #getLimitAndOffsetSnippet(int, int, boolean)}.
+     */
+    @Override
+    public boolean isLimitAndOffsetSupported() {
+        return false;
+    }
+
+    @Override
+    public String getLimitAndOffsetSnippet( int maxRows, int offset, boolean isOrdered ) {
+        throw new UnsupportedOperationException( "Row limiting clauses are not supported by " + getClass().getName()
+                                                 + "." );
+    }
+
 }
@@ -212,6 +212,31 @@ public interface SQLDialect {
      */
     String getSelectSequenceNextVal( String sequence );
 
+    /**
+     * Returns whether the database supports restricting the rows returned by a <code>SELECT</code> statement via
+     * {@link #getLimitAndOffsetSnippet(int, int, boolean)}.
+     * 
+     * @return <code>true</code>, if row limit and offset are supported, <code>false</code> otherwise
+     */
+    boolean isLimitAndOffsetSupported();
+
+    /**
+     * Returns an SQL snippet for restricting the rows returned by a <code>SELECT</code> statement. The snippet has to
+     * be appended to the statement (after the <code>ORDER BY</code> clause, if present).
+     * 
+     * @param maxRows
+     *            maximum number of rows to return, -1 for no limit
+     * @param offset
+     *            number of leading rows to skip, 0 for none
+     * @param isOrdered
+     *            <code>true</code>, if the statement contains an <code>ORDER BY</code> clause, <code>false</code>
+     *            otherwise
+     * @return SQL snippet (beginning with a space), never <code>null</code>, but may be empty
+     * @throws UnsupportedOperationException
+     *             if {@link #isLimitAndOffsetSupported()} returns <code>false</code>
+     */
+    String getLimitAndOffsetSnippet( int maxRows, int offset, boolean isOrdered );
+
     /**
      * Returns the leading escape char for the SQLDialect
      *
@@ -97,6 +97,16 @@ public class MSSQLGeometryConverter implements GeometryParticleConverter {
         return tableAlias + "." + column + ".ToString()";
     }
 
+    @Override
+    public String getSimplifiedSelectSnippet( String tableAlias, double tolerance ) {
+        if ( is2d ) {
+            return ( tableAlias == null ? "" : ( tableAlias + "." ) ) + column + ".Reduce(" + tolerance
+                   + ").STAsBinary()";
+        }
+        // Reduce() drops z values, so 3D geometries are simplified after fetching them
+        return null;
+    }
+
     public String getSetSnippet( Geometry particle ) {
         if ( is2d )
             return "geometry::STGeomFromWKB(?, " + srid + ")";
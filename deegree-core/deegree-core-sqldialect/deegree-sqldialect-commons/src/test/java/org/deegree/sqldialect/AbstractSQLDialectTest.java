@@ -0,0 +1,64 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.sqldialect;
+
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the defaults of {@link AbstractSQLDialect}, which dialects without row limiting support inherit.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class AbstractSQLDialectTest {
+
+    private final AbstractSQLDialect dialect = mock( AbstractSQLDialect.class, CALLS_REAL_METHODS );
+
+    @Test
+    public void testLimitAndOffsetNotSupportedByDefault() {
+        assertFalse( dialect.isLimitAndOffsetSupported() );
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLimitAndOffsetSnippetNotSupportedByDefault() {
+        dialect.getLimitAndOffsetSnippet( 10, 20, true );
+    }
+
+}
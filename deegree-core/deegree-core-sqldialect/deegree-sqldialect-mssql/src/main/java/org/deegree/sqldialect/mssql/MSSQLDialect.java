@@ -81,6 +81,27 @@ public class MSSQLDialect extends AbstractSQLDialect implements SQLDialect {
 
     private final char escapeChar = 0;
 
+    // OFFSET ... FETCH ... requires SQL Server 2012 (11.x)
+    private static final int MIN_LIMIT_AND_OFFSET_VERSION = 11;
+
+    private final int versionMajor;
+
+    /**
+     * Creates a dialect for an SQL Server of unknown version (without support for row limiting clauses).
+     */
+    public MSSQLDialect() {
+        this( 0 );
+    }
+
+    /**
+     * @param versionMajor
+     *            major version of the database server, as reported by
+     *            {@link DatabaseMetaData#getDatabaseMajorVersion()}
+     */
+    public MSSQLDialect( int versionMajor ) {
+        this.versionMajor = versionMajor;
+    }
+
     @Override
     public int getMaxColumnNameLength() {
         return 128;
@@ -200,4 +221,29 @@ public class MSSQLDialect extends AbstractSQLDialect implements SQLDialect {
                                                  "Using DB sequences for FIDs is currently not supported on Microsoft SQL Server." );
     }
 
+    @Override
+    public boolean isLimitAndOffsetSupported() {
+        return versionMajor >= MIN_LIMIT_AND_OFFSET_VERSION;
+    }
+
+    /**
+     * Uses <code>OFFSET ... FETCH ...</code> (SQL Server 2012 and newer), which is only allowed in combination with an
+     * <code>ORDER BY</code> clause, so a neutral one is added for unordered statements.
+     */
+    @Override
+    public String getLimitAndOffsetSnippet( int maxRows, int offset, boolean isOrdered ) {
+        if ( !isLimitAndOffsetSupported() ) {
+            throw new UnsupportedOperationException( "Row limiting clauses require SQL Server 2012 or newer." );
+        }
+        StringBuilder sql = new StringBuilder();
+        if ( !isOrdered ) {
+            sql.append( " ORDER BY (SELECT NULL)" );
+        }
+        sql.append( " OFFSET " ).append( offset ).append( " ROWS" );
+        if ( maxRows >= 0 ) {
+            sql.append( " FETCH NEXT " ).append( maxRows ).append( " ROWS ONLY" );
+        }
+        return sql.toString();
+    }
+
 }
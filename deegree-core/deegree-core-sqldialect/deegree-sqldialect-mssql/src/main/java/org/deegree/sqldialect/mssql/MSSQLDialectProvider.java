@@ -70,7 +70,15 @@ public class MSSQLDialectProvider implements SqlDialectProvider {
 
     @Override
     public SQLDialect createDialect( Connection connection ) {
-        return new MSSQLDialect();
+        int major = 0;
+        try {
+            major = connection.getMetaData().getDatabaseMajorVersion();
+            LOG.info( "Instantiating SQL Server dialect for version {}.", major );
+        } catch ( Exception e ) {
+            LOG.warn( "Could not determine the database version for connection: {}", e.getLocalizedMessage() );
+            LOG.trace( "Stack trace:", e );
+        }
+        return new MSSQLDialect( major );
     }
 
 }
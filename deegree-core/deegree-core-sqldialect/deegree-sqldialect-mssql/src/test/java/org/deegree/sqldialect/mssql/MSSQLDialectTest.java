@@ -0,0 +1,91 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.sqldialect.mssql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the row limiting support of {@link MSSQLDialect}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class MSSQLDialectTest {
+
+    @Test
+    public void testLimitAndOffsetSupportedSqlServer2012() {
+        assertTrue( new MSSQLDialect( 11 ).isLimitAndOffsetSupported() );
+    }
+
+    @Test
+    public void testLimitAndOffsetNotSupportedSqlServer2008() {
+        assertFalse( new MSSQLDialect( 10 ).isLimitAndOffsetSupported() );
+    }
+
+    @Test
+    public void testLimitAndOffsetNotSupportedUnknownVersion() {
+        assertFalse( new MSSQLDialect().isLimitAndOffsetSupported() );
+    }
+
+    @Test
+    public void testLimitAndOffsetSnippet() {
+        MSSQLDialect dialect = new MSSQLDialect( 11 );
+        assertEquals( " OFFSET 20 ROWS FETCH NEXT 10 ROWS ONLY", dialect.getLimitAndOffsetSnippet( 10, 20, true ) );
+    }
+
+    @Test
+    public void testLimitOnlySnippetUnordered() {
+        MSSQLDialect dialect = new MSSQLDialect( 12 );
+        assertEquals( " ORDER BY (SELECT NULL) OFFSET 0 ROWS FETCH NEXT 10 ROWS ONLY",
+                      dialect.getLimitAndOffsetSnippet( 10, 0, false ) );
+    }
+
+    @Test
+    public void testOffsetOnlySnippet() {
+        MSSQLDialect dialect = new MSSQLDialect( 11 );
+        assertEquals( " OFFSET 5 ROWS", dialect.getLimitAndOffsetSnippet( -1, 5, true ) );
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLimitAndOffsetSnippetSqlServer2008() {
+        new MSSQLDialect( 10 ).getLimitAndOffsetSnippet( 10, 20, true );
+    }
+
+}
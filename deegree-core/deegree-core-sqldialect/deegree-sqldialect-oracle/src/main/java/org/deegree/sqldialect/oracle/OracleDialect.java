@@ -268,4 +268,29 @@ public class OracleDialect extends AbstractSQLDialect implements SQLDialect {
         return "SELECT " + sequence + ".NEXTVAL from DUAL";
     }
 
+    /**
+     * Row limiting clauses (<code>OFFSET ... FETCH ...</code>) are available since Oracle 12c. For older versions,
+     * <code>ROWNUM</code> based paging would require wrapping the complete statement into an inline view (which fails
+     * for ambiguous column names), so it's not supported.
+     */
+    @Override
+    public boolean isLimitAndOffsetSupported() {
+        return versionMajor >= 12;
+    }
+
+    @Override
+    public String getLimitAndOffsetSnippet( int maxRows, int offset, boolean isOrdered ) {
+        if ( !isLimitAndOffsetSupported() ) {
+            throw new UnsupportedOperationException( "Row limiting clauses require Oracle 12c or newer." );
+        }
+        StringBuilder sql = new StringBuilder();
+        if ( offset > 0 ) {
+            sql.append( " OFFSET " ).append( offset ).append( " ROWS" );
+        }
+        if ( maxRows >= 0 ) {
+            sql.append( " FETCH NEXT " ).append( maxRows ).append( " ROWS ONLY" );
+        }
+        return sql.toString();
+    }
+
 }
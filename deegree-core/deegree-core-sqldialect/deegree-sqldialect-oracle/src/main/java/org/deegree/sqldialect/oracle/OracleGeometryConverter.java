@@ -102,6 +102,11 @@ public class OracleGeometryConverter implements GeometryParticleConverter {
         return column;
     }
 
+    @Override
+    public String getSimplifiedSelectSnippet( String tableAlias, double tolerance ) {
+        return "SDO_UTIL.SIMPLIFY(" + getSelectSnippet( tableAlias ) + "," + tolerance + ")";
+    }
+
     @Override
     public String getSetSnippet( Geometry particle ) {
         return "?";
@@ -0,0 +1,79 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.sqldialect.oracle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the row limiting support of {@link OracleDialect}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class OracleDialectTest {
+
+    @Test
+    public void testLimitAndOffsetSupportedOracle12() {
+        assertTrue( new OracleDialect( "SCHEMA", 12, 1 ).isLimitAndOffsetSupported() );
+    }
+
+    @Test
+    public void testLimitAndOffsetNotSupportedOracle11() {
+        assertFalse( new OracleDialect( "SCHEMA", 11, 2 ).isLimitAndOffsetSupported() );
+    }
+
+    @Test
+    public void testLimitAndOffsetSnippet() {
+        OracleDialect dialect = new OracleDialect( "SCHEMA", 12, 1 );
+        assertEquals( " OFFSET 20 ROWS FETCH NEXT 10 ROWS ONLY", dialect.getLimitAndOffsetSnippet( 10, 20, true ) );
+    }
+
+    @Test
+    public void testLimitOnlySnippet() {
+        OracleDialect dialect = new OracleDialect( "SCHEMA", 12, 1 );
+        assertEquals( " FETCH NEXT 10 ROWS ONLY", dialect.getLimitAndOffsetSnippet( 10, 0, false ) );
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLimitAndOffsetSnippetOracle11() {
+        new OracleDialect( "SCHEMA", 11, 2 ).getLimitAndOffsetSnippet( 10, 20, true );
+    }
+
+}
@@ -287,6 +287,23 @@ public class PostGISDialect extends AbstractSQLDialect implements SQLDialect {
         return "SELECT nextval('" + sequence + "')";
     }
 
+    @Override
+    public boolean isLimitAndOffsetSupported() {
+        return true;
+    }
+
+    @Override
+    public String getLimitAndOffsetSnippet( int maxRows, int offset, boolean isOrdered ) {
+        StringBuilder sql = new StringBuilder();
+        if ( maxRows >= 0 ) {
+            sql.append( " LIMIT " ).append( maxRows );
+        }
+        if ( offset > 0 ) {
+            sql.append( " OFFSET " ).append( offset );
+        }
+        return sql.toString();
+    }
+
     @Override
     public char getLeadingEscapeChar() {
         return escapeChar;
@@ -97,6 +97,14 @@ public class PostGISGeometryConverter implements GeometryParticleConverter {
         return asewkb + "(" + column + ")";
     }
 
+    @Override
+    public String getSimplifiedSelectSnippet( String tableAlias, double tolerance ) {
+        String asewkb = useLegacyPredicates ? "AsEWKB" : "ST_AsEWKB";
+        String simplify = useLegacyPredicates ? "Simplify" : "ST_SimplifyPreserveTopology";
+        String qualifiedColumn = tableAlias != null ? tableAlias + "." + column : column;
+        return asewkb + "(" + simplify + "(" + qualifiedColumn + "," + tolerance + "))";
+    }
+
     @Override
     public Geometry toParticle( ResultSet rs, int colIndex )
                             throws SQLException {
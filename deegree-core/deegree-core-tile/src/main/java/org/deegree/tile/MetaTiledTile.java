@@ -0,0 +1,74 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile;
+
+import java.util.Map;
+
+import org.deegree.commons.utils.Pair;
+
+/**
+ * A {@link Tile} that can be fetched together with neighbouring tiles of the same {@link TileDataLevel}
+ * (meta-tiling). Caching layers call {@link #enableMetaTiling()} and use {@link #getSiblings()} to store the
+ * neighbours without fetching them again. Without a caching layer, the tile is fetched on its own, as the siblings
+ * would just be thrown away.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public interface MetaTiledTile extends Tile {
+
+    /**
+     * Requests that the tile is fetched together with its siblings. Must be called before the tile data is
+     * retrieved, and only by callers that use the siblings afterwards.
+     */
+    void enableMetaTiling();
+
+    /**
+     * Returns the encoded images of the tiles that have been fetched together with this tile. Only available after
+     * the tile data has been retrieved (e.g. using {@link #getAsStream()}) with meta-tiling enabled.
+     * 
+     * @return the sibling tiles (key: column and row index, value: encoded image), never <code>null</code>, does not
+     *         include this tile
+     */
+    Map<Pair<Long, Long>, byte[]> getSiblings();
+
+}
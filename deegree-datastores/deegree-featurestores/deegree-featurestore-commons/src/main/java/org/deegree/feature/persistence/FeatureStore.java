@@ -149,6 +149,22 @@ public interface FeatureStore extends Resource {
     FeatureInputStream query( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException;
 
+    /**
+     * Returns whether the store applies {@link Query#getMaxFeatures()} and {@link Query#getStartIndex()} of the given
+     * queries itself (e.g. by pushing them into the backend).
+     * <p>
+     * If this method returns <code>true</code>, the {@link FeatureInputStream} returned by {@link #query(Query[])}
+     * starts with the feature at the requested start index and contains at most max features features. Otherwise,
+     * paging must be performed by the caller.
+     * </p>
+     * 
+     * @param queries
+     *            queries to be performed, must not be <code>null</code> and contain at least one entry
+     * @return <code>true</code>, if max features and start index are applied by the store, <code>false</code>
+     *         otherwise
+     */
+    boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries );
+
     /**
      * Returns the number of features that are matched by the given query.
      * 
@@ -97,6 +97,8 @@ public class Query {
 
     private int maxFeatures = -1;
 
+    private int startIndex = 0;
+
     private final List<ProjectionClause> projections;
 
     /**
@@ -277,4 +279,38 @@ public class Query {
     public int getMaxFeatures() {
         return maxFeatures;
     }
+
+    /**
+     * Sets the maximum number of features to be returned.
+     * 
+     * @param maxFeatures
+     *            may be -1 if no limit needs to be exercised
+     */
+    public void setMaxFeatures( int maxFeatures ) {
+        this.maxFeatures = maxFeatures;
+    }
+
+    /**
+     * Returns the index of the first feature to be returned (number of leading features to skip).
+     * 
+     * @return 0, if no features are to be skipped
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Sets the index of the first feature to be returned.
+     * <p>
+     * Note that feature stores only take the start index into account if
+     * {@link FeatureStore#isMaxFeaturesAndStartIndexApplicable(Query[])} returns <code>true</code> for the query.
+     * Otherwise, skipping of features must be performed by the caller.
+     * </p>
+     * 
+     * @param startIndex
+     *            number of leading features to skip, 0 if no features are to be skipped
+     */
+    public void setStartIndex( int startIndex ) {
+        this.startIndex = startIndex;
+    }
 }
\ No newline at end of file
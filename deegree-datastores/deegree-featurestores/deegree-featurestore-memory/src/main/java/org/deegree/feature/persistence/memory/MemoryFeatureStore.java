@@ -168,6 +168,11 @@ public class MemoryFeatureStore implements FeatureStore {
         return query( query ).toCollection().size();
     }
 
+    @Override
+    public boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries ) {
+        return false;
+    }
+
     @Override
     public int[] queryHits( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException {
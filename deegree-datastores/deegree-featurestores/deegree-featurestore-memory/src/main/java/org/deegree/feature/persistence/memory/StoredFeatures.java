@@ -44,7 +44,8 @@ import java.util.Set;
 
 import javax.xml.namespace.QName;
 
-import org.deegree.commons.index.RTree;
+import org.deegree.commons.index.PackedRTree;
+import org.deegree.commons.index.SpatialIndex;
 import org.deegree.commons.tom.Reference;
 import org.deegree.commons.tom.gml.GMLObject;
 import org.deegree.commons.utils.Pair;
@@ -95,7 +96,7 @@ class StoredFeatures {
 
     private final Map<String, GMLObject> idToObject = new HashMap<String, GMLObject>();
 
-    private final Map<FeatureType, RTree<Feature>> ftToIndex = new HashMap<FeatureType, RTree<Feature>>();
+    private final Map<FeatureType, SpatialIndex<Feature>> ftToIndex = new HashMap<FeatureType, SpatialIndex<Feature>>();
 
     /**
      * Creates a new {@link StoredFeatures} instance.
@@ -185,7 +186,7 @@ class StoredFeatures {
                 }
 
                 float[] floats = toFloats( prefilterBox );
-                RTree<Feature> index = ftToIndex.get( ft );
+                SpatialIndex<Feature> index = ftToIndex.get( ft );
                 fc = new GenericFeatureCollection( null, index.query( floats ) );
             }
 
@@ -247,14 +248,7 @@ class StoredFeatures {
         }
         fc.add( feature );
         idToObject.put( feature.getId(), feature );
-        if ( feature.getEnvelope() != null ) {
-            RTree<Feature> rTree = ftToIndex.get( ft );
-            float[] insertBox = toFloats( feature.getEnvelope() );
-            if ( rTree == null ) {
-                rTree = new RTree<Feature>( insertBox, 16 );
-            }
-            rTree.insert( insertBox, feature );
-        }
+        // the (packed) spatial indexes are rebuilt by #rebuildIndexes()
     }
 
     /**
@@ -266,7 +260,7 @@ class StoredFeatures {
     void removeFeature( Feature feature ) {
         idToObject.remove( feature.getId() );
         FeatureType ft = feature.getType();
-        RTree<Feature> rTree = ftToIndex.get( ft );
+        SpatialIndex<Feature> rTree = ftToIndex.get( ft );
         if ( rTree != null ) {
             rTree.remove( feature );
         }
@@ -307,7 +301,7 @@ class StoredFeatures {
             FeatureCollection fc = ftToFeatures.get( ft );
             Envelope env = fc.getEnvelope();
             if ( env != null ) {
-                RTree<Feature> index = new RTree<Feature>( toFloats( env ), 16 );
+                PackedRTree<Feature> index = new PackedRTree<Feature>( 16 );
                 List<Pair<float[], Feature>> fBboxes = new ArrayList<Pair<float[], Feature>>( fc.size() );
                 for ( Feature f : fc ) {
                     Envelope fEnv = f.getEnvelope();
@@ -286,6 +286,11 @@ public class RemoteWFSFeatureStore implements FeatureStore {
         return new FilterQuery( null, typeNames, featureVersion, srsName, projectionClauses, sortBy, filter );
     }
 
+    @Override
+    public boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries ) {
+        return false;
+    }
+
     @Override
     public int[] queryHits( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException {
@@ -39,7 +39,6 @@ import static org.deegree.commons.utils.CollectionUtils.unzipPair;
 import static org.deegree.feature.types.property.GeometryPropertyType.CoordinateDimension.DIM_2_OR_3;
 import static org.deegree.feature.types.property.ValueRepresentation.BOTH;
 import static org.deegree.filter.Filters.splitOffBBoxConstraint;
-import static org.deegree.geometry.utils.GeometryUtils.createEnvelope;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.BufferedReader;
@@ -62,7 +61,7 @@ import javax.xml.namespace.QName;
 
 import org.apache.commons.io.IOUtils;
 import org.deegree.commons.annotations.LoggingNotes;
-import org.deegree.commons.index.RTree;
+import org.deegree.commons.index.PackedRTree;
 import org.deegree.commons.tom.gml.GMLObject;
 import org.deegree.commons.tom.gml.property.Property;
 import org.deegree.commons.tom.gml.property.PropertyType;
@@ -252,8 +251,8 @@ public class ShapeFeatureStore implements FeatureStore {
 
         if ( rtfile.exists() && !( rtfile.lastModified() < shpFile.lastModified() ) && !forceIndexRebuild ) {
             try {
-                LOG.debug( "Loading RTree from disk." );
-                RTree<Long> rtree = RTree.loadFromDisk( shpName + ".rti" );
+                LOG.debug( "Mapping rtree index from disk." );
+                PackedRTree<Long> rtree = PackedRTree.loadFromDisk( shpName + ".rti" );
                 shp = new SHPReader( raf, crs, rtree, rtree.getExtraFlag() );
             } catch ( IOException e ) {
                 LOG.debug( "Stack trace:", e );
@@ -268,26 +267,31 @@ public class ShapeFeatureStore implements FeatureStore {
 
         LOG.debug( "Building rtree index in memory for '{}'", new File( shpName ).getName() );
 
-        Pair<RTree<Long>, Boolean> p = createIndex( shp );
+        PackedRTree<Long> rtree = createIndex( shp );
         LOG.debug( "done building index." );
-        shp = new SHPReader( raf, crs, p.first, p.second );
-        p.first.writeTreeToDisk( shpName + ".rti" );
+        shp = new SHPReader( raf, crs, rtree, rtree.getExtraFlag() );
+        try {
+            rtree.writeTreeToDisk( shpName + ".rti" );
+        } catch ( IOException e ) {
+            LOG.debug( "Stack trace:", e );
+            LOG.warn( "Rtree index could not be written to disk: {}", e.getLocalizedMessage() );
+        }
         return shp;
     }
 
     /**
      * @param shapeReader
      */
-    private static Pair<RTree<Long>, Boolean> createIndex( SHPReader shapeReader ) {
-        Envelope env = shapeReader.getEnvelope();
-        // use 128 values per rect.
-        RTree<Long> result = new RTree<Long>( createEnvelope( env ), -1 );
-        // to work around Java's non-existent variant type
+    private static PackedRTree<Long> createIndex( SHPReader shapeReader ) {
+        // use 16 values per node
+        PackedRTree<Long> result = new PackedRTree<Long>( 16 );
         LOG.debug( "Read envelopes from shape file..." );
         Pair<ArrayList<Pair<float[], Long>>, Boolean> p = shapeReader.readEnvelopes();
         LOG.debug( "done reading envelopes." );
         result.insertBulk( p.first );
-        return new Pair<RTree<Long>, Boolean>( result, p.second );
+        // stored along with the index, so it survives reloading
+        result.setExtraFlag( p.second );
+        return result;
     }
 
     private void checkForUpdate() {
@@ -504,6 +508,11 @@ public class ShapeFeatureStore implements FeatureStore {
         return query( query ).toCollection().size();
     }
 
+    @Override
+    public boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries ) {
+        return false;
+    }
+
     @Override
     public int[] queryHits( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException {
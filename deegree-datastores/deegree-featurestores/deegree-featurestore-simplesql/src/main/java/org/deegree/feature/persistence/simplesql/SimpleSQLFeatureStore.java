@@ -390,6 +390,11 @@ public class SimpleSQLFeatureStore implements FeatureStore {
         return query( query ).count();
     }
 
+    @Override
+    public boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries ) {
+        return false;
+    }
+
     @Override
     public int[] queryHits( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException {
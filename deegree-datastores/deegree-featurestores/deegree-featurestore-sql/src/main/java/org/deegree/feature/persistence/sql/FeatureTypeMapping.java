@@ -71,8 +71,10 @@ public class FeatureTypeMapping {
 
     private final List<Mapping> particles = new ArrayList<Mapping>();
 
+    private final int joinBatchSize;
+
     /**
-     * Creates a new {@link FeatureTypeMapping} instance.
+     * Creates a new {@link FeatureTypeMapping} instance (joined rows are fetched lazily).
      * 
      * @param ftName
      *            name of the mapped feature type, must not be <code>null</code>
@@ -84,7 +86,28 @@ public class FeatureTypeMapping {
      *            particle mappings for the feature type, must not be <code>null</code>
      */
     public FeatureTypeMapping( QName ftName, TableName table, FIDMapping fidMapping, List<Mapping> particleMappings ) {
+        this( ftName, table, fidMapping, particleMappings, 0 );
+    }
+
+    /**
+     * Creates a new {@link FeatureTypeMapping} instance.
+     * 
+     * @param ftName
+     *            name of the mapped feature type, must not be <code>null</code>
+     * @param table
+     *            name of the database table that the feature type is mapped to, must not be <code>null</code>
+     * @param fidMapping
+     *            mapping for the feature id, must not be <code>null</code>
+     * @param particleMappings
+     *            particle mappings for the feature type, must not be <code>null</code>
+     * @param joinBatchSize
+     *            number of feature rows whose joined rows are fetched with a single SELECT per join, <code>0</code>
+     *            for one SELECT per row and join (lazy fetching)
+     */
+    public FeatureTypeMapping( QName ftName, TableName table, FIDMapping fidMapping, List<Mapping> particleMappings,
+                               int joinBatchSize ) {
         this.ftName = ftName;
+        this.joinBatchSize = joinBatchSize;
         this.table = table;
         this.fidMapping = fidMapping;
         this.propToMapping = new HashMap<QName, Mapping>();
@@ -128,6 +151,15 @@ public class FeatureTypeMapping {
         return fidMapping;
     }
 
+    /**
+     * Returns the number of feature rows whose joined rows are fetched together.
+     * 
+     * @return number of feature rows, <code>0</code> if joined rows are fetched lazily (one SELECT per row and join)
+     */
+    public int getJoinBatchSize() {
+        return joinBatchSize;
+    }
+
     /**
      * Returns the mapping parameters for the specified property.
      * 
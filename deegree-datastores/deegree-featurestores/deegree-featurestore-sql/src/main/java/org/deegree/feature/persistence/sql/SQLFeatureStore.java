@@ -38,6 +38,7 @@ package org.deegree.feature.persistence.sql;
 import static org.deegree.commons.xml.CommonNamespaces.OGCNS;
 import static org.deegree.commons.xml.CommonNamespaces.XLNNS;
 import static org.deegree.commons.xml.CommonNamespaces.XSINS;
+import static org.deegree.feature.persistence.query.Query.QueryHint.HINT_RESOLUTION;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.lang.reflect.Constructor;
@@ -48,9 +49,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -70,6 +73,7 @@ import org.deegree.commons.tom.primitive.PrimitiveType;
 import org.deegree.commons.tom.primitive.PrimitiveValue;
 import org.deegree.commons.tom.sql.ParticleConverter;
 import org.deegree.commons.tom.sql.SQLValueMangler;
+import org.deegree.commons.utils.CloseableIterator;
 import org.deegree.commons.utils.JDBCUtils;
 import org.deegree.commons.utils.Pair;
 import org.deegree.commons.utils.kvp.InvalidParameterValueException;
@@ -195,6 +199,9 @@ public class SQLFeatureStore implements FeatureStore {
 
     private boolean nullEscalation;
 
+    // factor for deriving the geometry simplification tolerance from the query resolution (0: no simplification)
+    private final double simplificationToleranceFactor;
+
     private final SqlFeatureStoreMetadata metadata;
 
     private final Workspace workspace;
@@ -226,6 +233,11 @@ public class SQLFeatureStore implements FeatureStore {
         readAutoCommit = config.getJDBCConnId().isReadAutoCommit() != null ? config.getJDBCConnId().isReadAutoCommit()
                                                                           : !dialect.requiresTransactionForCursorMode();
         LOG.debug( "Read auto commit: " + readAutoCommit );
+        if ( config.getGeometrySimplification() != null ) {
+            simplificationToleranceFactor = config.getGeometrySimplification().getToleranceFactor();
+        } else {
+            simplificationToleranceFactor = 0;
+        }
 
         if ( config.getFeatureCache() != null ) {
             cache = new SimpleFeatureStoreCache( DEFAULT_CACHE_SIZE );
@@ -822,6 +834,35 @@ public class SQLFeatureStore implements FeatureStore {
         return hits;
     }
 
+    @Override
+    public boolean isMaxFeaturesAndStartIndexApplicable( Query[] queries ) {
+        if ( queries.length != 1 || getSchema().getBlobMapping() != null || !dialect.isLimitAndOffsetSupported() ) {
+            return false;
+        }
+        Query query = queries[0];
+        if ( query.getTypeNames() == null || query.getTypeNames().length != 1 ) {
+            return false;
+        }
+        Filter filter = query.getFilter();
+        if ( filter != null && !( filter instanceof OperatorFilter ) ) {
+            return false;
+        }
+        QName ftName = query.getTypeNames()[0].getFeatureTypeName();
+        FeatureType ft = getSchema().getFeatureType( ftName );
+        if ( ft == null || getMapping( ftName ) == null ) {
+            return false;
+        }
+        try {
+            AbstractWhereBuilder wb = getWhereBuilder( ft, (OperatorFilter) filter, query.getSortProperties(), null );
+            // paging in the database is only correct if no in-memory filtering or sorting is required
+            return wb.getPostFilter() == null && wb.getPostSortCriteria() == null;
+        } catch ( Exception e ) {
+            LOG.debug( "Cannot determine if max features and start index are applicable: " + e.getMessage() );
+            LOG.trace( "Stack trace:", e );
+            return false;
+        }
+    }
+
     @Override
     public int[] queryHits( Query[] queries )
                             throws FeatureStoreException, FilterEvaluationException {
@@ -1057,8 +1098,8 @@ public class SQLFeatureStore implements FeatureStore {
             conn = getConnection();
 
             String tableAlias = "X1";
-            FeatureBuilder builder = new FeatureBuilderRelational( this, ft, ftMapping, conn, tableAlias,
-                                                                   nullEscalation );
+            FeatureBuilderRelational builder = new FeatureBuilderRelational( this, ft, ftMapping, conn, tableAlias,
+                                                                             nullEscalation );
             List<String> columns = builder.getInitialSelectList();
             StringBuilder sql = new StringBuilder( "SELECT " );
             sql.append( columns.get( 0 ) );
@@ -1109,7 +1150,7 @@ public class SQLFeatureStore implements FeatureStore {
             begin = System.currentTimeMillis();
             rs = stmt.executeQuery();
             LOG.debug( "Executing SELECT took {} [ms] ", System.currentTimeMillis() - begin );
-            result = new IteratorFeatureInputStream( new FeatureResultSetIterator( builder, rs, conn, stmt ) );
+            result = new IteratorFeatureInputStream( createRelationalIterator( builder, ftMapping, rs, conn, stmt ) );
         } catch ( Exception e ) {
             release( rs, stmt, conn );
             String msg = "Error performing query by id filter (relational mode): " + e.getMessage();
@@ -1310,8 +1351,10 @@ public class SQLFeatureStore implements FeatureStore {
             LOG.debug( "WHERE clause: " + wb.getWhere() );
             LOG.debug( "ORDER BY clause: " + wb.getOrderBy() );
 
-            FeatureBuilder builder = new FeatureBuilderRelational( this, ft, ftMapping, conn, ftTableAlias,
-                                                                   nullEscalation );
+            FeatureBuilderRelational builder = new FeatureBuilderRelational( this, ft, ftMapping, conn,
+                                                                             ftTableAlias, nullEscalation,
+                                                                             getSimplificationTolerance( query,
+                                                                                                         ftMapping ) );
             List<String> columns = builder.getInitialSelectList();
 
             BlobMapping blobMapping = getSchema().getBlobMapping();
@@ -1352,6 +1395,10 @@ public class SQLFeatureStore implements FeatureStore {
                 sql.append( " ORDER BY " );
                 sql.append( wb.getOrderBy().getSQL() );
             }
+            if ( isLimitAndOffsetApplicable( query, wb ) ) {
+                int maxRows = query.getMaxFeatures() > 0 ? query.getMaxFeatures() : -1;
+                sql.append( dialect.getLimitAndOffsetSnippet( maxRows, query.getStartIndex(), wb.getOrderBy() != null ) );
+            }
 
             LOG.debug( "SQL: {}", sql );
             long begin = System.currentTimeMillis();
@@ -1375,7 +1422,7 @@ public class SQLFeatureStore implements FeatureStore {
             rs = stmt.executeQuery();
             LOG.debug( "Executing SELECT took {} [ms] ", System.currentTimeMillis() - begin );
 
-            result = new IteratorFeatureInputStream( new FeatureResultSetIterator( builder, rs, conn, stmt ) );
+            result = new IteratorFeatureInputStream( createRelationalIterator( builder, ftMapping, rs, conn, stmt ) );
         } catch ( InvalidParameterValueException e ) {
             release( rs, stmt, conn );
             String msg = "Error performing query by operator filter: " + e.getMessage();
@@ -1399,6 +1446,13 @@ public class SQLFeatureStore implements FeatureStore {
         return result;
     }
 
+    private boolean isLimitAndOffsetApplicable( Query query, AbstractWhereBuilder wb ) {
+        if ( query.getMaxFeatures() <= 0 && query.getStartIndex() <= 0 ) {
+            return false;
+        }
+        return dialect.isLimitAndOffsetSupported() && wb.getPostFilter() == null && wb.getPostSortCriteria() == null;
+    }
+
     private FeatureInputStream queryMultipleFts( Query[] queries, Envelope looseBBox )
                             throws FeatureStoreException {
         FeatureInputStream result = null;
@@ -1509,6 +1563,50 @@ public class SQLFeatureStore implements FeatureStore {
         return dialect;
     }
 
+    /**
+     * Determines the tolerance for simplifying the geometries of the given query.
+     * 
+     * @return simplification tolerance in units of the storage CRS, <code>0</code> if geometries must not be simplified
+     */
+    private double getSimplificationTolerance( Query query, FeatureTypeMapping ftMapping ) {
+        Object resolution = query.getHint( HINT_RESOLUTION );
+        if ( simplificationToleranceFactor <= 0 || !( resolution instanceof Double ) ) {
+            return 0;
+        }
+        double tolerance = (Double) resolution * simplificationToleranceFactor;
+        // resolution refers to the CRS of the request, which is also used by the BBOX constraint
+        Envelope bbox = query.getPrefilterBBoxEnvelope();
+        Pair<TableName, GeometryMapping> geomMapping = ftMapping.getDefaultGeometryMapping();
+        ICRS storageCrs = geomMapping != null ? geomMapping.second.getCRS() : null;
+        if ( bbox != null && bbox.getCoordinateSystem() != null && storageCrs != null
+             && !storageCrs.equals( bbox.getCoordinateSystem() ) ) {
+            try {
+                Envelope storageBBox = new GeometryTransformer( storageCrs ).transform( bbox );
+                tolerance *= getDiagonal( storageBBox ) / getDiagonal( bbox );
+            } catch ( Exception e ) {
+                LOG.warn( "Cannot determine simplification tolerance in storage CRS: " + e.getMessage()
+                          + ". Not simplifying geometries." );
+                LOG.trace( "Stack trace:", e );
+                return 0;
+            }
+        }
+        LOG.debug( "Simplification tolerance: {}", tolerance );
+        return tolerance;
+    }
+
+    private double getDiagonal( Envelope env ) {
+        return Math.sqrt( env.getSpan0() * env.getSpan0() + env.getSpan1() * env.getSpan1() );
+    }
+
+    private CloseableIterator<Feature> createRelationalIterator( FeatureBuilderRelational builder,
+                                                                 FeatureTypeMapping ftMapping, ResultSet rs,
+                                                                 Connection conn, Statement stmt ) {
+        if ( ftMapping.getJoinBatchSize() > 0 ) {
+            return new BatchedFeatureResultSetIterator( builder, ftMapping.getJoinBatchSize(), rs, conn, stmt );
+        }
+        return new FeatureResultSetIterator( builder, rs, conn, stmt );
+    }
+
     private class FeatureResultSetIterator extends ResultSetIterator<Feature> {
 
         private final FeatureBuilder builder;
@@ -1539,6 +1637,87 @@ public class SQLFeatureStore implements FeatureStore {
         }
     }
 
+    /**
+     * Iterates over the features of a result set, building them in windows of rows so that the rows of joined tables
+     * can be fetched with one SELECT per join and window.
+     */
+    private class BatchedFeatureResultSetIterator implements CloseableIterator<Feature> {
+
+        private final FeatureBuilderRelational builder;
+
+        private final int batchSize;
+
+        private final ResultSet rs;
+
+        private final Connection conn;
+
+        private final Statement stmt;
+
+        private final LinkedList<Feature> buffer = new LinkedList<Feature>();
+
+        private boolean exhausted;
+
+        BatchedFeatureResultSetIterator( FeatureBuilderRelational builder, int batchSize, ResultSet rs,
+                                         Connection conn, Statement stmt ) {
+            this.builder = builder;
+            this.batchSize = batchSize;
+            this.rs = rs;
+            this.conn = conn;
+            this.stmt = stmt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( buffer.isEmpty() && !exhausted ) {
+                try {
+                    List<Feature> features = builder.buildFeatures( rs, batchSize );
+                    if ( features.size() < batchSize ) {
+                        exhausted = true;
+                    }
+                    buffer.addAll( features );
+                } catch ( SQLException e ) {
+                    close();
+                    throw new RuntimeException( e.getMessage(), e );
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public Feature next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            return buffer.removeFirst();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            release( rs, stmt, conn );
+        }
+
+        @Override
+        public List<Feature> getAsListAndClose() {
+            List<Feature> list = new LinkedList<Feature>();
+            getAsCollectionAndClose( list );
+            return list;
+        }
+
+        @Override
+        public Collection<Feature> getAsCollectionAndClose( Collection<Feature> collection ) {
+            while ( hasNext() ) {
+                collection.add( next() );
+            }
+            close();
+            return collection;
+        }
+    }
+
     @Override
     public ResourceMetadata<? extends Resource> getMetadata() {
         return metadata;
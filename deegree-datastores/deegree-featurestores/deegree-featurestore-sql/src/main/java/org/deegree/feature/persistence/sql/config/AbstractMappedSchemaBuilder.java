@@ -144,6 +144,17 @@ public abstract class AbstractMappedSchemaBuilder {
                                     + jaxbElement.getValue().getClass() );
     }
 
+    protected int getJoinBatchSize( FeatureTypeMappingJAXB ftMappingConf ) {
+        switch ( ftMappingConf.getJoinFetchMode() ) {
+        case LAZY:
+            return 0;
+        case BATCHED:
+            return ftMappingConf.getJoinBatchSize().intValue();
+        }
+        throw new RuntimeException( "Internal error: Unhandled JAXB join fetch mode: "
+                                    + ftMappingConf.getJoinFetchMode() );
+    }
+
     protected BaseType getPrimitiveType( org.deegree.feature.persistence.sql.jaxb.PrimitiveType type ) {
         switch ( type ) {
         case BOOLEAN:
@@ -201,7 +201,7 @@ public class MappedSchemaBuilderTable extends AbstractMappedSchemaBuilder {
 
         List<JAXBElement<? extends AbstractParticleJAXB>> propDecls = ftDecl.getAbstractParticle();
         if ( propDecls != null && !propDecls.isEmpty() ) {
-            buildFeatureTypeAndMapping( table, ftName, fidMapping, propDecls );
+            buildFeatureTypeAndMapping( table, ftName, fidMapping, propDecls, getJoinBatchSize( ftDecl ) );
         } else {
             buildFeatureTypeAndMapping( table, ftName, fidMapping );
         }
@@ -262,7 +262,8 @@ public class MappedSchemaBuilderTable extends AbstractMappedSchemaBuilder {
     }
 
     private void buildFeatureTypeAndMapping( TableName table, QName ftName, FIDMapping fidMapping,
-                                             List<JAXBElement<? extends AbstractParticleJAXB>> propDecls )
+                                             List<JAXBElement<? extends AbstractParticleJAXB>> propDecls,
+                                             int joinBatchSize )
                             throws FeatureStoreException, SQLException {
 
         List<PropertyType> pts = new ArrayList<PropertyType>();
@@ -279,7 +280,7 @@ public class MappedSchemaBuilderTable extends AbstractMappedSchemaBuilder {
         FeatureType ft = new GenericFeatureType( ftName, pts, false );
         ftNameToFt.put( ftName, ft );
 
-        FeatureTypeMapping ftMapping = new FeatureTypeMapping( ftName, table, fidMapping, mappings );
+        FeatureTypeMapping ftMapping = new FeatureTypeMapping( ftName, table, fidMapping, mappings, joinBatchSize );
         ftNameToMapping.put( ftName, ftMapping );
     }
 
@@ -44,6 +44,7 @@ import static org.jaxen.saxpath.Axis.CHILD;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -51,9 +52,12 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
@@ -80,6 +84,7 @@ import org.deegree.commons.xml.CommonNamespaces;
 import org.deegree.commons.xml.NamespaceBindings;
 import org.deegree.commons.xml.stax.XMLStreamReaderWrapper;
 import org.deegree.feature.Feature;
+import org.deegree.feature.persistence.cache.FeatureStoreCache;
 import org.deegree.feature.persistence.sql.FeatureBuilder;
 import org.deegree.feature.persistence.sql.FeatureTypeMapping;
 import org.deegree.feature.persistence.sql.SQLFeatureStore;
@@ -89,12 +94,14 @@ import org.deegree.feature.types.AppSchemaGeometryHierarchy;
 import org.deegree.feature.types.FeatureType;
 import org.deegree.feature.types.property.ObjectPropertyType;
 import org.deegree.filter.expression.ValueReference;
+import org.deegree.geometry.Geometries;
 import org.deegree.geometry.Geometry;
 import org.deegree.geometry.GeometryFactory;
 import org.deegree.geometry.primitive.LineString;
 import org.deegree.geometry.primitive.Polygon;
 import org.deegree.geometry.primitive.patches.SurfacePatch;
 import org.deegree.geometry.primitive.segments.CurveSegment;
+import org.deegree.geometry.utils.GeometryParticleConverter;
 import org.deegree.gml.GMLInputFactory;
 import org.deegree.gml.GMLOutputFactory;
 import org.deegree.gml.GMLStreamReader;
@@ -118,6 +125,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Builds {@link Feature} instances from SQL result set rows (relational mode).
+ * <p>
+ * Rows of joined tables are either fetched lazily (one subsequent SELECT per row and join, see
+ * {@link #buildFeature(ResultSet)}) or for a whole window of rows at once (one subsequent SELECT per join, see
+ * {@link #buildFeatures(ResultSet, int)}).
+ * </p>
  * 
  * @author <a href="mailto:schneider@lat-lon.de">Markus Schneider</a>
  * @author last edited by: $Author$
@@ -128,6 +140,9 @@ public class FeatureBuilderRelational implements FeatureBuilder {
 
     private static final Logger LOG = LoggerFactory.getLogger( FeatureBuilderRelational.class );
 
+    // upper bound for the number of keys in a single batched subsequent SELECT (Oracle limits IN lists to 1000)
+    private static final int MAX_KEYS_PER_SELECT = 1000;
+
     private final SQLFeatureStore fs;
 
     private final FeatureType ft;
@@ -144,8 +159,15 @@ public class FeatureBuilderRelational implements FeatureBuilder {
 
     private final LinkedHashMap<String, Integer> qualifiedSqlExprToRsIdx = new LinkedHashMap<String, Integer>();
 
+    private final RowLayout initialRowLayout = new RowLayout();
+
     private final boolean nullEscalation;
 
+    private final double simplificationTolerance;
+
+    // joined rows fetched in advance for the current window of rows (only set while in buildFeatures())
+    private Map<Mapping, JoinedRows> prefetchedRows;
+
     /**
      * Creates a new {@link FeatureBuilderRelational} instance.
      * 
@@ -162,12 +184,40 @@ public class FeatureBuilderRelational implements FeatureBuilder {
      */
     public FeatureBuilderRelational( SQLFeatureStore fs, FeatureType ft, FeatureTypeMapping ftMapping, Connection conn,
                                      String ftTableAlias, boolean nullEscalation ) {
+        this( fs, ft, ftMapping, conn, ftTableAlias, nullEscalation, 0 );
+    }
+
+    /**
+     * Creates a new {@link FeatureBuilderRelational} instance that simplifies the geometries of the features.
+     * <p>
+     * Simplification is performed by the database if the {@link GeometryParticleConverter} supports it, otherwise the
+     * geometries are simplified after fetching them. As simplified features must not end up in the feature cache, the
+     * cache is not used if simplification is enabled.
+     * </p>
+     * 
+     * @param fs
+     *            feature store, must not be <code>null</code>
+     * @param ft
+     *            feature type, must not be <code>null</code>
+     * @param ftMapping
+     *            feature type mapping, must not be <code>null</code>
+     * @param conn
+     *            JDBC connection (used for performing subsequent SELECTs), must not be <code>null</code>
+     * @param escalationPolicy
+     *            the void escalation policy, must not be <code>null</code>
+     * @param simplificationTolerance
+     *            tolerance for simplifying geometries (in units of the storage CRS), <code>0</code> for no
+     *            simplification
+     */
+    public FeatureBuilderRelational( SQLFeatureStore fs, FeatureType ft, FeatureTypeMapping ftMapping, Connection conn,
+                                     String ftTableAlias, boolean nullEscalation, double simplificationTolerance ) {
         this.fs = fs;
         this.ft = ft;
         this.ftMapping = ftMapping;
         this.conn = conn;
         this.tableAlias = ftTableAlias;
         this.nullEscalation = nullEscalation;
+        this.simplificationTolerance = simplificationTolerance;
         this.nsBindings = new NamespaceBindings();
         for ( String prefix : fs.getNamespaceContext().keySet() ) {
             String ns = fs.getNamespaceContext().get( prefix );
@@ -183,10 +233,10 @@ public class FeatureBuilderRelational implements FeatureBuilder {
     @Override
     public List<String> getInitialSelectList() {
         for ( Pair<SQLIdentifier, BaseType> fidColumn : ftMapping.getFidMapping().getColumns() ) {
-            addColumn( qualifiedSqlExprToRsIdx, tableAlias + "." + fidColumn.first.getName() );
+            addColumn( qualifiedSqlExprToRsIdx, initialRowLayout, tableAlias + "." + fidColumn.first.getName() );
         }
         for ( Mapping mapping : ftMapping.getMappings() ) {
-            addSelectColumns( mapping, qualifiedSqlExprToRsIdx, true );
+            addSelectColumns( mapping, qualifiedSqlExprToRsIdx, initialRowLayout, true );
         }
         LOG.debug( "Initial select columns: " + qualifiedSqlExprToRsIdx );
         return new ArrayList<String>( qualifiedSqlExprToRsIdx.keySet() );
@@ -198,51 +248,66 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         }
     }
 
-    private LinkedHashMap<String, Integer> getSubsequentSelectColumns( Mapping mapping ) {
+    private void addColumn( LinkedHashMap<String, Integer> colToRsIdx, RowLayout layout, String column ) {
+        addColumn( colToRsIdx, column );
+        layout.addColumn( colToRsIdx.get( column ) );
+    }
+
+    private void addColumn( LinkedHashMap<String, Integer> colToRsIdx, RowLayout layout, String column,
+                            ParticleConverter<?> converter ) {
+        addColumn( colToRsIdx, column );
+        layout.addParticle( converter, colToRsIdx.get( column ) );
+    }
+
+    private LinkedHashMap<String, Integer> getSubsequentSelectColumns( Mapping mapping, RowLayout layout ) {
         LinkedHashMap<String, Integer> colToRsIdx = new LinkedHashMap<String, Integer>();
-        addSelectColumns( mapping, colToRsIdx, false );
+        addSelectColumns( mapping, colToRsIdx, layout, false );
         return colToRsIdx;
     }
 
-    private void addSelectColumns( Mapping mapping, LinkedHashMap<String, Integer> colToRsIdx, boolean initial ) {
+    private void addSelectColumns( Mapping mapping, LinkedHashMap<String, Integer> colToRsIdx, RowLayout layout,
+                                   boolean initial ) {
         List<TableJoin> jc = mapping.getJoinedTable();
         if ( jc != null && initial ) {
             if ( mapping instanceof FeatureMapping ) {
                 ParticleConverter<?> particleConverter = fs.getConverter( mapping );
                 if ( particleConverter != null ) {
-                    addColumn( colToRsIdx, particleConverter.getSelectSnippet( tableAlias ) );
+                    addColumn( colToRsIdx, layout, particleConverter.getSelectSnippet( tableAlias ),
+                               particleConverter );
                 } else {
                     LOG.info( "Omitting mapping '" + mapping + "' from SELECT list. Not mapped to column.'" );
                 }
             } else {
                 for ( SQLIdentifier column : jc.get( 0 ).getFromColumns() ) {
-                    addColumn( colToRsIdx, tableAlias + "." + column );
+                    addColumn( colToRsIdx, layout, tableAlias + "." + column );
                 }
             }
         } else {
             ParticleConverter<?> particleConverter = fs.getConverter( mapping );
             if ( mapping instanceof PrimitiveMapping ) {
                 if ( particleConverter != null ) {
-                    addColumn( colToRsIdx, particleConverter.getSelectSnippet( tableAlias ) );
+                    addColumn( colToRsIdx, layout, particleConverter.getSelectSnippet( tableAlias ),
+                               particleConverter );
                 } else {
                     LOG.info( "Omitting mapping '" + mapping + "' from SELECT list. Not mapped to column.'" );
                 }
             } else if ( mapping instanceof GeometryMapping ) {
                 if ( particleConverter != null ) {
-                    addColumn( colToRsIdx, particleConverter.getSelectSnippet( tableAlias ) );
+                    addColumn( colToRsIdx, layout, getGeometrySelectSnippet( particleConverter ), particleConverter );
                 } else {
                     LOG.info( "Omitting mapping '" + mapping + "' from SELECT list. Not mapped to column.'" );
                 }
             } else if ( mapping instanceof FeatureMapping ) {
                 if ( particleConverter != null ) {
-                    addColumn( colToRsIdx, particleConverter.getSelectSnippet( tableAlias ) );
+                    addColumn( colToRsIdx, layout, particleConverter.getSelectSnippet( tableAlias ),
+                               particleConverter );
                 } else {
                     LOG.info( "Omitting mapping '" + mapping + "' from SELECT list. Not mapped to column.'" );
                 }
             } else if ( mapping instanceof CompoundMapping ) {
                 CompoundMapping cm = (CompoundMapping) mapping;
                 for ( Mapping particle : cm.getParticles() ) {
-                    addSelectColumns( particle, colToRsIdx, true );
+                    addSelectColumns( particle, colToRsIdx, layout, true );
                 }
             } else if ( mapping instanceof SqlExpressionMapping<?> ) {
                 // nothing to do
@@ -255,18 +320,18 @@ public class FeatureBuilderRelational implements FeatureBuilder {
     @Override
     public Feature buildFeature( ResultSet rs )
                             throws SQLException {
+        return buildFeature( new CursorRow( rs ) );
+    }
+
+    private Feature buildFeature( Row rs )
+                            throws SQLException {
 
         Feature feature = null;
         try {
-            String gmlId = ftMapping.getFidMapping().getPrefix();
-            List<Pair<SQLIdentifier, BaseType>> fidColumns = ftMapping.getFidMapping().getColumns();
-            gmlId += rs.getObject( qualifiedSqlExprToRsIdx.get( tableAlias + "." + fidColumns.get( 0 ).first ) );
-            for ( int i = 1; i < fidColumns.size(); i++ ) {
-                gmlId += ftMapping.getFidMapping().getDelimiter()
-                         + rs.getObject( qualifiedSqlExprToRsIdx.get( tableAlias + "." + fidColumns.get( i ).first ) );
-            }
-            if ( fs.getCache() != null ) {
-                feature = (Feature) fs.getCache().get( gmlId );
+            String gmlId = getGmlId( rs );
+            FeatureStoreCache cache = getCache();
+            if ( cache != null ) {
+                feature = (Feature) cache.get( gmlId );
             }
             if ( feature == null ) {
                 LOG.debug( "Recreating feature '" + gmlId + "' from db (relational mode)." );
@@ -285,8 +350,8 @@ public class FeatureBuilderRelational implements FeatureBuilder {
                     }
                 }
                 feature = ft.newFeature( gmlId, props, null );
-                if ( fs.getCache() != null ) {
-                    fs.getCache().add( feature );
+                if ( cache != null ) {
+                    cache.add( feature );
                 }
             } else {
                 LOG.debug( "Cache hit." );
@@ -298,6 +363,96 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         return feature;
     }
 
+    /**
+     * Builds the {@link Feature} instances for the next rows of the given {@link ResultSet}.
+     * <p>
+     * In contrast to {@link #buildFeature(ResultSet)}, the rows of joined tables are fetched for all of these rows at
+     * once, i.e. only one subsequent SELECT is performed per join (and per {@value #MAX_KEYS_PER_SELECT} keys).
+     * </p>
+     * 
+     * @param rs
+     *            result set, must not be <code>null</code>
+     * @param maxRows
+     *            maximum number of rows to consume from the result set
+     * @return features built from the consumed rows, empty if the result set has no more rows
+     * @throws SQLException
+     */
+    public List<Feature> buildFeatures( ResultSet rs, int maxRows )
+                            throws SQLException {
+
+        List<MaterializedRow> rows = new ArrayList<MaterializedRow>();
+        while ( rows.size() < maxRows && rs.next() ) {
+            rows.add( new MaterializedRow( rs, initialRowLayout ) );
+        }
+
+        // cached features are held for the whole window, so evictions cannot leave rows without prefetched joins
+        List<MaterializedRow> uncachedRows = rows;
+        Feature[] cachedFeatures = new Feature[rows.size()];
+        FeatureStoreCache cache = getCache();
+        if ( cache != null ) {
+            uncachedRows = new ArrayList<MaterializedRow>();
+            for ( int i = 0; i < rows.size(); i++ ) {
+                MaterializedRow row = rows.get( i );
+                cachedFeatures[i] = (Feature) cache.get( getGmlId( row ) );
+                if ( cachedFeatures[i] == null ) {
+                    uncachedRows.add( row );
+                }
+            }
+        }
+
+        List<Feature> features = new ArrayList<Feature>( rows.size() );
+        prefetchedRows = new IdentityHashMap<Mapping, JoinedRows>();
+        try {
+            long begin = System.currentTimeMillis();
+            for ( Mapping mapping : ftMapping.getMappings() ) {
+                if ( getChildElementStepAsQName( mapping.getPath() ) != null ) {
+                    prefetchJoinedRows( mapping, uncachedRows, qualifiedSqlExprToRsIdx );
+                }
+            }
+            LOG.debug( "Fetching joined rows for {} rows took {} [ms] ", uncachedRows.size(),
+                       System.currentTimeMillis() - begin );
+            for ( int i = 0; i < rows.size(); i++ ) {
+                if ( cachedFeatures[i] != null ) {
+                    LOG.debug( "Cache hit." );
+                    features.add( cachedFeatures[i] );
+                } else {
+                    features.add( buildFeature( rows.get( i ) ) );
+                }
+            }
+        } finally {
+            prefetchedRows = null;
+        }
+        return features;
+    }
+
+    private FeatureStoreCache getCache() {
+        // simplified features must not be served to requests that expect the original geometries
+        return simplificationTolerance > 0 ? null : fs.getCache();
+    }
+
+    private String getGeometrySelectSnippet( ParticleConverter<?> converter ) {
+        if ( simplificationTolerance > 0 && converter instanceof GeometryParticleConverter ) {
+            GeometryParticleConverter geomConverter = (GeometryParticleConverter) converter;
+            String snippet = geomConverter.getSimplifiedSelectSnippet( tableAlias, simplificationTolerance );
+            if ( snippet != null ) {
+                return snippet;
+            }
+        }
+        return converter.getSelectSnippet( tableAlias );
+    }
+
+    private String getGmlId( Row rs )
+                            throws SQLException {
+        String gmlId = ftMapping.getFidMapping().getPrefix();
+        List<Pair<SQLIdentifier, BaseType>> fidColumns = ftMapping.getFidMapping().getColumns();
+        gmlId += rs.getObject( qualifiedSqlExprToRsIdx.get( tableAlias + "." + fidColumns.get( 0 ).first ) );
+        for ( int i = 1; i < fidColumns.size(); i++ ) {
+            gmlId += ftMapping.getFidMapping().getDelimiter()
+                     + rs.getObject( qualifiedSqlExprToRsIdx.get( tableAlias + "." + fidColumns.get( i ).first ) );
+        }
+        return gmlId;
+    }
+
     private String toIdPrefix( ValueReference propName ) {
         String s = propName.getAsText();
         s = s.replace( "/", "_" );
@@ -308,8 +463,7 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         return s;
     }
 
-    private void addProperties( List<Property> props, PropertyType pt, Mapping propMapping, ResultSet rs,
-                                String idPrefix )
+    private void addProperties( List<Property> props, PropertyType pt, Mapping propMapping, Row rs, String idPrefix )
                             throws SQLException {
         List<TypedObjectNode> particles = buildParticles( propMapping, rs, qualifiedSqlExprToRsIdx, idPrefix );
         if ( particles.isEmpty() && pt.getMinOccurs() > 0 ) {
@@ -394,12 +548,32 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         return new GenericProperty( pt, particle.getName(), null, particle.getAttributes(), particle.getChildren() );
     }
 
-    private List<TypedObjectNode> buildParticles( Mapping mapping, ResultSet rs,
-                                                  LinkedHashMap<String, Integer> colToRsIdx, String idPrefix )
+    private List<TypedObjectNode> buildParticles( Mapping mapping, Row rs, LinkedHashMap<String, Integer> colToRsIdx,
+                                                  String idPrefix )
                             throws SQLException {
 
         if ( !( mapping instanceof FeatureMapping ) && mapping.getJoinedTable() != null ) {
             List<TypedObjectNode> values = new ArrayList<TypedObjectNode>();
+            JoinedRows joinedRows = prefetchedRows != null ? prefetchedRows.get( mapping ) : null;
+            List<Object> key = null;
+            if ( joinedRows != null ) {
+                key = getKeyValues( rs, mapping.getJoinedTable().get( 0 ).getFromColumns(), colToRsIdx );
+            }
+            // keys that have not been prefetched (e.g. of rows that were cached) are fetched with a separate SELECT
+            if ( joinedRows != null && ( key == null || joinedRows.isPrefetched( toKey( key ) ) ) ) {
+                if ( key != null ) {
+                    int i = 0;
+                    for ( MaterializedRow row : joinedRows.get( toKey( key ) ) ) {
+                        String particleIdPrefix = idPrefix + "_" + ( i++ );
+                        TypedObjectNode particle = buildParticle( mapping, row, joinedRows.colToRsIdx,
+                                                                  particleIdPrefix );
+                        if ( particle != null ) {
+                            values.add( particle );
+                        }
+                    }
+                }
+                return values;
+            }
             ResultSet rs2 = null;
             try {
                 Pair<ResultSet, LinkedHashMap<String, Integer>> p = getJoinedResultSet( mapping.getJoinedTable().get( 0 ),
@@ -407,7 +581,8 @@ public class FeatureBuilderRelational implements FeatureBuilder {
                 rs2 = p.first;
                 int i = 0;
                 while ( rs2.next() ) {
-                    TypedObjectNode particle = buildParticle( mapping, rs2, p.second, idPrefix + "_" + ( i++ ) );
+                    TypedObjectNode particle = buildParticle( mapping, new CursorRow( rs2 ), p.second,
+                                                              idPrefix + "_" + ( i++ ) );
                     if ( particle != null ) {
                         values.add( particle );
                     }
@@ -427,7 +602,7 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         return Collections.emptyList();
     }
 
-    private TypedObjectNode buildParticle( Mapping mapping, ResultSet rs, LinkedHashMap<String, Integer> colToRsIdx,
+    private TypedObjectNode buildParticle( Mapping mapping, Row rs, LinkedHashMap<String, Integer> colToRsIdx,
                                            String idPrefix )
                             throws SQLException {
 
@@ -441,25 +616,28 @@ public class FeatureBuilderRelational implements FeatureBuilder {
             MappingExpression me = pm.getMapping();
             String col = converter.getSelectSnippet( tableAlias );
             int colIndex = colToRsIdx.get( col );
-            particle = converter.toParticle( rs, colIndex );
+            particle = rs.getParticle( converter, colIndex );
         } else if ( mapping instanceof GeometryMapping ) {
             GeometryMapping pm = (GeometryMapping) mapping;
             MappingExpression me = pm.getMapping();
             if ( me instanceof DBField ) {
-                String col = converter.getSelectSnippet( tableAlias );
+                String col = getGeometrySelectSnippet( converter );
                 int colIndex = colToRsIdx.get( col );
-                particle = converter.toParticle( rs, colIndex );
-                Geometry geom = ( (Geometry) particle );
+                Geometry geom = (Geometry) rs.getParticle( converter, colIndex );
                 if ( geom != null ) {
+                    if ( simplificationTolerance > 0 && col.equals( converter.getSelectSnippet( tableAlias ) ) ) {
+                        geom = Geometries.simplify( geom, simplificationTolerance );
+                    }
                     geom.setId( idPrefix );
                 }
+                particle = geom;
             }
         } else if ( mapping instanceof FeatureMapping ) {
             FeatureMapping fm = (FeatureMapping) mapping;
             // if ( fm.getJoinedTable() != null && !fm.getJoinedTable().isEmpty() ) {
             String col = converter.getSelectSnippet( tableAlias );
             int colIndex = colToRsIdx.get( col );
-            particle = converter.toParticle( rs, colIndex );
+            particle = rs.getParticle( converter, colIndex );
             // }
         } else if ( mapping instanceof CompoundMapping ) {
             CompoundMapping cm = (CompoundMapping) mapping;
@@ -687,11 +865,11 @@ public class FeatureBuilderRelational implements FeatureBuilder {
 
     private Pair<ResultSet, LinkedHashMap<String, Integer>> getJoinedResultSet( TableJoin jc,
                                                                                 Mapping mapping,
-                                                                                ResultSet rs,
+                                                                                Row rs,
                                                                                 LinkedHashMap<String, Integer> colToRsIdx )
                             throws SQLException {
 
-        LinkedHashMap<String, Integer> rsToIdx = getSubsequentSelectColumns( mapping );
+        LinkedHashMap<String, Integer> rsToIdx = getSubsequentSelectColumns( mapping, new RowLayout() );
 
         StringBuilder sql = new StringBuilder( "SELECT " );
         boolean first = true;
@@ -716,9 +894,38 @@ public class FeatureBuilderRelational implements FeatureBuilder {
             sql.append( " = ?" );
             first = false;
         }
+        appendOrderBy( sql, jc );
+        LOG.debug( "SQL: {}", sql );
+
+        PreparedStatement stmt = null;
+        ResultSet rs2 = null;
+        try {
+            long begin = System.currentTimeMillis();
+            stmt = conn.prepareStatement( sql.toString() );
+
+            LOG.debug( "Preparing subsequent SELECT took {} [ms] ", System.currentTimeMillis() - begin );
+            int i = 1;
+            for ( SQLIdentifier keyColumn : jc.getFromColumns() ) {
+                Object key = rs.getObject( colToRsIdx.get( tableAlias + "." + keyColumn ) );
+                LOG.debug( "? = '{}' ({})", key, keyColumn );
+                stmt.setObject( i++, key );
+            }
+            begin = System.currentTimeMillis();
+            rs2 = stmt.executeQuery();
+            LOG.debug( "Executing SELECT took {} [ms] ", System.currentTimeMillis() - begin );
+        } catch ( Throwable t ) {
+            close( rs2, stmt, null, LOG );
+            String msg = "Error performing subsequent SELECT: " + t.getMessage();
+            LOG.error( msg, t );
+            throw new SQLException( msg, t );
+        }
+        return new Pair<ResultSet, LinkedHashMap<String, Integer>>( rs2, rsToIdx );
+    }
+
+    private void appendOrderBy( StringBuilder sql, TableJoin jc ) {
         if ( jc.getOrderColumns() != null && !jc.getOrderColumns().isEmpty() ) {
             sql.append( " ORDER BY " );
-            first = true;
+            boolean first = true;
             for ( SQLIdentifier orderColumn : jc.getOrderColumns() ) {
                 if ( !first ) {
                     sql.append( "," );
@@ -732,6 +939,107 @@ public class FeatureBuilderRelational implements FeatureBuilder {
                 first = false;
             }
         }
+    }
+
+    private void prefetchJoinedRows( Mapping mapping, List<MaterializedRow> rows,
+                                     LinkedHashMap<String, Integer> colToRsIdx )
+                            throws SQLException {
+        if ( mapping instanceof FeatureMapping ) {
+            return;
+        }
+        if ( mapping.getJoinedTable() != null ) {
+            JoinedRows joinedRows = fetchJoinedRows( mapping.getJoinedTable().get( 0 ), mapping, rows, colToRsIdx );
+            prefetchedRows.put( mapping, joinedRows );
+            rows = joinedRows.allRows;
+            colToRsIdx = joinedRows.colToRsIdx;
+        }
+        if ( mapping instanceof CompoundMapping ) {
+            for ( Mapping particle : ( (CompoundMapping) mapping ).getParticles() ) {
+                prefetchJoinedRows( particle, rows, colToRsIdx );
+            }
+        }
+    }
+
+    private JoinedRows fetchJoinedRows( TableJoin jc, Mapping mapping, List<MaterializedRow> rows,
+                                        LinkedHashMap<String, Integer> colToRsIdx )
+                            throws SQLException {
+
+        RowLayout layout = new RowLayout();
+        LinkedHashMap<String, Integer> rsToIdx = getSubsequentSelectColumns( mapping, layout );
+        // key columns are needed for assigning the joined rows to the rows they belong to
+        for ( SQLIdentifier keyColumn : jc.getToColumns() ) {
+            addColumn( rsToIdx, layout, tableAlias + "." + keyColumn );
+        }
+        JoinedRows joinedRows = new JoinedRows( rsToIdx, layout );
+
+        Map<List<Object>, List<Object>> keys = new LinkedHashMap<List<Object>, List<Object>>();
+        for ( MaterializedRow row : rows ) {
+            List<Object> keyValues = getKeyValues( row, jc.getFromColumns(), colToRsIdx );
+            if ( keyValues != null ) {
+                keys.put( toKey( keyValues ), keyValues );
+            }
+        }
+        joinedRows.prefetchedKeys.addAll( keys.keySet() );
+
+        int keysPerSelect = Math.min( Math.max( ftMapping.getJoinBatchSize(), 1 ), MAX_KEYS_PER_SELECT );
+        List<List<Object>> chunk = new ArrayList<List<Object>>( keysPerSelect );
+        for ( List<Object> keyValues : keys.values() ) {
+            chunk.add( keyValues );
+            if ( chunk.size() == keysPerSelect ) {
+                fetchJoinedRows( jc, chunk, joinedRows );
+                chunk.clear();
+            }
+        }
+        if ( !chunk.isEmpty() ) {
+            fetchJoinedRows( jc, chunk, joinedRows );
+        }
+        return joinedRows;
+    }
+
+    private void fetchJoinedRows( TableJoin jc, List<List<Object>> keys, JoinedRows joinedRows )
+                            throws SQLException {
+
+        StringBuilder sql = new StringBuilder( "SELECT " );
+        boolean first = true;
+        for ( String column : joinedRows.colToRsIdx.keySet() ) {
+            if ( !first ) {
+                sql.append( ',' );
+            }
+            sql.append( column );
+            first = false;
+        }
+        sql.append( " FROM " );
+        sql.append( jc.getToTable() );
+        sql.append( ' ' );
+        sql.append( tableAlias );
+        sql.append( " WHERE " );
+        List<SQLIdentifier> keyColumns = jc.getToColumns();
+        if ( keyColumns.size() == 1 ) {
+            sql.append( keyColumns.get( 0 ) );
+            sql.append( " IN (?" );
+            for ( int i = 1; i < keys.size(); i++ ) {
+                sql.append( ",?" );
+            }
+            sql.append( ')' );
+        } else {
+            for ( int i = 0; i < keys.size(); i++ ) {
+                if ( i > 0 ) {
+                    sql.append( " OR " );
+                }
+                sql.append( '(' );
+                first = true;
+                for ( SQLIdentifier keyColumn : keyColumns ) {
+                    if ( !first ) {
+                        sql.append( " AND " );
+                    }
+                    sql.append( keyColumn );
+                    sql.append( " = ?" );
+                    first = false;
+                }
+                sql.append( ')' );
+            }
+        }
+        appendOrderBy( sql, jc );
         LOG.debug( "SQL: {}", sql );
 
         PreparedStatement stmt = null;
@@ -739,24 +1047,242 @@ public class FeatureBuilderRelational implements FeatureBuilder {
         try {
             long begin = System.currentTimeMillis();
             stmt = conn.prepareStatement( sql.toString() );
-
-            LOG.debug( "Preparing subsequent SELECT took {} [ms] ", System.currentTimeMillis() - begin );
+            LOG.debug( "Preparing batched subsequent SELECT took {} [ms] ", System.currentTimeMillis() - begin );
             int i = 1;
-            for ( SQLIdentifier keyColumn : jc.getFromColumns() ) {
-                Object key = rs.getObject( colToRsIdx.get( tableAlias + "." + keyColumn ) );
-                LOG.debug( "? = '{}' ({})", key, keyColumn );
-                stmt.setObject( i++, key );
+            for ( List<Object> keyValues : keys ) {
+                for ( Object keyValue : keyValues ) {
+                    stmt.setObject( i++, keyValue );
+                }
             }
             begin = System.currentTimeMillis();
             rs2 = stmt.executeQuery();
-            LOG.debug( "Executing SELECT took {} [ms] ", System.currentTimeMillis() - begin );
+            LOG.debug( "Executing batched SELECT ({} keys) took {} [ms] ", keys.size(), System.currentTimeMillis()
+                                                                                        - begin );
+            while ( rs2.next() ) {
+                MaterializedRow row = new MaterializedRow( rs2, joinedRows.layout );
+                List<Object> keyValues = getKeyValues( row, keyColumns, joinedRows.colToRsIdx );
+                if ( keyValues != null ) {
+                    joinedRows.add( toKey( keyValues ), row );
+                }
+            }
         } catch ( Throwable t ) {
-            close( rs2, stmt, null, LOG );
-            String msg = "Error performing subsequent SELECT: " + t.getMessage();
+            String msg = "Error performing batched subsequent SELECT: " + t.getMessage();
             LOG.error( msg, t );
             throw new SQLException( msg, t );
+        } finally {
+            close( rs2, stmt, null, LOG );
+        }
+    }
+
+    /**
+     * Returns the values of the given key columns.
+     * 
+     * @return key values, <code>null</code> if any of the values is <code>null</code> (such keys never match)
+     */
+    private List<Object> getKeyValues( Row rs, List<SQLIdentifier> keyColumns,
+                                       LinkedHashMap<String, Integer> colToRsIdx )
+                            throws SQLException {
+        List<Object> keyValues = new ArrayList<Object>( keyColumns.size() );
+        for ( SQLIdentifier keyColumn : keyColumns ) {
+            Object value = rs.getObject( colToRsIdx.get( tableAlias + "." + keyColumn ) );
+            if ( value == null ) {
+                return null;
+            }
+            keyValues.add( value );
+        }
+        return keyValues;
+    }
+
+    /**
+     * Normalizes key values, so keys from columns with different numeric types (e.g. int4 and int8) are equal.
+     */
+    private List<Object> toKey( List<Object> keyValues ) {
+        List<Object> key = new ArrayList<Object>( keyValues.size() );
+        for ( Object value : keyValues ) {
+            if ( value instanceof Number ) {
+                BigDecimal number = new BigDecimal( value.toString() );
+                key.add( number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros() );
+            } else {
+                key.add( value );
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Rows of a joined table, fetched for a window of rows and grouped by join key.
+     */
+    private static class JoinedRows {
+
+        private final LinkedHashMap<String, Integer> colToRsIdx;
+
+        private final RowLayout layout;
+
+        private final Map<List<Object>, List<MaterializedRow>> keyToRows = new HashMap<List<Object>,
+                                                                                          List<MaterializedRow>>();
+
+        private final List<MaterializedRow> allRows = new ArrayList<MaterializedRow>();
+
+        private final Set<List<Object>> prefetchedKeys = new HashSet<List<Object>>();
+
+        private JoinedRows( LinkedHashMap<String, Integer> colToRsIdx, RowLayout layout ) {
+            this.colToRsIdx = colToRsIdx;
+            this.layout = layout;
+        }
+
+        private void add( List<Object> key, MaterializedRow row ) {
+            List<MaterializedRow> rows = keyToRows.get( key );
+            if ( rows == null ) {
+                rows = new ArrayList<MaterializedRow>();
+                keyToRows.put( key, rows );
+            }
+            rows.add( row );
+            allRows.add( row );
+        }
+
+        private boolean isPrefetched( List<Object> key ) {
+            return prefetchedKeys.contains( key );
+        }
+
+        private List<MaterializedRow> get( List<Object> key ) {
+            List<MaterializedRow> rows = keyToRows.get( key );
+            if ( rows == null ) {
+                return Collections.<MaterializedRow> emptyList();
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Access to the column values of a row.
+     */
+    private interface Row {
+
+        Object getObject( int colIndex )
+                                throws SQLException;
+
+        TypedObjectNode getParticle( ParticleConverter<?> converter, int colIndex )
+                                throws SQLException;
+    }
+
+    /**
+     * Current row of a {@link ResultSet}.
+     */
+    private static class CursorRow implements Row {
+
+        private final ResultSet rs;
+
+        private CursorRow( ResultSet rs ) {
+            this.rs = rs;
+        }
+
+        @Override
+        public Object getObject( int colIndex )
+                                throws SQLException {
+            return rs.getObject( colIndex );
+        }
+
+        @Override
+        public TypedObjectNode getParticle( ParticleConverter<?> converter, int colIndex )
+                                throws SQLException {
+            return converter.toParticle( rs, colIndex );
+        }
+    }
+
+    /**
+     * Describes which values of a row are kept by a {@link MaterializedRow}: plain column values (ids and join keys)
+     * and the particles built by the converters of the mapped columns.
+     */
+    private static class RowLayout {
+
+        private final Map<Integer, Integer> colIndexToSlot;
+
+        private final Map<ParticleConverter<?>, Integer> converterToSlot;
+
+        private final Map<Integer, List<ParticleConverter<?>>> colIndexToConverters;
+
+        private int numColumns;
+
+        private int numSlots;
+
+        private RowLayout() {
+            colIndexToSlot = new HashMap<Integer, Integer>();
+            converterToSlot = new IdentityHashMap<ParticleConverter<?>, Integer>();
+            colIndexToConverters = new HashMap<Integer, List<ParticleConverter<?>>>();
+        }
+
+        private void addColumn( int colIndex ) {
+            if ( !colIndexToSlot.containsKey( colIndex ) ) {
+                colIndexToSlot.put( colIndex, numSlots++ );
+                numColumns = Math.max( numColumns, colIndex );
+            }
+        }
+
+        private void addParticle( ParticleConverter<?> converter, int colIndex ) {
+            if ( !converterToSlot.containsKey( converter ) ) {
+                converterToSlot.put( converter, numSlots++ );
+                List<ParticleConverter<?>> converters = colIndexToConverters.get( colIndex );
+                if ( converters == null ) {
+                    converters = new ArrayList<ParticleConverter<?>>( 1 );
+                    colIndexToConverters.put( colIndex, converters );
+                }
+                converters.add( converter );
+                numColumns = Math.max( numColumns, colIndex );
+            }
+        }
+    }
+
+    /**
+     * Copy of a row that stays valid after the cursor has moved on.
+     * <p>
+     * Particles are built by the converters while the cursor is still positioned on the row, so converters can use
+     * any column accessor and LOBs are read before their locators become invalid.
+     * </p>
+     */
+    private static class MaterializedRow implements Row {
+
+        private final RowLayout layout;
+
+        private final Object[] values;
+
+        private MaterializedRow( ResultSet rs, RowLayout layout )
+                                throws SQLException {
+            this.layout = layout;
+            this.values = new Object[layout.numSlots];
+            // read columns in ascending order, some drivers do not support anything else
+            for ( int colIndex = 1; colIndex <= layout.numColumns; colIndex++ ) {
+                Integer slot = layout.colIndexToSlot.get( colIndex );
+                if ( slot != null ) {
+                    values[slot] = rs.getObject( colIndex );
+                }
+                List<ParticleConverter<?>> converters = layout.colIndexToConverters.get( colIndex );
+                if ( converters != null ) {
+                    for ( ParticleConverter<?> converter : converters ) {
+                        values[layout.converterToSlot.get( converter )] = converter.toParticle( rs, colIndex );
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Object getObject( int colIndex )
+                                throws SQLException {
+            Integer slot = layout.colIndexToSlot.get( colIndex );
+            if ( slot == null ) {
+                throw new SQLException( "Column " + colIndex + " has not been materialized." );
+            }
+            return values[slot];
+        }
+
+        @Override
+        public TypedObjectNode getParticle( ParticleConverter<?> converter, int colIndex )
+                                throws SQLException {
+            Integer slot = layout.converterToSlot.get( converter );
+            if ( slot == null ) {
+                throw new SQLException( "Particle for column " + colIndex + " has not been materialized." );
+            }
+            return (TypedObjectNode) values[slot];
         }
-        return new Pair<ResultSet, LinkedHashMap<String, Integer>>( rs2, rsToIdx );
     }
 
     private QName getChildElementStepAsQName( ValueReference ref ) {
@@ -0,0 +1,285 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2011 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.feature.persistence.sql.rules;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.deegree.commons.jdbc.SQLIdentifier;
+import org.deegree.commons.jdbc.TableName;
+import org.deegree.commons.tom.TypedObjectNode;
+import org.deegree.commons.tom.gml.property.Property;
+import org.deegree.commons.tom.gml.property.PropertyType;
+import org.deegree.commons.tom.primitive.BaseType;
+import org.deegree.commons.tom.primitive.PrimitiveType;
+import org.deegree.commons.tom.primitive.PrimitiveValue;
+import org.deegree.commons.tom.sql.PrimitiveParticleConverter;
+import org.deegree.commons.utils.Pair;
+import org.deegree.feature.Feature;
+import org.deegree.feature.persistence.cache.FeatureStoreCache;
+import org.deegree.feature.persistence.sql.FeatureTypeMapping;
+import org.deegree.feature.persistence.sql.SQLFeatureStore;
+import org.deegree.feature.persistence.sql.expressions.TableJoin;
+import org.deegree.feature.persistence.sql.id.FIDMapping;
+import org.deegree.feature.types.GenericFeatureType;
+import org.deegree.feature.types.property.SimplePropertyType;
+import org.deegree.filter.expression.ValueReference;
+import org.deegree.sqldialect.filter.DBField;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests the batched mode of {@link FeatureBuilderRelational}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class FeatureBuilderRelationalTest {
+
+    private static final QName PROP_NAME = new QName( "date" );
+
+    private SQLFeatureStore fs;
+
+    private GenericFeatureType ft;
+
+    private FeatureTypeMapping ftMapping;
+
+    private PrimitiveParticleConverter converter;
+
+    private Connection conn;
+
+    private List<String> sql;
+
+    @Before
+    public void setUp()
+                            throws SQLException {
+        SimplePropertyType pt = new SimplePropertyType( PROP_NAME, 0, -1, BaseType.STRING, null, null );
+        ft = new GenericFeatureType( new QName( "Road" ), Collections.<PropertyType> singletonList( pt ), false );
+
+        List<String> noColumns = Collections.emptyList();
+        TableJoin join = new TableJoin( new TableName( "road" ), new TableName( "road_date" ), asList( "id" ),
+                                        asList( "road_id" ), noColumns, false, null );
+        PrimitiveMapping mapping = new PrimitiveMapping( new ValueReference( "date", null ), true,
+                                                         new DBField( "date" ), new PrimitiveType( BaseType.STRING ),
+                                                         singletonList( join ), null );
+        List<Pair<SQLIdentifier, BaseType>> fidColumns = new ArrayList<Pair<SQLIdentifier, BaseType>>();
+        fidColumns.add( new Pair<SQLIdentifier, BaseType>( new SQLIdentifier( "id" ), BaseType.INTEGER ) );
+        FIDMapping fidMapping = new FIDMapping( "ROAD_", "_", fidColumns, null );
+        ftMapping = new FeatureTypeMapping( ft.getName(), new TableName( "road" ), fidMapping,
+                                            Collections.<Mapping> singletonList( mapping ), 100 );
+
+        // reads the column with an accessor that a copy of the row would have to emulate
+        converter = mock( PrimitiveParticleConverter.class );
+        when( converter.getSelectSnippet( "X1" ) ).thenReturn( "X1.date" );
+        when( converter.toParticle( any( ResultSet.class ), anyInt() ) ).thenAnswer( new Answer<PrimitiveValue>() {
+            @Override
+            public PrimitiveValue answer( InvocationOnMock invocation )
+                                    throws SQLException {
+                ResultSet rs = (ResultSet) invocation.getArguments()[0];
+                Timestamp date = rs.getTimestamp( (Integer) invocation.getArguments()[1] );
+                return date == null ? null : new PrimitiveValue( "" + date.getTime() );
+            }
+        } );
+
+        fs = mock( SQLFeatureStore.class );
+        when( fs.getNamespaceContext() ).thenReturn( Collections.<String, String> emptyMap() );
+        when( fs.getConverter( mapping ) ).thenReturn( converter );
+
+        sql = new ArrayList<String>();
+        conn = mock( Connection.class );
+    }
+
+    @Test
+    public void testBuildFeaturesAssignsJoinedRows()
+                            throws SQLException {
+        // joined rows: date, road_id (not ordered by road_id)
+        ResultSet joinedRs = resultSet( new Object[] { new Timestamp( 1000 ), 1 },
+                                        new Object[] { new Timestamp( 2000 ), 2L },
+                                        new Object[] { new Timestamp( 3000 ), 1 } );
+        expectStatement( joinedRs );
+
+        FeatureBuilderRelational builder = new FeatureBuilderRelational( fs, ft, ftMapping, conn, "X1", false );
+        assertEquals( singletonList( "X1.id" ), builder.getInitialSelectList() );
+        List<Feature> features = builder.buildFeatures( resultSet( new Object[] { 1 }, new Object[] { 2 },
+                                                                   new Object[] { 3 } ), 10 );
+
+        assertEquals( 1, sql.size() );
+        assertTrue( sql.get( 0 ), sql.get( 0 ).contains( "road_id IN (?,?,?)" ) );
+        assertEquals( 3, features.size() );
+        assertEquals( "ROAD_1", features.get( 0 ).getId() );
+        assertEquals( asList( "1000", "3000" ), getValues( features.get( 0 ) ) );
+        assertEquals( "ROAD_2", features.get( 1 ).getId() );
+        assertEquals( asList( "2000" ), getValues( features.get( 1 ) ) );
+        assertEquals( "ROAD_3", features.get( 2 ).getId() );
+        assertEquals( Collections.<String> emptyList(), getValues( features.get( 2 ) ) );
+    }
+
+    @Test
+    public void testBuildFeaturesConvertsParticlesOnLiveRow()
+                            throws SQLException {
+        ResultSet joinedRs = resultSet( new Object[] { new Timestamp( 1000 ), 1 },
+                                        new Object[] { new Timestamp( 2000 ), 1 } );
+        expectStatement( joinedRs );
+
+        FeatureBuilderRelational builder = new FeatureBuilderRelational( fs, ft, ftMapping, conn, "X1", false );
+        builder.getInitialSelectList();
+        List<Feature> features = builder.buildFeatures( resultSet( new Object[] { 1 } ), 10 );
+
+        // each joined row is converted exactly once, directly from the result set of the subsequent SELECT
+        verify( converter, times( 2 ) ).toParticle( same( joinedRs ), eq( 1 ) );
+        assertEquals( asList( "1000", "2000" ), getValues( features.get( 0 ) ) );
+    }
+
+    @Test
+    public void testBuildFeaturesKeepsCachedFeatureEvictedDuringBatch()
+                            throws SQLException {
+        Feature cached = mock( Feature.class );
+        FeatureStoreCache cache = mock( FeatureStoreCache.class );
+        // ROAD_2 is cached when the batch is checked, but evicted right afterwards
+        when( cache.get( "ROAD_2" ) ).thenReturn( cached ).thenReturn( null );
+        when( fs.getCache() ).thenReturn( cache );
+        ResultSet joinedRs = resultSet( new Object[] { new Timestamp( 1000 ), 1 },
+                                        new Object[] { new Timestamp( 3000 ), 3 } );
+        expectStatement( joinedRs );
+
+        FeatureBuilderRelational builder = new FeatureBuilderRelational( fs, ft, ftMapping, conn, "X1", false );
+        builder.getInitialSelectList();
+        List<Feature> features = builder.buildFeatures( resultSet( new Object[] { 1 }, new Object[] { 2 },
+                                                                   new Object[] { 3 } ), 10 );
+
+        assertEquals( 1, sql.size() );
+        assertTrue( sql.get( 0 ), sql.get( 0 ).contains( "road_id IN (?,?)" ) );
+        assertEquals( asList( "1000" ), getValues( features.get( 0 ) ) );
+        assertSame( cached, features.get( 1 ) );
+        assertEquals( asList( "3000" ), getValues( features.get( 2 ) ) );
+        // the cached instance is not rebuilt (and not re-added without its joined properties)
+        verify( cache, times( 1 ) ).get( "ROAD_2" );
+        verify( cache, times( 2 ) ).add( any( Feature.class ) );
+    }
+
+    @Test
+    public void testBuildFeaturesConsumesAtMostMaxRows()
+                            throws SQLException {
+        expectStatement( resultSet() );
+
+        FeatureBuilderRelational builder = new FeatureBuilderRelational( fs, ft, ftMapping, conn, "X1", false );
+        builder.getInitialSelectList();
+        ResultSet rs = resultSet( new Object[] { 1 }, new Object[] { 2 }, new Object[] { 3 } );
+
+        assertEquals( 2, builder.buildFeatures( rs, 2 ).size() );
+        assertEquals( 1, builder.buildFeatures( rs, 2 ).size() );
+        assertEquals( 0, builder.buildFeatures( rs, 2 ).size() );
+    }
+
+    private void expectStatement( ResultSet rs )
+                            throws SQLException {
+        final PreparedStatement stmt = mock( PreparedStatement.class );
+        when( stmt.executeQuery() ).thenReturn( rs );
+        when( conn.prepareStatement( anyString() ) ).thenAnswer( new Answer<PreparedStatement>() {
+            @Override
+            public PreparedStatement answer( InvocationOnMock invocation ) {
+                sql.add( (String) invocation.getArguments()[0] );
+                return stmt;
+            }
+        } );
+    }
+
+    private static List<String> getValues( Feature feature ) {
+        List<String> values = new ArrayList<String>();
+        for ( Property prop : feature.getProperties() ) {
+            TypedObjectNode value = prop.getValue();
+            values.add( ( (PrimitiveValue) value ).getAsText() );
+        }
+        return values;
+    }
+
+    /**
+     * Returns a result set that only allows access to the values of the current row.
+     */
+    private static ResultSet resultSet( final Object[]... rows )
+                            throws SQLException {
+        final int[] cursor = { -1 };
+        ResultSet rs = mock( ResultSet.class );
+        when( rs.next() ).thenAnswer( new Answer<Boolean>() {
+            @Override
+            public Boolean answer( InvocationOnMock invocation ) {
+                if ( cursor[0] < rows.length ) {
+                    cursor[0]++;
+                }
+                return cursor[0] < rows.length;
+            }
+        } );
+        Answer<Object> value = new Answer<Object>() {
+            @Override
+            public Object answer( InvocationOnMock invocation )
+                                    throws SQLException {
+                if ( cursor[0] < 0 || cursor[0] >= rows.length ) {
+                    throw new SQLException( "Result set is not positioned on a row." );
+                }
+                return rows[cursor[0]][(Integer) invocation.getArguments()[0] - 1];
+            }
+        };
+        when( rs.getObject( anyInt() ) ).thenAnswer( value );
+        when( rs.getTimestamp( anyInt() ) ).thenAnswer( value );
+        return rs;
+    }
+}
@@ -47,6 +47,8 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.imageio.ImageIO;
 
@@ -54,8 +56,11 @@ import net.sf.ehcache.Cache;
 import net.sf.ehcache.Element;
 
 import org.apache.commons.io.IOUtils;
+import org.deegree.commons.utils.Pair;
 import org.deegree.feature.FeatureCollection;
 import org.deegree.geometry.Envelope;
+import org.deegree.tile.CacheableTile;
+import org.deegree.tile.MetaTiledTile;
 import org.deegree.tile.Tile;
 import org.deegree.tile.TileIOException;
 import org.slf4j.Logger;
@@ -69,7 +74,7 @@ import org.slf4j.Logger;
  * 
  * @version $Revision: 31882 $, $Date: 2011-09-15 02:05:04 +0200 (Thu, 15 Sep 2011) $
  */
-public class CachedTile implements Tile {
+public class CachedTile implements CacheableTile {
 
     private static final Logger LOG = getLogger( CachedTile.class );
 
@@ -79,12 +84,26 @@ public class CachedTile implements Tile {
 
     private final String key;
 
+    private final String tileMatrix;
+
     private byte[] data;
 
+    private Element element;
+
     public CachedTile( Tile tile, Cache cache, String key ) {
+        this( tile, cache, key, null );
+    }
+
+    /**
+     * @param tileMatrix
+     *            identifier of the tile matrix, if not <code>null</code> siblings of {@link MetaTiledTile}s are put
+     *            into the cache as well
+     */
+    CachedTile( Tile tile, Cache cache, String key, String tileMatrix ) {
         this.tile = tile;
         this.cache = cache;
         this.key = key;
+        this.tileMatrix = tileMatrix;
     }
 
     @Override
@@ -115,18 +134,73 @@ public class CachedTile implements Tile {
         return tile.getFeatures( i, j, limit );
     }
 
+    /**
+     * Returns an entity tag derived from the cache key and the time the tile has been put into the cache.
+     * 
+     * @return the entity tag, or <code>null</code> if the tile is not in the cache (yet)
+     */
+    @Override
+    public String getEntityTag() {
+        Element elem = getElement();
+        if ( elem == null ) {
+            return null;
+        }
+        return key + "-" + Long.toHexString( elem.getLatestOfCreationAndUpdateTime() );
+    }
+
+    /**
+     * Returns the time the tile has been put into the cache.
+     * 
+     * @return milliseconds since the epoch, or <code>-1</code> if the tile is not in the cache (yet)
+     */
+    @Override
+    public long getLastModified() {
+        Element elem = getElement();
+        if ( elem == null ) {
+            return -1;
+        }
+        return elem.getLatestOfCreationAndUpdateTime();
+    }
+
+    /**
+     * Fetches the tile from the cached tile store and puts it into the cache, unless it is already cached.
+     * 
+     * @return <code>true</code>, if the tile has been fetched, <code>false</code> if it was already in the cache
+     */
+    synchronized boolean fillCache() {
+        if ( data != null || getElement() != null ) {
+            return false;
+        }
+        getData();
+        return true;
+    }
+
+    private synchronized Element getElement() {
+        if ( element == null ) {
+            element = cache.get( key );
+        }
+        return element;
+    }
+
     private synchronized byte[] getData() {
         if ( data == null ) {
-            Element elem = cache.get( key );
+            Element elem = getElement();
             if ( elem == null ) {
                 try {
+                    if ( tileMatrix != null && tile instanceof MetaTiledTile ) {
+                        ( (MetaTiledTile) tile ).enableMetaTiling();
+                    }
                     InputStream is = tile.getAsStream();
                     if ( is == null ) {
                         data = new byte[] {};
                     } else {
                         data = IOUtils.toByteArray( is );
                     }
-                    cache.put( new Element( key, data ) );
+                    element = new Element( key, data );
+                    cache.put( element );
+                    if ( tileMatrix != null && tile instanceof MetaTiledTile ) {
+                        cacheSiblings( ( (MetaTiledTile) tile ).getSiblings() );
+                    }
                 } catch ( IOException e ) {
                     LOG.trace( e.getMessage(), e );
                     throw new TileIOException( e.getMessage(), e );
@@ -137,4 +211,12 @@ public class CachedTile implements Tile {
         }
         return data;
     }
+
+    private void cacheSiblings( Map<Pair<Long, Long>, byte[]> siblings ) {
+        for ( Entry<Pair<Long, Long>, byte[]> sibling : siblings.entrySet() ) {
+            Pair<Long, Long> idx = sibling.getKey();
+            String siblingKey = CachingTileMatrix.getCacheKey( tileMatrix, idx.first, idx.second );
+            cache.putIfAbsent( new Element( siblingKey, sibling.getValue() ) );
+        }
+    }
 }
@@ -83,8 +83,11 @@ public class CachingTileMatrix implements TileDataLevel {
         if (tile == null) {
             return null;
         }
-        String key = identifier + "_" + x + "_" + y;
-        return new CachedTile( tile, cache, key );
+        return new CachedTile( tile, cache, getCacheKey( identifier, x, y ), identifier );
+    }
+
+    static String getCacheKey( String tileMatrix, long x, long y ) {
+        return tileMatrix + "_" + x + "_" + y;
     }
 
     @Override
@@ -46,6 +46,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
@@ -81,6 +82,8 @@ public class CachingTileStore implements TileStore {
 
     private ResourceMetadata<TileStore> metadata;
 
+    private final Map<String, SeedingJob> seedingJobs = new ConcurrentHashMap<String, SeedingJob>();
+
     public CachingTileStore( TileStore tileStore, CacheManager cacheManager, String cacheName,
                              ResourceMetadata<TileStore> metadata ) {
         this.tileStore = tileStore;
@@ -112,6 +115,10 @@ public class CachingTileStore implements TileStore {
 
     @Override
     public void destroy() {
+        for ( SeedingJob job : seedingJobs.values() ) {
+            job.cancel();
+        }
+        seedingJobs.clear();
         cacheManager.shutdown();
     }
 
@@ -155,7 +162,7 @@ public class CachingTileStore implements TileStore {
                 String id = tm.getMetadata().getIdentifier();
                 for ( long x = ts[0]; x <= ts[2]; ++x ) {
                     for ( long y = ts[1]; y <= ts[3]; ++y ) {
-                        if ( cache.remove( id + "_" + x + "_" + y ) ) {
+                        if ( cache.remove( CachingTileMatrix.getCacheKey( id, x, y ) ) ) {
                             ++cnt;
                         }
                     }
@@ -165,6 +172,66 @@ public class CachingTileStore implements TileStore {
         return cnt;
     }
 
+    /**
+     * Starts a background job that fills the cache with the tiles of the given tile matrix set.
+     * 
+     * @param tileMatrixSet
+     *            the id of the tile matrix set, must not be <code>null</code>
+     * @param envelope
+     *            area to be seeded, may be null, in which case the complete tile matrices are seeded
+     * @param minLevel
+     *            index of the first tile data level to be seeded (counting from zero)
+     * @param maxLevel
+     *            index of the last tile data level to be seeded (inclusive), will be limited to the number of levels
+     * @param threads
+     *            number of tiles to be fetched concurrently, must be greater than zero
+     * @return the started job, never <code>null</code>
+     * @throws IllegalArgumentException
+     *             if the tile matrix set does not exist or the parameters are invalid
+     * @throws IllegalStateException
+     *             if a seeding job for the tile matrix set is still running
+     */
+    public synchronized SeedingJob seed( String tileMatrixSet, Envelope envelope, int minLevel, int maxLevel,
+                                         int threads ) {
+        TileDataSet dataSet = tileMatrixSets.get( tileMatrixSet );
+        if ( dataSet == null ) {
+            throw new IllegalArgumentException( "No tile matrix set with id '" + tileMatrixSet + "'." );
+        }
+        if ( threads < 1 ) {
+            throw new IllegalArgumentException( "Number of seeding threads must be greater than zero." );
+        }
+        SeedingJob running = seedingJobs.get( tileMatrixSet );
+        if ( running != null && !running.isFinished() ) {
+            throw new IllegalStateException( "Seeding of tile matrix set '" + tileMatrixSet
+                                             + "' is already in progress." );
+        }
+        List<TileDataLevel> levels = dataSet.getTileDataLevels();
+        int min = Math.max( 0, minLevel );
+        int max = Math.min( levels.size() - 1, maxLevel );
+        if ( min > max ) {
+            throw new IllegalArgumentException( "Invalid level range " + minLevel + "-" + maxLevel
+                                                + ", tile matrix set '" + tileMatrixSet + "' has " + levels.size()
+                                                + " levels." );
+        }
+        SeedingJob job = new SeedingJob( tileMatrixSet, new ArrayList<TileDataLevel>( levels.subList( min, max + 1 ) ),
+                                         envelope, threads );
+        seedingJobs.put( tileMatrixSet, job );
+        job.start();
+        return job;
+    }
+
+    /**
+     * Returns the most recent seeding job of the given tile matrix set.
+     * 
+     * @param tileMatrixSet
+     *            the id of the tile matrix set
+     * @return the last started job (may already be finished), or <code>null</code> if the tile matrix set has not been
+     *         seeded yet
+     */
+    public SeedingJob getSeedingJob( String tileMatrixSet ) {
+        return seedingJobs.get( tileMatrixSet );
+    }
+
     @Override
     public TileStoreTransaction acquireTransaction( String id ) {
         throw new UnsupportedOperationException( "CachingTileStore does not support transactions." );
@@ -0,0 +1,291 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.cache;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deegree.geometry.Envelope;
+import org.deegree.tile.Tile;
+import org.deegree.tile.TileDataLevel;
+import org.deegree.tile.Tiles;
+import org.slf4j.Logger;
+
+/**
+ * Background job that warms the cache of a {@link CachingTileStore} for a range of tile data levels and an optional
+ * bbox.
+ * <p>
+ * The tiles are fetched from the cached tile store by a bounded thread pool. Tiles that are already in the cache are
+ * skipped. A job can be cancelled at any time, progress is available via {@link #getCompleted()} and
+ * {@link #getTotal()}.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class SeedingJob {
+
+    private static final Logger LOG = getLogger( SeedingJob.class );
+
+    private final String tileMatrixSet;
+
+    private final List<TileDataLevel> levels;
+
+    private final Envelope envelope;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long total;
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong fetched = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean cancelled;
+
+    private Thread producer;
+
+    /**
+     * Creates a new {@link SeedingJob} instance, use {@link #start()} to start it.
+     * 
+     * @param tileMatrixSet
+     *            identifier of the tile matrix set, must not be <code>null</code>
+     * @param levels
+     *            caching tile data levels to be seeded, must not be <code>null</code>
+     * @param envelope
+     *            area to be seeded, may be <code>null</code> (seed complete levels)
+     * @param threads
+     *            number of concurrent fetches, must be greater than zero
+     */
+    SeedingJob( String tileMatrixSet, List<TileDataLevel> levels, Envelope envelope, int threads ) {
+        this.tileMatrixSet = tileMatrixSet;
+        this.levels = levels;
+        this.envelope = envelope;
+        // bounded queue, the producer thread works off tiles itself if all workers are busy
+        this.executor = new ThreadPoolExecutor( threads, threads, 0, MILLISECONDS,
+                                                new ArrayBlockingQueue<Runnable>( threads * 4 ),
+                                                new ThreadPoolExecutor.CallerRunsPolicy() );
+        long numTiles = 0;
+        for ( TileDataLevel level : levels ) {
+            long[] range = getTileIndexRange( level );
+            if ( range != null ) {
+                numTiles += ( range[2] - range[0] + 1 ) * ( range[3] - range[1] + 1 );
+            }
+        }
+        this.total = numTiles;
+    }
+
+    synchronized void start() {
+        if ( producer != null ) {
+            throw new IllegalStateException( "Seeding job has already been started." );
+        }
+        LOG.info( "Seeding " + total + " tiles of tile matrix set '" + tileMatrixSet + "'." );
+        producer = new Thread( new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    submitTiles();
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }, "seeding-" + tileMatrixSet );
+        producer.setDaemon( true );
+        producer.start();
+    }
+
+    private void submitTiles() {
+        for ( final TileDataLevel level : levels ) {
+            long[] range = getTileIndexRange( level );
+            if ( range == null ) {
+                continue;
+            }
+            for ( long x = range[0]; x <= range[2]; ++x ) {
+                for ( long y = range[1]; y <= range[3]; ++y ) {
+                    if ( cancelled ) {
+                        return;
+                    }
+                    final long tileX = x;
+                    final long tileY = y;
+                    executor.execute( new Runnable() {
+                        @Override
+                        public void run() {
+                            seed( level, tileX, tileY );
+                        }
+                    } );
+                }
+            }
+        }
+    }
+
+    private void seed( TileDataLevel level, long x, long y ) {
+        if ( cancelled ) {
+            return;
+        }
+        try {
+            Tile tile = level.getTile( x, y );
+            if ( tile instanceof CachedTile && ( (CachedTile) tile ).fillCache() ) {
+                fetched.incrementAndGet();
+            }
+        } catch ( Throwable e ) {
+            failed.incrementAndGet();
+            LOG.warn( "Seeding of tile " + x + "/" + y + " of tile matrix '" + level.getMetadata().getIdentifier()
+                      + "' failed: " + e.getMessage() );
+            LOG.trace( "Stack trace:", e );
+        }
+        completed.incrementAndGet();
+    }
+
+    private long[] getTileIndexRange( TileDataLevel level ) {
+        if ( envelope == null ) {
+            return new long[] { 0, 0, level.getMetadata().getNumTilesX() - 1, level.getMetadata().getNumTilesY() - 1 };
+        }
+        return Tiles.getTileIndexRange( level, envelope );
+    }
+
+    /**
+     * Cancels the job. Tiles that are currently being fetched are interrupted.
+     */
+    public void cancel() {
+        cancelled = true;
+        executor.shutdownNow();
+        synchronized ( this ) {
+            // the producer fetches tiles itself if the queue is full
+            if ( producer != null ) {
+                producer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for the job to finish.
+     * 
+     * @param timeout
+     *            maximum time to wait
+     * @param unit
+     *            unit of the timeout, must not be <code>null</code>
+     * @return <code>true</code>, if the job has finished, <code>false</code> if the timeout elapsed before
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public boolean awaitCompletion( long timeout, TimeUnit unit )
+                            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos( timeout );
+        Thread p;
+        synchronized ( this ) {
+            p = producer;
+        }
+        if ( p != null ) {
+            p.join( Math.max( 1, unit.toMillis( timeout ) ) );
+        }
+        long remaining = deadline - System.nanoTime();
+        return executor.awaitTermination( Math.max( 0, remaining ), TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * @return the identifier of the seeded tile matrix set, never <code>null</code>
+     */
+    public String getTileMatrixSet() {
+        return tileMatrixSet;
+    }
+
+    /**
+     * @return the number of tiles covered by the job
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of tiles that have been processed so far (including tiles that were already cached and failed
+     *         ones)
+     */
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * @return the number of tiles that have been fetched from the cached tile store so far
+     */
+    public long getFetched() {
+        return fetched.get();
+    }
+
+    /**
+     * @return the number of tiles that could not be fetched
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return <code>true</code>, if the job has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return <code>true</code>, if all tiles have been processed or the job has been cancelled and no more tiles are
+     *         being fetched
+     */
+    public boolean isFinished() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public String toString() {
+        String state = isFinished() ? ( cancelled ? "cancelled" : "finished" ) : ( cancelled ? "cancelling"
+                                                                                              : "running" );
+        return "Seeding of tile matrix set '" + tileMatrixSet + "' " + state + ": " + getCompleted() + "/" + total
+               + " tiles processed, " + getFetched() + " fetched, " + getFailed() + " failed.";
+    }
+
+}
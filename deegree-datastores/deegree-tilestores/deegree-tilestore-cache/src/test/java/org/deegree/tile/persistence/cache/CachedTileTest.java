@@ -0,0 +1,164 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+
+package org.deegree.tile.persistence.cache;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
+import org.apache.commons.io.IOUtils;
+import org.deegree.commons.utils.Pair;
+import org.deegree.tile.MetaTiledTile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+/**
+ * Tests for {@link CachedTile}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class CachedTileTest {
+
+    private static final byte[] TILE = { 1, 2, 3 };
+
+    private static final byte[] SIBLING = { 4, 5, 6 };
+
+    private CacheManager manager;
+
+    private Cache cache;
+
+    private MetaTiledTile tile;
+
+    @Before
+    public void setup() {
+        manager = CacheManager.create();
+        cache = new Cache( "cachedtiletest", 100, false, true, 0, 0 );
+        manager.addCache( cache );
+        tile = mock( MetaTiledTile.class );
+        when( tile.getAsStream() ).thenReturn( new ByteArrayInputStream( TILE ) );
+        Map<Pair<Long, Long>, byte[]> siblings = singletonMap( new Pair<Long, Long>( 1l, 0l ), SIBLING );
+        when( tile.getSiblings() ).thenReturn( siblings );
+    }
+
+    @After
+    public void tearDown() {
+        manager.removeCache( "cachedtiletest" );
+    }
+
+    @Test
+    public void testEnablesMetaTilingAndCachesSiblings()
+                            throws IOException {
+        CachedTile cached = new CachedTile( tile, cache, CachingTileMatrix.getCacheKey( "m", 0, 0 ), "m" );
+        assertArrayEquals( TILE, IOUtils.toByteArray( cached.getAsStream() ) );
+
+        InOrder order = inOrder( tile );
+        order.verify( tile ).enableMetaTiling();
+        order.verify( tile ).getAsStream();
+        assertArrayEquals( TILE, (byte[]) cache.get( "m_0_0" ).getValue() );
+        assertArrayEquals( SIBLING, (byte[]) cache.get( "m_1_0" ).getValue() );
+    }
+
+    @Test
+    public void testNoMetaTilingWithoutTileMatrix()
+                            throws IOException {
+        CachedTile cached = new CachedTile( tile, cache, "m_0_0" );
+        assertArrayEquals( TILE, IOUtils.toByteArray( cached.getAsStream() ) );
+
+        verify( tile, never() ).enableMetaTiling();
+        verify( tile, never() ).getSiblings();
+        assertNull( cache.get( "m_1_0" ) );
+    }
+
+    @Test
+    public void testValidatorsUnknownBeforeCaching()
+                            throws IOException {
+        CachedTile cached = new CachedTile( tile, cache, "m_0_0" );
+        assertNull( cached.getEntityTag() );
+        assertEquals( -1, cached.getLastModified() );
+
+        IOUtils.toByteArray( cached.getAsStream() );
+        long created = cache.get( "m_0_0" ).getLatestOfCreationAndUpdateTime();
+        assertEquals( "m_0_0-" + Long.toHexString( created ), cached.getEntityTag() );
+        assertEquals( created, cached.getLastModified() );
+    }
+
+    @Test
+    public void testValidatorsOfCachedTileDoNotFetchTile() {
+        cache.put( new Element( "m_0_0", TILE ) );
+        long created = cache.get( "m_0_0" ).getLatestOfCreationAndUpdateTime();
+
+        CachedTile cached = new CachedTile( tile, cache, "m_0_0" );
+        assertEquals( "m_0_0-" + Long.toHexString( created ), cached.getEntityTag() );
+        assertEquals( created, cached.getLastModified() );
+        verify( tile, never() ).getAsStream();
+    }
+
+    @Test
+    public void testEntityTagChangesWhenTileIsCachedAgain()
+                            throws InterruptedException {
+        cache.put( new Element( "m_0_0", TILE ) );
+        String etag = new CachedTile( tile, cache, "m_0_0" ).getEntityTag();
+        Thread.sleep( 20 );
+        cache.put( new Element( "m_0_0", SIBLING ) );
+        assertNotEquals( etag, new CachedTile( tile, cache, "m_0_0" ).getEntityTag() );
+    }
+
+}
@@ -0,0 +1,182 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+
+package org.deegree.tile.persistence.cache;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+
+import org.deegree.tile.Tile;
+import org.deegree.tile.TileDataLevel;
+import org.deegree.tile.TileMatrix;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link SeedingJob}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class SeedingJobTest {
+
+    private CacheManager manager;
+
+    private Cache cache;
+
+    @Before
+    public void setup() {
+        manager = CacheManager.create();
+        cache = new Cache( "seedingjobtest", 1000, false, true, 0, 0 );
+        manager.addCache( cache );
+    }
+
+    @After
+    public void tearDown() {
+        manager.removeCache( "seedingjobtest" );
+    }
+
+    @Test
+    public void testProgress()
+                            throws InterruptedException {
+        TileDataLevel level = mockLevel( new Answer<InputStream>() {
+            @Override
+            public InputStream answer( InvocationOnMock invocation ) {
+                return new ByteArrayInputStream( new byte[] { 1 } );
+            }
+        } );
+        SeedingJob job = new SeedingJob( "tms", singletonList( level ), null, 2 );
+        assertEquals( 16, job.getTotal() );
+        job.start();
+        assertTrue( job.awaitCompletion( 10, SECONDS ) );
+        assertTrue( job.isFinished() );
+        assertEquals( 16, job.getCompleted() );
+        assertEquals( 16, job.getFetched() );
+        assertEquals( 0, job.getFailed() );
+        assertEquals( 16, cache.getSize() );
+        assertTrue( job.toString().contains( "finished" ) );
+
+        // tiles that are already cached are processed, but not fetched again
+        SeedingJob again = new SeedingJob( "tms", singletonList( level ), null, 2 );
+        again.start();
+        assertTrue( again.awaitCompletion( 10, SECONDS ) );
+        assertEquals( 16, again.getCompleted() );
+        assertEquals( 0, again.getFetched() );
+    }
+
+    @Test
+    public void testFailedTilesAreCounted()
+                            throws InterruptedException {
+        TileDataLevel level = mockLevel( new Answer<InputStream>() {
+            @Override
+            public InputStream answer( InvocationOnMock invocation ) {
+                throw new RuntimeException( "backend unavailable" );
+            }
+        } );
+        SeedingJob job = new SeedingJob( "tms", singletonList( level ), null, 2 );
+        job.start();
+        assertTrue( job.awaitCompletion( 10, SECONDS ) );
+        assertEquals( 16, job.getCompleted() );
+        assertEquals( 0, job.getFetched() );
+        assertEquals( 16, job.getFailed() );
+    }
+
+    @Test
+    public void testCancel()
+                            throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        TileDataLevel level = mockLevel( new Answer<InputStream>() {
+            @Override
+            public InputStream answer( InvocationOnMock invocation )
+                                    throws InterruptedException {
+                started.countDown();
+                // blocks until interrupted by cancel()
+                release.await( 10, SECONDS );
+                return new ByteArrayInputStream( new byte[] { 1 } );
+            }
+        } );
+        SeedingJob job = new SeedingJob( "tms", singletonList( level ), null, 1 );
+        job.start();
+        assertTrue( started.await( 10, SECONDS ) );
+        job.cancel();
+        assertTrue( job.awaitCompletion( 5, SECONDS ) );
+        release.countDown();
+
+        assertTrue( job.isCancelled() );
+        assertTrue( job.isFinished() );
+        assertTrue( job.getCompleted() < job.getTotal() );
+        assertTrue( job.toString().contains( "cancelled" ) );
+    }
+
+    private TileDataLevel mockLevel( final Answer<InputStream> data ) {
+        final TileDataLevel level = mock( TileDataLevel.class );
+        when( level.getMetadata() ).thenReturn( new TileMatrix( "m", null, 256, 256, 1.0, 4, 4 ) );
+        when( level.getTile( anyLong(), anyLong() ) ).thenAnswer( new Answer<Tile>() {
+            @Override
+            public Tile answer( InvocationOnMock invocation ) {
+                Object[] args = invocation.getArguments();
+                Tile tile = mock( Tile.class );
+                when( tile.getAsStream() ).thenAnswer( data );
+                String key = CachingTileMatrix.getCacheKey( "m", (Long) args[0], (Long) args[1] );
+                return new CachedTile( tile, cache, key );
+            }
+        } );
+        return level;
+    }
+
+}
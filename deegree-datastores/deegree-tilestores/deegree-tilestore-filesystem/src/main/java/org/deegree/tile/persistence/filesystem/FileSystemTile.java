@@ -48,6 +48,7 @@ import javax.imageio.ImageIO;
 
 import org.deegree.feature.FeatureCollection;
 import org.deegree.geometry.Envelope;
+import org.deegree.tile.CacheableTile;
 import org.deegree.tile.Tile;
 import org.deegree.tile.TileIOException;
 
@@ -59,7 +60,7 @@ import org.deegree.tile.TileIOException;
  * 
  * @version $Revision$, $Date$
  */
-class FileSystemTile implements Tile {
+class FileSystemTile implements CacheableTile {
 
     private final Envelope bbox;
 
@@ -107,6 +108,21 @@ class FileSystemTile implements Tile {
         return bbox;
     }
 
+    @Override
+    public String getEntityTag() {
+        long lastModified = file.lastModified();
+        if ( lastModified == 0 ) {
+            return null;
+        }
+        return Long.toHexString( lastModified ) + "-" + Long.toHexString( file.length() );
+    }
+
+    @Override
+    public long getLastModified() {
+        long lastModified = file.lastModified();
+        return lastModified == 0 ? -1 : lastModified;
+    }
+
     @Override
     public FeatureCollection getFeatures( int i, int j, int limit )
                             throws UnsupportedOperationException {
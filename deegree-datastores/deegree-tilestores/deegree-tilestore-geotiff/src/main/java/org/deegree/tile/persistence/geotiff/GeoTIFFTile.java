@@ -44,6 +44,7 @@ import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Hashtable;
@@ -60,6 +61,10 @@ import org.deegree.tile.TileIOException;
 /**
  * A {@link Tile} that is read from a GeoTIFF/BigTIFF file, through ImageIO/imageio-ext. Uses an object pool to cache
  * readers (they take a long time to startup). </p>
+ * <p>
+ * If a {@link RawTileIndex} is available, {@link #getAsStream()} returns the JPEG compressed tile data straight from
+ * the file, without decoding and re-encoding it.
+ * </p>
  * 
  * @author <a href="mailto:schmitz@occamlabs.de">Andreas Schmitz</a>
  * @author last edited by: $Author: mschneider $
@@ -78,9 +83,20 @@ public class GeoTIFFTile implements Tile {
 
     private final GenericObjectPool readerPool;
 
+    private final File file;
+
+    private final RawTileIndex rawTileIndex;
+
     public GeoTIFFTile( GenericObjectPool readerPool, int imageIndex, int x, int y, Envelope envelope, int sizeX,
                         int sizeY ) {
+        this( readerPool, imageIndex, x, y, envelope, sizeX, sizeY, null, null );
+    }
+
+    GeoTIFFTile( GenericObjectPool readerPool, int imageIndex, int x, int y, Envelope envelope, int sizeX, int sizeY,
+                 File file, RawTileIndex rawTileIndex ) {
         this.readerPool = readerPool;
+        this.file = file;
+        this.rawTileIndex = rawTileIndex;
         this.imageIndex = imageIndex;
         this.x = x;
         this.y = y;
@@ -127,6 +143,16 @@ public class GeoTIFFTile implements Tile {
     @Override
     public InputStream getAsStream()
                             throws TileIOException {
+        if ( rawTileIndex != null ) {
+            try {
+                byte[] data = rawTileIndex.readTile( file, x, y );
+                if ( data != null ) {
+                    return new ByteArrayInputStream( data );
+                }
+            } catch ( IOException e ) {
+                throw new TileIOException( "Error retrieving image: " + e.getMessage(), e );
+            }
+        }
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         try {
             ImageIO.write( getAsImage(), "png", bos );
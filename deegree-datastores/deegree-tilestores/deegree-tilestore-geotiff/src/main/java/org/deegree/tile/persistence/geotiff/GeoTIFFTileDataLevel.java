@@ -40,14 +40,19 @@
  ----------------------------------------------------------------------------*/
 package org.deegree.tile.persistence.geotiff;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
 import java.io.File;
 import java.util.List;
 
+import javax.imageio.ImageReader;
+
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.deegree.geometry.Envelope;
 import org.deegree.geometry.GeometryFactory;
 import org.deegree.tile.TileDataLevel;
 import org.deegree.tile.TileMatrix;
+import org.slf4j.Logger;
 
 /**
  * The <code>GeoTIFFTileMatrix</code> is a tile matrix handing out GeoTIFFTile tiles. It uses an object pool shared
@@ -61,6 +66,8 @@ import org.deegree.tile.TileMatrix;
 
 public class GeoTIFFTileDataLevel implements TileDataLevel {
 
+    private static final Logger LOG = getLogger( GeoTIFFTileDataLevel.class );
+
     private final TileMatrix metadata;
 
     private final int imageIndex;
@@ -71,9 +78,29 @@ public class GeoTIFFTileDataLevel implements TileDataLevel {
 
     private final int xoff, yoff, numx, numy;
 
+    private final File file;
+
+    private final boolean passthrough;
+
+    private RawTileIndex rawTileIndex;
+
+    private boolean rawTileIndexRead;
+
     public GeoTIFFTileDataLevel( TileMatrix metadata, File file, int imageIndex, int xoff, int yoff, int numx, int numy ) {
+        this( metadata, file, imageIndex, xoff, yoff, numx, numy, null );
+    }
+
+    /**
+     * @param format
+     *            the image format of the tile data set, if it is <code>image/jpeg</code> JPEG compressed tiles are
+     *            streamed without decoding, may be <code>null</code>
+     */
+    public GeoTIFFTileDataLevel( TileMatrix metadata, File file, int imageIndex, int xoff, int yoff, int numx,
+                                 int numy, String format ) {
         this.metadata = metadata;
+        this.file = file;
         this.imageIndex = imageIndex;
+        this.passthrough = "image/jpeg".equalsIgnoreCase( format );
         ImageReaderFactory fac = new ImageReaderFactory( file );
         this.readerPool = new GenericObjectPool( fac );
         this.xoff = xoff;
@@ -109,7 +136,35 @@ public class GeoTIFFTileDataLevel implements TileDataLevel {
         double miny = env.getMax().get1() - height * y;
         Envelope envelope = fac.createEnvelope( minx, miny, minx + width, miny - height, env.getCoordinateSystem() );
         return new GeoTIFFTile( readerPool, imageIndex, (int) x, (int) y, envelope, (int) metadata.getTilePixelsX(),
-                                (int) metadata.getTilePixelsY() );
+                                (int) metadata.getTilePixelsY(), file, getRawTileIndex() );
+    }
+
+    private synchronized RawTileIndex getRawTileIndex() {
+        if ( !passthrough || rawTileIndexRead ) {
+            return rawTileIndex;
+        }
+        rawTileIndexRead = true;
+        ImageReader reader = null;
+        try {
+            reader = (ImageReader) readerPool.borrowObject();
+            rawTileIndex = RawTileIndex.read( reader, imageIndex, (int) metadata.getTilePixelsX(),
+                                              (int) metadata.getTilePixelsY() );
+        } catch ( Exception e ) {
+            LOG.warn( "Unable to read tile offsets of image " + imageIndex + " in " + file + ": " + e.getMessage() );
+            LOG.trace( "Stack trace:", e );
+        } finally {
+            if ( reader != null ) {
+                try {
+                    readerPool.returnObject( reader );
+                } catch ( Exception e ) {
+                    // ignore closing error
+                }
+            }
+        }
+        if ( rawTileIndex == null ) {
+            LOG.debug( "Tiles of image " + imageIndex + " in " + file + " will be decoded and re-encoded." );
+        }
+        return rawTileIndex;
     }
 
     @Override
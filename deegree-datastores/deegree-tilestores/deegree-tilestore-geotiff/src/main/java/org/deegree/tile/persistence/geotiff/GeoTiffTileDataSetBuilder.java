@@ -93,7 +93,7 @@ class GeoTiffTileDataSetBuilder {
             int yoff = (int) Math.round( y / tm.getTileHeight() );
             int numx = (int) Math.ceil( envelope.getSpan0() / tm.getTileWidth() );
             int numy = (int) Math.ceil( envelope.getSpan1() / tm.getTileHeight() );
-            levels.add( new GeoTIFFTileDataLevel( tm, file, idx++, xoff, yoff, numx, numy ) );
+            levels.add( new GeoTIFFTileDataLevel( tm, file, idx++, xoff, yoff, numx, numy, format ) );
         }
 
         return new DefaultTileDataSet( levels, tms, format );
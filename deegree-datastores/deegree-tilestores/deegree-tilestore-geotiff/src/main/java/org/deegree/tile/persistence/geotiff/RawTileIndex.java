@@ -0,0 +1,215 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.geotiff;
+
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.COMPRESSION_JPEG;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_BLACK_IS_ZERO;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_Y_CB_CR;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.PLANAR_CONFIGURATION_CHUNKY;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_COMPRESSION;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_JPEG_TABLES;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_PHOTOMETRIC_INTERPRETATION;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_PLANAR_CONFIGURATION;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_TILE_BYTE_COUNTS;
+import static it.geosolutions.imageio.plugins.tiff.BaselineTIFFTagSet.TAG_TILE_OFFSETS;
+import it.geosolutions.imageio.plugins.tiff.TIFFField;
+import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageMetadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+
+/**
+ * Offsets and byte counts of the JPEG compressed tiles of a single TIFF image, used to stream tiles without decoding
+ * them.
+ * <p>
+ * Only images whose tiles are self-contained JPEG streams are supported (chunky YCbCr or grayscale, tile size matching
+ * the tile matrix). If the TIFF contains shared JPEG tables (abbreviated JPEG streams), the tables are spliced in
+ * front of the tile data, so the result is always a complete JPEG image.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class RawTileIndex {
+
+    private static final int JPEG_MARKER_LENGTH = 2;
+
+    private final long[] offsets;
+
+    private final long[] byteCounts;
+
+    private final byte[] jpegTables;
+
+    private final int tilesAcross;
+
+    RawTileIndex( long[] offsets, long[] byteCounts, byte[] jpegTables, int tilesAcross ) {
+        this.offsets = offsets;
+        this.byteCounts = byteCounts;
+        this.jpegTables = jpegTables;
+        this.tilesAcross = tilesAcross;
+    }
+
+    /**
+     * Reads the tile index of an image.
+     * 
+     * @param reader
+     *            TIFF reader to read the metadata from, must not be <code>null</code>
+     * @param imageIndex
+     *            index of the image (overview level)
+     * @param sizeX
+     *            expected tile width in pixels
+     * @param sizeY
+     *            expected tile height in pixels
+     * @return the index, or <code>null</code> if the tiles of the image cannot be streamed as JPEG images
+     * @throws IOException
+     */
+    static RawTileIndex read( ImageReader reader, int imageIndex, int sizeX, int sizeY )
+                            throws IOException {
+        if ( !reader.isImageTiled( imageIndex ) || reader.getTileWidth( imageIndex ) != sizeX
+             || reader.getTileHeight( imageIndex ) != sizeY ) {
+            return null;
+        }
+        IIOMetadata md = reader.getImageMetadata( imageIndex );
+        if ( !( md instanceof TIFFImageMetadata ) ) {
+            return null;
+        }
+        TIFFImageMetadata tiffMd = (TIFFImageMetadata) md;
+        if ( getInt( tiffMd, TAG_COMPRESSION, -1 ) != COMPRESSION_JPEG ) {
+            return null;
+        }
+        // plain JPEG decoders assume YCbCr for three component images, RGB encoded tiles would come out wrong
+        int photometric = getInt( tiffMd, TAG_PHOTOMETRIC_INTERPRETATION, -1 );
+        if ( photometric != PHOTOMETRIC_INTERPRETATION_Y_CB_CR
+             && photometric != PHOTOMETRIC_INTERPRETATION_BLACK_IS_ZERO ) {
+            return null;
+        }
+        if ( getInt( tiffMd, TAG_PLANAR_CONFIGURATION, PLANAR_CONFIGURATION_CHUNKY ) != PLANAR_CONFIGURATION_CHUNKY ) {
+            return null;
+        }
+        TIFFField offsetField = tiffMd.getTIFFField( TAG_TILE_OFFSETS );
+        TIFFField byteCountField = tiffMd.getTIFFField( TAG_TILE_BYTE_COUNTS );
+        if ( offsetField == null || byteCountField == null || offsetField.getCount() != byteCountField.getCount() ) {
+            return null;
+        }
+        long[] offsets = new long[offsetField.getCount()];
+        long[] byteCounts = new long[offsets.length];
+        for ( int i = 0; i < offsets.length; ++i ) {
+            offsets[i] = offsetField.getAsLong( i );
+            byteCounts[i] = byteCountField.getAsLong( i );
+        }
+        byte[] tables = null;
+        TIFFField tablesField = tiffMd.getTIFFField( TAG_JPEG_TABLES );
+        if ( tablesField != null ) {
+            tables = tablesField.getAsBytes();
+            if ( tables.length < 2 * JPEG_MARKER_LENGTH ) {
+                tables = null;
+            }
+        }
+        int tilesAcross = ( reader.getWidth( imageIndex ) + sizeX - 1 ) / sizeX;
+        return new RawTileIndex( offsets, byteCounts, tables, tilesAcross );
+    }
+
+    private static int getInt( TIFFImageMetadata md, int tag, int defaultValue ) {
+        TIFFField field = md.getTIFFField( tag );
+        if ( field == null || field.getCount() == 0 ) {
+            return defaultValue;
+        }
+        return field.getAsInt( 0 );
+    }
+
+    /**
+     * Reads the JPEG stream of a tile.
+     * 
+     * @param file
+     *            the TIFF file, must not be <code>null</code>
+     * @param x
+     *            column of the tile in the image
+     * @param y
+     *            row of the tile in the image
+     * @return the JPEG encoded tile, or <code>null</code> if the TIFF does not contain the tile (sparse file)
+     * @throws IOException
+     */
+    byte[] readTile( File file, int x, int y )
+                            throws IOException {
+        int idx = y * tilesAcross + x;
+        if ( idx < 0 || idx >= offsets.length || byteCounts[idx] <= JPEG_MARKER_LENGTH ) {
+            return null;
+        }
+        int length = (int) byteCounts[idx];
+        long position = offsets[idx];
+        byte[] result;
+        int start = 0;
+        if ( jpegTables != null ) {
+            // tables without EOI, followed by tile data without SOI
+            int tablesLength = jpegTables.length - JPEG_MARKER_LENGTH;
+            length -= JPEG_MARKER_LENGTH;
+            position += JPEG_MARKER_LENGTH;
+            result = new byte[tablesLength + length];
+            System.arraycopy( jpegTables, 0, result, 0, tablesLength );
+            start = tablesLength;
+        } else {
+            result = new byte[length];
+        }
+
+        RandomAccessFile raf = new RandomAccessFile( file, "r" );
+        try {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buf = ByteBuffer.wrap( result, start, length );
+            while ( buf.hasRemaining() ) {
+                int read = channel.read( buf, position + buf.position() - start );
+                if ( read < 0 ) {
+                    throw new IOException( "Unexpected end of file while reading tile " + x + "/" + y + "." );
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        return result;
+    }
+
+}
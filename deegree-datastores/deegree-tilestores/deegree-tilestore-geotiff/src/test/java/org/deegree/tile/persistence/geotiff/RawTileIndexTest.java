@@ -0,0 +1,205 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.geotiff;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReaderSpi;
+import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageWriterSpi;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link RawTileIndex}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class RawTileIndexTest {
+
+    private static final byte[] PREFIX = { 1, 2, 3 };
+
+    // SOI, DQT (2 byte payload), EOI
+    private static final byte[] TABLES = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDB, 0, 4, 7, 8,
+                                          (byte) 0xFF, (byte) 0xD9 };
+
+    // SOI, SOS (1 byte payload), EOI
+    private static final byte[] TILE_A = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0, 3, 42, (byte) 0xFF,
+                                          (byte) 0xD9 };
+
+    private static final byte[] TILE_B = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0, 3, 43, (byte) 0xFF,
+                                          (byte) 0xD9 };
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testReadTileWithoutTables()
+                            throws IOException {
+        File file = writeTiles();
+        RawTileIndex index = new RawTileIndex( offsets(), byteCounts(), null, 2 );
+        assertArrayEquals( TILE_A, index.readTile( file, 0, 0 ) );
+        assertArrayEquals( TILE_B, index.readTile( file, 1, 0 ) );
+    }
+
+    @Test
+    public void testReadTileSplicesTables()
+                            throws IOException {
+        File file = writeTiles();
+        RawTileIndex index = new RawTileIndex( offsets(), byteCounts(), TABLES, 2 );
+        byte[] expected = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDB, 0, 4, 7, 8, (byte) 0xFF, (byte) 0xDA,
+                           0, 3, 43, (byte) 0xFF, (byte) 0xD9 };
+        assertArrayEquals( expected, index.readTile( file, 1, 0 ) );
+    }
+
+    @Test
+    public void testReadTileMissing()
+                            throws IOException {
+        File file = writeTiles();
+        RawTileIndex index = new RawTileIndex( offsets(), new long[] { TILE_A.length, 0 }, null, 2 );
+        assertNull( index.readTile( file, 1, 0 ) );
+        assertNull( index.readTile( file, 0, 1 ) );
+        assertNull( index.readTile( file, -1, 0 ) );
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTileTruncatedFile()
+                            throws IOException {
+        File file = writeTiles();
+        RawTileIndex index = new RawTileIndex( offsets(), new long[] { TILE_A.length, 100 }, null, 2 );
+        index.readTile( file, 1, 0 );
+    }
+
+    @Test
+    public void testReadJpegTiff()
+                            throws IOException {
+        File file = tmp.newFile( "tiled.tif" );
+        BufferedImage img = new BufferedImage( 128, 128, BufferedImage.TYPE_3BYTE_BGR );
+        Graphics2D g = img.createGraphics();
+        g.setColor( Color.BLUE );
+        g.fillRect( 0, 0, 128, 128 );
+        g.setColor( Color.RED );
+        g.fillRect( 64, 64, 64, 64 );
+        g.dispose();
+
+        ImageWriter writer = new TIFFImageWriterSpi().createWriterInstance();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setTilingMode( ImageWriteParam.MODE_EXPLICIT );
+        param.setTiling( 64, 64, 0, 0 );
+        param.setCompressionMode( ImageWriteParam.MODE_EXPLICIT );
+        param.setCompressionType( "JPEG" );
+        ImageOutputStream out = ImageIO.createImageOutputStream( file );
+        try {
+            writer.setOutput( out );
+            writer.write( null, new IIOImage( img, null, null ), param );
+        } finally {
+            writer.dispose();
+            out.close();
+        }
+
+        ImageReader reader = new TIFFImageReaderSpi().createReaderInstance();
+        ImageInputStream in = ImageIO.createImageInputStream( file );
+        RawTileIndex index;
+        try {
+            reader.setInput( in );
+            assertNull( RawTileIndex.read( reader, 0, 32, 32 ) );
+            index = RawTileIndex.read( reader, 0, 64, 64 );
+        } finally {
+            reader.dispose();
+            in.close();
+        }
+        assertNotNull( index );
+
+        BufferedImage tile = ImageIO.read( new ByteArrayInputStream( index.readTile( file, 1, 1 ) ) );
+        assertNotNull( tile );
+        assertEquals( 64, tile.getWidth() );
+        assertEquals( 64, tile.getHeight() );
+        Color c = new Color( tile.getRGB( 32, 32 ) );
+        assertTrue( "Expected a red tile, got " + c, c.getRed() > 200 && c.getBlue() < 50 );
+        c = new Color( ImageIO.read( new ByteArrayInputStream( index.readTile( file, 0, 1 ) ) ).getRGB( 32, 32 ) );
+        assertTrue( "Expected a blue tile, got " + c, c.getBlue() > 200 && c.getRed() < 50 );
+    }
+
+    private File writeTiles()
+                            throws IOException {
+        File file = tmp.newFile( "tiles.bin" );
+        FileOutputStream out = new FileOutputStream( file );
+        try {
+            out.write( PREFIX );
+            out.write( TILE_A );
+            out.write( TILE_B );
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static long[] offsets() {
+        return new long[] { PREFIX.length, PREFIX.length + TILE_A.length };
+    }
+
+    private static long[] byteCounts() {
+        return new long[] { TILE_A.length, TILE_B.length };
+    }
+
+}
@@ -0,0 +1,161 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.remotewms;
+
+import static java.util.Collections.emptyMap;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.deegree.commons.utils.Pair;
+import org.deegree.feature.FeatureCollection;
+import org.deegree.geometry.Envelope;
+import org.deegree.tile.MetaTiledTile;
+import org.deegree.tile.TileIOException;
+
+/**
+ * {@link MetaTiledTile} implementation used by the {@link RemoteWMSTileDataLevel} if meta-tiling is configured. The
+ * meta-tile is only fetched if {@link #enableMetaTiling()} has been called (by a caching tile store), otherwise the
+ * single tile is requested.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class RemoteWMSMetaTiledTile implements MetaTiledTile {
+
+    private final RemoteWMSTile tile;
+
+    private final RemoteWMSMetaTiler metaTiler;
+
+    private final Pair<Long, Long> index;
+
+    private final Map<String, String> overriddenParameters;
+
+    private Map<Pair<Long, Long>, byte[]> tiles;
+
+    private boolean metaTiling;
+
+    /**
+     * Creates a new {@link RemoteWMSMetaTiledTile} instance.
+     * 
+     * @param tile
+     *            the single tile, used for feature info requests, never <code>null</code>
+     * @param metaTiler
+     *            meta tiler to fetch the image with, never <code>null</code>
+     * @param x
+     *            column index of the tile
+     * @param y
+     *            row index of the tile
+     * @param overriddenParameters
+     *            additional GetMap parameters, never <code>null</code>
+     */
+    RemoteWMSMetaTiledTile( RemoteWMSTile tile, RemoteWMSMetaTiler metaTiler, long x, long y,
+                            Map<String, String> overriddenParameters ) {
+        this.tile = tile;
+        this.metaTiler = metaTiler;
+        this.index = new Pair<Long, Long>( x, y );
+        this.overriddenParameters = overriddenParameters;
+    }
+
+    @Override
+    public BufferedImage getAsImage()
+                            throws TileIOException {
+        try {
+            return ImageIO.read( getAsStream() );
+        } catch ( IOException e ) {
+            throw new TileIOException( "Error decoding image : " + e.getMessage(), e );
+        }
+    }
+
+    @Override
+    public synchronized void enableMetaTiling() {
+        metaTiling = true;
+    }
+
+    @Override
+    public InputStream getAsStream()
+                            throws TileIOException {
+        synchronized ( this ) {
+            if ( !metaTiling ) {
+                metaTiler.warnUncached();
+                return tile.getAsStream();
+            }
+        }
+        byte[] data = getTiles().get( index );
+        if ( data == null ) {
+            throw new TileIOException( "Tile " + index.first + "/" + index.second + " is not part of the meta-tile." );
+        }
+        return new ByteArrayInputStream( data );
+    }
+
+    @Override
+    public Map<Pair<Long, Long>, byte[]> getSiblings() {
+        Map<Pair<Long, Long>, byte[]> siblings;
+        synchronized ( this ) {
+            if ( tiles == null ) {
+                return emptyMap();
+            }
+            siblings = new HashMap<Pair<Long, Long>, byte[]>( tiles );
+        }
+        siblings.remove( index );
+        return siblings;
+    }
+
+    private synchronized Map<Pair<Long, Long>, byte[]> getTiles() {
+        if ( tiles == null ) {
+            tiles = metaTiler.getTiles( index.first, index.second, overriddenParameters );
+        }
+        return tiles;
+    }
+
+    @Override
+    public Envelope getEnvelope() {
+        return tile.getEnvelope();
+    }
+
+    @Override
+    public FeatureCollection getFeatures( int i, int j, int limit ) {
+        return tile.getFeatures( i, j, limit );
+    }
+
+}
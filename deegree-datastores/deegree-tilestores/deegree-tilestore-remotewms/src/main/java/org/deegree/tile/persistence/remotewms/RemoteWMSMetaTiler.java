@@ -0,0 +1,284 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.remotewms;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.IOUtils;
+import org.deegree.commons.ows.exception.OWSException;
+import org.deegree.commons.utils.Pair;
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.geometry.Envelope;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.protocol.wms.client.WMSClient;
+import org.deegree.protocol.wms.ops.GetMap;
+import org.deegree.tile.TileIOException;
+import org.deegree.tile.TileMatrix;
+import org.slf4j.Logger;
+
+/**
+ * Fetches blocks of n x n tiles of a {@link RemoteWMSTileDataLevel} with a single GetMap request (meta-tiling) and
+ * slices them into the single tiles.
+ * <p>
+ * An optional gutter (in pixels) is requested around the meta-tile and cut off afterwards, so labels and symbols near
+ * the meta-tile borders are rendered consistently. Concurrent requests for tiles of the same meta-tile share a single
+ * GetMap request.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class RemoteWMSMetaTiler {
+
+    private static final Logger LOG = getLogger( RemoteWMSMetaTiler.class );
+
+    private static final GeometryFactory fac = new GeometryFactory();
+
+    private final TileMatrix metadata;
+
+    private final int metaTileSize;
+
+    private final int gutter;
+
+    private final WMSClient client;
+
+    private final List<String> layers;
+
+    private final List<String> styles;
+
+    private final String format;
+
+    private final String outputFormat;
+
+    private final ICRS crs;
+
+    // key: meta-tile column, row and overridden parameters, value: running fetch
+    private final ConcurrentMap<String, FutureTask<Map<Pair<Long, Long>, byte[]>>> inFlight =
+                            new ConcurrentHashMap<String, FutureTask<Map<Pair<Long, Long>, byte[]>>>();
+
+    private final AtomicBoolean warnedUncached = new AtomicBoolean();
+
+    /**
+     * Creates a new {@link RemoteWMSMetaTiler} instance.
+     * 
+     * @param metadata
+     *            matrix metadata, must not be <code>null</code>
+     * @param metaTileSize
+     *            number of tiles per meta-tile in each direction, must be greater than zero
+     * @param gutter
+     *            number of pixels to request around each meta-tile, must not be negative
+     * @param client
+     *            the WMS client to use, must not be <code>null</code>
+     * @param layers
+     *            WMS layers to request, must not be <code>null</code>
+     * @param styles
+     *            WMS styles to request, must not be <code>null</code>
+     * @param format
+     *            format to request meta-tile images, must not be <code>null</code>
+     * @param outputFormat
+     *            ImageIO format name to encode the single tiles, must not be <code>null</code>
+     * @param crs
+     *            the crs to request maps with, may be null (use crs of the tile matrix)
+     */
+    RemoteWMSMetaTiler( TileMatrix metadata, int metaTileSize, int gutter, WMSClient client, List<String> layers,
+                        List<String> styles, String format, String outputFormat, ICRS crs ) {
+        this.metadata = metadata;
+        this.metaTileSize = metaTileSize;
+        this.gutter = gutter;
+        this.client = client;
+        this.layers = layers;
+        this.styles = styles;
+        this.format = format;
+        this.outputFormat = outputFormat;
+        this.crs = crs;
+    }
+
+    /**
+     * Returns the encoded images of all tiles of the meta-tile that contains the given tile.
+     * 
+     * @param x
+     *            column index of the tile
+     * @param y
+     *            row index of the tile
+     * @param overriddenParameters
+     *            additional GetMap parameters, must not be <code>null</code>
+     * @return the tiles of the meta-tile (key: column and row index), never <code>null</code>
+     * @throws TileIOException
+     *             if the meta-tile could not be fetched
+     */
+    Map<Pair<Long, Long>, byte[]> getTiles( long x, long y, final Map<String, String> overriddenParameters )
+                            throws TileIOException {
+        final long metaX = x / metaTileSize;
+        final long metaY = y / metaTileSize;
+        String key = metaX + "_" + metaY + "_" + overriddenParameters;
+        FutureTask<Map<Pair<Long, Long>, byte[]>> task;
+        task = new FutureTask<Map<Pair<Long, Long>, byte[]>>( new Callable<Map<Pair<Long, Long>, byte[]>>() {
+            @Override
+            public Map<Pair<Long, Long>, byte[]> call()
+                                    throws Exception {
+                return fetch( metaX, metaY, overriddenParameters );
+            }
+        } );
+        FutureTask<Map<Pair<Long, Long>, byte[]>> running = inFlight.putIfAbsent( key, task );
+        if ( running == null ) {
+            try {
+                task.run();
+            } finally {
+                inFlight.remove( key, task );
+            }
+        } else {
+            task = running;
+        }
+        try {
+            return task.get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new TileIOException( "Interrupted while waiting for meta-tile." );
+        } catch ( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof TileIOException ) {
+                throw (TileIOException) cause;
+            }
+            throw new TileIOException( "Error fetching meta-tile: " + cause.getMessage(), cause );
+        }
+    }
+
+    /**
+     * Logs a warning (once) that tiles are requested without a caching tile store, so meta-tiling is not used.
+     */
+    void warnUncached() {
+        if ( warnedUncached.compareAndSet( false, true ) ) {
+            LOG.warn( "Meta-tiling is configured for tile matrix '{}', but its tiles are not requested through a "
+                      + "caching tile store. Fetching single tiles instead.", metadata.getIdentifier() );
+        }
+    }
+
+    private Map<Pair<Long, Long>, byte[]> fetch( long metaX, long metaY, Map<String, String> overriddenParameters ) {
+        long minTileX = metaX * metaTileSize;
+        long minTileY = metaY * metaTileSize;
+        long maxTileX = Math.min( minTileX + metaTileSize, metadata.getNumTilesX() );
+        long maxTileY = Math.min( minTileY + metaTileSize, metadata.getNumTilesY() );
+        int tileSizeX = (int) metadata.getTilePixelsX();
+        int tileSizeY = (int) metadata.getTilePixelsY();
+        int cols = (int) ( maxTileX - minTileX );
+        int rows = (int) ( maxTileY - minTileY );
+
+        double width = metadata.getTileWidth();
+        double height = metadata.getTileHeight();
+        double gutterX = gutter * width / tileSizeX;
+        double gutterY = gutter * height / tileSizeY;
+        Envelope env = metadata.getSpatialMetadata().getEnvelope();
+        double minx = env.getMin().get0() + width * minTileX - gutterX;
+        double maxx = env.getMin().get0() + width * maxTileX + gutterX;
+        double maxy = env.getMax().get1() - height * minTileY + gutterY;
+        double miny = env.getMax().get1() - height * maxTileY - gutterY;
+        Envelope envelope = fac.createEnvelope( minx, miny, maxx, maxy, env.getCoordinateSystem() );
+        ICRS crs = this.crs;
+        if ( crs == null ) {
+            crs = envelope.getCoordinateSystem();
+        }
+        GetMap gm = new GetMap( layers, styles, cols * tileSizeX + 2 * gutter, rows * tileSizeY + 2 * gutter,
+                                envelope, crs, format, true, overriddenParameters );
+
+        BufferedImage img = getMap( gm );
+        Map<Pair<Long, Long>, byte[]> tiles = new HashMap<Pair<Long, Long>, byte[]>( cols * rows * 2 );
+        try {
+            for ( int i = 0; i < cols; ++i ) {
+                for ( int j = 0; j < rows; ++j ) {
+                    BufferedImage tile = img.getSubimage( gutter + i * tileSizeX, gutter + j * tileSizeY, tileSizeX,
+                                                          tileSizeY );
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    if ( !ImageIO.write( tile, outputFormat, out ) ) {
+                        throw new TileIOException( "No image writer available for output format '" + outputFormat
+                                                   + "'." );
+                    }
+                    tiles.put( new Pair<Long, Long>( minTileX + i, minTileY + j ), out.toByteArray() );
+                }
+            }
+        } catch ( IOException e ) {
+            throw new TileIOException( "Error encoding tile: " + e.getMessage(), e );
+        }
+        return tiles;
+    }
+
+    private BufferedImage getMap( GetMap gm ) {
+        InputStream in = null;
+        try {
+            in = client.getMap( gm );
+            if ( in == null ) {
+                throw new TileIOException( "A meta-tile could not be fetched from remote WMS for an unknown reason." );
+            }
+            BufferedImage img = ImageIO.read( in );
+            if ( img == null ) {
+                throw new TileIOException( "The remote WMS returned a meta-tile that could not be decoded." );
+            }
+            return img;
+        } catch ( SocketTimeoutException e ) {
+            String msg = "Error performing GetMap request, read timed out (timeout configured is "
+                         + client.getReadTimeout() + " seconds).";
+            throw new TileIOException( msg );
+        } catch ( UnknownHostException e ) {
+            throw new TileIOException( "Error performing GetMap request, host could not be resolved: "
+                                       + e.getMessage() );
+        } catch ( IOException e ) {
+            throw new TileIOException( "Error performing GetMap request: " + e.getMessage(), e );
+        } catch ( OWSException e ) {
+            throw new TileIOException( "Error performing GetMap request: " + e.getMessage(), e );
+        } finally {
+            IOUtils.closeQuietly( in );
+        }
+    }
+
+}
@@ -87,6 +87,8 @@ class RemoteWMSTileDataLevel implements TileDataLevel {
 
     private Map<String, String> hardGetFeatureInfo;
 
+    private RemoteWMSMetaTiler metaTiler;
+
     /**
      * Creates a new {@link RemoteWMSTileDataLevel} instance.
      * 
@@ -113,6 +115,24 @@ class RemoteWMSTileDataLevel implements TileDataLevel {
                             WMSClient client, String recodedOutputFormat, String crs,
                             Map<String, String> defaultGetMap, Map<String, String> defaultGetFeatureInfo,
                             Map<String, String> hardGetMap, Map<String, String> hardGetFeatureInfo ) {
+        this( tileMd, format, layers, styles, client, recodedOutputFormat, crs, defaultGetMap, defaultGetFeatureInfo,
+              hardGetMap, hardGetFeatureInfo, 1, 0 );
+    }
+
+    /**
+     * Creates a new {@link RemoteWMSTileDataLevel} instance that optionally fetches the tiles in blocks (meta-tiling).
+     * 
+     * @param metaTileSize
+     *            number of tiles per meta-tile in each direction, <code>1</code> disables meta-tiling
+     * @param gutter
+     *            number of pixels to request around each meta-tile
+     * @see #RemoteWMSTileDataLevel(TileMatrix, String, List, List, WMSClient, String, String, Map, Map, Map, Map)
+     */
+    RemoteWMSTileDataLevel( TileMatrix tileMd, String format, List<String> layers, List<String> styles,
+                            WMSClient client, String recodedOutputFormat, String crs,
+                            Map<String, String> defaultGetMap, Map<String, String> defaultGetFeatureInfo,
+                            Map<String, String> hardGetMap, Map<String, String> hardGetFeatureInfo, int metaTileSize,
+                            int gutter ) {
         this.metadata = tileMd;
         this.format = format;
         this.layers = layers;
@@ -128,6 +148,10 @@ class RemoteWMSTileDataLevel implements TileDataLevel {
         if ( crs != null ) {
             this.crs = CRSManager.getCRSRef( crs );
         }
+        if ( metaTileSize > 1 && recodedOutputFormat != null ) {
+            this.metaTiler = new RemoteWMSMetaTiler( tileMd, metaTileSize, gutter, client, layers, styles, format,
+                                                     recodedOutputFormat, this.crs );
+        }
     }
 
     @Override
@@ -155,7 +179,12 @@ class RemoteWMSTileDataLevel implements TileDataLevel {
                                         defaultGetMap, hardGetMap );
         GetMap gm = new GetMap( layers, styles, (int) tileSizeX, (int) tileSizeY, envelope, crs, format, true,
                                 overriddenParameters );
-        return new RemoteWMSTile( client, gm, recodedOutputFormat, defaultGetFeatureInfo, hardGetFeatureInfo );
+        RemoteWMSTile tile = new RemoteWMSTile( client, gm, recodedOutputFormat, defaultGetFeatureInfo,
+                                                hardGetFeatureInfo );
+        if ( metaTiler != null ) {
+            return new RemoteWMSMetaTiledTile( tile, metaTiler, x, y, overriddenParameters );
+        }
+        return tile;
     }
 
     @Override
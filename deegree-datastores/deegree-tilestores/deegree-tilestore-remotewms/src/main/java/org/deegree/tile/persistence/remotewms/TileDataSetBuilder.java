@@ -61,6 +61,7 @@ import org.deegree.tile.TileMatrixSet;
 import org.deegree.tile.persistence.remotewms.jaxb.ParameterScopeType;
 import org.deegree.tile.persistence.remotewms.jaxb.ParameterUseType;
 import org.deegree.tile.persistence.remotewms.jaxb.RemoteWMSTileStoreJAXB;
+import org.deegree.tile.persistence.remotewms.jaxb.RemoteWMSTileStoreJAXB.TileDataSet.MetaTiling;
 import org.deegree.tile.persistence.remotewms.jaxb.RemoteWMSTileStoreJAXB.TileDataSet.RequestParams;
 import org.deegree.tile.persistence.remotewms.jaxb.RemoteWMSTileStoreJAXB.TileDataSet.RequestParams.Parameter;
 import org.deegree.tile.tilematrixset.TileMatrixSetProvider;
@@ -100,13 +101,25 @@ class TileDataSetBuilder {
             }
 
             RequestParams params = cfg.getRequestParams();
-            map.put( id, buildTileDataSet( params, tms, wms.getClient(), cfg.getOutputFormat() ) );
+            int metaTileSize = 1;
+            int gutter = 0;
+            MetaTiling metaTiling = cfg.getMetaTiling();
+            if ( metaTiling != null ) {
+                metaTileSize = metaTiling.getTiles();
+                gutter = metaTiling.getGutter();
+                if ( metaTileSize < 1 || gutter < 0 ) {
+                    throw new ResourceInitException( "Invalid meta-tiling configuration for tile data set " + id
+                                                     + "." );
+                }
+            }
+            map.put( id,
+                     buildTileDataSet( params, tms, wms.getClient(), cfg.getOutputFormat(), metaTileSize, gutter ) );
         }
         return map;
     }
 
     private DefaultTileDataSet buildTileDataSet( RequestParams requestParams, TileMatrixSet tms, WMSClient client,
-                                                 String outputFormat )
+                                                 String outputFormat, int metaTileSize, int gutter )
                             throws ResourceInitException {
         List<String> layers = splitNullSafe( requestParams.getLayers() );
 
@@ -134,7 +147,7 @@ class TileDataSetBuilder {
         for ( TileMatrix tm : tms.getTileMatrices() ) {
             TileDataLevel m = new RemoteWMSTileDataLevel( tm, format, layers, styles, client, outputFormat, crs,
                                                           defaultGetMap, defaultGetFeatureInfo, hardGetMap,
-                                                          hardGetFeatureInfo );
+                                                          hardGetFeatureInfo, metaTileSize, gutter );
             dataLevels.add( 0, m );
         }
         return new DefaultTileDataSet( dataLevels, tms, "image/" + outputFormat );
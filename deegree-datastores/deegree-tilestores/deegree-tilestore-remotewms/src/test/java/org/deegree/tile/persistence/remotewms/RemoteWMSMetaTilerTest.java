@@ -0,0 +1,230 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2012 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.tile.persistence.remotewms;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.deegree.commons.ows.exception.OWSException;
+import org.deegree.commons.utils.Pair;
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.cs.exceptions.UnknownCRSException;
+import org.deegree.cs.persistence.CRSManager;
+import org.deegree.geometry.Envelope;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.geometry.metadata.SpatialMetadata;
+import org.deegree.protocol.wms.client.WMSClient;
+import org.deegree.protocol.wms.ops.GetMap;
+import org.deegree.tile.TileIOException;
+import org.deegree.tile.TileMatrix;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link RemoteWMSMetaTiler} and {@link RemoteWMSMetaTiledTile}. The remote WMS is mocked and returns
+ * images that encode the pixel position in the red (column) and green (row) channel.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class RemoteWMSMetaTilerTest {
+
+    private static final int TILE_SIZE = 16;
+
+    private static final int GUTTER = 4;
+
+    private static final Map<String, String> NO_PARAMS = Collections.emptyMap();
+
+    private TileMatrix matrix;
+
+    private WMSClient client;
+
+    @Before
+    public void setup()
+                            throws UnknownCRSException, IOException, OWSException {
+        ICRS crs = CRSManager.lookup( "EPSG:4326" );
+        Envelope env = new GeometryFactory().createEnvelope( 0, 0, 48, 48, crs );
+        SpatialMetadata smd = new SpatialMetadata( env, singletonList( crs ) );
+        matrix = new TileMatrix( "m", smd, TILE_SIZE, TILE_SIZE, 1, 3, 3 );
+        client = mock( WMSClient.class );
+        when( client.getMap( any( GetMap.class ) ) ).thenAnswer( new Answer<InputStream>() {
+            @Override
+            public InputStream answer( InvocationOnMock invocation )
+                                    throws IOException {
+                GetMap gm = (GetMap) invocation.getArguments()[0];
+                return encode( gm.getWidth(), gm.getHeight() );
+            }
+        } );
+    }
+
+    @Test
+    public void testFetchesMetaTileWithSingleRequest()
+                            throws Exception {
+        RemoteWMSMetaTiler tiler = createTiler( "png" );
+        Map<Pair<Long, Long>, byte[]> tiles = tiler.getTiles( 1, 1, NO_PARAMS );
+
+        ArgumentCaptor<GetMap> gm = ArgumentCaptor.forClass( GetMap.class );
+        verify( client, times( 1 ) ).getMap( gm.capture() );
+        assertEquals( 2 * TILE_SIZE + 2 * GUTTER, gm.getValue().getWidth() );
+        assertEquals( 2 * TILE_SIZE + 2 * GUTTER, gm.getValue().getHeight() );
+        Envelope bbox = gm.getValue().getBoundingBox();
+        assertEquals( -GUTTER, bbox.getMin().get0(), 1e-9 );
+        assertEquals( 2 * TILE_SIZE + GUTTER, bbox.getMax().get0(), 1e-9 );
+        assertEquals( TILE_SIZE - GUTTER, bbox.getMin().get1(), 1e-9 );
+        assertEquals( 3 * TILE_SIZE + GUTTER, bbox.getMax().get1(), 1e-9 );
+
+        assertEquals( 4, tiles.size() );
+        for ( long x = 0; x < 2; ++x ) {
+            for ( long y = 0; y < 2; ++y ) {
+                byte[] data = tiles.get( new Pair<Long, Long>( x, y ) );
+                BufferedImage tile = ImageIO.read( new ByteArrayInputStream( data ) );
+                assertEquals( TILE_SIZE, tile.getWidth() );
+                assertEquals( TILE_SIZE, tile.getHeight() );
+                int rgb = tile.getRGB( 0, 0 );
+                assertEquals( GUTTER + x * TILE_SIZE, ( rgb >> 16 ) & 0xFF );
+                assertEquals( GUTTER + y * TILE_SIZE, ( rgb >> 8 ) & 0xFF );
+            }
+        }
+    }
+
+    @Test
+    public void testClipsMetaTileAtMatrixBorder()
+                            throws Exception {
+        RemoteWMSMetaTiler tiler = createTiler( "png" );
+        Map<Pair<Long, Long>, byte[]> tiles = tiler.getTiles( 2, 2, NO_PARAMS );
+
+        ArgumentCaptor<GetMap> gm = ArgumentCaptor.forClass( GetMap.class );
+        verify( client ).getMap( gm.capture() );
+        assertEquals( TILE_SIZE + 2 * GUTTER, gm.getValue().getWidth() );
+        assertEquals( 1, tiles.size() );
+        assertTrue( tiles.containsKey( new Pair<Long, Long>( 2l, 2l ) ) );
+    }
+
+    @Test(expected = TileIOException.class)
+    public void testUnsupportedOutputFormat() {
+        createTiler( "no-such-format" ).getTiles( 0, 0, NO_PARAMS );
+    }
+
+    @Test
+    public void testFetchesSingleTileWithoutCache()
+                            throws Exception {
+        GetMap single = createSingleTileRequest();
+        RemoteWMSTile tile = new RemoteWMSTile( client, single, "png", NO_PARAMS, NO_PARAMS );
+        RemoteWMSMetaTiledTile metaTiledTile = new RemoteWMSMetaTiledTile( tile, createTiler( "png" ), 1, 1,
+                                                                           NO_PARAMS );
+
+        BufferedImage img = ImageIO.read( metaTiledTile.getAsStream() );
+        assertEquals( TILE_SIZE, img.getWidth() );
+        verify( client, times( 1 ) ).getMap( any( GetMap.class ) );
+        verify( client ).getMap( same( single ) );
+        assertTrue( metaTiledTile.getSiblings().isEmpty() );
+    }
+
+    @Test
+    public void testFetchesMetaTileIfEnabled()
+                            throws Exception {
+        GetMap single = createSingleTileRequest();
+        RemoteWMSTile tile = new RemoteWMSTile( client, single, "png", NO_PARAMS, NO_PARAMS );
+        RemoteWMSMetaTiledTile metaTiledTile = new RemoteWMSMetaTiledTile( tile, createTiler( "png" ), 1, 1,
+                                                                           NO_PARAMS );
+        metaTiledTile.enableMetaTiling();
+
+        BufferedImage img = ImageIO.read( metaTiledTile.getAsStream() );
+        assertEquals( TILE_SIZE, img.getWidth() );
+        ArgumentCaptor<GetMap> gm = ArgumentCaptor.forClass( GetMap.class );
+        verify( client, times( 1 ) ).getMap( gm.capture() );
+        assertNotSame( single, gm.getValue() );
+        assertEquals( 3, metaTiledTile.getSiblings().size() );
+    }
+
+    private RemoteWMSMetaTiler createTiler( String outputFormat ) {
+        List<String> none = emptyList();
+        return new RemoteWMSMetaTiler( matrix, 2, GUTTER, client, singletonList( "layer" ), none, "image/png",
+                                       outputFormat, null );
+    }
+
+    private GetMap createSingleTileRequest() {
+        List<String> none = emptyList();
+        ICRS crs = matrix.getSpatialMetadata().getEnvelope().getCoordinateSystem();
+        Envelope env = new GeometryFactory().createEnvelope( 16, 16, 32, 32, crs );
+        return new GetMap( singletonList( "layer" ), none, TILE_SIZE, TILE_SIZE, env, null, "image/png", true,
+                           new HashMap<String, String>() );
+    }
+
+    private static InputStream encode( int width, int height )
+                            throws IOException {
+        BufferedImage img = new BufferedImage( width, height, BufferedImage.TYPE_INT_RGB );
+        for ( int x = 0; x < width; ++x ) {
+            for ( int y = 0; y < height; ++y ) {
+                img.setRGB( x, y, ( x << 16 ) | ( y << 8 ) );
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write( img, "png", out );
+        return new ByteArrayInputStream( out.toByteArray() );
+    }
+
+}
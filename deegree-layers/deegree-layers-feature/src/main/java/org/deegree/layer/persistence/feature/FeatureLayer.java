@@ -186,7 +186,9 @@ public class FeatureLayer extends AbstractLayer {
 
         LOG.debug( "Finished querying the feature store(s)." );
 
-        return new FeatureLayerData( queries, featureStore, query.getFeatureCount(), style, featureType );
+        // configured sort order takes precedence over nearest first
+        Envelope nearestTo = sortByFeatureInfo == null ? clickBox : null;
+        return new FeatureLayerData( queries, featureStore, query.getFeatureCount(), style, featureType, nearestTo );
     }
 
 }
@@ -37,13 +37,18 @@ package org.deegree.layer.persistence.feature;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
 
+import org.deegree.cs.coordinatesystems.ICRS;
 import org.deegree.feature.Feature;
 import org.deegree.feature.FeatureCollection;
 import org.deegree.feature.GenericFeatureCollection;
@@ -55,6 +60,10 @@ import org.deegree.feature.types.AppSchemas;
 import org.deegree.feature.xpath.TypedObjectNodeXPathEvaluator;
 import org.deegree.filter.FilterEvaluationException;
 import org.deegree.filter.XPathEvaluator;
+import org.deegree.geometry.Envelope;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.geometry.GeometryTransformer;
+import org.deegree.geometry.primitive.Point;
 import org.deegree.layer.LayerData;
 import org.deegree.rendering.r2d.context.RenderContext;
 import org.deegree.style.se.unevaluated.Style;
@@ -81,11 +90,29 @@ public class FeatureLayerData implements LayerData {
 
     private final FeatureStore featureStore;
 
+    private final Envelope clickBox;
+
     public FeatureLayerData( List<Query> queries, FeatureStore featureStore, int maxFeatures, Style style, QName ftName ) {
+        this( queries, featureStore, maxFeatures, style, ftName, null );
+    }
+
+    /**
+     * @param queries
+     * @param featureStore
+     * @param maxFeatures
+     *            the maximum number of features returned by {@link #info()}, -1 for no limit
+     * @param style
+     * @param ftName
+     * @param clickBox
+     *            if not <code>null</code>, {@link #info()} returns the features nearest to its center first
+     */
+    public FeatureLayerData( List<Query> queries, FeatureStore featureStore, int maxFeatures, Style style,
+                             QName ftName, Envelope clickBox ) {
         this.queries = queries;
         this.featureStore = featureStore;
         this.maxFeatures = maxFeatures;
         this.style = style;
+        this.clickBox = clickBox;
         Map<String, QName> bindings = new HashMap<String, QName>();
         Set<QName> validNames = AppSchemas.collectProperyNames( featureStore.getSchema(), ftName );
         for ( QName name : validNames ) {
@@ -119,31 +146,152 @@ public class FeatureLayerData implements LayerData {
         }
     }
 
-    private static FeatureCollection clearDuplicates( FeatureInputStream rs ) {
+    @Override
+    public FeatureCollection info() {
         FeatureCollection col = null;
+        FeatureInputStream rs = null;
         try {
-            col = new GenericFeatureCollection();
-            for ( Feature f : rs ) {
-                if ( !col.contains( f ) ) {
-                    col.add( f );
+            rs = featureStore.query( queries.toArray( new Query[queries.size()] ) );
+            col = clickBox == null ? collectFirst( rs ) : collectNearest( rs );
+        } catch ( Throwable e ) {
+            LOG.warn( "Data could not be fetched from the feature store. The error was '{}'.", e.getLocalizedMessage() );
+            LOG.trace( "Stack trace:", e );
+        } finally {
+            if ( rs != null ) {
+                rs.close();
+            }
+        }
+        return col;
+    }
+
+    // de-duplicates while streaming, and stops reading as soon as enough features are found
+    private FeatureCollection collectFirst( FeatureInputStream rs ) {
+        FeatureCollection col = new GenericFeatureCollection();
+        Set<String> ids = new HashSet<String>();
+        for ( Feature f : rs ) {
+            if ( ids.add( f.getId() ) ) {
+                col.add( f );
+                if ( maxFeatures > 0 && col.size() >= maxFeatures ) {
+                    break;
                 }
             }
-        } finally {
-            rs.close();
         }
         return col;
     }
 
-    @Override
-    public FeatureCollection info() {
-        FeatureCollection col = null;
-        try {
-            col = clearDuplicates( featureStore.query( queries.toArray( new Query[queries.size()] ) ) );
-        } catch ( Throwable e ) {
-            LOG.warn( "Data could not be fetched from the feature store. The error was '{}'.", e.getLocalizedMessage() );
-            LOG.trace( "Stack trace:", e );
+    // de-duplicates while streaming, and only keeps the features nearest to the center of the click box
+    private FeatureCollection collectNearest( FeatureInputStream rs ) {
+        double x = clickBox.getMin().get0() + clickBox.getSpan0() / 2;
+        double y = clickBox.getMin().get1() + clickBox.getSpan1() / 2;
+        GeometryFactory fac = new GeometryFactory();
+        ClickPoint center = new ClickPoint( fac.createPoint( null, x, y, clickBox.getCoordinateSystem() ) );
+
+        // farthest candidate first, so it can be replaced by nearer ones
+        PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>( 11, Collections.reverseOrder() );
+        Set<String> ids = new HashSet<String>();
+        int index = 0;
+        for ( Feature f : rs ) {
+            if ( !ids.add( f.getId() ) ) {
+                continue;
+            }
+            Candidate c = new Candidate( f, center.distance( f.getEnvelope() ), index++ );
+            if ( maxFeatures <= 0 || candidates.size() < maxFeatures ) {
+                candidates.add( c );
+            } else if ( c.compareTo( candidates.peek() ) < 0 ) {
+                candidates.poll();
+                candidates.add( c );
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<Candidate>( candidates );
+        Collections.sort( sorted );
+        FeatureCollection col = new GenericFeatureCollection();
+        for ( Candidate c : sorted ) {
+            col.add( c.feature );
         }
         return col;
     }
 
+    /**
+     * Center of the click box, transformed on demand into the CRS of the feature envelopes.
+     */
+    private static class ClickPoint {
+
+        private final Point point;
+
+        private ICRS crs;
+
+        private double x, y;
+
+        private boolean valid = true;
+
+        ClickPoint( Point point ) {
+            this.point = point;
+            this.crs = point.getCoordinateSystem();
+            this.x = point.get0();
+            this.y = point.get1();
+        }
+
+        // squared distance between the envelope and the point, envelopes that cannot be compared are ranked last
+        double distance( Envelope env ) {
+            if ( env == null ) {
+                return Double.POSITIVE_INFINITY;
+            }
+            ICRS envCrs = env.getCoordinateSystem();
+            if ( point.getCoordinateSystem() != null && envCrs != null && envCrs != crs ) {
+                transformTo( envCrs );
+            }
+            if ( !valid ) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double dx = Math.max( 0, Math.max( env.getMin().get0() - x, x - env.getMax().get0() ) );
+            double dy = Math.max( 0, Math.max( env.getMin().get1() - y, y - env.getMax().get1() ) );
+            return dx * dx + dy * dy;
+        }
+
+        private void transformTo( ICRS target ) {
+            ICRS previous = crs;
+            crs = target;
+            try {
+                if ( target.equals( previous ) ) {
+                    return;
+                }
+                Point p = point;
+                if ( !target.equals( point.getCoordinateSystem() ) ) {
+                    p = new GeometryTransformer( target ).transform( point );
+                }
+                x = p.get0();
+                y = p.get1();
+                valid = true;
+            } catch ( Throwable e ) {
+                LOG.debug( "Could not transform the click point to {}: {}", target, e.getLocalizedMessage() );
+                LOG.trace( "Stack trace:", e );
+                valid = false;
+            }
+        }
+
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+
+        final Feature feature;
+
+        final double distance;
+
+        final int index;
+
+        Candidate( Feature feature, double distance, int index ) {
+            this.feature = feature;
+            this.distance = distance;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo( Candidate o ) {
+            int cmp = Double.compare( distance, o.distance );
+            return cmp != 0 ? cmp : index - o.index;
+        }
+
+    }
+
 }
@@ -0,0 +1,220 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.layer.persistence.feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.deegree.cs.coordinatesystems.ICRS;
+import org.deegree.cs.persistence.CRSManager;
+import org.deegree.feature.Feature;
+import org.deegree.feature.FeatureCollection;
+import org.deegree.feature.persistence.FeatureStore;
+import org.deegree.feature.persistence.query.Query;
+import org.deegree.feature.stream.FeatureInputStream;
+import org.deegree.feature.types.AppSchema;
+import org.deegree.feature.types.FeatureType;
+import org.deegree.geometry.Envelope;
+import org.deegree.geometry.GeometryFactory;
+import org.junit.Test;
+
+/**
+ * Tests for the feature info collection of {@link FeatureLayerData}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class FeatureLayerDataTest {
+
+    private static final GeometryFactory FAC = new GeometryFactory();
+
+    @Test
+    public void testNearestFirstKeepsOnlyNearestFeatures() {
+        ICRS crs = CRSManager.getCRSRef( "EPSG:25832" );
+        List<Feature> features = new ArrayList<Feature>();
+        // distances 9, 1, 7, 3, 5, 0 (contains the center), 8, 2, 6, 4
+        int[] distances = { 9, 1, 7, 3, 5, 0, 8, 2, 6, 4 };
+        for ( int d : distances ) {
+            features.add( feature( "f" + d, box( 100 + d, 100, crs ) ) );
+        }
+        Envelope clickBox = FAC.createEnvelope( 99, 99, 101, 101, crs );
+
+        FeatureCollection col = info( features, 4, clickBox );
+
+        assertEquals( Arrays.asList( "f0", "f1", "f2", "f3" ), ids( col ) );
+    }
+
+    @Test
+    public void testNearestFirstWithoutLimitReturnsAllSorted() {
+        ICRS crs = CRSManager.getCRSRef( "EPSG:25832" );
+        List<Feature> features = new ArrayList<Feature>();
+        features.add( feature( "none", null ) );
+        features.add( feature( "far", box( 110, 100, crs ) ) );
+        features.add( feature( "near", box( 101, 100, crs ) ) );
+        features.add( feature( "far", box( 110, 100, crs ) ) );
+        features.add( feature( "equal", box( 89, 100, crs ) ) );
+        Envelope clickBox = FAC.createEnvelope( 99, 99, 101, 101, crs );
+
+        FeatureCollection col = info( features, -1, clickBox );
+
+        // duplicates are dropped, equal distances keep stream order, missing envelopes come last
+        assertEquals( Arrays.asList( "near", "far", "equal", "none" ), ids( col ) );
+    }
+
+    @Test
+    public void testNearestFirstComparesCrsNotIdentifiers() {
+        List<Feature> features = new ArrayList<Feature>();
+        ICRS featureCrs = CRSManager.getCRSRef( "urn:ogc:def:crs:epsg::25832" );
+        features.add( feature( "far", box( 200, 100, featureCrs ) ) );
+        features.add( feature( "near", box( 101, 100, featureCrs ) ) );
+        Envelope clickBox = FAC.createEnvelope( 99, 99, 101, 101, CRSManager.getCRSRef( "EPSG:25832" ) );
+
+        FeatureCollection col = info( features, 1, clickBox );
+
+        assertEquals( Collections.singletonList( "near" ), ids( col ) );
+    }
+
+    @Test
+    public void testNearestFirstTransformsClickBox() {
+        List<Feature> features = new ArrayList<Feature>();
+        ICRS featureCrs = CRSManager.getCRSRef( "CRS:84" );
+        features.add( feature( "far", FAC.createEnvelope( 9, 52, 9.001, 52.001, featureCrs ) ) );
+        features.add( feature( "near", FAC.createEnvelope( 7, 50, 7.001, 50.001, featureCrs ) ) );
+        // around 7 degrees east, 50 degrees north
+        Envelope clickBox = FAC.createEnvelope( 778236, 6445276, 780236, 6447276,
+                                                CRSManager.getCRSRef( "EPSG:3857" ) );
+
+        FeatureCollection col = info( features, 1, clickBox );
+
+        assertEquals( Collections.singletonList( "near" ), ids( col ) );
+    }
+
+    @Test
+    public void testFirstStopsReadingAtMaxFeatures() {
+        List<Feature> features = new ArrayList<Feature>();
+        for ( String id : new String[] { "a", "a", "b", "c", "d", "e" } ) {
+            features.add( feature( id, null ) );
+        }
+        CountingIterator iter = new CountingIterator( features.iterator() );
+        FeatureInputStream rs = mock( FeatureInputStream.class );
+        when( rs.iterator() ).thenReturn( iter );
+
+        FeatureCollection col = createLayerData( rs, 3, null ).info();
+
+        assertEquals( Arrays.asList( "a", "b", "c" ), ids( col ) );
+        assertEquals( 4, iter.count );
+        verify( rs ).close();
+    }
+
+    private static FeatureCollection info( List<Feature> features, int maxFeatures, Envelope clickBox ) {
+        FeatureInputStream rs = mock( FeatureInputStream.class );
+        when( rs.iterator() ).thenReturn( features.iterator() );
+        FeatureCollection col = createLayerData( rs, maxFeatures, clickBox ).info();
+        verify( rs ).close();
+        return col;
+    }
+
+    private static FeatureLayerData createLayerData( FeatureInputStream rs, int maxFeatures, Envelope clickBox ) {
+        AppSchema schema = mock( AppSchema.class );
+        when( schema.getFeatureTypes() ).thenReturn( new FeatureType[0] );
+        FeatureStore store = mock( FeatureStore.class );
+        when( store.getSchema() ).thenReturn( schema );
+        try {
+            when( store.query( any( Query[].class ) ) ).thenReturn( rs );
+        } catch ( Exception e ) {
+            throw new RuntimeException( e );
+        }
+        List<Query> queries = Collections.singletonList( mock( Query.class ) );
+        return new FeatureLayerData( queries, store, maxFeatures, null, null, clickBox );
+    }
+
+    private static Envelope box( double minX, double minY, ICRS crs ) {
+        return FAC.createEnvelope( minX, minY, minX + 1, minY + 1, crs );
+    }
+
+    private static Feature feature( String id, Envelope env ) {
+        Feature f = mock( Feature.class );
+        when( f.getId() ).thenReturn( id );
+        when( f.getEnvelope() ).thenReturn( env );
+        return f;
+    }
+
+    private static List<String> ids( FeatureCollection col ) {
+        List<String> ids = new ArrayList<String>();
+        for ( Feature f : col ) {
+            ids.add( f.getId() );
+        }
+        return ids;
+    }
+
+    private static class CountingIterator implements Iterator<Feature> {
+
+        private final Iterator<Feature> iter;
+
+        private int count;
+
+        CountingIterator( Iterator<Feature> iter ) {
+            this.iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iter.hasNext();
+        }
+
+        @Override
+        public Feature next() {
+            count++;
+            return iter.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
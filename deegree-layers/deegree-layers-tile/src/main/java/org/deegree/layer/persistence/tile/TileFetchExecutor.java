@@ -0,0 +1,180 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.layer.persistence.tile;
+
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deegree.commons.utils.RequestUtils;
+import org.deegree.feature.FeatureCollection;
+import org.deegree.geometry.Envelope;
+import org.deegree.tile.Tile;
+import org.deegree.tile.TileIOException;
+
+/**
+ * Thread pool shared by all tile layers for fetching and decoding tile images ahead of rendering.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class TileFetchExecutor {
+
+    private static final int MAX_THREADS = Math.max( 4, 2 * Runtime.getRuntime().availableProcessors() );
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = new ThreadPoolExecutor( MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                                           new LinkedBlockingQueue<Runnable>(), new FetchThreadFactory() );
+        executor.allowCoreThreadTimeOut( true );
+    }
+
+    private TileFetchExecutor() {
+        // avoid instantiation
+    }
+
+    /**
+     * Fetches and decodes the image of the given tile in the background.
+     * 
+     * @param tile
+     *            the tile to fetch, may be <code>null</code>
+     * @param requestParams
+     *            request parameters of the calling thread, may be <code>null</code>
+     * @return a future for a tile that returns the decoded image without fetching it again (or <code>null</code>, if
+     *         the tile was <code>null</code>), never <code>null</code>
+     */
+    static Future<Tile> submit( Tile tile, Map<String, String> requestParams ) {
+        return executor.submit( new FetchTask( tile, requestParams ) );
+    }
+
+    private static class FetchTask implements Callable<Tile> {
+
+        private final Tile tile;
+
+        private final Map<String, String> requestParams;
+
+        private FetchTask( Tile tile, Map<String, String> requestParams ) {
+            this.tile = tile;
+            this.requestParams = requestParams;
+        }
+
+        @Override
+        public Tile call() {
+            if ( tile == null ) {
+                return null;
+            }
+            RequestUtils.getCurrentThreadRequestParameters().set( requestParams );
+            try {
+                return new PrefetchedTile( tile, tile.getAsImage(), null );
+            } catch ( TileIOException e ) {
+                return new PrefetchedTile( tile, null, e );
+            } finally {
+                RequestUtils.getCurrentThreadRequestParameters().remove();
+            }
+        }
+    }
+
+    /**
+     * Tile that returns an already decoded image (or rethrows the error that occurred when fetching it).
+     */
+    private static class PrefetchedTile implements Tile {
+
+        private final Tile tile;
+
+        private final BufferedImage image;
+
+        private final TileIOException error;
+
+        private PrefetchedTile( Tile tile, BufferedImage image, TileIOException error ) {
+            this.tile = tile;
+            this.image = image;
+            this.error = error;
+        }
+
+        @Override
+        public BufferedImage getAsImage()
+                                throws TileIOException {
+            if ( error != null ) {
+                throw error;
+            }
+            return image;
+        }
+
+        @Override
+        public InputStream getAsStream()
+                                throws TileIOException {
+            return tile.getAsStream();
+        }
+
+        @Override
+        public Envelope getEnvelope() {
+            return tile.getEnvelope();
+        }
+
+        @Override
+        public FeatureCollection getFeatures( int i, int j, int limit )
+                                throws UnsupportedOperationException {
+            return tile.getFeatures( i, j, limit );
+        }
+    }
+
+    private static class FetchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread( Runnable r ) {
+            Thread t = new Thread( r, "tile-fetch-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+    }
+
+}
@@ -76,8 +76,24 @@ public class TileLayer extends AbstractLayer {
     // maps crs to tile matrix set ids
     private final Map<ICRS, String> coordinateSystems = new LinkedHashMap<ICRS, String>();
 
+    private final int maxConcurrentFetches;
+
     public TileLayer( LayerMetadata md, List<TileDataSet> datasets ) {
+        this( md, datasets, 1 );
+    }
+
+    /**
+     * @param md
+     *            layer metadata, never <code>null</code>
+     * @param datasets
+     *            the tile data sets, never <code>null</code>
+     * @param maxConcurrentFetches
+     *            maximum number of tiles fetched concurrently when rendering a map, <code>1</code> fetches the tiles
+     *            one after another
+     */
+    public TileLayer( LayerMetadata md, List<TileDataSet> datasets, int maxConcurrentFetches ) {
         super( md );
+        this.maxConcurrentFetches = maxConcurrentFetches;
         for ( TileDataSet tds : datasets ) {
             coordinateSystems.put( tds.getTileMatrixSet().getSpatialMetadata().getCoordinateSystems().get( 0 ),
                                    tds.getTileMatrixSet().getIdentifier() );
@@ -101,7 +117,7 @@ public class TileLayer extends AbstractLayer {
         TileDataSet data = tileDataSets.get( tds );
 
         Iterator<Tile> tiles = data.getTiles( env, query.getResolution() );
-        return new TileLayerData( tiles );
+        return new TileLayerData( tiles, maxConcurrentFetches );
     }
 
     @Override
@@ -76,6 +76,8 @@ import org.slf4j.Logger;
  */
 class TileLayerBuilder {
 
+    private static final int DEFAULT_MAX_CONCURRENT_FETCHES = 4;
+
     private static final Logger LOG = getLogger( TileLayerStoreProvider.class );
 
     private Workspace workspace;
@@ -132,7 +134,11 @@ class TileLayerBuilder {
             md.setScaleDenominators( p );
         }
         md.setMetadataId( cfg.getMetadataSetId() );
-        return new TileLayer( md, datasets );
+        int maxConcurrentFetches = DEFAULT_MAX_CONCURRENT_FETCHES;
+        if ( cfg.getMaxConcurrentTileFetches() != null ) {
+            maxConcurrentFetches = Math.max( 1, cfg.getMaxConcurrentTileFetches() );
+        }
+        return new TileLayer( md, datasets, maxConcurrentFetches );
     }
 
 }
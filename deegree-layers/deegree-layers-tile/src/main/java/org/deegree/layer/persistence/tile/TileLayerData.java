@@ -41,7 +41,12 @@
 package org.deegree.layer.persistence.tile;
 
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.deegree.commons.utils.RequestUtils;
 import org.deegree.feature.FeatureCollection;
 import org.deegree.layer.LayerData;
 import org.deegree.rendering.r2d.TileRenderer;
@@ -50,6 +55,10 @@ import org.deegree.tile.Tile;
 
 /**
  * <code>TileLayerData</code>
+ * <p>
+ * If more than one concurrent fetch is allowed, tile images are fetched and decoded ahead on a shared thread pool and
+ * drawn in iteration order. Interrupting the rendering thread (request time-out) cancels all pending fetches.
+ * </p>
  * 
  * @author <a href="mailto:schmitz@occamlabs.de">Andreas Schmitz</a>
  * @author last edited by: $Author: mschneider $
@@ -61,15 +70,60 @@ public class TileLayerData implements LayerData {
 
     private final Iterator<Tile> tiles;
 
+    private final int maxConcurrentFetches;
+
     public TileLayerData( Iterator<Tile> tiles ) {
+        this( tiles, 1 );
+    }
+
+    /**
+     * @param tiles
+     *            the tiles to render, never <code>null</code>
+     * @param maxConcurrentFetches
+     *            maximum number of tiles fetched concurrently, <code>1</code> fetches the tiles one after another
+     */
+    public TileLayerData( Iterator<Tile> tiles, int maxConcurrentFetches ) {
         this.tiles = tiles;
+        this.maxConcurrentFetches = maxConcurrentFetches;
     }
 
     @Override
-    public void render( RenderContext context ) {
+    public void render( RenderContext context )
+                            throws InterruptedException {
         TileRenderer renderer = context.getTileRenderer();
-        while ( tiles.hasNext() ) {
-            renderer.render( tiles.next() );
+        if ( maxConcurrentFetches < 2 ) {
+            while ( tiles.hasNext() ) {
+                renderer.render( tiles.next() );
+            }
+            return;
+        }
+
+        Map<String, String> requestParams = RequestUtils.getCurrentThreadRequestParameters().get();
+        LinkedList<Future<Tile>> pending = new LinkedList<Future<Tile>>();
+        try {
+            while ( tiles.hasNext() || !pending.isEmpty() ) {
+                while ( pending.size() < maxConcurrentFetches && tiles.hasNext() ) {
+                    pending.add( TileFetchExecutor.submit( tiles.next(), requestParams ) );
+                }
+                renderer.render( getTile( pending.removeFirst() ) );
+            }
+        } finally {
+            for ( Future<Tile> future : pending ) {
+                future.cancel( true );
+            }
+        }
+    }
+
+    private static Tile getTile( Future<Tile> future )
+                            throws InterruptedException {
+        try {
+            return future.get();
+        } catch ( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException( cause );
         }
     }
 
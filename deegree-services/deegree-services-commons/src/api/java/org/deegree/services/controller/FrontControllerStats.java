@@ -42,9 +42,6 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.Map;
 import java.util.TreeSet;
@@ -59,11 +56,17 @@ import org.deegree.cs.persistence.CRSManager;
 import org.deegree.geometry.Envelope;
 import org.deegree.geometry.GeometryFactory;
 import org.deegree.geometry.GeometryTransformer;
+import org.deegree.services.controller.metrics.AsyncRequestLog;
+import org.deegree.services.controller.metrics.RequestMetrics;
 import org.h2.util.IOUtils;
 import org.slf4j.Logger;
 
 /**
  * Keeps track of request and runtime statistics for the {@link OGCFrontController}.
+ * <p>
+ * Request counters and response times are provided by {@link RequestMetrics} (per service and operation). KVP requests
+ * are written to the request log asynchronously by an {@link AsyncRequestLog}.
+ * </p>
  * 
  * @author <a href="mailto:schneider@lat-lon.de">Markus Schneider</a>
  * @author last edited by: $Author$
@@ -74,13 +77,13 @@ public class FrontControllerStats {
 
     private static final Logger LOG = getLogger( FrontControllerStats.class );
 
-    private static long numDispatched;
-
-    private static long numFinished;
-
-    private static double averageResponseTime;
-
-    private static double maxResponseTime;
+    // at most 10000 requests wait for being written to the request log
+    private static final AsyncRequestLog REQUEST_LOG = new AsyncRequestLog( "requests.txt", 10000 ) {
+        @Override
+        protected void written( long timestamp, String request ) {
+            updateEnvelope( request );
+        }
+    };
 
     private static Envelope bbox;
 
@@ -89,70 +92,45 @@ public class FrontControllerStats {
     private static final GeometryFactory fac = new GeometryFactory();
 
     /**
-     * Called by the {@link OGCFrontController} to indicate that a new request has just been dispatched to an
-     * {@link AbstractOWS}.
+     * Queues a KVP request for the request log. The request log is written asynchronously, so this method returns
+     * immediately.
      * 
-     * @return current time
+     * @param request
+     *            the query string
+     * @param timestamp
      */
-    synchronized static long requestDispatched() {
-        numDispatched++;
-        return System.currentTimeMillis();
+    public static void incomingKVP( String request, long timestamp ) {
+        REQUEST_LOG.log( timestamp, request );
     }
 
     /**
-     * Called by the {@link OGCFrontController} to indicate that a dispatched request has been finished.
-     * 
-     * @param dispatchTime
-     *            time when the request has been dispatched
+     * Writes the pending entries of the request log, stops its writer thread and closes the log file.
      */
-    synchronized static void requestFinished( long dispatchTime ) {
-        long duration = System.currentTimeMillis() - dispatchTime;
-        if ( duration > maxResponseTime ) {
-            maxResponseTime = duration;
-        }
-        averageResponseTime = ( averageResponseTime * numFinished + duration ) / ( numFinished + 1 );
-        numFinished++;
+    public static void shutdown() {
+        REQUEST_LOG.close();
     }
 
-    /**
-     * @param request
-     *            the query string
-     * @param timestamp
-     */
-    public synchronized static void incomingKVP( String request, long timestamp ) {
+    private static synchronized void updateEnvelope( String request ) {
+        if ( bbox == null || !request.toUpperCase().contains( "REQUEST=GETMAP" ) ) {
+            return;
+        }
         try {
-            OutputStream os = ConfigManager.getOutputResource( "requests.txt", true );
-            PrintWriter out = new PrintWriter( new OutputStreamWriter( os, "UTF-8" ) );
-            out.println( timestamp + " " + request );
-            out.close();
-            if ( request.toUpperCase().contains( "REQUEST=GETMAP" ) ) {
-                try {
-                    Map<String, String> map = KVPUtils.getNormalizedKVPMap( request, "UTF-8" );
-                    if ( map.get( "LAYERS" ).equals( "statistics" ) ) {
-                        return;
-                    }
-                    double[] ds = splitAsDoubles( map.get( "BBOX" ), "," );
-                    Envelope newBox = fac.createEnvelope( ds[0], ds[1], ds[2], ds[3],
-                                                          CRSManager.getCRSRef( map.get( "SRS" ) ) );
-                    if ( bbox != null ) {
-                        bbox.merge( trans.transform( newBox ) );
-                    }
-                } catch ( UnsupportedEncodingException e ) {
-                    LOG.trace( "Stack trace:", e );
-                } catch ( IllegalArgumentException e ) {
-                    LOG.trace( "Stack trace:", e );
-                } catch ( TransformationException e ) {
-                    LOG.trace( "Stack trace:", e );
-                } catch ( UnknownCRSException e ) {
-                    LOG.trace( "Stack trace:", e );
-                }
+            Map<String, String> map = KVPUtils.getNormalizedKVPMap( request, "UTF-8" );
+            if ( map.get( "LAYERS" ).equals( "statistics" ) ) {
+                return;
             }
-        } catch ( FileNotFoundException e ) {
-            LOG.debug( "Could not find the file to store requests." );
-            LOG.debug( " Probably the DEEGREE_HOME directory does not exist and could not be created." );
-            LOG.trace( "Stack trace:", e );
+            double[] ds = splitAsDoubles( map.get( "BBOX" ), "," );
+            Envelope newBox = fac.createEnvelope( ds[0], ds[1], ds[2], ds[3],
+                                                  CRSManager.getCRSRef( map.get( "SRS" ) ) );
+            bbox.merge( trans.transform( newBox ) );
         } catch ( UnsupportedEncodingException e ) {
             LOG.trace( "Stack trace:", e );
+        } catch ( IllegalArgumentException e ) {
+            LOG.trace( "Stack trace:", e );
+        } catch ( TransformationException e ) {
+            LOG.trace( "Stack trace:", e );
+        } catch ( UnknownCRSException e ) {
+            LOG.trace( "Stack trace:", e );
         }
     }
 
@@ -162,7 +140,7 @@ public class FrontControllerStats {
      * @return number of dispatched requests
      */
     public static long getDispatchedRequests() {
-        return numDispatched;
+        return RequestMetrics.getTotal().getDispatched();
     }
 
     /**
@@ -172,7 +150,7 @@ public class FrontControllerStats {
      * @return number of active requests
      */
     public static long getActiveRequests() {
-        return numDispatched - numFinished;
+        return RequestMetrics.getTotal().getActive();
     }
 
     /**
@@ -181,7 +159,7 @@ public class FrontControllerStats {
      * @return the average response time
      */
     public static long getAverageResponseTime() {
-        return (long) averageResponseTime;
+        return (long) RequestMetrics.getTotal().getAverageMillis();
     }
 
     /**
@@ -190,7 +168,16 @@ public class FrontControllerStats {
      * @return the maximum response time
      */
     public static long getMaximumResponseTime() {
-        return (long) maxResponseTime;
+        return RequestMetrics.getTotal().getMaxMillis();
+    }
+
+    /**
+     * Returns the number of KVP requests that were not written to the request log, because it couldn't keep up.
+     * 
+     * @return number of dropped requests
+     */
+    public static long getDroppedLogEntries() {
+        return REQUEST_LOG.getDropped();
     }
 
     /**
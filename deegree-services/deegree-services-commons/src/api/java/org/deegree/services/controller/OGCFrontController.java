@@ -37,6 +37,7 @@ package org.deegree.services.controller;
 
 import static java.io.File.createTempFile;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static org.deegree.commons.ows.exception.OWSException.NOT_FOUND;
 import static org.deegree.commons.ows.exception.OWSException.NO_APPLICABLE_CODE;
 import static org.deegree.commons.tom.ows.Version.parseVersion;
@@ -65,10 +66,12 @@ import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.imageio.spi.IIORegistry;
 import javax.servlet.ServletConfig;
@@ -114,11 +117,14 @@ import org.deegree.services.OWSProvider;
 import org.deegree.services.OwsManager;
 import org.deegree.services.authentication.SecurityException;
 import org.deegree.services.controller.exception.serializer.XMLExceptionSerializer;
+import org.deegree.services.controller.metrics.OperationMetrics;
+import org.deegree.services.controller.metrics.RequestMetrics;
 import org.deegree.services.controller.security.SecurityConfiguration;
 import org.deegree.services.controller.utils.HttpResponseBuffer;
 import org.deegree.services.controller.utils.LoggingHttpResponseWrapper;
 import org.deegree.services.controller.watchdog.RequestWatchdog;
 import org.deegree.services.jaxb.controller.DeegreeServiceControllerType;
+import org.deegree.services.jaxb.controller.DeegreeServiceControllerType.DirectStreaming;
 import org.deegree.services.jaxb.controller.DeegreeServiceControllerType.RequestTimeoutMilliseconds;
 import org.deegree.services.ows.OWS110ExceptionReportSerializer;
 import org.deegree.services.resources.ResourcesServlet;
@@ -186,6 +192,9 @@ public class OGCFrontController extends HttpServlet {
 
     private transient RequestWatchdog requestWatchdog;
 
+    // entries: 'serviceId' (all requests) or 'serviceId|request' (lower case request name)
+    private transient Set<String> directStreaming = emptySet();
+
     private transient SecurityConfiguration securityConfiguration;
 
     private transient OwsManager serviceConfiguration;
@@ -802,12 +811,14 @@ public class OGCFrontController extends HttpServlet {
             }
 
             LOG.debug( "Dispatching request to OWS class: " + ows.getClass().getName() );
-            long dispatchTime = FrontControllerStats.requestDispatched();
+            handleDirectStreaming( ows, request, response );
+            OperationMetrics metrics = getOperationMetrics( ows, request );
+            long dispatchTime = metrics.requestDispatched();
             try {
                 watchTimeout( ows, request );
                 ows.doKVP( normalizedKVPParams, requestWrapper, response, multiParts );
             } finally {
-                FrontControllerStats.requestFinished( dispatchTime );
+                metrics.requestFinished( dispatchTime );
                 unwatchTimeout();
             }
         } catch ( SecurityException e ) {
@@ -889,12 +900,14 @@ public class OGCFrontController extends HttpServlet {
             }
             if ( ows != null ) {
                 LOG.debug( "Dispatching request to OWS: " + ows.getClass().getName() );
-                long dispatchTime = FrontControllerStats.requestDispatched();
+                handleDirectStreaming( ows, xmlStream.getLocalName(), response );
+                OperationMetrics metrics = getOperationMetrics( ows, xmlStream.getLocalName() );
+                long dispatchTime = metrics.requestDispatched();
                 try {
                     watchTimeout( ows, xmlStream.getLocalName() );
                     ows.doXML( xmlStream, requestWrapper, response, multiParts );
                 } finally {
-                    FrontControllerStats.requestFinished( dispatchTime );
+                    metrics.requestFinished( dispatchTime );
                     unwatchTimeout();
                 }
             }
@@ -1009,12 +1022,14 @@ public class OGCFrontController extends HttpServlet {
             }
 
             LOG.debug( "Dispatching request to OWS class: " + ows.getClass().getName() );
-            long dispatchTime = FrontControllerStats.requestDispatched();
+            handleDirectStreaming( ows, env.getSOAPBodyFirstElementLocalName(), response );
+            OperationMetrics metrics = getOperationMetrics( ows, env.getSOAPBodyFirstElementLocalName() );
+            long dispatchTime = metrics.requestDispatched();
             try {
                 watchTimeout( ows, env.getSOAPBodyFirstElementLocalName() );
                 ows.doSOAP( env, requestWrapper, response, multiParts, factory );
             } finally {
-                FrontControllerStats.requestFinished( dispatchTime );
+                metrics.requestFinished( dispatchTime );
             }
         } catch ( SecurityException e ) {
             if ( credentialsProvider != null ) {
@@ -1144,6 +1159,9 @@ public class OGCFrontController extends HttpServlet {
         } else {
             LOG.info( "Not initializing request watchdog. No request time-outs configured." );
         }
+        if ( mainConfig != null ) {
+            initDirectStreaming( mainConfig.getDirectStreaming() );
+        }
         LOG.info( "" );
     }
 
@@ -1173,6 +1191,18 @@ public class OGCFrontController extends HttpServlet {
         requestWatchdog.init();
     }
 
+    private void initDirectStreaming( final List<DirectStreaming> configs ) {
+        Set<String> keys = new HashSet<String>();
+        for ( DirectStreaming config : configs ) {
+            if ( config.getRequest() == null ) {
+                keys.add( config.getServiceId() );
+            } else {
+                keys.add( config.getServiceId() + "|" + config.getRequest().toLowerCase() );
+            }
+        }
+        directStreaming = keys;
+    }
+
     private void destroyWorkspace() {
         LOG.info( "--------------------------------------------------------------------------------" );
         LOG.info( "Destroying workspace" );
@@ -1381,6 +1411,7 @@ public class OGCFrontController extends HttpServlet {
     public void destroy() {
         super.destroy();
         destroyWorkspace();
+        FrontControllerStats.shutdown();
         if ( mainConfig.isPreventClassloaderLeaks() == null || mainConfig.isPreventClassloaderLeaks() ) {
             plugClassLoaderLeaks();
         }
@@ -1565,6 +1596,22 @@ public class OGCFrontController extends HttpServlet {
         }
     }
 
+    private void handleDirectStreaming( final OWS ows, final String requestName, final HttpResponseBuffer response ) {
+        if ( directStreaming.isEmpty() ) {
+            return;
+        }
+        final String serviceId = ows.getMetadata().getIdentifier().getId();
+        if ( directStreaming.contains( serviceId )
+             || ( requestName != null && directStreaming.contains( serviceId + "|" + requestName.toLowerCase() ) ) ) {
+            LOG.debug( "Streaming response to {} request directly.", requestName );
+            response.disableBuffering();
+        }
+    }
+
+    private static OperationMetrics getOperationMetrics( final OWS ows, final String requestName ) {
+        return RequestMetrics.getOperationMetrics( ows.getMetadata().getIdentifier().getId(), requestName );
+    }
+
     private void unwatchTimeout() {
         if ( requestWatchdog != null ) {
             requestWatchdog.unwatchCurrentThread();
@@ -0,0 +1,245 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.deegree.commons.utils.ConfigManager;
+import org.slf4j.Logger;
+
+/**
+ * Appends KVP requests to a log file (one line per request: <code>timestamp query string</code>) in a background
+ * thread.
+ * <p>
+ * Request threads only put the entry into a bounded queue. If the writer can't keep up and the queue is full, entries
+ * are dropped (and counted) instead of blocking the request.
+ * </p>
+ * 
+ * @since 3.4
+ */
+public class AsyncRequestLog {
+
+    private static final Logger LOG = getLogger( AsyncRequestLog.class );
+
+    // milliseconds to wait for the writer thread in close()
+    private static final long CLOSE_TIMEOUT = 5000;
+
+    private final BlockingQueue<Entry> queue;
+
+    private final String resourceName;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Thread writer;
+
+    private PrintWriter out;
+
+    /**
+     * Creates a new {@link AsyncRequestLog} instance.
+     * 
+     * @param resourceName
+     *            name of the log file (resolved via {@link ConfigManager#getOutputResource(String, boolean)}), must not
+     *            be <code>null</code>
+     * @param capacity
+     *            maximum number of entries waiting to be written
+     */
+    public AsyncRequestLog( String resourceName, int capacity ) {
+        this.resourceName = resourceName;
+        this.queue = new ArrayBlockingQueue<Entry>( capacity );
+    }
+
+    /**
+     * Queues a request for logging. Never blocks.
+     * 
+     * @param timestamp
+     *            time of the request
+     * @param request
+     *            query string
+     * @return <code>true</code>, if the request has been queued, <code>false</code> if it has been dropped
+     */
+    public boolean log( long timestamp, String request ) {
+        ensureStarted();
+        if ( queue.offer( new Entry( timestamp, request ) ) ) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return number of entries that have been dropped, because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Called in the writer thread after an entry has been written. Does nothing by default.
+     * 
+     * @param timestamp
+     *            time of the request
+     * @param request
+     *            query string
+     */
+    protected void written( long timestamp, String request ) {
+        // nothing to do
+    }
+
+    /**
+     * Stops the writer thread, writes the entries that are still queued and closes the log file. A later call to
+     * {@link #log(long, String)} starts a new writer thread.
+     */
+    public synchronized void close() {
+        Thread t = writer;
+        if ( t == null ) {
+            return;
+        }
+        writer = null;
+        t.interrupt();
+        try {
+            t.join( CLOSE_TIMEOUT );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        if ( t.isAlive() ) {
+            LOG.warn( "Request log writer did not stop within {} ms.", CLOSE_TIMEOUT );
+        }
+    }
+
+    private void ensureStarted() {
+        if ( writer == null ) {
+            synchronized ( this ) {
+                if ( writer == null ) {
+                    Thread t = new Thread( new Runnable() {
+                        @Override
+                        public void run() {
+                            writeEntries();
+                        }
+                    }, "request-log-writer" );
+                    t.setDaemon( true );
+                    t.start();
+                    writer = t;
+                }
+            }
+        }
+    }
+
+    private void writeEntries() {
+        List<Entry> batch = new ArrayList<Entry>();
+        try {
+            while ( true ) {
+                try {
+                    batch.add( queue.take() );
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+                queue.drainTo( batch );
+                writeBatch( batch );
+            }
+        } finally {
+            queue.drainTo( batch );
+            writeBatch( batch );
+            if ( out != null ) {
+                out.close();
+                out = null;
+            }
+        }
+    }
+
+    private void writeBatch( List<Entry> batch ) {
+        if ( batch.isEmpty() ) {
+            return;
+        }
+        PrintWriter out = getWriter();
+        for ( Entry entry : batch ) {
+            if ( out != null ) {
+                out.println( entry.timestamp + " " + entry.request );
+            }
+            try {
+                written( entry.timestamp, entry.request );
+            } catch ( Throwable t ) {
+                LOG.trace( "Stack trace:", t );
+            }
+        }
+        if ( out != null ) {
+            out.flush();
+            if ( out.checkError() ) {
+                LOG.debug( "Writing to the request log failed, reopening it." );
+                out.close();
+                this.out = null;
+            }
+        }
+        batch.clear();
+    }
+
+    private PrintWriter getWriter() {
+        if ( out == null ) {
+            try {
+                OutputStream os = ConfigManager.getOutputResource( resourceName, true );
+                out = new PrintWriter( new OutputStreamWriter( os, "UTF-8" ) );
+            } catch ( FileNotFoundException e ) {
+                LOG.debug( "Could not find the file to store requests." );
+                LOG.debug( " Probably the DEEGREE_HOME directory does not exist and could not be created." );
+                LOG.trace( "Stack trace:", e );
+            } catch ( IOException e ) {
+                LOG.trace( "Stack trace:", e );
+            }
+        }
+        return out;
+    }
+
+    private static class Entry {
+
+        private final long timestamp;
+
+        private final String request;
+
+        private Entry( long timestamp, String request ) {
+            this.timestamp = timestamp;
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+/**
+ * Connection pool usage of the HTTP client of a remote OWS.
+ * 
+ * @see PoolMetrics
+ * 
+ * @since 3.4
+ */
+public final class HttpPoolMetrics {
+
+    private final String remoteOwsId;
+
+    private final int leased;
+
+    private final int pending;
+
+    private final int available;
+
+    private final int max;
+
+    HttpPoolMetrics( String remoteOwsId, int leased, int pending, int available, int max ) {
+        this.remoteOwsId = remoteOwsId;
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    /**
+     * @return id of the remote OWS, never <code>null</code>
+     */
+    public String getRemoteOwsId() {
+        return remoteOwsId;
+    }
+
+    /**
+     * @return number of connections currently used by requests
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return number of requests waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return number of idle connections kept alive for reuse
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * @return maximum number of connections
+     */
+    public int getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,167 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Histogram of request durations with fixed buckets.
+ * <p>
+ * Recording a value only touches {@link StripedCounter}s (and a compare-and-set on the maximum, if it has been
+ * exceeded), so it's safe and cheap to call from many request threads at once.
+ * </p>
+ * 
+ * @since 3.4
+ */
+public final class LatencyHistogram {
+
+    // upper bounds (inclusive) of the buckets in milliseconds, the last bucket (not listed) is unbounded
+    private static final long[] BOUNDS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000,
+                                                 30000, 60000 };
+
+    private final StripedCounter[] buckets = new StripedCounter[BOUNDS_MILLIS.length + 1];
+
+    private final StripedCounter sumMicros;
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    LatencyHistogram( int maxStripes ) {
+        for ( int i = 0; i < buckets.length; i++ ) {
+            buckets[i] = new StripedCounter( maxStripes );
+        }
+        sumMicros = new StripedCounter( maxStripes );
+    }
+
+    /**
+     * Records a single duration.
+     * 
+     * @param nanos
+     *            duration in nanoseconds
+     */
+    public void record( long nanos ) {
+        long micros = nanos / 1000;
+        int i = 0;
+        while ( i < BOUNDS_MILLIS.length && micros > BOUNDS_MILLIS[i] * 1000 ) {
+            i++;
+        }
+        buckets[i].increment();
+        sumMicros.add( micros );
+        long max = maxMicros.get();
+        while ( micros > max && !maxMicros.compareAndSet( max, micros ) ) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * Returns the upper bounds of the buckets (the last bucket is unbounded and not included).
+     * 
+     * @return upper bounds in milliseconds, never <code>null</code>
+     */
+    public static long[] getBucketBoundsMillis() {
+        return BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * Returns the number of recorded durations for each bucket (not cumulative).
+     * 
+     * @return counts, one more than {@link #getBucketBoundsMillis()} (last element counts the unbounded bucket)
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for ( int i = 0; i < buckets.length; i++ ) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * 
+     * @return number of recorded durations
+     */
+    public long getCount() {
+        long count = 0;
+        for ( StripedCounter bucket : buckets ) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of all recorded durations.
+     * 
+     * @return sum in microseconds
+     */
+    public long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     * 
+     * @return maximum in microseconds
+     */
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns an estimate for the given percentile, i.e. the upper bound of the bucket that contains it.
+     * 
+     * @param percentile
+     *            percentile, between 0 and 1
+     * @return estimated percentile in milliseconds, -1 if nothing has been recorded yet (or if the percentile is in
+     *         the unbounded bucket, the maximum)
+     */
+    public long getPercentileMillis( double percentile ) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for ( long count : counts ) {
+            total += count;
+        }
+        if ( total == 0 ) {
+            return -1;
+        }
+        long rank = (long) Math.ceil( percentile * total );
+        long seen = 0;
+        for ( int i = 0; i < BOUNDS_MILLIS.length; i++ ) {
+            seen += counts[i];
+            if ( seen >= rank ) {
+                return BOUNDS_MILLIS[i];
+            }
+        }
+        return getMaxMicros() / 1000;
+    }
+}
@@ -0,0 +1,158 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+/**
+ * Counters and latency histogram for the requests of a single operation of a service (or for all requests).
+ * 
+ * @see RequestMetrics
+ * 
+ * @since 3.4
+ */
+public final class OperationMetrics {
+
+    private final String serviceId;
+
+    private final String request;
+
+    // every request also updates the totals, so only those need a stripe per processor
+    private static final int OPERATION_STRIPES = 4;
+
+    private final StripedCounter dispatched;
+
+    private final LatencyHistogram latency;
+
+    private final OperationMetrics parent;
+
+    OperationMetrics( String serviceId, String request, OperationMetrics parent ) {
+        this.serviceId = serviceId;
+        this.request = request;
+        this.parent = parent;
+        int stripes = parent == null ? Integer.MAX_VALUE : OPERATION_STRIPES;
+        this.dispatched = new StripedCounter( stripes );
+        this.latency = new LatencyHistogram( stripes );
+    }
+
+    /**
+     * Records that a request has been dispatched.
+     * 
+     * @return start time (to be passed to {@link #requestFinished(long)})
+     */
+    public long requestDispatched() {
+        dispatched.increment();
+        if ( parent != null ) {
+            parent.dispatched.increment();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records that a dispatched request has been finished.
+     * 
+     * @param startTime
+     *            value returned by {@link #requestDispatched()}
+     */
+    public void requestFinished( long startTime ) {
+        long nanos = System.nanoTime() - startTime;
+        latency.record( nanos );
+        if ( parent != null ) {
+            parent.latency.record( nanos );
+        }
+    }
+
+    /**
+     * @return id of the service, <code>null</code> for the totals
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * @return name of the request, <code>null</code> for the totals
+     */
+    public String getRequest() {
+        return request;
+    }
+
+    /**
+     * @return number of dispatched requests
+     */
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @return number of finished requests
+     */
+    public long getFinished() {
+        return latency.getCount();
+    }
+
+    /**
+     * @return number of requests that have been dispatched, but are not finished yet
+     */
+    public long getActive() {
+        return Math.max( 0, getDispatched() - getFinished() );
+    }
+
+    /**
+     * @return average duration of the finished requests in milliseconds
+     */
+    public double getAverageMillis() {
+        long count = latency.getCount();
+        return count == 0 ? 0 : latency.getSumMicros() / 1000.0 / count;
+    }
+
+    /**
+     * @return estimated 95th percentile of the durations in milliseconds, -1 if no request has been finished yet
+     */
+    public long getPercentile95Millis() {
+        return latency.getPercentileMillis( 0.95 );
+    }
+
+    /**
+     * @return longest duration in milliseconds
+     */
+    public long getMaxMillis() {
+        return latency.getMaxMicros() / 1000;
+    }
+
+    /**
+     * @return the latency histogram, never <code>null</code>
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,181 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.pool.PoolStats;
+import org.deegree.db.ConnectionProvider;
+import org.deegree.db.ConnectionProviderProvider;
+import org.deegree.db.legacy.LegacyConnectionProvider;
+import org.deegree.protocol.ows.client.AbstractOWSClient;
+import org.deegree.protocol.ows.http.OwsHttpClientImpl;
+import org.deegree.remoteows.RemoteOWS;
+import org.deegree.remoteows.RemoteOWSProvider;
+import org.deegree.workspace.ResourceIdentifier;
+import org.deegree.workspace.Workspace;
+
+/**
+ * Collects the usage of the resource pools (prepared statement pools of JDBC connections, HTTP connection pools of
+ * remote OWS) of a workspace.
+ * <p>
+ * In contrast to the {@link RequestMetrics}, these values are not recorded, but read from the resources when they are
+ * requested.
+ * </p>
+ * 
+ * @since 3.4
+ */
+public class PoolMetrics {
+
+    private static final Class<ConnectionProviderProvider> PROVIDER = ConnectionProviderProvider.class;
+
+    private static final Class<RemoteOWSProvider> REMOTE_OWS = RemoteOWSProvider.class;
+
+    private PoolMetrics() {
+        // static access only
+    }
+
+    /**
+     * Returns the prepared statement pool counters of the JDBC connections of the given workspace.
+     * 
+     * @param workspace
+     *            workspace, may be <code>null</code>
+     * @return counters, never <code>null</code>
+     */
+    public static List<StatementCacheMetrics> getStatementCaches( Workspace workspace ) {
+        List<StatementCacheMetrics> caches = new ArrayList<StatementCacheMetrics>();
+        if ( workspace == null ) {
+            return caches;
+        }
+        for ( ResourceIdentifier<ConnectionProvider> id : workspace.getResourcesOfType( PROVIDER ) ) {
+            ConnectionProvider prov = workspace.getResource( PROVIDER, id.getId() );
+            if ( prov instanceof LegacyConnectionProvider ) {
+                LegacyConnectionProvider legacy = (LegacyConnectionProvider) prov;
+                caches.add( new StatementCacheMetrics( id.getId(), legacy.getStatementCacheHits(),
+                                                       legacy.getStatementCacheMisses() ) );
+            }
+        }
+        return caches;
+    }
+
+    /**
+     * Returns the HTTP connection pool usage of the remote OWS of the given workspace.
+     * 
+     * @param workspace
+     *            workspace, may be <code>null</code>
+     * @return pool usage, never <code>null</code>
+     */
+    public static List<HttpPoolMetrics> getHttpPools( Workspace workspace ) {
+        List<HttpPoolMetrics> pools = new ArrayList<HttpPoolMetrics>();
+        if ( workspace == null ) {
+            return pools;
+        }
+        for ( ResourceIdentifier<RemoteOWS> id : workspace.getResourcesOfType( REMOTE_OWS ) ) {
+            RemoteOWS remote = workspace.getResource( REMOTE_OWS, id.getId() );
+            AbstractOWSClient<?> client = remote == null ? null : remote.getClient();
+            if ( client != null && client.getHttpClient() instanceof OwsHttpClientImpl ) {
+                PoolStats stats = ( (OwsHttpClientImpl) client.getHttpClient() ).getPoolStats();
+                pools.add( new HttpPoolMetrics( id.getId(), stats.getLeased(), stats.getPending(),
+                                                stats.getAvailable(), stats.getMax() ) );
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * Writes the pool metrics of the given workspace in plain text exposition format.
+     * 
+     * @param out
+     *            writer to write to, must not be <code>null</code>
+     * @param workspace
+     *            workspace, may be <code>null</code>
+     */
+    public static void write( PrintWriter out, Workspace workspace ) {
+        List<StatementCacheMetrics> caches = getStatementCaches( workspace );
+
+        out.println( "# HELP deegree_jdbc_statement_cache_hits_total Number of prepared statements reused." );
+        out.println( "# TYPE deegree_jdbc_statement_cache_hits_total counter" );
+        for ( StatementCacheMetrics cache : caches ) {
+            out.println( "deegree_jdbc_statement_cache_hits_total" + labels( cache.getConnectionId() ) + " "
+                         + cache.getHits() );
+        }
+
+        out.println( "# HELP deegree_jdbc_statement_cache_misses_total Number of statements prepared by the driver." );
+        out.println( "# TYPE deegree_jdbc_statement_cache_misses_total counter" );
+        for ( StatementCacheMetrics cache : caches ) {
+            out.println( "deegree_jdbc_statement_cache_misses_total" + labels( cache.getConnectionId() ) + " "
+                         + cache.getMisses() );
+        }
+
+        List<HttpPoolMetrics> pools = getHttpPools( workspace );
+
+        out.println( "# HELP deegree_http_pool_connections Pooled HTTP connections of remote OWS by state." );
+        out.println( "# TYPE deegree_http_pool_connections gauge" );
+        for ( HttpPoolMetrics pool : pools ) {
+            String remote = escape( pool.getRemoteOwsId() );
+            out.println( "deegree_http_pool_connections{remote=\"" + remote + "\",state=\"leased\"} "
+                         + pool.getLeased() );
+            out.println( "deegree_http_pool_connections{remote=\"" + remote + "\",state=\"available\"} "
+                         + pool.getAvailable() );
+        }
+
+        out.println( "# HELP deegree_http_pool_pending Requests of remote OWS waiting for an HTTP connection." );
+        out.println( "# TYPE deegree_http_pool_pending gauge" );
+        for ( HttpPoolMetrics pool : pools ) {
+            out.println( "deegree_http_pool_pending{remote=\"" + escape( pool.getRemoteOwsId() ) + "\"} "
+                         + pool.getPending() );
+        }
+
+        out.println( "# HELP deegree_http_pool_max Maximum number of HTTP connections of remote OWS." );
+        out.println( "# TYPE deegree_http_pool_max gauge" );
+        for ( HttpPoolMetrics pool : pools ) {
+            out.println( "deegree_http_pool_max{remote=\"" + escape( pool.getRemoteOwsId() ) + "\"} "
+                         + pool.getMax() );
+        }
+        out.flush();
+    }
+
+    private static String labels( String connectionId ) {
+        return "{connection=\"" + escape( connectionId ) + "\"}";
+    }
+
+    private static String escape( String value ) {
+        StringBuilder sb = new StringBuilder();
+        RequestMetrics.escape( value, sb );
+        return sb.toString();
+    }
+}
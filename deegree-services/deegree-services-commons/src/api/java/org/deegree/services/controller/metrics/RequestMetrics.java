@@ -0,0 +1,204 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of per-service and per-operation request metrics of the
+ * {@link org.deegree.services.controller.OGCFrontController}.
+ * <p>
+ * Recording is lock-free: looking up the {@link OperationMetrics} is a concurrent map access and updating it only
+ * touches striped counters. The metrics can be exported in the plain text exposition format that is understood by
+ * common metric scrapers (see {@link #write(PrintWriter)}).
+ * </p>
+ * 
+ * @since 3.4
+ */
+public class RequestMetrics {
+
+    // request names are client-supplied, so the number of tracked operations is limited
+    private static final int MAX_OPERATIONS = 500;
+
+    private static final String OTHER = "other";
+
+    private static final OperationMetrics TOTAL = new OperationMetrics( null, null, null );
+
+    // key: serviceId|request name (lower case)
+    private static final ConcurrentMap<String, OperationMetrics> OPERATIONS =
+                            new ConcurrentHashMap<String, OperationMetrics>();
+
+    private RequestMetrics() {
+        // static access only
+    }
+
+    /**
+     * Returns the metrics for the given operation of a service.
+     * 
+     * @param serviceId
+     *            id of the service, must not be <code>null</code>
+     * @param request
+     *            name of the request, may be <code>null</code>
+     * @return metrics, never <code>null</code>
+     */
+    public static OperationMetrics getOperationMetrics( String serviceId, String request ) {
+        String key = serviceId + "|" + ( request == null ? "" : request.toLowerCase( Locale.ROOT ) );
+        OperationMetrics metrics = OPERATIONS.get( key );
+        if ( metrics == null ) {
+            if ( OPERATIONS.size() >= MAX_OPERATIONS ) {
+                return register( OTHER, OTHER, OTHER + "|" + OTHER );
+            }
+            metrics = register( serviceId, request, key );
+        }
+        return metrics;
+    }
+
+    private static OperationMetrics register( String serviceId, String request, String key ) {
+        OperationMetrics metrics = OPERATIONS.get( key );
+        if ( metrics == null ) {
+            metrics = new OperationMetrics( serviceId, request, TOTAL );
+            OperationMetrics existing = OPERATIONS.putIfAbsent( key, metrics );
+            if ( existing != null ) {
+                metrics = existing;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics for all requests.
+     * 
+     * @return metrics, never <code>null</code>
+     */
+    public static OperationMetrics getTotal() {
+        return TOTAL;
+    }
+
+    /**
+     * Returns the metrics of all operations that have been requested so far, sorted by service id and request name.
+     * 
+     * @return metrics, never <code>null</code>
+     */
+    public static List<OperationMetrics> getOperations() {
+        List<OperationMetrics> operations = new ArrayList<OperationMetrics>( OPERATIONS.values() );
+        Collections.sort( operations, new Comparator<OperationMetrics>() {
+            @Override
+            public int compare( OperationMetrics o1, OperationMetrics o2 ) {
+                int c = o1.getServiceId().compareTo( o2.getServiceId() );
+                if ( c != 0 ) {
+                    return c;
+                }
+                return String.valueOf( o1.getRequest() ).compareToIgnoreCase( String.valueOf( o2.getRequest() ) );
+            }
+        } );
+        return operations;
+    }
+
+    /**
+     * Writes all metrics in plain text exposition format (one sample per line, durations in seconds).
+     * 
+     * @param out
+     *            writer to write to, must not be <code>null</code>
+     */
+    public static void write( PrintWriter out ) {
+        List<OperationMetrics> operations = getOperations();
+
+        out.println( "# HELP deegree_requests_dispatched_total Number of requests dispatched to services." );
+        out.println( "# TYPE deegree_requests_dispatched_total counter" );
+        for ( OperationMetrics op : operations ) {
+            out.println( "deegree_requests_dispatched_total" + labels( op, null ) + " " + op.getDispatched() );
+        }
+
+        out.println( "# HELP deegree_requests_active Number of requests currently being processed." );
+        out.println( "# TYPE deegree_requests_active gauge" );
+        for ( OperationMetrics op : operations ) {
+            out.println( "deegree_requests_active" + labels( op, null ) + " " + op.getActive() );
+        }
+
+        out.println( "# HELP deegree_request_duration_seconds Duration of finished requests." );
+        out.println( "# TYPE deegree_request_duration_seconds histogram" );
+        long[] bounds = LatencyHistogram.getBucketBoundsMillis();
+        for ( OperationMetrics op : operations ) {
+            LatencyHistogram latency = op.getLatency();
+            long[] counts = latency.getBucketCounts();
+            long cumulative = 0;
+            for ( int i = 0; i < counts.length; i++ ) {
+                cumulative += counts[i];
+                String le = i < bounds.length ? seconds( bounds[i] * 1000 ) : "+Inf";
+                out.println( "deegree_request_duration_seconds_bucket" + labels( op, le ) + " " + cumulative );
+            }
+            out.println( "deegree_request_duration_seconds_sum" + labels( op, null ) + " "
+                         + seconds( latency.getSumMicros() ) );
+            out.println( "deegree_request_duration_seconds_count" + labels( op, null ) + " " + cumulative );
+        }
+        out.flush();
+    }
+
+    private static String labels( OperationMetrics op, String le ) {
+        StringBuilder sb = new StringBuilder( "{service=\"" );
+        escape( op.getServiceId(), sb );
+        sb.append( "\",request=\"" );
+        escape( op.getRequest() == null ? "" : op.getRequest(), sb );
+        sb.append( '"' );
+        if ( le != null ) {
+            sb.append( ",le=\"" ).append( le ).append( '"' );
+        }
+        return sb.append( '}' ).toString();
+    }
+
+    static void escape( String s, StringBuilder sb ) {
+        for ( int i = 0; i < s.length(); i++ ) {
+            char c = s.charAt( i );
+            if ( c == '\\' || c == '"' ) {
+                sb.append( '\\' ).append( c );
+            } else if ( c == '\n' ) {
+                sb.append( "\\n" );
+            } else {
+                sb.append( c );
+            }
+        }
+    }
+
+    private static String seconds( long micros ) {
+        return Double.toString( micros / 1000000.0 );
+    }
+}
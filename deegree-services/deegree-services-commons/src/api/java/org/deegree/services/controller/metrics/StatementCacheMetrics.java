@@ -0,0 +1,78 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+/**
+ * Prepared statement pool counters of a JDBC connection.
+ * 
+ * @see PoolMetrics
+ * 
+ * @since 3.4
+ */
+public final class StatementCacheMetrics {
+
+    private final String connectionId;
+
+    private final long hits;
+
+    private final long misses;
+
+    StatementCacheMetrics( String connectionId, long hits, long misses ) {
+        this.connectionId = connectionId;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * @return id of the JDBC connection, never <code>null</code>
+     */
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * @return number of prepared statements that have been reused from the statement pool
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of prepared statements that had to be prepared by the driver
+     */
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,127 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter that can be incremented by many threads concurrently without contention.
+ * <p>
+ * Updates are spread over a number of cells (selected by the id of the updating thread), each on its own cache line.
+ * Reading the value sums up all cells, so it's cheap to write and comparatively expensive to read -- which is exactly
+ * what's needed for request metrics.
+ * </p>
+ * 
+ * @since 3.4
+ */
+public final class StripedCounter {
+
+    private static final int MAX_STRIPES = stripes();
+
+    // cells are 8 longs (64 bytes) apart, so two cells never share a cache line
+    private static final int PADDING = 8;
+
+    private final int stripes;
+
+    private final AtomicLongArray cells;
+
+    /**
+     * Creates a new {@link StripedCounter} with up to two stripes per processor (64 at most).
+     */
+    public StripedCounter() {
+        this( MAX_STRIPES );
+    }
+
+    /**
+     * Creates a new {@link StripedCounter} with a limited number of stripes. Every stripe takes up a cache line, so
+     * counters that exist in large numbers or are rarely contended should use only a few.
+     * 
+     * @param maxStripes
+     *            maximum number of stripes, must be positive
+     */
+    public StripedCounter( int maxStripes ) {
+        int n = 1;
+        while ( n < maxStripes && n < MAX_STRIPES ) {
+            n <<= 1;
+        }
+        stripes = n;
+        cells = new AtomicLongArray( stripes * PADDING );
+    }
+
+    /**
+     * Adds the given value.
+     * 
+     * @param x
+     *            value to add
+     */
+    public void add( long x ) {
+        cells.getAndAdd( index(), x );
+    }
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        cells.getAndIncrement( index() );
+    }
+
+    /**
+     * Returns the current sum. The result is not an atomic snapshot if there are concurrent updates.
+     * 
+     * @return current sum
+     */
+    public long sum() {
+        long sum = 0;
+        for ( int i = 0; i < stripes; i++ ) {
+            sum += cells.get( i * PADDING );
+        }
+        return sum;
+    }
+
+    private int index() {
+        long id = Thread.currentThread().getId();
+        int h = (int) ( ( id * 0x9E3779B97F4A7C15L ) >>> 32 );
+        return ( h & ( stripes - 1 ) ) * PADDING;
+    }
+
+    private static int stripes() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while ( stripes < 2 * cpus && stripes < 64 ) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
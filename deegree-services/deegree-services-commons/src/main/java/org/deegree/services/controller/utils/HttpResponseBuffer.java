@@ -83,6 +83,10 @@ import org.slf4j.Logger;
  * called. This is unlike the original servlet API that throws an {@link IllegalStateException} when getWriter is called
  * after getOutputStream, or vice versa.
  * </p>
+ * <p>
+ * The buffer only allocates memory when data is actually written and hands it back to a shared pool when the response
+ * has been flushed (or reset). For large responses, buffering can be switched off via {@link #disableBuffering()}.
+ * </p>
  * 
  * @author <a href="mailto:bezema@lat-lon.de">Rutger Bezema</a>
  * @author <a href="mailto:tonnhofer@lat-lon.de">Oliver Tonnhofer</a>
@@ -136,10 +140,12 @@ public class HttpResponseBuffer extends HttpServletResponseWrapper {
     }
 
     /**
-     * Disables the buffering of the output.
+     * Disables the buffering of the output, i.e. written data is streamed directly to the client (and the headers are
+     * committed as soon as the servlet container's buffer is full).
      * <p>
      * This method may only be called, if neither {@link #getWriter()}, {@link #getOutputStream()} nor
-     * {@link #getXMLWriter()} has been called before.
+     * {@link #getXMLWriter()} has been called before. Exceptions that occur before any output has been written can
+     * still be reported cleanly.
      * </p>
      */
     public void disableBuffering() {
@@ -148,6 +154,9 @@ public class HttpResponseBuffer extends HttpServletResponseWrapper {
                                              "getOutputStream() / getWriter() has already been called for this response, cannot disable output buffering" );
         }
         LOG.debug( "Disabling buffering." );
+        if ( buffer != null ) {
+            buffer.reset();
+        }
         this.buffer = null;
     }
 
@@ -207,15 +216,23 @@ public class HttpResponseBuffer extends HttpServletResponseWrapper {
             String encoding = "UTF-8";
             xmlWriter = new IndentingXMLStreamWriter( factory.createXMLStreamWriter( getOutputStream(), encoding ) );
             xmlWriter.writeStartDocument( encoding, "1.0" );
-            // TODO decide again if character encoding should be set (WFS CITE 1.1.0 tests don't like it, but
-            // iGeoDesktop/OpenJUMP currently require it)
-            if ( addEncoding ) {
-                setCharacterEncoding( "UTF-8" );
-            }
+            setXMLCharacterEncoding();
         }
         return xmlWriter;
     }
 
+    /**
+     * Sets the character encoding of an XML response to UTF-8, just like {@link #getXMLWriter()} does. To be used for
+     * XML responses that are not written with the XML writer (e.g. cached documents).
+     */
+    public void setXMLCharacterEncoding() {
+        // TODO decide again if character encoding should be set (WFS CITE 1.1.0 tests don't like it, but
+        // iGeoDesktop/OpenJUMP currently require it)
+        if ( addEncoding ) {
+            setCharacterEncoding( "UTF-8" );
+        }
+    }
+
     /**
      * Returns an {@link XMLStreamWriter} for writing a response with XML content.
      * <p>
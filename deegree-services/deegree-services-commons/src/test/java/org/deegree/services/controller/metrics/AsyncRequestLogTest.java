@@ -0,0 +1,138 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.deegree.commons.utils.ConfigManager;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsyncRequestLog}.
+ * 
+ * @since 3.4
+ */
+public class AsyncRequestLogTest {
+
+    private final String resourceName = "requestlogtest-" + System.nanoTime() + ".txt";
+
+    private final List<String> written = new ArrayList<String>();
+
+    private final List<Thread> writerThreads = new ArrayList<Thread>();
+
+    private final AsyncRequestLog log = new AsyncRequestLog( resourceName, 1000 ) {
+        @Override
+        protected void written( long timestamp, String request ) {
+            synchronized ( written ) {
+                written.add( request );
+                if ( !writerThreads.contains( Thread.currentThread() ) ) {
+                    writerThreads.add( Thread.currentThread() );
+                }
+            }
+        }
+    };
+
+    @After
+    public void deleteLogFile() {
+        log.close();
+        new File( new File( System.getProperty( "user.home" ), ".deegree" ), resourceName ).delete();
+    }
+
+    @Test
+    public void testCloseWritesPendingEntriesAndStopsWriter()
+                            throws IOException {
+        for ( int i = 0; i < 100; i++ ) {
+            assertTrue( log.log( i, "request=" + i ) );
+        }
+        log.close();
+
+        synchronized ( written ) {
+            assertEquals( 100, written.size() );
+            assertEquals( 1, writerThreads.size() );
+            assertFalse( writerThreads.get( 0 ).isAlive() );
+        }
+        assertEquals( 100, readLines().size() );
+        assertEquals( "99 request=99", readLines().get( 99 ) );
+    }
+
+    @Test
+    public void testLogAfterCloseStartsNewWriter()
+                            throws IOException {
+        log.log( 1, "request=1" );
+        log.close();
+        log.log( 2, "request=2" );
+        log.close();
+
+        synchronized ( written ) {
+            assertEquals( 2, written.size() );
+            assertEquals( 2, writerThreads.size() );
+            assertFalse( writerThreads.get( 1 ).isAlive() );
+        }
+        assertEquals( 2, readLines().size() );
+    }
+
+    @Test
+    public void testCloseWithoutEntries() {
+        log.close();
+        assertEquals( 0, log.getDropped() );
+    }
+
+    private List<String> readLines()
+                            throws IOException {
+        List<String> lines = new ArrayList<String>();
+        InputStream in = ConfigManager.getInputResource( resourceName );
+        BufferedReader reader = new BufferedReader( new InputStreamReader( in, "UTF-8" ) );
+        try {
+            String line;
+            while ( ( line = reader.readLine() ) != null ) {
+                lines.add( line );
+            }
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+}
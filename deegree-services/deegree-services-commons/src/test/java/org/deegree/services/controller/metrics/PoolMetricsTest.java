@@ -0,0 +1,152 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.pool.PoolStats;
+import org.deegree.db.ConnectionProvider;
+import org.deegree.db.ConnectionProviderProvider;
+import org.deegree.db.legacy.LegacyConnectionProvider;
+import org.deegree.protocol.ows.client.AbstractOWSClient;
+import org.deegree.protocol.ows.http.OwsHttpClient;
+import org.deegree.protocol.ows.http.OwsHttpClientImpl;
+import org.deegree.remoteows.RemoteOWS;
+import org.deegree.remoteows.RemoteOWSProvider;
+import org.deegree.workspace.ResourceIdentifier;
+import org.deegree.workspace.Workspace;
+import org.deegree.workspace.standard.DefaultResourceIdentifier;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PoolMetrics}.
+ * 
+ * @since 3.4
+ */
+public class PoolMetricsTest {
+
+    @Test
+    public void testStatementCaches() {
+        List<StatementCacheMetrics> caches = PoolMetrics.getStatementCaches( mockWorkspace() );
+        assertEquals( 1, caches.size() );
+        assertEquals( "conn1", caches.get( 0 ).getConnectionId() );
+        assertEquals( 3, caches.get( 0 ).getHits() );
+        assertEquals( 1, caches.get( 0 ).getMisses() );
+    }
+
+    @Test
+    public void testStatementCachesWithoutWorkspace() {
+        assertTrue( PoolMetrics.getStatementCaches( null ).isEmpty() );
+    }
+
+    @Test
+    public void testHttpPools() {
+        List<HttpPoolMetrics> pools = PoolMetrics.getHttpPools( mockWorkspace() );
+        assertEquals( 1, pools.size() );
+        assertEquals( "wms1", pools.get( 0 ).getRemoteOwsId() );
+        assertEquals( 2, pools.get( 0 ).getLeased() );
+        assertEquals( 1, pools.get( 0 ).getPending() );
+        assertEquals( 5, pools.get( 0 ).getAvailable() );
+        assertEquals( 40, pools.get( 0 ).getMax() );
+    }
+
+    @Test
+    public void testHttpPoolsWithoutWorkspace() {
+        assertTrue( PoolMetrics.getHttpPools( null ).isEmpty() );
+    }
+
+    @Test
+    public void testWrite() {
+        StringWriter sw = new StringWriter();
+        PoolMetrics.write( new PrintWriter( sw ), mockWorkspace() );
+        List<String> lines = asList( sw.toString().split( "\\r?\\n" ) );
+        assertTrue( lines.contains( "deegree_jdbc_statement_cache_hits_total{connection=\"conn1\"} 3" ) );
+        assertTrue( lines.contains( "deegree_jdbc_statement_cache_misses_total{connection=\"conn1\"} 1" ) );
+        assertFalse( sw.toString().contains( "conn2" ) );
+        assertTrue( lines.contains( "deegree_http_pool_connections{remote=\"wms1\",state=\"leased\"} 2" ) );
+        assertTrue( lines.contains( "deegree_http_pool_connections{remote=\"wms1\",state=\"available\"} 5" ) );
+        assertTrue( lines.contains( "deegree_http_pool_pending{remote=\"wms1\"} 1" ) );
+        assertTrue( lines.contains( "deegree_http_pool_max{remote=\"wms1\"} 40" ) );
+        assertFalse( sw.toString().contains( "wms2" ) );
+    }
+
+    private static Workspace mockWorkspace() {
+        LegacyConnectionProvider legacy = mock( LegacyConnectionProvider.class );
+        when( legacy.getStatementCacheHits() ).thenReturn( 3L );
+        when( legacy.getStatementCacheMisses() ).thenReturn( 1L );
+        // other connection provider implementations don't pool statements
+        ConnectionProvider other = mock( ConnectionProvider.class );
+
+        List<ResourceIdentifier<ConnectionProvider>> ids = new ArrayList<ResourceIdentifier<ConnectionProvider>>();
+        ids.add( new DefaultResourceIdentifier<ConnectionProvider>( ConnectionProviderProvider.class, "conn1" ) );
+        ids.add( new DefaultResourceIdentifier<ConnectionProvider>( ConnectionProviderProvider.class, "conn2" ) );
+        Workspace workspace = mock( Workspace.class );
+        when( workspace.getResourcesOfType( ConnectionProviderProvider.class ) ).thenReturn( ids );
+        when( workspace.getResource( ConnectionProviderProvider.class, "conn1" ) ).thenReturn( legacy );
+        when( workspace.getResource( ConnectionProviderProvider.class, "conn2" ) ).thenReturn( other );
+
+        OwsHttpClientImpl pooled = mock( OwsHttpClientImpl.class );
+        when( pooled.getPoolStats() ).thenReturn( new PoolStats( 2, 1, 5, 40 ) );
+        RemoteOWS wms1 = mockRemoteOws( pooled );
+        // other http client implementations are not pooled
+        RemoteOWS wms2 = mockRemoteOws( mock( OwsHttpClient.class ) );
+        List<ResourceIdentifier<RemoteOWS>> remoteIds = new ArrayList<ResourceIdentifier<RemoteOWS>>();
+        remoteIds.add( new DefaultResourceIdentifier<RemoteOWS>( RemoteOWSProvider.class, "wms1" ) );
+        remoteIds.add( new DefaultResourceIdentifier<RemoteOWS>( RemoteOWSProvider.class, "wms2" ) );
+        when( workspace.getResourcesOfType( RemoteOWSProvider.class ) ).thenReturn( remoteIds );
+        when( workspace.getResource( RemoteOWSProvider.class, "wms1" ) ).thenReturn( wms1 );
+        when( workspace.getResource( RemoteOWSProvider.class, "wms2" ) ).thenReturn( wms2 );
+        return workspace;
+    }
+
+    private static RemoteOWS mockRemoteOws( OwsHttpClient httpClient ) {
+        AbstractOWSClient<?> client = mock( AbstractOWSClient.class );
+        when( client.getHttpClient() ).thenReturn( httpClient );
+        RemoteOWS remote = mock( RemoteOWS.class );
+        doReturn( client ).when( remote ).getClient();
+        return remote;
+    }
+}
@@ -0,0 +1,135 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.controller.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RequestMetrics}, {@link LatencyHistogram} and {@link StripedCounter}.
+ * 
+ * @since 3.4
+ */
+public class RequestMetricsTest {
+
+    @Test
+    public void testStripedCounterConcurrentIncrements()
+                            throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        Thread[] threads = new Thread[8];
+        for ( int i = 0; i < threads.length; i++ ) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for ( int j = 0; j < 100000; j++ ) {
+                        counter.increment();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        assertEquals( 800000, counter.sum() );
+    }
+
+    @Test
+    public void testStripedCounterSingleStripe()
+                            throws InterruptedException {
+        final StripedCounter counter = new StripedCounter( 1 );
+        Thread[] threads = new Thread[4];
+        for ( int i = 0; i < threads.length; i++ ) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for ( int j = 0; j < 10000; j++ ) {
+                        counter.add( 2 );
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( Thread thread : threads ) {
+            thread.join();
+        }
+        assertEquals( 80000, counter.sum() );
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram( 4 );
+        histogram.record( 500000L );
+        histogram.record( 3000000L );
+        histogram.record( 3000000L );
+        histogram.record( 120000000000L );
+        long[] counts = histogram.getBucketCounts();
+        assertEquals( 1, counts[0] );
+        assertEquals( 2, counts[2] );
+        assertEquals( 1, counts[counts.length - 1] );
+        assertEquals( 4, histogram.getCount() );
+        assertEquals( 120000000, histogram.getMaxMicros() );
+        assertEquals( 5, histogram.getPercentileMillis( 0.5 ) );
+        assertEquals( 120000, histogram.getPercentileMillis( 1.0 ) );
+    }
+
+    @Test
+    public void testOperationMetricsAndExport() {
+        OperationMetrics getMap = RequestMetrics.getOperationMetrics( "testwms", "GetMap" );
+        assertSame( getMap, RequestMetrics.getOperationMetrics( "testwms", "getmap" ) );
+        long totalBefore = RequestMetrics.getTotal().getDispatched();
+
+        long start = getMap.requestDispatched();
+        assertEquals( 1, getMap.getActive() );
+        getMap.requestFinished( start );
+        assertEquals( 0, getMap.getActive() );
+        assertEquals( 1, getMap.getFinished() );
+        assertEquals( totalBefore + 1, RequestMetrics.getTotal().getDispatched() );
+
+        StringWriter sw = new StringWriter();
+        RequestMetrics.write( new PrintWriter( sw ) );
+        String text = sw.toString();
+        assertTrue( text.contains( "deegree_requests_dispatched_total{service=\"testwms\",request=\"GetMap\"} 1\n" ) );
+        String labels = "{service=\"testwms\",request=\"GetMap\"";
+        assertTrue( text.contains( "deegree_request_duration_seconds_bucket" + labels + ",le=\"+Inf\"} 1\n" ) );
+        assertTrue( text.contains( "deegree_request_duration_seconds_count" + labels + "} 1\n" ) );
+    }
+}
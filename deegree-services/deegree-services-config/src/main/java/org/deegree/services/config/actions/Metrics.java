@@ -0,0 +1,67 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree
+ Copyright (C) 2001-2013 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+ and
+ - Occam Labs UG (haftungsbeschränkt) -
+ and others
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ e-mail: info@deegree.org
+ website: http://www.deegree.org/
+----------------------------------------------------------------------------*/
+package org.deegree.services.config.actions;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.deegree.commons.config.DeegreeWorkspace;
+import org.deegree.services.controller.FrontControllerStats;
+import org.deegree.services.controller.OGCFrontController;
+import org.deegree.services.controller.metrics.PoolMetrics;
+import org.deegree.services.controller.metrics.RequestMetrics;
+import org.deegree.workspace.Workspace;
+
+/**
+ * Exports the request and pool metrics in plain text exposition format.
+ * 
+ * @since 3.4
+ */
+public class Metrics {
+
+    public static void metrics( HttpServletResponse resp )
+                            throws IOException {
+        resp.setContentType( "text/plain; version=0.0.4; charset=UTF-8" );
+        PrintWriter out = new PrintWriter( new OutputStreamWriter( resp.getOutputStream(), "UTF-8" ) );
+        RequestMetrics.write( out );
+        PoolMetrics.write( out, getWorkspace() );
+        out.println( "# HELP deegree_request_log_dropped_total Number of requests not written to the request log." );
+        out.println( "# TYPE deegree_request_log_dropped_total counter" );
+        out.println( "deegree_request_log_dropped_total " + FrontControllerStats.getDroppedLogEntries() );
+        out.flush();
+    }
+
+    private static Workspace getWorkspace() {
+        DeegreeWorkspace workspace = OGCFrontController.getServiceWorkspace();
+        return workspace == null ? null : workspace.getNewWorkspace();
+    }
+
+}
@@ -0,0 +1,203 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.config.actions;
+
+import static org.deegree.commons.utils.kvp.KVPUtils.getNormalizedKVPMap;
+import static org.deegree.services.config.actions.Utils.getWorkspaceAndPath;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.deegree.commons.config.DeegreeWorkspace;
+import org.deegree.commons.utils.ArrayUtils;
+import org.deegree.commons.utils.Pair;
+import org.deegree.geometry.Envelope;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.tile.TileDataSet;
+import org.deegree.tile.persistence.TileStore;
+import org.deegree.tile.persistence.TileStoreProvider;
+import org.deegree.tile.persistence.cache.CachingTileStore;
+import org.deegree.tile.persistence.cache.SeedingJob;
+
+/**
+ * Starts, monitors and cancels seeding jobs of caching tile stores.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class Seed {
+
+    private static final int DEFAULT_THREADS = 4;
+
+    public static void seed( String path, String qstring, HttpServletResponse resp )
+                            throws IOException {
+        resp.setContentType( "text/plain" );
+
+        Map<String, String> params = Collections.emptyMap();
+        if ( qstring != null ) {
+            params = getNormalizedKVPMap( qstring, "UTF-8" );
+        }
+
+        double[] bboxValues = null;
+        if ( params.get( "BBOX" ) != null ) {
+            bboxValues = ArrayUtils.splitAsDoubles( params.get( "BBOX" ), "," );
+            if ( bboxValues.length != 4 ) {
+                resp.setStatus( 404 );
+                IOUtils.write( "The value of the bbox parameter was invalid.\n", resp.getOutputStream() );
+                return;
+            }
+        }
+
+        int minLevel = 0;
+        int maxLevel = Integer.MAX_VALUE;
+        int threads = DEFAULT_THREADS;
+        try {
+            if ( params.get( "LEVELS" ) != null ) {
+                String[] levels = params.get( "LEVELS" ).split( "," );
+                minLevel = Integer.parseInt( levels[0].trim() );
+                maxLevel = levels.length > 1 ? Integer.parseInt( levels[1].trim() ) : minLevel;
+            }
+            if ( params.get( "THREADS" ) != null ) {
+                threads = Integer.parseInt( params.get( "THREADS" ).trim() );
+            }
+        } catch ( NumberFormatException e ) {
+            resp.setStatus( 404 );
+            IOUtils.write( "The value of the levels or threads parameter was invalid.\n", resp.getOutputStream() );
+            return;
+        }
+
+        CachingTileStore ts = getCachingTileStore( path, resp );
+        if ( ts == null ) {
+            return;
+        }
+        String tmsid = path.split( "/" )[1];
+        TileDataSet dataSet = ts.getTileDataSet( tmsid );
+        if ( dataSet == null ) {
+            resp.setStatus( 404 );
+            IOUtils.write( "No such tile matrix set.\n", resp.getOutputStream() );
+            return;
+        }
+
+        Envelope bbox = null;
+        if ( bboxValues != null ) {
+            bbox = new GeometryFactory().createEnvelope( bboxValues[0], bboxValues[1], bboxValues[2], bboxValues[3],
+                                                         null );
+            bbox.setCoordinateSystem( dataSet.getTileMatrixSet().getSpatialMetadata().getCoordinateSystems().get( 0 ) );
+        }
+
+        try {
+            SeedingJob job = ts.seed( tmsid, bbox, minLevel, maxLevel, threads );
+            IOUtils.write( "Started seeding of " + job.getTotal() + " tiles.\n", resp.getOutputStream() );
+        } catch ( IllegalArgumentException e ) {
+            resp.setStatus( 404 );
+            IOUtils.write( e.getMessage() + "\n", resp.getOutputStream() );
+        } catch ( IllegalStateException e ) {
+            // a seeding job is already running for this tile matrix set
+            resp.setStatus( HttpServletResponse.SC_CONFLICT );
+            IOUtils.write( e.getMessage() + "\n", resp.getOutputStream() );
+        }
+    }
+
+    public static void seedStatus( String path, HttpServletResponse resp )
+                            throws IOException {
+        resp.setContentType( "text/plain" );
+        SeedingJob job = getSeedingJob( path, resp );
+        if ( job != null ) {
+            IOUtils.write( job.toString() + "\n", resp.getOutputStream() );
+        }
+    }
+
+    public static void cancelSeed( String path, HttpServletResponse resp )
+                            throws IOException {
+        resp.setContentType( "text/plain" );
+        SeedingJob job = getSeedingJob( path, resp );
+        if ( job != null ) {
+            job.cancel();
+            IOUtils.write( job.toString() + "\n", resp.getOutputStream() );
+        }
+    }
+
+    private static SeedingJob getSeedingJob( String path, HttpServletResponse resp )
+                            throws IOException {
+        CachingTileStore ts = getCachingTileStore( path, resp );
+        if ( ts == null ) {
+            return null;
+        }
+        SeedingJob job = ts.getSeedingJob( path.split( "/" )[1] );
+        if ( job == null ) {
+            resp.setStatus( 404 );
+            IOUtils.write( "No seeding job for this tile matrix set.\n", resp.getOutputStream() );
+        }
+        return job;
+    }
+
+    private static CachingTileStore getCachingTileStore( String path, HttpServletResponse resp )
+                            throws IOException {
+        Pair<DeegreeWorkspace, String> p = getWorkspaceAndPath( path );
+
+        String[] ids = path.split( "/" );
+        if ( ids.length < 2 ) {
+            resp.setStatus( 404 );
+            IOUtils.write( "No tile store and tile matrix set specified.\n", resp.getOutputStream() );
+            return null;
+        }
+
+        TileStore ts = p.first.getNewWorkspace().getResource( TileStoreProvider.class, ids[0] );
+        if ( ts == null ) {
+            resp.setStatus( 404 );
+            IOUtils.write( "No such tile store.\n", resp.getOutputStream() );
+            return null;
+        }
+
+        if ( !( ts instanceof CachingTileStore ) ) {
+            resp.setStatus( 403 );
+            IOUtils.write( "The tile store is no caching tile store.\n", resp.getOutputStream() );
+            return null;
+        }
+        return (CachingTileStore) ts;
+    }
+
+}
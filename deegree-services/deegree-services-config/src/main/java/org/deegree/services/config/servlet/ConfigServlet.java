@@ -43,7 +43,11 @@ import static org.deegree.services.config.actions.Download.download;
 import static org.deegree.services.config.actions.Invalidate.invalidate;
 import static org.deegree.services.config.actions.List.list;
 import static org.deegree.services.config.actions.ListWorkspaces.listWorkspaces;
+import static org.deegree.services.config.actions.Metrics.metrics;
 import static org.deegree.services.config.actions.Restart.restart;
+import static org.deegree.services.config.actions.Seed.cancelSeed;
+import static org.deegree.services.config.actions.Seed.seed;
+import static org.deegree.services.config.actions.Seed.seedStatus;
 import static org.deegree.services.config.actions.Upload.upload;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -91,7 +95,11 @@ public class ConfigServlet extends HttpServlet {
             data.append( "GET /config/list[/path]                                      - list currently running workspace or directory in workspace\n" );
             data.append( "GET /config/list/wsname[/path]                               - list workspace with name <wsname> or directory in workspace\n" );
             data.append( "GET /config/invalidate/datasources/tile/id/matrixset[?bbox=] - invalidate part or all of a tile store cache's tile matrix set\n" );
+            data.append( "GET /config/seed/datasources/tile/id/matrixset[?bbox=&levels=&threads=] - start seeding of a tile store cache's tile matrix set\n" );
+            data.append( "GET /config/seed/status/datasources/tile/id/matrixset        - show progress of a seeding job\n" );
+            data.append( "GET /config/seed/cancel/datasources/tile/id/matrixset        - cancel a seeding job\n" );
             data.append( "GET /config/crs/list                                         - list available CRS definitions\n" );
+            data.append( "GET /config/metrics                                          - export request/pool metrics (plain text exposition format)\n" );
             data.append( "POST /config/crs/getcodes with wkt=<wkt>                     - retrieves a list of CRS codes corresponding to the WKT (POSTed KVP)\n" );
             data.append( "GET /config/crs/<code>                                       - checks if a CRS definition is available, returns true/false\n" );
             data.append( "PUT /config/upload/wsname.zip                                - upload workspace <wsname>\n" );
@@ -139,10 +147,22 @@ public class ConfigServlet extends HttpServlet {
             invalidate( path.substring( 29 ), req.getQueryString(), resp );
         }
 
+        if ( path.toLowerCase().startsWith( "/seed/status/datasources/tile/" ) ) {
+            seedStatus( path.substring( 30 ), resp );
+        } else if ( path.toLowerCase().startsWith( "/seed/cancel/datasources/tile/" ) ) {
+            cancelSeed( path.substring( 30 ), resp );
+        } else if ( path.toLowerCase().startsWith( "/seed/datasources/tile/" ) ) {
+            seed( path.substring( 23 ), req.getQueryString(), resp );
+        }
+
         if ( path.toLowerCase().startsWith( "/delete" ) ) {
             delete( path.substring( 7 ), resp );
         }
 
+        if ( path.toLowerCase().startsWith( "/metrics" ) ) {
+            metrics( resp );
+        }
+
         if ( path.toLowerCase().startsWith( "/crs/list" ) ) {
             listCrs( resp );
         } else if ( path.toLowerCase().startsWith( "/crs/getcodes" ) ) {
@@ -483,6 +483,7 @@ public class GmlGetFeatureHandler extends AbstractGmlRequestHandler {
         // retrieve and write result features
         int featuresAdded = 0;
         int featuresSkipped = 0;
+        startIndex = pushDownPaging( analyzer.getQueries(), maxFeatures, startIndex, lock );
         GmlXlinkOptions resolveState = gmlStream.getReferenceResolveStrategy().getResolveOptions();
         for ( Map.Entry<FeatureStore, List<Query>> fsToQueries : analyzer.getQueries().entrySet() ) {
             FeatureStore fs = fsToQueries.getKey();
@@ -511,6 +512,28 @@ public class GmlGetFeatureHandler extends AbstractGmlRequestHandler {
         }
     }
 
+    /**
+     * Passes max features and start index to the feature store, if the request consists of a single query and the
+     * store is able to apply them itself (e.g. using LIMIT/OFFSET in SQL).
+     * 
+     * @return number of features that still have to be skipped by the caller
+     */
+    private int pushDownPaging( Map<FeatureStore, List<Query>> fsToQueries, int maxFeatures, int startIndex,
+                                Lock lock ) {
+        if ( lock != null || fsToQueries.size() != 1 ) {
+            return startIndex;
+        }
+        Map.Entry<FeatureStore, List<Query>> entry = fsToQueries.entrySet().iterator().next();
+        Query[] queries = entry.getValue().toArray( new Query[entry.getValue().size()] );
+        if ( queries.length != 1 || !entry.getKey().isMaxFeaturesAndStartIndexApplicable( queries ) ) {
+            return startIndex;
+        }
+        LOG.debug( "Applying max features ({}) and start index ({}) in feature store.", maxFeatures, startIndex );
+        queries[0].setMaxFeatures( maxFeatures > 0 ? maxFeatures : -1 );
+        queries[0].setStartIndex( startIndex );
+        return 0;
+    }
+
     private void writeFeatureMembersCached( Version wfsVersion, GMLStreamWriter gmlStream, QueryAnalyzer analyzer,
                                             GMLVersion outputFormat, int maxFeatures, int startIndex,
                                             QName featureMemberEl, Lock lock, ResponsePagingUris responsePagingUris )
@@ -523,6 +546,7 @@ public class GmlGetFeatureHandler extends AbstractGmlRequestHandler {
         // retrieve maxfeatures features
         int featuresAdded = 0;
         int featuresSkipped = 0;
+        startIndex = pushDownPaging( analyzer.getQueries(), maxFeatures, startIndex, lock );
         for ( Map.Entry<FeatureStore, List<Query>> fsToQueries : analyzer.getQueries().entrySet() ) {
             FeatureStore fs = fsToQueries.getKey();
             Query[] queries = fsToQueries.getValue().toArray( new Query[fsToQueries.getValue().size()] );
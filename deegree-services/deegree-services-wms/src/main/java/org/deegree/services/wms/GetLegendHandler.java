@@ -49,7 +49,8 @@ import static org.deegree.style.utils.ImageUtils.postprocessPng8bit;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.deegree.commons.utils.Pair;
 import org.deegree.layer.LayerRef;
@@ -68,9 +69,9 @@ import org.deegree.style.se.unevaluated.Style;
  */
 class GetLegendHandler {
 
-    private HashMap<Style, Pair<Integer, Integer>> legendSizes = new HashMap<Style, Pair<Integer, Integer>>();
-
-    private HashMap<Style, HashMap<String, BufferedImage>> legends = new HashMap<Style, HashMap<String, BufferedImage>>();
+    // encoded legends are cached by the controller, only the (style dependent) default sizes are kept here
+    private final ConcurrentMap<Style, Pair<Integer, Integer>> legendSizes =
+                            new ConcurrentHashMap<Style, Pair<Integer, Integer>>();
 
     private MapService service;
 
@@ -97,19 +98,7 @@ class GetLegendHandler {
             req.setHeight( size.second );
         }
 
-        boolean originalSize = req.getWidth() == size.first && req.getHeight() == size.second
-                               && renderer.getLegendOptions().isDefault();
-
-        HashMap<String, BufferedImage> legendMap = legends.get( style );
-        if ( originalSize && legendMap != null && legendMap.get( req.getFormat() ) != null ) {
-            return legendMap.get( req.getFormat() );
-        }
-        if ( legendMap == null ) {
-            legendMap = new HashMap<String, BufferedImage>();
-            legends.put( style, legendMap );
-        }
-
-        return buildLegend( req, renderer, style, originalSize, legendMap );
+        return buildLegend( req, renderer, style );
     }
 
     Pair<Integer, Integer> getLegendSize( Style style ) {
@@ -118,8 +107,9 @@ class GetLegendHandler {
             return res;
         }
 
-        legendSizes.put( style, res = new Legends().getLegendSize( style ) );
-        return res;
+        res = new Legends().getLegendSize( style );
+        Pair<Integer, Integer> old = legendSizes.putIfAbsent( style, res );
+        return old == null ? res : old;
     }
 
     private Style findLegendStyle( LayerRef layer, StyleRef styleRef ) {
@@ -131,8 +121,7 @@ class GetLegendHandler {
         return style;
     }
 
-    private BufferedImage buildLegend( GetLegendGraphic req, Legends renderer, Style style, boolean originalSize,
-                                       HashMap<String, BufferedImage> legendMap ) {
+    private BufferedImage buildLegend( GetLegendGraphic req, Legends renderer, Style style ) {
         BufferedImage img = MapService.prepareImage( req );
         Graphics2D g = img.createGraphics();
         g.setRenderingHint( KEY_ANTIALIASING, VALUE_ANTIALIAS_ON );
@@ -147,9 +136,6 @@ class GetLegendHandler {
             img = postprocessPng8bit( img );
         }
 
-        if ( originalSize ) {
-            legendMap.put( req.getFormat(), img );
-        }
         return img;
     }
 
@@ -49,17 +49,18 @@ import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 
 import org.deegree.commons.annotations.LoggingNotes;
 import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.commons.utils.Pair;
 import org.deegree.feature.Feature;
 import org.deegree.feature.FeatureCollection;
-import org.deegree.feature.Features;
 import org.deegree.feature.GenericFeatureCollection;
 import org.deegree.feature.types.FeatureType;
 import org.deegree.filter.OperatorFilter;
@@ -112,6 +113,8 @@ public class MapService {
 
     private final GetLegendHandler getLegendHandler;
 
+    private final ParallelMapRenderer parallelRenderer;
+
     /**
      * @param conf
      * @param adapter
@@ -125,6 +128,7 @@ public class MapService {
         MapServiceBuilder builder = new MapServiceBuilder( conf );
 
         defaultLayerOptions = builder.buildMapOptions();
+        parallelRenderer = builder.buildParallelRenderer();
 
         if ( conf != null && conf.getThemeId() != null && !conf.getThemeId().isEmpty() ) {
             themes = new ArrayList<Theme>();
@@ -210,18 +214,22 @@ public class MapService {
 
         List<LayerData> layerDataList = checkStyleValidAndBuildLayerDataList( gm, headers, scale, queryIter );
         Iterator<MapOptions> optIter = mapOptions.iterator();
-        for ( LayerData d : layerDataList ) {
-            ctx.applyOptions( optIter.next() );
-            try {
-                d.render( ctx );
-            } catch ( InterruptedException e ) {
-                String msg = "Request time-out.";
-                throw new OWSException( msg, NO_APPLICABLE_CODE );
+        try {
+            if ( parallelRenderer != null && parallelRenderer.isApplicable( gm, layerDataList ) ) {
+                parallelRenderer.render( gm, layerDataList, optIter, scale, ctx );
+            } else {
+                for ( LayerData d : layerDataList ) {
+                    ctx.applyOptions( optIter.next() );
+                    d.render( ctx );
+                }
             }
+            ctx.optimizeAndDrawLabels();
+        } catch ( InterruptedException e ) {
+            String msg = "Request time-out.";
+            throw new OWSException( msg, NO_APPLICABLE_CODE );
+        } finally {
+            ScaleFunction.getCurrentScaleValue().remove();
         }
-        ctx.optimizeAndDrawLabels();
-
-        ScaleFunction.getCurrentScaleValue().remove();
     }
 
     private List<LayerData> checkStyleValidAndBuildLayerDataList( org.deegree.protocol.wms.ops.GetMap gm,
@@ -297,21 +305,38 @@ public class MapService {
             }
         }
 
-        List<Feature> feats = new ArrayList<Feature>( gfi.getFeatureCount() );
+        return collectFeatures( list, gfi.getFeatureCount() );
+    }
+
+    /**
+     * Queries the layer data in order and only until enough distinct features have been found.
+     * 
+     * @param list
+     *            the layer data to query, must not be <code>null</code>
+     * @param featureCount
+     *            the maximum number of features
+     * @return the distinct features, never <code>null</code>
+     */
+    static FeatureCollection collectFeatures( List<LayerData> list, int featureCount ) {
+        GenericFeatureCollection col = new GenericFeatureCollection();
+        Set<String> ids = new HashSet<String>();
         for ( LayerData d : list ) {
-            FeatureCollection col = d.info();
-            if ( col != null ) {
-                feats.addAll( col );
+            if ( col.size() >= featureCount ) {
+                break;
+            }
+            FeatureCollection feats = d.info();
+            if ( feats == null ) {
+                continue;
+            }
+            for ( Feature f : feats ) {
+                if ( ids.add( f.getId() ) ) {
+                    col.add( f );
+                    if ( col.size() >= featureCount ) {
+                        break;
+                    }
+                }
             }
         }
-
-        feats = Features.clearDuplicates( feats );
-
-        if ( feats.size() > gfi.getFeatureCount() ) {
-            feats = feats.subList( 0, gfi.getFeatureCount() );
-        }
-        GenericFeatureCollection col = new GenericFeatureCollection();
-        col.addAll( feats );
         return col;
     }
 
@@ -402,4 +427,13 @@ public class MapService {
         return updateSequence;
     }
 
+    /**
+     * Releases resources held by this map service (e.g. rendering threads).
+     */
+    public void destroy() {
+        if ( parallelRenderer != null ) {
+            parallelRenderer.destroy();
+        }
+    }
+
 }
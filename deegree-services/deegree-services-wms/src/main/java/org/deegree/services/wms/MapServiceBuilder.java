@@ -109,6 +109,18 @@ class MapServiceBuilder {
         return null;
     }
 
+    ParallelMapRenderer buildParallelRenderer() {
+        if ( conf == null || conf.getParallelRendering() == null ) {
+            return null;
+        }
+        int maxThreads = conf.getParallelRendering().getMaxThreads();
+        if ( maxThreads < 2 ) {
+            LOG.debug( "Parallel rendering configured with less than two threads, rendering layers sequentially." );
+            return null;
+        }
+        return new ParallelMapRenderer( maxThreads );
+    }
+
     private static <T extends Enum<T>> T handleDefaultValue( String val, Class<T> enumType, T defaultValue ) {
         if ( val == null ) {
             return defaultValue;
@@ -0,0 +1,278 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms;
+
+import static org.deegree.commons.ows.exception.OWSException.NO_APPLICABLE_CODE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deegree.commons.ows.exception.OWSException;
+import org.deegree.commons.utils.RequestUtils;
+import org.deegree.layer.LayerData;
+import org.deegree.protocol.wms.filter.ScaleFunction;
+import org.deegree.protocol.wms.ops.GetMap;
+import org.deegree.rendering.r2d.Label;
+import org.deegree.rendering.r2d.LabelRenderer;
+import org.deegree.rendering.r2d.context.ImageRenderContext;
+import org.deegree.rendering.r2d.context.MapOptions;
+import org.deegree.rendering.r2d.context.RenderContext;
+import org.deegree.rendering.r2d.context.RenderingInfo;
+import org.deegree.style.utils.ImageUtils;
+import org.slf4j.Logger;
+
+/**
+ * Renders the {@link LayerData} of a GetMap request concurrently, each layer into its own off-screen image, and
+ * composites the results in request order into the target {@link RenderContext}.
+ * <p>
+ * Layers are submitted in a sliding window of at most <code>maxThreads</code> layers ahead of the compositing position,
+ * so a request never holds more off-screen images than that.
+ * </p>
+ * <p>
+ * Labels collected by the off-screen contexts are handed over to the target context, so label optimization still
+ * happens once for the whole map. If the request thread is interrupted (e.g. by the request watchdog), all pending
+ * layer renderings are cancelled.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class ParallelMapRenderer {
+
+    private static final Logger LOG = getLogger( ParallelMapRenderer.class );
+
+    private static final String OFFSCREEN_FORMAT = "image/png";
+
+    private final ExecutorService executor;
+
+    private final int maxThreads;
+
+    /**
+     * @param maxThreads
+     *            maximum number of layers rendered at the same time by this service, must be positive
+     */
+    ParallelMapRenderer( int maxThreads ) {
+        this.maxThreads = maxThreads;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor( maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                                                          new LinkedBlockingQueue<Runnable>(),
+                                                          new RenderThreadFactory() );
+        pool.allowCoreThreadTimeOut( true );
+        this.executor = pool;
+        LOG.debug( "Parallel GetMap rendering enabled, using up to {} threads.", maxThreads );
+    }
+
+    /**
+     * @param gm
+     *            the request, never <code>null</code>
+     * @param layerData
+     *            the layers to render, never <code>null</code>
+     * @return true, if there is more than one layer and the requested output format can be composited from off-screen raster images
+     */
+    boolean isApplicable( GetMap gm, List<LayerData> layerData ) {
+        if ( layerData.size() < 2 ) {
+            return false;
+        }
+        String format = gm.getFormat();
+        return format != null && format.startsWith( "image/" ) && !format.startsWith( "image/svg" );
+    }
+
+    /**
+     * Renders the layers concurrently and composites them into the given context. Labels are NOT drawn, the caller
+     * must call {@link RenderContext#optimizeAndDrawLabels()} afterwards.
+     * 
+     * @param gm
+     *            the request, never <code>null</code>
+     * @param layerData
+     *            the layers to render, in drawing order, never <code>null</code>
+     * @param options
+     *            the map options to apply for each layer, never <code>null</code>
+     * @param scale
+     *            the current scale
+     * @param ctx
+     *            the target context, never <code>null</code>
+     * @throws InterruptedException
+     *             if the request thread has been interrupted (e.g. because of a request time-out)
+     * @throws OWSException
+     *             if rendering of a layer failed
+     */
+    void render( GetMap gm, List<LayerData> layerData, Iterator<MapOptions> options, double scale, RenderContext ctx )
+                            throws InterruptedException, OWSException {
+        RenderingInfo info = new RenderingInfo( OFFSCREEN_FORMAT, gm.getWidth(), gm.getHeight(), true, null,
+                                                gm.getBoundingBox(), gm.getPixelSize(), gm.getParameterMap() );
+        Map<String, String> requestParams = RequestUtils.getCurrentThreadRequestParameters().get();
+
+        List<Future<LayerImage>> futures = new ArrayList<Future<LayerImage>>( layerData.size() );
+        try {
+            Iterator<LayerData> dataIter = layerData.iterator();
+            while ( dataIter.hasNext() && futures.size() < maxThreads ) {
+                futures.add( submit( dataIter.next(), options.next(), info, scale, requestParams ) );
+            }
+            // make sure the target canvas (including background color) exists before compositing, otherwise a lazy
+            // context would adopt the first layer image as canvas
+            ctx.getVectorRenderer();
+            for ( int i = 0; i < futures.size(); ++i ) {
+                LayerImage layerImage = futures.get( i ).get();
+                // release the off-screen image as soon as it has been composited
+                futures.set( i, null );
+                ctx.applyOptions( layerImage.options );
+                ctx.paintImage( layerImage.image );
+                LabelRenderer labelRenderer = ctx.getLabelRenderer();
+                if ( labelRenderer != null && labelRenderer.getLabels() != null ) {
+                    labelRenderer.getLabels().addAll( layerImage.labels );
+                }
+                if ( dataIter.hasNext() ) {
+                    futures.add( submit( dataIter.next(), options.next(), info, scale, requestParams ) );
+                }
+            }
+        } catch ( ExecutionException e ) {
+            Throwable cause = e.getCause();
+            if ( cause instanceof InterruptedException ) {
+                throw (InterruptedException) cause;
+            }
+            LOG.trace( "Stack trace:", cause );
+            throw new OWSException( "Error rendering layer: " + cause.getMessage(), NO_APPLICABLE_CODE );
+        } finally {
+            for ( Future<LayerImage> future : futures ) {
+                if ( future != null ) {
+                    future.cancel( true );
+                }
+            }
+        }
+    }
+
+    private Future<LayerImage> submit( LayerData data, MapOptions options, RenderingInfo info, double scale,
+                                       Map<String, String> requestParams ) {
+        return executor.submit( new LayerRenderTask( data, options, info, scale, requestParams ) );
+    }
+
+    /**
+     * @return the maximum number of layers rendered concurrently
+     */
+    int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * Stops the rendering threads.
+     */
+    void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static class LayerImage {
+
+        private final BufferedImage image;
+
+        private final MapOptions options;
+
+        private final List<Label> labels;
+
+        private LayerImage( BufferedImage image, MapOptions options, List<Label> labels ) {
+            this.image = image;
+            this.options = options;
+            this.labels = labels;
+        }
+
+    }
+
+    private static class LayerRenderTask implements Callable<LayerImage> {
+
+        private final LayerData data;
+
+        private final MapOptions options;
+
+        private final RenderingInfo info;
+
+        private final double scale;
+
+        private final Map<String, String> requestParams;
+
+        private LayerRenderTask( LayerData data, MapOptions options, RenderingInfo info, double scale,
+                                 Map<String, String> requestParams ) {
+            this.data = data;
+            this.options = options;
+            this.info = info;
+            this.scale = scale;
+            this.requestParams = requestParams;
+        }
+
+        @Override
+        public LayerImage call()
+                                throws Exception {
+            ScaleFunction.getCurrentScaleValue().set( scale );
+            RequestUtils.getCurrentThreadRequestParameters().set( requestParams );
+            BufferedImage image = ImageUtils.prepareImage( OFFSCREEN_FORMAT, info.getWidth(), info.getHeight(), true,
+                                                           null );
+            RenderContext offscreen = ImageRenderContext.createInstance( info, image, null );
+            try {
+                offscreen.applyOptions( options );
+                data.render( offscreen );
+                List<Label> labels = offscreen.getLabelRenderer().getLabels();
+                return new LayerImage( image, options, labels );
+            } finally {
+                offscreen.close();
+                ScaleFunction.getCurrentScaleValue().remove();
+                RequestUtils.getCurrentThreadRequestParameters().remove();
+            }
+        }
+    }
+
+    private static class RenderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread( Runnable r ) {
+            Thread t = new Thread( r, "wms-render-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        }
+    }
+
+}
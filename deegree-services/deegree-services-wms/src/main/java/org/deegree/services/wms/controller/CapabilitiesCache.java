@@ -0,0 +1,298 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+
+package org.deegree.services.wms.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Thread safe cache of serialized capabilities documents of one protocol version.
+ * <p>
+ * Entries are keyed on format, language and the service URLs (which depend on the requested host) and are tagged with
+ * the update sequence they were generated for. As the host is chosen by the client, the cache is bounded by the total
+ * size of the cached documents as well as by their number. The cache belongs to a controller instance, so it is
+ * dropped when the service is re-created after a workspace reload.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class CapabilitiesCache {
+
+    // distinct formats, languages and host names per service are few
+    private static final int MAX_ENTRIES = 64;
+
+    // documents of services with many layers are several megabytes, plain and gzipped data are counted
+    private static final long MAX_BYTES = 32 * 1024 * 1024;
+
+    private final ConcurrentMap<String, CachedCapabilities> documents =
+                            new ConcurrentHashMap<String, CachedCapabilities>();
+
+    // size of the cached documents, approximate while documents are put and cleared concurrently
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * @param format
+     *            the content type of the document, must not be <code>null</code>
+     * @param language
+     *            the requested language, may be <code>null</code>
+     * @param getUrl
+     *            the HTTP GET URL of the service, may be <code>null</code>
+     * @param postUrl
+     *            the HTTP POST URL of the service, may be <code>null</code>
+     * @return the cache key, never <code>null</code>
+     */
+    static String getKey( String format, String language, String getUrl, String postUrl ) {
+        return format + '|' + language + '|' + normalizeUrl( getUrl ) + '|' + normalizeUrl( postUrl );
+    }
+
+    /**
+     * Lower cases scheme and host and removes the default port, so that equivalent host names requested by clients
+     * share one cache entry.
+     * 
+     * @param url
+     *            may be <code>null</code>
+     * @return the normalized url, <code>null</code> if url is <code>null</code>
+     */
+    static String normalizeUrl( String url ) {
+        if ( url == null ) {
+            return null;
+        }
+        int schemeEnd = url.indexOf( "://" );
+        if ( schemeEnd == -1 ) {
+            return url;
+        }
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while ( authorityEnd < url.length() && "/?#".indexOf( url.charAt( authorityEnd ) ) == -1 ) {
+            authorityEnd++;
+        }
+        String scheme = url.substring( 0, schemeEnd ).toLowerCase();
+        String authority = url.substring( authorityStart, authorityEnd ).toLowerCase();
+        if ( ( scheme.equals( "http" ) && authority.endsWith( ":80" ) )
+             || ( scheme.equals( "https" ) && authority.endsWith( ":443" ) ) ) {
+            authority = authority.substring( 0, authority.lastIndexOf( ':' ) );
+        }
+        return scheme + "://" + authority + url.substring( authorityEnd );
+    }
+
+    /**
+     * @param key
+     *            see {@link #getKey(String, String, String, String)}
+     * @param updateSequence
+     *            the current update sequence of the service
+     * @return the cached document, or <code>null</code> if none has been generated for the update sequence
+     */
+    CachedCapabilities get( String key, int updateSequence ) {
+        CachedCapabilities caps = documents.get( key );
+        if ( caps == null || caps.updateSequence != updateSequence ) {
+            return null;
+        }
+        return caps;
+    }
+
+    /**
+     * @param key
+     *            see {@link #getKey(String, String, String, String)}
+     * @param updateSequence
+     *            the update sequence the document has been generated for
+     * @param contentType
+     *            the content type of the document
+     * @param data
+     *            the serialized document
+     * @return the cached document, never <code>null</code>
+     * @throws IOException
+     *             if compressing the document failed
+     */
+    CachedCapabilities put( String key, int updateSequence, String contentType, byte[] data )
+                            throws IOException {
+        CachedCapabilities caps = new CachedCapabilities( updateSequence, contentType, data );
+        long size = caps.getSize();
+        if ( size > MAX_BYTES ) {
+            return caps;
+        }
+        if ( documents.size() >= MAX_ENTRIES || bytes.get() + size > MAX_BYTES ) {
+            // rarely hit, simply start over instead of tracking access order
+            clear();
+        }
+        CachedCapabilities old = documents.put( key, caps );
+        bytes.addAndGet( old == null ? size : size - old.getSize() );
+        return caps;
+    }
+
+    /**
+     * Removes all cached documents.
+     */
+    void clear() {
+        documents.clear();
+        bytes.set( 0 );
+    }
+
+    /**
+     * @return the number of bytes held by the cached documents (plain and gzipped)
+     */
+    long getSize() {
+        return bytes.get();
+    }
+
+    /**
+     * @param request
+     *            may be <code>null</code>
+     * @return true, if the client accepts gzip content encoding
+     */
+    static boolean acceptsGzip( HttpServletRequest request ) {
+        if ( request == null ) {
+            return false;
+        }
+        String acceptEncoding = request.getHeader( "Accept-Encoding" );
+        if ( acceptEncoding == null ) {
+            return false;
+        }
+        for ( String coding : acceptEncoding.split( "," ) ) {
+            String[] parts = coding.trim().split( ";" );
+            if ( parts[0].trim().equalsIgnoreCase( "gzip" ) ) {
+                for ( int i = 1; i < parts.length; i++ ) {
+                    String param = parts[i].trim().replace( " ", "" );
+                    if ( param.matches( "q=0(\\.0*)?" ) ) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A serialized capabilities document with its gzip compressed variant and entity tag.
+     */
+    static class CachedCapabilities {
+
+        private final int updateSequence;
+
+        private final String contentType;
+
+        private final byte[] data;
+
+        private final byte[] gzipped;
+
+        private final String etag;
+
+        private final String gzipEtag;
+
+        CachedCapabilities( int updateSequence, String contentType, byte[] data ) throws IOException {
+            this.updateSequence = updateSequence;
+            this.contentType = contentType;
+            this.data = data;
+            ByteArrayOutputStream bos = new ByteArrayOutputStream( data.length / 8 + 64 );
+            GZIPOutputStream gos = new GZIPOutputStream( bos );
+            gos.write( data );
+            gos.close();
+            this.gzipped = bos.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update( data );
+            String tag = updateSequence + "-" + Long.toHexString( crc.getValue() ) + "-"
+                         + Integer.toHexString( data.length );
+            this.etag = "\"" + tag + "\"";
+            // the gzipped representation has different bytes, so it needs its own strong entity tag
+            this.gzipEtag = "\"" + tag + "-gz\"";
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+
+        byte[] getGzippedData() {
+            return gzipped;
+        }
+
+        long getSize() {
+            return data.length + gzipped.length;
+        }
+
+        /**
+         * @param gzipped
+         *            true, if the entity tag of the gzipped representation is requested
+         * @return the quoted entity tag, never <code>null</code>
+         */
+        String getETag( boolean gzipped ) {
+            return gzipped ? gzipEtag : etag;
+        }
+
+        /**
+         * @param request
+         *            may be <code>null</code>
+         * @param gzipped
+         *            true, if the gzipped representation would be sent
+         * @return true, if the <code>If-None-Match</code> header of the request matches this representation
+         */
+        boolean isNotModified( HttpServletRequest request, boolean gzipped ) {
+            if ( request == null ) {
+                return false;
+            }
+            String ifNoneMatch = request.getHeader( "If-None-Match" );
+            if ( ifNoneMatch == null ) {
+                return false;
+            }
+            for ( String candidate : ifNoneMatch.split( "," ) ) {
+                candidate = candidate.trim();
+                if ( candidate.startsWith( "W/" ) ) {
+                    // weak comparison, as required for If-None-Match
+                    candidate = candidate.substring( 2 );
+                }
+                if ( candidate.equals( "*" ) || candidate.equals( getETag( gzipped ) ) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,178 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2009 by:
+ Department of Geography, University of Bonn
+ and
+ lat/lon GmbH
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+
+package org.deegree.services.wms.controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.deegree.protocol.wms.ops.GetLegendGraphic;
+import org.deegree.rendering.r2d.legends.LegendOptions;
+
+/**
+ * Bounded, thread safe cache of encoded GetLegendGraphic responses.
+ * <p>
+ * Entries are keyed on layer, style, format, size and legend options of the request (as sent by the client). The cache
+ * belongs to a controller instance, so it is dropped whenever the service is re-created because a style, layer or
+ * theme it depends on has been reloaded in the workspace.
+ * </p>
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+class LegendCache {
+
+    private static final int MAX_ENTRIES = 512;
+
+    private final ConcurrentMap<String, EncodedLegend> legends = new ConcurrentHashMap<String, EncodedLegend>();
+
+    /**
+     * @param req
+     *            must not be <code>null</code> and not yet be modified by the legend renderer
+     * @return the cache key of the request, never <code>null</code>
+     */
+    static String getKey( GetLegendGraphic req ) {
+        LegendOptions opts = req.getLegendOptions();
+        StringBuilder sb = new StringBuilder();
+        sb.append( req.getLayer().getName() ).append( '|' ).append( req.getStyle().getName() ).append( '|' );
+        sb.append( req.getFormat() ).append( '|' ).append( req.getWidth() ).append( 'x' ).append( req.getHeight() );
+        sb.append( '|' ).append( opts.baseWidth ).append( ',' ).append( opts.baseHeight ).append( ',' );
+        sb.append( opts.textSize ).append( ',' ).append( opts.spacing );
+        return sb.toString();
+    }
+
+    /**
+     * @param key
+     *            see {@link #getKey(GetLegendGraphic)}
+     * @return the cached legend, or <code>null</code>
+     */
+    EncodedLegend get( String key ) {
+        return legends.get( key );
+    }
+
+    /**
+     * @param key
+     *            see {@link #getKey(GetLegendGraphic)}
+     * @param format
+     *            the mime type of the data
+     * @param data
+     *            the encoded image
+     * @return the cached legend (may be one concurrently put by another thread), never <code>null</code>
+     */
+    EncodedLegend put( String key, String format, byte[] data ) {
+        EncodedLegend legend = new EncodedLegend( format, data );
+        if ( legends.size() >= MAX_ENTRIES ) {
+            // rarely hit, simply start over instead of tracking access order
+            legends.clear();
+        }
+        EncodedLegend old = legends.putIfAbsent( key, legend );
+        return old == null ? legend : old;
+    }
+
+    /**
+     * Removes all cached legends.
+     */
+    void clear() {
+        legends.clear();
+    }
+
+    /**
+     * An encoded legend image with its entity tag.
+     */
+    static class EncodedLegend {
+
+        private final String format;
+
+        private final byte[] data;
+
+        private final String etag;
+
+        EncodedLegend( String format, byte[] data ) {
+            this.format = format;
+            this.data = data;
+            CRC32 crc = new CRC32();
+            crc.update( data );
+            this.etag = "\"" + Long.toHexString( crc.getValue() ) + "-" + Integer.toHexString( data.length ) + "\"";
+        }
+
+        String getFormat() {
+            return format;
+        }
+
+        byte[] getData() {
+            return data;
+        }
+
+        /**
+         * @return the quoted entity tag, never <code>null</code>
+         */
+        String getETag() {
+            return etag;
+        }
+
+        /**
+         * @param request
+         *            may be <code>null</code>
+         * @return true, if the <code>If-None-Match</code> header of the request matches this legend
+         */
+        boolean isNotModified( HttpServletRequest request ) {
+            if ( request == null ) {
+                return false;
+            }
+            String ifNoneMatch = request.getHeader( "If-None-Match" );
+            if ( ifNoneMatch == null ) {
+                return false;
+            }
+            for ( String candidate : ifNoneMatch.split( "," ) ) {
+                candidate = candidate.trim();
+                if ( candidate.startsWith( "W/" ) ) {
+                    // weak comparison, as required for If-None-Match
+                    candidate = candidate.substring( 2 );
+                }
+                if ( candidate.equals( "*" ) || candidate.equals( etag ) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -37,6 +37,7 @@
 package org.deegree.services.wms.controller;
 
 import static javax.imageio.ImageIO.write;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.deegree.commons.ows.exception.OWSException.OPERATION_NOT_SUPPORTED;
 import static org.deegree.commons.utils.ArrayUtils.join;
 import static org.deegree.commons.utils.CollectionUtils.getStringJoiner;
@@ -155,6 +156,7 @@ import org.deegree.services.jaxb.wms.ServiceConfigurationType;
 import org.deegree.services.metadata.OWSMetadataProvider;
 import org.deegree.services.metadata.provider.OWSMetadataProviderProvider;
 import org.deegree.services.wms.MapService;
+import org.deegree.services.wms.controller.LegendCache.EncodedLegend;
 import org.deegree.services.wms.controller.capabilities.serialize.CapabilitiesManager;
 import org.deegree.services.wms.controller.exceptions.ExceptionsManager;
 import org.deegree.services.wms.controller.plugins.DefaultOutputFormatProvider;
@@ -183,6 +185,8 @@ public class WMSController extends AbstractOWS {
 
     private final HashMap<String, ImageSerializer> imageSerializers = new HashMap<String, ImageSerializer>();
 
+    private final LegendCache legendCache = new LegendCache();
+
     /** The list of supported image formats. */
     private final LinkedList<String> supportedImageFormats = new LinkedList<String>();
 
@@ -352,7 +356,7 @@ public class WMSController extends AbstractOWS {
         }
 
         try {
-            handleRequest( req, response, map, version );
+            handleRequest( req, request, response, map, version );
         } catch ( OWSException e ) {
             if ( controllers.get( version ) == null ) {
                 // happens if non capabilities request is made with unsupported version
@@ -366,8 +370,8 @@ public class WMSController extends AbstractOWS {
         }
     }
 
-    private void handleRequest( WMSRequestType req, HttpResponseBuffer response, Map<String, String> map,
-                                Version version )
+    private void handleRequest( WMSRequestType req, HttpServletRequest request, HttpResponseBuffer response,
+                                Map<String, String> map, Version version )
                             throws IOException, OWSException {
         try {
             switch ( req ) {
@@ -387,7 +391,7 @@ public class WMSController extends AbstractOWS {
                                         OPERATION_NOT_SUPPORTED );
             case capabilities:
             case GetCapabilities:
-                getCapabilities( map, response );
+                getCapabilities( map, request, response );
                 break;
             case GetFeatureInfo:
                 getFeatureInfo( map, response, version );
@@ -400,7 +404,7 @@ public class WMSController extends AbstractOWS {
                 getFeatureInfoSchema( map, response );
                 break;
             case GetLegendGraphic:
-                getLegendGraphic( map, response );
+                getLegendGraphic( map, request, response );
                 break;
             case DTD:
                 getDtd( response );
@@ -438,15 +442,28 @@ public class WMSController extends AbstractOWS {
         }
     }
 
-    private void getLegendGraphic( Map<String, String> map, HttpResponseBuffer response )
+    private void getLegendGraphic( Map<String, String> map, HttpServletRequest request, HttpResponseBuffer response )
                             throws OWSException, IOException {
         GetLegendGraphic glg = new GetLegendGraphic( map );
 
         if ( !supportedImageFormats.contains( glg.getFormat() ) ) {
             throw new OWSException( get( "WMS.UNSUPPORTED_IMAGE_FORMAT", glg.getFormat() ), OWSException.INVALID_FORMAT );
         }
-        BufferedImage img = service.getLegend( glg );
-        sendImage( img, response, glg.getFormat() );
+        String key = LegendCache.getKey( glg );
+        EncodedLegend legend = legendCache.get( key );
+        if ( legend == null ) {
+            BufferedImage img = service.getLegend( glg );
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            encodeImage( img, out, glg.getFormat() );
+            legend = legendCache.put( key, glg.getFormat(), out.toByteArray() );
+        }
+        response.setHeader( "ETag", legend.getETag() );
+        if ( legend.isNotModified( request ) ) {
+            response.setStatus( SC_NOT_MODIFIED );
+            return;
+        }
+        response.setContentType( legend.getFormat() );
+        response.getOutputStream().write( legend.getData() );
     }
 
     private void getFeatureInfo( Map<String, String> map, final HttpResponseBuffer response, Version version )
@@ -557,7 +574,7 @@ public class WMSController extends AbstractOWS {
         getMapLimitChecker.checkRequestedSizeAndLayerCount( gm, conf );
     }
 
-    protected void getCapabilities( Map<String, String> map, HttpResponseBuffer response )
+    protected void getCapabilities( Map<String, String> map, HttpServletRequest request, HttpResponseBuffer response )
                             throws OWSException, IOException {
         String version = map.get( "VERSION" );
         // not putting it into the bean, why should I? It's used just a few lines below...
@@ -567,7 +584,7 @@ public class WMSController extends AbstractOWS {
             version = map.get( "WMTVER" );
         }
         GetCapabilities req = new GetCapabilities( version );
-        doGetCapabilities( map, response, updateSequence, req );
+        doGetCapabilities( map, request, response, updateSequence, req );
     }
 
     @Override
@@ -586,7 +603,8 @@ public class WMSController extends AbstractOWS {
                 getCapabilitiesXMLAdapter.setRootElement( new XMLAdapter( xmlStream ).getRootElement() );
                 GetCapabilities getCapabilities = getCapabilitiesXMLAdapter.parse( requestVersion );
                 String updateSequence = getCapabilities.getUpdateSequence();
-                doGetCapabilities( new HashMap<String, String>(), response, updateSequence, getCapabilities );
+                doGetCapabilities( new HashMap<String, String>(), request, response, updateSequence,
+                                   getCapabilities );
                 break;
             case GetMap:
                 GetMapParser getMapParser = new GetMapParser();
@@ -640,7 +658,9 @@ public class WMSController extends AbstractOWS {
                     getCapabilitiesXMLAdapter.setRootElement( body );
                     GetCapabilities getCapabilities = getCapabilitiesXMLAdapter.parse( requestVersion );
                     String updateSequence = getCapabilities.getUpdateSequence();
-                    doGetCapabilities( new HashMap<String, String>(), response, updateSequence, getCapabilities );
+                    // embedded into the SOAP envelope
+                    doGetCapabilities( new HashMap<String, String>(), null, response, updateSequence,
+                                       getCapabilities );
                     break;
                 case GetFeatureInfo:
                     GetFeatureInfoParser getFeatureInfoParser = new GetFeatureInfoParser();
@@ -681,10 +701,14 @@ public class WMSController extends AbstractOWS {
     public void sendImage( BufferedImage img, HttpResponseBuffer response, String format )
                             throws OWSException, IOException {
         response.setContentType( format );
+        encodeImage( img, response.getOutputStream(), format );
+    }
 
+    private void encodeImage( BufferedImage img, OutputStream out, String format )
+                            throws OWSException, IOException {
         ImageSerializer serializer = imageSerializers.get( format );
         if ( serializer != null ) {
-            serializer.serialize( img, response.getOutputStream() );
+            serializer.serialize( img, out );
             return;
         }
 
@@ -697,7 +721,7 @@ public class WMSController extends AbstractOWS {
             format = "png";
         }
         LOG.debug( "Sending in format " + format );
-        if ( !write( img, format, response.getOutputStream() ) ) {
+        if ( !write( img, format, out ) ) {
             throw new OWSException( get( "WMS.CANNOT_ENCODE_IMAGE", format ), OWSException.NO_APPLICABLE_CODE );
         }
     }
@@ -778,8 +802,8 @@ public class WMSController extends AbstractOWS {
         validateAndSetOfferedVersions( versions );
     }
 
-    private void doGetCapabilities( Map<String, String> map, HttpResponseBuffer response, String updateSequence,
-                                    GetCapabilities req )
+    private void doGetCapabilities( Map<String, String> map, HttpServletRequest request, HttpResponseBuffer response,
+                                    String updateSequence, GetCapabilities req )
                             throws OWSException, IOException {
         Version myVersion = negotiateVersion( req );
 
@@ -787,13 +811,13 @@ public class WMSController extends AbstractOWS {
         String postUrl = OGCFrontController.getHttpPostURL();
 
         if ( metadataProvider != null ) {
-            controllers.get( myVersion ).getCapabilities( getUrl, postUrl, updateSequence, service, response,
-                                                          metadataProvider.getServiceIdentification(),
+            controllers.get( myVersion ).getCapabilities( getUrl, postUrl, updateSequence, service, request,
+                                                          response, metadataProvider.getServiceIdentification(),
                                                           metadataProvider.getServiceProvider(), map, this,
                                                           metadataProvider );
         } else {
-            controllers.get( myVersion ).getCapabilities( getUrl, postUrl, updateSequence, service, response,
-                                                          identification, provider, map, this, null );
+            controllers.get( myVersion ).getCapabilities( getUrl, postUrl, updateSequence, service, request,
+                                                          response, identification, provider, map, this, null );
         }
 
         response.flushBuffer(); // TODO remove this to enable validation, enable validation on a DTD basis...
@@ -1123,6 +1147,9 @@ public class WMSController extends AbstractOWS {
          * @param postUrl
          * @param updateSequence
          * @param service
+         * @param request
+         *            used for conditional and compressed responses, may be <code>null</code> (the document is then
+         *            appended to the XML writer of the response, e.g. inside a SOAP envelope)
          * @param response
          * @param identification
          * @param provider
@@ -1132,8 +1159,9 @@ public class WMSController extends AbstractOWS {
          * @throws IOException
          */
         void getCapabilities( String getUrl, String postUrl, String updateSequence, MapService service,
-                              HttpResponseBuffer response, ServiceIdentification identification,
-                              ServiceProvider provider, Map<String, String> customParameters, WMSController controller,
+                              HttpServletRequest request, HttpResponseBuffer response,
+                              ServiceIdentification identification, ServiceProvider provider,
+                              Map<String, String> customParameters, WMSController controller,
                               OWSMetadataProvider metadata )
                                 throws OWSException, IOException;
 
@@ -1147,7 +1175,13 @@ public class WMSController extends AbstractOWS {
 
     @Override
     public void destroy() {
-        // nothing to do
+        legendCache.clear();
+        for ( WMSControllerBase controller : controllers.values() ) {
+            controller.clearCapabilitiesCache();
+        }
+        if ( service != null ) {
+            service.destroy();
+        }
     }
 
 }
@@ -40,10 +40,12 @@ import static org.deegree.commons.ows.exception.OWSException.INVALID_SRS;
 import static org.deegree.services.i18n.Messages.get;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.servlet.ServletException;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -51,6 +53,7 @@ import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.commons.ows.metadata.ServiceIdentification;
 import org.deegree.commons.ows.metadata.ServiceProvider;
 import org.deegree.commons.tom.ows.Version;
+import org.deegree.commons.xml.stax.IndentingXMLStreamWriter;
 import org.deegree.protocol.wms.WMSConstants;
 import org.deegree.services.controller.OGCFrontController;
 import org.deegree.services.controller.utils.HttpResponseBuffer;
@@ -99,22 +102,34 @@ public class WMSController111 extends WMSControllerBase {
     }
 
     @Override
-    protected void exportCapas( String getUrl, String postUrl, MapService service, HttpResponseBuffer response,
-                                ServiceIdentification identification, ServiceProvider provider,
-                                Map<String, String> customParameters, WMSController controller,
-                                OWSMetadataProvider metadata )
-                            throws IOException, OWSException {
-        response.setContentType( "application/vnd.ogc.wms_xml" );
+    protected String getCapabilitiesFormat( Map<String, String> customParameters ) {
+        return "application/vnd.ogc.wms_xml";
+    }
+
+    @Override
+    protected void setCapabilitiesHeaders( HttpResponseBuffer response, String format ) {
+        response.setContentType( format );
         String userAgent = OGCFrontController.getContext().getUserAgent();
 
         if ( userAgent != null && userAgent.toLowerCase().contains( "mozilla" ) ) {
             response.setContentType( "application/xml" );
         }
-
+        response.setXMLCharacterEncoding();
         response.addHeader( "Content-Disposition", "inline; filename=\"capabilities.xml\"" );
+    }
+
+    @Override
+    protected void exportCapas( String getUrl, String postUrl, MapService service, OutputStream out, String format,
+                                ServiceIdentification identification, ServiceProvider provider,
+                                WMSController controller, OWSMetadataProvider metadata )
+                            throws IOException, OWSException {
         try {
-            XMLStreamWriter xmlWriter = response.getXMLWriter();
+            XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter( out, "UTF-8" );
+            xmlWriter = new IndentingXMLStreamWriter( xmlWriter );
+            xmlWriter.writeStartDocument( "UTF-8", "1.0" );
             new Capabilities111XMLAdapter( identification, provider, metadata, getUrl, postUrl, service, controller ).export( xmlWriter );
+            xmlWriter.writeEndDocument();
+            xmlWriter.close();
         } catch ( XMLStreamException e ) {
             throw new IOException( e );
         }
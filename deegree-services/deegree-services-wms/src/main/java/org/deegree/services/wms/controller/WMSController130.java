@@ -42,6 +42,7 @@ import static org.deegree.services.i18n.Messages.get;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 import javax.servlet.ServletException;
@@ -53,6 +54,7 @@ import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.commons.ows.metadata.ServiceIdentification;
 import org.deegree.commons.ows.metadata.ServiceProvider;
 import org.deegree.commons.tom.ows.Version;
+import org.deegree.commons.xml.stax.IndentingXMLStreamWriter;
 import org.deegree.protocol.wms.WMSConstants;
 import org.deegree.services.controller.utils.HttpResponseBuffer;
 import org.deegree.services.metadata.OWSMetadataProvider;
@@ -104,25 +106,39 @@ public class WMSController130 extends WMSControllerBase {
     }
 
     @Override
-    protected void exportCapas( String getUrl, String postUrl, MapService service, HttpResponseBuffer response,
-                                ServiceIdentification identification, ServiceProvider provider,
-                                Map<String, String> customParameters, WMSController controller,
-                                OWSMetadataProvider metadata )
-                            throws IOException, OWSException {
-        String format = detectFormat( customParameters );
+    protected String getCapabilitiesFormat( Map<String, String> customParameters )
+                            throws OWSException {
+        return detectFormat( customParameters );
+    }
+
+    @Override
+    protected void setCapabilitiesHeaders( HttpResponseBuffer response, String format ) {
         response.setContentType( format );
+        if ( TEXT_XML_FORMAT.equals( format ) ) {
+            response.setXMLCharacterEncoding();
+        }
+    }
 
+    @Override
+    protected void exportCapas( String getUrl, String postUrl, MapService service, OutputStream out, String format,
+                                ServiceIdentification identification, ServiceProvider provider,
+                                WMSController controller, OWSMetadataProvider metadata )
+                            throws IOException, OWSException {
         try {
             if ( TEXT_XML_FORMAT.equals( format ) ) {
-                XMLStreamWriter xmlWriter = response.getXMLWriter();
+                XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter( out, "UTF-8" );
+                xmlWriter = new IndentingXMLStreamWriter( xmlWriter );
+                xmlWriter.writeStartDocument( "UTF-8", "1.0" );
                 new Capabilities130XMLAdapter( identification, provider, metadata, getUrl, postUrl, service, controller ).export( xmlWriter );
+                xmlWriter.writeEndDocument();
+                xmlWriter.close();
             } else {
                 ByteArrayOutputStream stream = new ByteArrayOutputStream();
                 XMLStreamWriter xmlWriter = XMLOutputFactory.newInstance().createXMLStreamWriter( stream );
                 new Capabilities130XMLAdapter( identification, provider, metadata, getUrl, postUrl, service, controller ).export( xmlWriter );
                 xmlWriter.close();
                 capabilitiesManager.serializeCapabilities( format, new ByteArrayInputStream( stream.toByteArray() ),
-                                                           response.getOutputStream() );
+                                                           out );
             }
         } catch ( XMLStreamException e ) {
             throw new IOException( e );
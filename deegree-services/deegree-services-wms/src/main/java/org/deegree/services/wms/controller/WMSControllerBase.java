@@ -36,15 +36,24 @@
 package org.deegree.services.wms.controller;
 
 import static java.lang.Integer.parseInt;
-import static javax.xml.stream.XMLOutputFactory.IS_REPAIRING_NAMESPACES;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.xml.stream.XMLInputFactory.SUPPORT_DTD;
+import static org.deegree.commons.xml.stax.XMLStreamUtils.copy;
 import static org.deegree.services.i18n.Messages.get;
+import static org.deegree.services.wms.controller.CapabilitiesCache.acceptsGzip;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 import javax.servlet.ServletException;
-import javax.xml.stream.XMLOutputFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.commons.ows.metadata.ServiceIdentification;
@@ -55,6 +64,7 @@ import org.deegree.services.controller.exception.serializer.XMLExceptionSerializ
 import org.deegree.services.controller.utils.HttpResponseBuffer;
 import org.deegree.services.metadata.OWSMetadataProvider;
 import org.deegree.services.wms.MapService;
+import org.deegree.services.wms.controller.CapabilitiesCache.CachedCapabilities;
 import org.deegree.services.wms.controller.WMSController.Controller;
 import org.deegree.services.wms.controller.exceptions.ExceptionsManager;
 import org.deegree.services.wms.controller.exceptions.SerializingException;
@@ -80,6 +90,8 @@ public abstract class WMSControllerBase implements Controller {
 
     private final ExceptionsManager exceptionsManager;
 
+    private final CapabilitiesCache capabilitiesCache = new CapabilitiesCache();
+
     public WMSControllerBase( ExceptionsManager exceptionsManager ) {
         this.exceptionsManager = exceptionsManager;
     }
@@ -95,19 +107,21 @@ public abstract class WMSControllerBase implements Controller {
 
     @Override
     public void getCapabilities( String getUrl, String postUrl, String updateSequence, MapService service,
-                                 HttpResponseBuffer response, ServiceIdentification identification,
-                                 ServiceProvider provider, Map<String, String> customParameters,
-                                 WMSController controller, OWSMetadataProvider metadata )
+                                 HttpServletRequest request, HttpResponseBuffer response,
+                                 ServiceIdentification identification, ServiceProvider provider,
+                                 Map<String, String> customParameters, WMSController controller,
+                                 OWSMetadataProvider metadata )
                             throws OWSException, IOException {
         getUrl = getUrl.substring( 0, getUrl.length() - 1 );
+        int currentUpdateSequence = service.getCurrentUpdateSequence();
         if ( updateSequence != null && updateSequence.trim().length() > 0 ) {
             try {
                 int seq = parseInt( updateSequence );
-                if ( seq > service.getCurrentUpdateSequence() ) {
+                if ( seq > currentUpdateSequence ) {
                     throw new OWSException( get( "WMS.INVALID_UPDATE_SEQUENCE", updateSequence ),
                                             OWSException.INVALID_UPDATE_SEQUENCE );
                 }
-                if ( seq == service.getCurrentUpdateSequence() ) {
+                if ( seq == currentUpdateSequence ) {
                     throw new OWSException( get( "WMS.CURRENT_UPDATE_SEQUENCE" ), OWSException.CURRENT_UPDATE_SEQUENCE );
                 }
             } catch ( NumberFormatException e ) {
@@ -116,16 +130,93 @@ public abstract class WMSControllerBase implements Controller {
             }
         }
 
-        XMLOutputFactory factory = XMLOutputFactory.newInstance();
-        factory.setProperty( IS_REPAIRING_NAMESPACES, true );
-        exportCapas( getUrl, postUrl, service, response, identification, provider, customParameters, controller,
-                     metadata );
+        String format = getCapabilitiesFormat( customParameters );
+        String key = CapabilitiesCache.getKey( format, customParameters.get( "LANGUAGE" ), getUrl, postUrl );
+        CachedCapabilities caps = capabilitiesCache.get( key, currentUpdateSequence );
+        if ( caps == null ) {
+            LOG.debug( "Generating capabilities document for {}.", key );
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exportCapas( getUrl, postUrl, service, out, format, identification, provider, controller, metadata );
+            caps = capabilitiesCache.put( key, currentUpdateSequence, format, out.toByteArray() );
+        }
+
+        if ( request == null ) {
+            appendCapabilities( caps, response );
+            return;
+        }
+        setCapabilitiesHeaders( response, format );
+        boolean gzip = acceptsGzip( request );
+        response.setHeader( "ETag", caps.getETag( gzip ) );
+        response.addHeader( "Vary", "Accept-Encoding" );
+        if ( caps.isNotModified( request, gzip ) ) {
+            response.setStatus( SC_NOT_MODIFIED );
+            return;
+        }
+        if ( gzip ) {
+            response.setHeader( "Content-Encoding", "gzip" );
+            response.getOutputStream().write( caps.getGzippedData() );
+        } else {
+            response.getOutputStream().write( caps.getData() );
+        }
+    }
+
+    /**
+     * Drops all cached capabilities documents.
+     */
+    void clearCapabilitiesCache() {
+        capabilitiesCache.clear();
     }
 
-    protected abstract void exportCapas( String getUrl, String postUrl, MapService service,
-                                         HttpResponseBuffer response, ServiceIdentification identification,
-                                         ServiceProvider provider, Map<String, String> customParameters,
-                                         WMSController controller, OWSMetadataProvider metadata )
+    // appends the document to the already started XML response (e.g. a SOAP body)
+    private void appendCapabilities( CachedCapabilities caps, HttpResponseBuffer response )
+                            throws IOException {
+        try {
+            ByteArrayInputStream in = new ByteArrayInputStream( caps.getData() );
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty( SUPPORT_DTD, false );
+            XMLStreamReader reader = factory.createXMLStreamReader( in );
+            try {
+                copy( response.getXMLWriter(), reader );
+            } finally {
+                reader.close();
+            }
+        } catch ( XMLStreamException e ) {
+            throw new IOException( e );
+        }
+    }
+
+    /**
+     * @param customParameters
+     *            the request parameters, never <code>null</code>
+     * @return the (content type of the) capabilities document to produce, never <code>null</code>
+     * @throws OWSException
+     *             if the requested format is not supported
+     */
+    protected abstract String getCapabilitiesFormat( Map<String, String> customParameters )
+                            throws OWSException;
+
+    /**
+     * Sets the content type and further headers of a capabilities response.
+     * 
+     * @param response
+     *            never <code>null</code>
+     * @param format
+     *            as returned by {@link #getCapabilitiesFormat(Map)}
+     */
+    protected abstract void setCapabilitiesHeaders( HttpResponseBuffer response, String format );
+
+    /**
+     * Writes the complete capabilities document.
+     * 
+     * @param out
+     *            stream to write the document to, never <code>null</code>
+     * @param format
+     *            as returned by {@link #getCapabilitiesFormat(Map)}
+     */
+    protected abstract void exportCapas( String getUrl, String postUrl, MapService service, OutputStream out,
+                                         String format, ServiceIdentification identification,
+                                         ServiceProvider provider, WMSController controller,
+                                         OWSMetadataProvider metadata )
                             throws IOException, OWSException;
 
     protected abstract Version getVersion();
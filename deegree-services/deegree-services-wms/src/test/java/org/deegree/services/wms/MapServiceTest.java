@@ -0,0 +1,121 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deegree.feature.Feature;
+import org.deegree.feature.FeatureCollection;
+import org.deegree.feature.GenericFeatureCollection;
+import org.deegree.layer.LayerData;
+import org.junit.Test;
+
+/**
+ * Tests for the feature collection of {@link MapService#getFeatures}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class MapServiceTest {
+
+    @Test
+    public void testCollectFeaturesStopsAtFeatureCount() {
+        LayerData first = layerData( "a", "b" );
+        LayerData second = layerData( "c", "d" );
+        LayerData third = layerData( "e" );
+        List<LayerData> list = Arrays.asList( first, second, third );
+
+        FeatureCollection col = MapService.collectFeatures( list, 3 );
+
+        assertEquals( Arrays.asList( "a", "b", "c" ), ids( col ) );
+        verify( first ).info();
+        verify( second ).info();
+        verify( third, never() ).info();
+    }
+
+    @Test
+    public void testCollectFeaturesSkipsDuplicatesAndMissingResults() {
+        LayerData first = layerData( "a", "b", "a" );
+        LayerData empty = mock( LayerData.class );
+        LayerData second = layerData( "b", "c" );
+        List<LayerData> list = Arrays.asList( first, empty, second );
+
+        FeatureCollection col = MapService.collectFeatures( list, 10 );
+
+        assertEquals( Arrays.asList( "a", "b", "c" ), ids( col ) );
+        verify( empty ).info();
+    }
+
+    @Test
+    public void testCollectFeaturesWithFullFirstLayer() {
+        LayerData first = layerData( "a", "b" );
+        LayerData second = layerData( "c" );
+
+        FeatureCollection col = MapService.collectFeatures( Arrays.asList( first, second ), 2 );
+
+        assertEquals( Arrays.asList( "a", "b" ), ids( col ) );
+        verify( second, never() ).info();
+    }
+
+    private static LayerData layerData( String... ids ) {
+        FeatureCollection col = new GenericFeatureCollection();
+        for ( String id : ids ) {
+            Feature f = mock( Feature.class );
+            when( f.getId() ).thenReturn( id );
+            col.add( f );
+        }
+        LayerData data = mock( LayerData.class );
+        when( data.info() ).thenReturn( col );
+        return data;
+    }
+
+    private static List<String> ids( FeatureCollection col ) {
+        List<String> ids = new ArrayList<String>();
+        for ( Feature f : col ) {
+            ids.add( f.getId() );
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,208 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms;
+
+import static java.awt.Color.BLUE;
+import static java.awt.Color.RED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.deegree.feature.FeatureCollection;
+import org.deegree.geometry.GeometryFactory;
+import org.deegree.layer.LayerData;
+import org.deegree.protocol.wms.ops.GetMap;
+import org.deegree.rendering.r2d.context.ImageRenderContext;
+import org.deegree.rendering.r2d.context.MapOptions;
+import org.deegree.rendering.r2d.context.MapOptions.Antialias;
+import org.deegree.rendering.r2d.context.MapOptions.Interpolation;
+import org.deegree.rendering.r2d.context.MapOptions.Quality;
+import org.deegree.rendering.r2d.context.RenderContext;
+import org.deegree.rendering.r2d.context.RenderingInfo;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for {@link ParallelMapRenderer}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class ParallelMapRendererTest {
+
+    private static final int SIZE = 4;
+
+    private ParallelMapRenderer renderer;
+
+    @After
+    public void destroy() {
+        renderer.destroy();
+    }
+
+    @Test
+    public void compositesInRequestOrder()
+                            throws Exception {
+        renderer = new ParallelMapRenderer( 2 );
+        List<LayerData> layers = new ArrayList<LayerData>();
+        // the bottom layer finishes last, but must still be painted first
+        layers.add( new ColorLayer( RED, SIZE, 100, null ) );
+        layers.add( new ColorLayer( BLUE, SIZE / 2, 0, null ) );
+
+        BufferedImage target = new BufferedImage( SIZE, SIZE, BufferedImage.TYPE_INT_ARGB );
+        RenderingInfo info = new RenderingInfo( "image/png", SIZE, SIZE, true, null, createGetMap().getBoundingBox(),
+                                                0.28, new HashMap<String, String>() );
+        RenderContext ctx = ImageRenderContext.createInstance( info, target, null );
+        renderer.render( createGetMap(), layers, options( layers.size() ).iterator(), 1, ctx );
+        ctx.close();
+
+        assertEquals( BLUE.getRGB(), target.getRGB( 0, 0 ) );
+        assertEquals( RED.getRGB(), target.getRGB( SIZE - 1, 0 ) );
+    }
+
+    @Test
+    public void limitsImagesInFlight()
+                            throws Exception {
+        renderer = new ParallelMapRenderer( 2 );
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger composited = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        InFlightCounter counter = new InFlightCounter() {
+            @Override
+            public void started() {
+                int inFlight = started.incrementAndGet() - composited.get();
+                synchronized ( maxInFlight ) {
+                    maxInFlight.set( Math.max( maxInFlight.get(), inFlight ) );
+                }
+            }
+        };
+        List<LayerData> layers = new ArrayList<LayerData>();
+        for ( int i = 0; i < 8; ++i ) {
+            layers.add( new ColorLayer( RED, SIZE, 0, counter ) );
+        }
+
+        // compositing is slow, so rendering would run far ahead without a bound
+        RenderContext ctx = mock( RenderContext.class );
+        doAnswer( new Answer<Void>() {
+            @Override
+            public Void answer( InvocationOnMock invocation )
+                                    throws Throwable {
+                Thread.sleep( 20 );
+                composited.incrementAndGet();
+                return null;
+            }
+        } ).when( ctx ).paintImage( any( BufferedImage.class ) );
+
+        renderer.render( createGetMap(), layers, options( layers.size() ).iterator(), 1, ctx );
+
+        assertEquals( 8, composited.get() );
+        assertTrue( "Too many layer images in flight: " + maxInFlight.get(), maxInFlight.get() <= 2 );
+    }
+
+    private static GetMap createGetMap() {
+        GetMap gm = mock( GetMap.class );
+        when( gm.getWidth() ).thenReturn( SIZE );
+        when( gm.getHeight() ).thenReturn( SIZE );
+        when( gm.getFormat() ).thenReturn( "image/png" );
+        when( gm.getPixelSize() ).thenReturn( 0.28 );
+        when( gm.getBoundingBox() ).thenReturn( new GeometryFactory().createEnvelope( 0, 0, SIZE, SIZE, null ) );
+        when( gm.getParameterMap() ).thenReturn( new HashMap<String, String>() );
+        return gm;
+    }
+
+    private static List<MapOptions> options( int count ) {
+        MapOptions opts = new MapOptions( Quality.NORMAL, Interpolation.NEARESTNEIGHBOR, Antialias.NONE, -1, -1 );
+        return Collections.nCopies( count, opts );
+    }
+
+    private interface InFlightCounter {
+        void started();
+    }
+
+    // fills the left part of the image with a color
+    private static class ColorLayer implements LayerData {
+
+        private final Color color;
+
+        private final int width;
+
+        private final long delay;
+
+        private final InFlightCounter counter;
+
+        ColorLayer( Color color, int width, long delay, InFlightCounter counter ) {
+            this.color = color;
+            this.width = width;
+            this.delay = delay;
+            this.counter = counter;
+        }
+
+        @Override
+        public void render( RenderContext context )
+                                throws InterruptedException {
+            if ( counter != null ) {
+                counter.started();
+            }
+            Thread.sleep( delay );
+            BufferedImage img = new BufferedImage( SIZE, SIZE, BufferedImage.TYPE_INT_ARGB );
+            Graphics2D g = img.createGraphics();
+            g.setColor( color );
+            g.fillRect( 0, 0, width, SIZE );
+            g.dispose();
+            context.paintImage( img );
+        }
+
+        @Override
+        public FeatureCollection info() {
+            return null;
+        }
+
+    }
+
+}
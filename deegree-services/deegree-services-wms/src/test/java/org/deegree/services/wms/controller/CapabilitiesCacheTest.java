@@ -0,0 +1,208 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.deegree.services.wms.controller.CapabilitiesCache.CachedCapabilities;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CapabilitiesCache}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class CapabilitiesCacheTest {
+
+    private final CapabilitiesCache cache = new CapabilitiesCache();
+
+    @Test
+    public void keyDependsOnFormatLanguageAndUrls() {
+        String key = CapabilitiesCache.getKey( "text/xml", null, "http://a/wms", "http://a/wms" );
+        assertEquals( key, CapabilitiesCache.getKey( "text/xml", null, "http://a/wms", "http://a/wms" ) );
+        assertNotEquals( key, CapabilitiesCache.getKey( "text/html", null, "http://a/wms", "http://a/wms" ) );
+        assertNotEquals( key, CapabilitiesCache.getKey( "text/xml", "de", "http://a/wms", "http://a/wms" ) );
+        assertNotEquals( key, CapabilitiesCache.getKey( "text/xml", null, "http://b/wms", "http://b/wms" ) );
+    }
+
+    @Test
+    public void keyIgnoresHostCaseAndDefaultPort() {
+        String key = CapabilitiesCache.getKey( "text/xml", null, "http://a/wms?", "https://a/wms" );
+        assertEquals( key, CapabilitiesCache.getKey( "text/xml", null, "HTTP://A:80/wms?", "https://A:443/wms" ) );
+        assertNotEquals( key, CapabilitiesCache.getKey( "text/xml", null, "http://a:8080/wms?", "https://a/wms" ) );
+        assertNotEquals( key, CapabilitiesCache.getKey( "text/xml", null, "http://a/WMS?", "https://a/wms" ) );
+        assertNull( CapabilitiesCache.normalizeUrl( null ) );
+        assertEquals( "/wms", CapabilitiesCache.normalizeUrl( "/wms" ) );
+    }
+
+    @Test
+    public void sizeIsBounded()
+                            throws IOException {
+        // random data does not compress, so each document takes about 20 of the 32 megabytes
+        CachedCapabilities first = cache.put( "first", 0, "text/xml", randomBytes( 10 * 1024 * 1024 ) );
+        assertEquals( first.getSize(), cache.getSize() );
+        CachedCapabilities second = cache.put( "second", 0, "text/xml", randomBytes( 10 * 1024 * 1024 ) );
+        assertNull( cache.get( "first", 0 ) );
+        assertSame( second, cache.get( "second", 0 ) );
+        assertEquals( second.getSize(), cache.getSize() );
+        cache.clear();
+        assertEquals( 0, cache.getSize() );
+    }
+
+    @Test
+    public void replacedDocumentIsNotCountedTwice()
+                            throws IOException {
+        cache.put( "key", 0, "text/xml", new byte[] { 1, 2, 3 } );
+        CachedCapabilities caps = cache.put( "key", 1, "text/xml", new byte[] { 1, 2, 3, 4 } );
+        assertEquals( caps.getSize(), cache.getSize() );
+    }
+
+    @Test
+    public void oversizedDocumentIsNotCached()
+                            throws IOException {
+        CachedCapabilities small = cache.put( "small", 0, "text/xml", new byte[] { 1, 2, 3 } );
+        CachedCapabilities huge = cache.put( "huge", 0, "text/xml", randomBytes( 17 * 1024 * 1024 ) );
+        assertNull( cache.get( "huge", 0 ) );
+        assertSame( small, cache.get( "small", 0 ) );
+        assertEquals( small.getSize(), cache.getSize() );
+        assertEquals( 17 * 1024 * 1024, huge.getData().length );
+    }
+
+    @Test
+    public void getChecksUpdateSequence()
+                            throws IOException {
+        CachedCapabilities caps = cache.put( "key", 3, "text/xml", new byte[] { 1, 2, 3 } );
+        assertSame( caps, cache.get( "key", 3 ) );
+        assertEquals( "text/xml", caps.getContentType() );
+        assertNull( cache.get( "key", 4 ) );
+        assertNull( cache.get( "otherKey", 3 ) );
+        cache.clear();
+        assertNull( cache.get( "key", 3 ) );
+    }
+
+    @Test
+    public void gzippedDataMatchesData()
+                            throws IOException {
+        byte[] data = "<WMS_Capabilities version=\"1.3.0\"/>".getBytes( "UTF-8" );
+        CachedCapabilities caps = cache.put( "key", 0, "text/xml", data );
+        assertArrayEquals( data, gunzip( caps.getGzippedData() ) );
+    }
+
+    @Test
+    public void eTagDependsOnUpdateSequence()
+                            throws IOException {
+        byte[] data = new byte[] { 1, 2, 3 };
+        assertNotEquals( cache.put( "key", 0, "text/xml", data ).getETag( false ),
+                         cache.put( "key", 1, "text/xml", data ).getETag( false ) );
+    }
+
+    @Test
+    public void gzippedRepresentationHasOwnETag()
+                            throws IOException {
+        CachedCapabilities caps = cache.put( "key", 0, "text/xml", new byte[] { 1, 2, 3 } );
+        assertNotEquals( caps.getETag( false ), caps.getETag( true ) );
+        assertTrue( caps.getETag( true ).startsWith( "\"" ) && caps.getETag( true ).endsWith( "-gz\"" ) );
+        assertFalse( caps.isNotModified( request( "If-None-Match", caps.getETag( false ) ), true ) );
+        assertFalse( caps.isNotModified( request( "If-None-Match", caps.getETag( true ) ), false ) );
+        assertTrue( caps.isNotModified( request( "If-None-Match", caps.getETag( true ) ), true ) );
+    }
+
+    @Test
+    public void isNotModified()
+                            throws IOException {
+        CachedCapabilities caps = cache.put( "key", 0, "text/xml", new byte[] { 1, 2, 3 } );
+        assertFalse( caps.isNotModified( null, false ) );
+        assertFalse( caps.isNotModified( request( "If-None-Match", null ), false ) );
+        assertFalse( caps.isNotModified( request( "If-None-Match", "\"other\"" ), false ) );
+        assertTrue( caps.isNotModified( request( "If-None-Match", caps.getETag( false ) ), false ) );
+        assertTrue( caps.isNotModified( request( "If-None-Match", "\"other\", W/" + caps.getETag( false ) ), false ) );
+        assertTrue( caps.isNotModified( request( "If-None-Match", "*" ), false ) );
+    }
+
+    @Test
+    public void acceptsGzip() {
+        assertFalse( CapabilitiesCache.acceptsGzip( null ) );
+        assertFalse( CapabilitiesCache.acceptsGzip( request( "Accept-Encoding", null ) ) );
+        assertFalse( CapabilitiesCache.acceptsGzip( request( "Accept-Encoding", "deflate" ) ) );
+        assertFalse( CapabilitiesCache.acceptsGzip( request( "Accept-Encoding", "gzip;q=0" ) ) );
+        assertTrue( CapabilitiesCache.acceptsGzip( request( "Accept-Encoding", "gzip" ) ) );
+        assertTrue( CapabilitiesCache.acceptsGzip( request( "Accept-Encoding", "deflate, GZIP;q=0.5" ) ) );
+    }
+
+    private static byte[] randomBytes( int length ) {
+        byte[] data = new byte[length];
+        new Random( 4711 ).nextBytes( data );
+        return data;
+    }
+
+    private static byte[] gunzip( byte[] data )
+                            throws IOException {
+        InputStream in = new GZIPInputStream( new ByteArrayInputStream( data ) );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int read;
+        while ( ( read = in.read( buf ) ) != -1 ) {
+            out.write( buf, 0, read );
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static HttpServletRequest request( String header, String value ) {
+        HttpServletRequest request = mock( HttpServletRequest.class );
+        when( request.getHeader( header ) ).thenReturn( value );
+        return request;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2014 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.deegree.commons.ows.exception.OWSException;
+import org.deegree.protocol.wms.ops.GetLegendGraphic;
+import org.deegree.services.wms.controller.LegendCache.EncodedLegend;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LegendCache}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class LegendCacheTest {
+
+    private final LegendCache cache = new LegendCache();
+
+    @Test
+    public void keyDependsOnFormatSizeAndOptions()
+                            throws OWSException {
+        String key = LegendCache.getKey( request( "image/png", null, null ) );
+        assertEquals( key, LegendCache.getKey( request( "image/png", null, null ) ) );
+        assertNotEquals( key, LegendCache.getKey( request( "image/gif", null, null ) ) );
+        assertNotEquals( key, LegendCache.getKey( request( "image/png", "WIDTH", "100" ) ) );
+        assertNotEquals( key, LegendCache.getKey( request( "image/png", "TEXTSIZE", "20" ) ) );
+    }
+
+    @Test
+    public void putAndGet() {
+        byte[] data = new byte[] { 1, 2, 3 };
+        EncodedLegend legend = cache.put( "key", "image/png", data );
+        assertSame( legend, cache.get( "key" ) );
+        assertArrayEquals( data, legend.getData() );
+        assertEquals( "image/png", legend.getFormat() );
+        assertNull( cache.get( "otherKey" ) );
+        cache.clear();
+        assertNull( cache.get( "key" ) );
+    }
+
+    @Test
+    public void putKeepsExistingEntry() {
+        EncodedLegend legend = cache.put( "key", "image/png", new byte[] { 1 } );
+        assertSame( legend, cache.put( "key", "image/png", new byte[] { 2 } ) );
+    }
+
+    @Test
+    public void isNotModified() {
+        EncodedLegend legend = cache.put( "key", "image/png", new byte[] { 1, 2, 3 } );
+        assertFalse( legend.isNotModified( null ) );
+        assertFalse( legend.isNotModified( requestWithETag( null ) ) );
+        assertFalse( legend.isNotModified( requestWithETag( "\"other\"" ) ) );
+        assertTrue( legend.isNotModified( requestWithETag( legend.getETag() ) ) );
+        assertTrue( legend.isNotModified( requestWithETag( "\"other\", W/" + legend.getETag() ) ) );
+        assertTrue( legend.isNotModified( requestWithETag( "*" ) ) );
+    }
+
+    private static GetLegendGraphic request( String format, String param, String value )
+                            throws OWSException {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put( "LAYER", "layer" );
+        map.put( "FORMAT", format );
+        if ( param != null ) {
+            map.put( param, value );
+        }
+        return new GetLegendGraphic( map );
+    }
+
+    private static HttpServletRequest requestWithETag( String etag ) {
+        HttpServletRequest request = mock( HttpServletRequest.class );
+        when( request.getHeader( "If-None-Match" ) ).thenReturn( etag );
+        return request;
+    }
+
+}
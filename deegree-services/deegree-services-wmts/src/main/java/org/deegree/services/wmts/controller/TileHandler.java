@@ -41,6 +41,7 @@
 
 package org.deegree.services.wmts.controller;
 
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.io.IOUtils.copy;
 import static org.deegree.commons.ows.exception.OWSException.INVALID_PARAMETER_VALUE;
@@ -52,6 +53,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
 
 import org.deegree.commons.ows.exception.OWSException;
 import org.deegree.layer.Layer;
@@ -60,6 +62,7 @@ import org.deegree.protocol.wmts.ops.GetTile;
 import org.deegree.services.controller.utils.HttpResponseBuffer;
 import org.deegree.theme.Theme;
 import org.deegree.theme.Themes;
+import org.deegree.tile.CacheableTile;
 import org.deegree.tile.Tile;
 import org.deegree.tile.TileDataLevel;
 import org.deegree.tile.TileDataSet;
@@ -88,13 +91,13 @@ class TileHandler {
         }
     }
 
-    void getTile( Map<String, String> map, HttpResponseBuffer response )
+    void getTile( Map<String, String> map, HttpServletRequest request, HttpResponseBuffer response )
                             throws OWSException, ServletException {
         GetTile op = new GetTile( map );
-        getTile( op, response );
+        getTile( op, request, response );
     }
 
-    private void getTile( final GetTile op, final HttpResponseBuffer response )
+    private void getTile( final GetTile op, final HttpServletRequest request, final HttpResponseBuffer response )
                             throws OWSException, ServletException {
         final TileLayer layer = layers.get( op.getLayer() );
         if ( layer == null ) {
@@ -134,6 +137,12 @@ class TileHandler {
             throw new OWSException( "No such tile found.", INVALID_PARAMETER_VALUE );
         }
 
+        if ( t instanceof CacheableTile && isNotModified( (CacheableTile) t, request ) ) {
+            response.setStatus( SC_NOT_MODIFIED );
+            setValidators( (CacheableTile) t, response );
+            return;
+        }
+
         InputStream in = null;
         try {
             in = t.getAsStream();
@@ -141,7 +150,13 @@ class TileHandler {
                 throw new OWSException( "Tile yielded no data.", NO_APPLICABLE_CODE );
             }
             response.setContentType( format );
+            if ( t instanceof CacheableTile ) {
+                // validators of lazily filled tiles are known only after the data has been accessed
+                setValidators( (CacheableTile) t, response );
+            }
             copy( in, response.getOutputStream() );
+        } catch ( OWSException e ) {
+            throw e;
         } catch ( Throwable e ) {
             throw new OWSException( e.getMessage(), e, NO_APPLICABLE_CODE );
         } finally {
@@ -149,4 +164,55 @@ class TileHandler {
         }
     }
 
+    /**
+     * Evaluates the conditional request headers (<code>If-None-Match</code> takes precedence over
+     * <code>If-Modified-Since</code>, see RFC 7232) against the validators of the tile.
+     */
+    private static boolean isNotModified( CacheableTile tile, HttpServletRequest request ) {
+        if ( request == null ) {
+            return false;
+        }
+        String ifNoneMatch = request.getHeader( "If-None-Match" );
+        if ( ifNoneMatch != null ) {
+            String etag = tile.getEntityTag();
+            if ( etag == null ) {
+                return false;
+            }
+            for ( String candidate : ifNoneMatch.split( "," ) ) {
+                candidate = candidate.trim();
+                if ( candidate.equals( "*" ) || candidate.equals( quote( etag ) ) ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long lastModified = tile.getLastModified();
+        if ( lastModified < 0 ) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader( "If-Modified-Since" );
+        } catch ( IllegalArgumentException e ) {
+            return false;
+        }
+        // HTTP dates have a resolution of seconds
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static void setValidators( CacheableTile tile, HttpResponseBuffer response ) {
+        String etag = tile.getEntityTag();
+        if ( etag != null ) {
+            response.setHeader( "ETag", quote( etag ) );
+        }
+        long lastModified = tile.getLastModified();
+        if ( lastModified >= 0 ) {
+            response.setDateHeader( "Last-Modified", lastModified );
+        }
+    }
+
+    private static String quote( String etag ) {
+        return "\"" + etag + "\"";
+    }
+
 }
@@ -0,0 +1,215 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+
+package org.deegree.services.wmts.controller;
+
+import static java.util.Collections.singletonList;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.deegree.layer.Layer;
+import org.deegree.layer.metadata.LayerMetadata;
+import org.deegree.layer.persistence.tile.TileLayer;
+import org.deegree.services.controller.utils.HttpResponseBuffer;
+import org.deegree.theme.Theme;
+import org.deegree.tile.CacheableTile;
+import org.deegree.tile.TileDataLevel;
+import org.deegree.tile.TileDataSet;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the conditional GET handling of {@link TileHandler}.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class TileHandlerTest {
+
+    private static final byte[] TILE = { 1, 2, 3 };
+
+    private static final String ETAG = "m_0_0-1a2b";
+
+    // 2014-01-01 00:00:00.500 UTC, not on a full second like HTTP dates
+    private static final long LAST_MODIFIED = 1388534400500l;
+
+    private TileHandler handler;
+
+    private HttpServletRequest request;
+
+    private HttpResponseBuffer response;
+
+    private ByteArrayOutputStream body;
+
+    @Before
+    public void setup()
+                            throws IOException {
+        CacheableTile tile = mock( CacheableTile.class );
+        when( tile.getAsStream() ).thenReturn( new ByteArrayInputStream( TILE ) );
+        when( tile.getEntityTag() ).thenReturn( ETAG );
+        when( tile.getLastModified() ).thenReturn( LAST_MODIFIED );
+
+        TileDataLevel level = mock( TileDataLevel.class );
+        when( level.getTile( 0, 0 ) ).thenReturn( tile );
+        TileDataSet dataSet = mock( TileDataSet.class );
+        when( dataSet.getNativeImageFormat() ).thenReturn( "image/png" );
+        when( dataSet.getTileDataLevel( "m" ) ).thenReturn( level );
+
+        LayerMetadata md = mock( LayerMetadata.class );
+        when( md.getName() ).thenReturn( "layer" );
+        TileLayer layer = mock( TileLayer.class );
+        when( layer.getMetadata() ).thenReturn( md );
+        when( layer.getTileDataSet( "tms" ) ).thenReturn( dataSet );
+        Theme theme = mock( Theme.class );
+        when( theme.getLayers() ).thenReturn( Collections.<Layer> singletonList( layer ) );
+        when( theme.getThemes() ).thenReturn( Collections.<Theme> emptyList() );
+        handler = new TileHandler( singletonList( theme ) );
+
+        request = mock( HttpServletRequest.class );
+        when( request.getDateHeader( "If-Modified-Since" ) ).thenReturn( -1l );
+
+        body = new ByteArrayOutputStream();
+        response = mock( HttpResponseBuffer.class );
+        when( response.getOutputStream() ).thenReturn( new ServletOutputStream() {
+            @Override
+            public void write( int b ) {
+                body.write( b );
+            }
+        } );
+    }
+
+    @Test
+    public void testUnconditionalRequest()
+                            throws Exception {
+        handler.getTile( getTileKvp(), request, response );
+        assertArrayEquals( TILE, body.toByteArray() );
+        verify( response ).setHeader( "ETag", "\"" + ETAG + "\"" );
+        verify( response ).setDateHeader( "Last-Modified", LAST_MODIFIED );
+        verify( response, never() ).setStatus( anyInt() );
+    }
+
+    @Test
+    public void testIfNoneMatchMatching()
+                            throws Exception {
+        when( request.getHeader( "If-None-Match" ) ).thenReturn( "\"other\", \"" + ETAG + "\"" );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response ).setStatus( SC_NOT_MODIFIED );
+        verify( response ).setHeader( "ETag", "\"" + ETAG + "\"" );
+        verify( response, never() ).getOutputStream();
+    }
+
+    @Test
+    public void testIfNoneMatchWildcard()
+                            throws Exception {
+        when( request.getHeader( "If-None-Match" ) ).thenReturn( "*" );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response ).setStatus( SC_NOT_MODIFIED );
+    }
+
+    @Test
+    public void testIfNoneMatchTakesPrecedenceOverIfModifiedSince()
+                            throws Exception {
+        when( request.getHeader( "If-None-Match" ) ).thenReturn( "\"other\"" );
+        when( request.getDateHeader( "If-Modified-Since" ) ).thenReturn( LAST_MODIFIED + 60000 );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response, never() ).setStatus( anyInt() );
+        assertArrayEquals( TILE, body.toByteArray() );
+    }
+
+    @Test
+    public void testIfModifiedSinceSameSecond()
+                            throws Exception {
+        // HTTP dates are truncated to seconds
+        when( request.getDateHeader( "If-Modified-Since" ) ).thenReturn( LAST_MODIFIED - 500 );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response ).setStatus( SC_NOT_MODIFIED );
+        verify( response ).setDateHeader( "Last-Modified", LAST_MODIFIED );
+        verify( response, never() ).getOutputStream();
+    }
+
+    @Test
+    public void testIfModifiedSinceOlder()
+                            throws Exception {
+        when( request.getDateHeader( "If-Modified-Since" ) ).thenReturn( LAST_MODIFIED - 1500 );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response, never() ).setStatus( anyInt() );
+        assertArrayEquals( TILE, body.toByteArray() );
+    }
+
+    @Test
+    public void testInvalidIfModifiedSince()
+                            throws Exception {
+        when( request.getDateHeader( "If-Modified-Since" ) ).thenThrow( new IllegalArgumentException() );
+        handler.getTile( getTileKvp(), request, response );
+        verify( response, never() ).setStatus( anyInt() );
+        assertArrayEquals( TILE, body.toByteArray() );
+    }
+
+    private static Map<String, String> getTileKvp() {
+        Map<String, String> kvp = new HashMap<String, String>();
+        kvp.put( "VERSION", "1.0.0" );
+        kvp.put( "LAYER", "layer" );
+        kvp.put( "STYLE", "default" );
+        kvp.put( "FORMAT", "image/png" );
+        kvp.put( "TILEMATRIXSET", "tms" );
+        kvp.put( "TILEMATRIX", "m" );
+        kvp.put( "TILEROW", "0" );
+        kvp.put( "TILECOL", "0" );
+        return kvp;
+    }
+
+}
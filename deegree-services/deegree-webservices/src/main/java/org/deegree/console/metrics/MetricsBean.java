@@ -0,0 +1,81 @@
+/*----------------------------------------------------------------------------
+ This file is part of deegree
+ Copyright (C) 2001-2013 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+ and
+ - Occam Labs UG (haftungsbeschränkt) -
+ and others
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ e-mail: info@deegree.org
+ website: http://www.deegree.org/
+----------------------------------------------------------------------------*/
+package org.deegree.console.metrics;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.faces.bean.ManagedBean;
+import javax.faces.bean.RequestScoped;
+
+import org.deegree.commons.config.DeegreeWorkspace;
+import org.deegree.services.controller.FrontControllerStats;
+import org.deegree.services.controller.OGCFrontController;
+import org.deegree.services.controller.metrics.HttpPoolMetrics;
+import org.deegree.services.controller.metrics.OperationMetrics;
+import org.deegree.services.controller.metrics.PoolMetrics;
+import org.deegree.services.controller.metrics.RequestMetrics;
+import org.deegree.services.controller.metrics.StatementCacheMetrics;
+import org.deegree.workspace.Workspace;
+
+/**
+ * Backing bean for the request metrics view.
+ * 
+ * @since 3.4
+ */
+@ManagedBean
+@RequestScoped
+public class MetricsBean implements Serializable {
+
+    private static final long serialVersionUID = -2306447813563364424L;
+
+    public List<OperationMetrics> getOperations() {
+        return RequestMetrics.getOperations();
+    }
+
+    public OperationMetrics getTotal() {
+        return RequestMetrics.getTotal();
+    }
+
+    public long getDroppedLogEntries() {
+        return FrontControllerStats.getDroppedLogEntries();
+    }
+
+    public List<StatementCacheMetrics> getStatementCaches() {
+        return PoolMetrics.getStatementCaches( getWorkspace() );
+    }
+
+    public List<HttpPoolMetrics> getHttpPools() {
+        return PoolMetrics.getHttpPools( getWorkspace() );
+    }
+
+    private static Workspace getWorkspace() {
+        DeegreeWorkspace workspace = OGCFrontController.getServiceWorkspace();
+        return workspace == null ? null : workspace.getNewWorkspace();
+    }
+}
@@ -0,0 +1,283 @@
+//$HeadURL$
+/*----------------------------------------------------------------------------
+ This file is part of deegree, http://deegree.org/
+ Copyright (C) 2001-2010 by:
+ - Department of Geography, University of Bonn -
+ and
+ - lat/lon GmbH -
+
+ This library is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Lesser General Public License as published by the Free
+ Software Foundation; either version 2.1 of the License, or (at your option)
+ any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ details.
+ You should have received a copy of the GNU Lesser General Public License
+ along with this library; if not, write to the Free Software Foundation, Inc.,
+ 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+
+ Contact information:
+
+ lat/lon GmbH
+ Aennchenstr. 19, 53177 Bonn
+ Germany
+ http://lat-lon.de/
+
+ Department of Geography, University of Bonn
+ Prof. Dr. Klaus Greve
+ Postfach 1147, 53001 Bonn
+ Germany
+ http://www.geographie.uni-bonn.de/deegree/
+
+ Occam Labs UG (haftungsbeschränkt)
+ Godesberger Allee 139, 53175 Bonn
+ Germany
+ http://www.occamlabs.de/
+
+ e-mail: info@deegree.org
+ ----------------------------------------------------------------------------*/
+package org.deegree.services.wms;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.deegree.feature.FeatureCollection;
+import org.deegree.geometry.Envelope;
+import org.deegree.layer.persistence.tile.TileLayerData;
+import org.deegree.rendering.r2d.context.ImageRenderContext;
+import org.deegree.rendering.r2d.context.RenderContext;
+import org.deegree.rendering.r2d.context.RenderingInfo;
+import org.deegree.tile.Tile;
+import org.deegree.tile.TileDataLevel;
+import org.deegree.tile.TileDataSet;
+import org.deegree.tile.TileIOException;
+import org.deegree.tile.persistence.TileStore;
+import org.deegree.tile.persistence.TileStoreProvider;
+import org.deegree.tile.persistence.TileStoreTransaction;
+import org.deegree.workspace.Workspace;
+import org.deegree.workspace.standard.DefaultWorkspace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks serial and concurrent tile fetching of {@link TileLayerData} for a 2048x1280 map (40 tiles) backed by a
+ * file system tile store. Instead of comparing timings, the tiles record how many fetches are in flight at the same
+ * time and which threads perform them.
+ * 
+ * @author last edited by: $Author$
+ * 
+ * @version $Revision$, $Date$
+ */
+public class TileLayerDataPerformanceTest {
+
+    private static final int TILE_SIZE = 256;
+
+    private static final int COLS = 8;
+
+    private static final int ROWS = 5;
+
+    private static final int MAX_CONCURRENT_FETCHES = 4;
+
+    private File dir;
+
+    private Workspace workspace;
+
+    private TileDataLevel level;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private final Set<String> fetchThreads = Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+
+    @Before
+    public void setup()
+                            throws IOException, URISyntaxException {
+        dir = File.createTempFile( "tileworkspace", "" );
+        dir.delete();
+        File template = new File( TileLayerDataPerformanceTest.class.getResource( "tileworkspace" ).toURI() );
+        FileUtils.copyDirectory( template, dir );
+        workspace = new DefaultWorkspace( dir );
+        workspace.initAll();
+
+        TileStore store = workspace.getResource( TileStoreProvider.class, "grid" );
+        TileDataSet set = store.getTileDataSet( "grid" );
+        level = set.getTileDataLevels().get( 0 );
+        String matrixId = level.getMetadata().getIdentifier();
+        TileStoreTransaction ta = store.acquireTransaction( "grid" );
+        for ( int x = 0; x < COLS; ++x ) {
+            for ( int y = 0; y < ROWS; ++y ) {
+                BufferedImage img = new BufferedImage( TILE_SIZE, TILE_SIZE, TYPE_INT_ARGB );
+                Graphics2D g = img.createGraphics();
+                g.setColor( getColor( x, y ) );
+                g.fillRect( 0, 0, TILE_SIZE, TILE_SIZE );
+                g.dispose();
+                ta.put( matrixId, new ImageTile( img ), x, y );
+            }
+        }
+    }
+
+    @After
+    public void tearDown()
+                            throws IOException {
+        workspace.destroy();
+        FileUtils.deleteDirectory( dir );
+    }
+
+    @Test
+    public void testSerialFetch()
+                            throws Exception {
+        render( 1, null );
+        assertEquals( 1, maxActive.get() );
+        assertEquals( Collections.singleton( Thread.currentThread().getName() ), fetchThreads );
+    }
+
+    @Test
+    public void testConcurrentFetchesOverlap()
+                            throws Exception {
+        // the first fetches block until the configured number of fetches is in flight
+        CountDownLatch gate = new CountDownLatch( MAX_CONCURRENT_FETCHES );
+        render( MAX_CONCURRENT_FETCHES, gate );
+        assertEquals( "Fetches did not overlap.", 0, gate.getCount() );
+        assertEquals( MAX_CONCURRENT_FETCHES, maxActive.get() );
+        for ( String thread : fetchThreads ) {
+            assertTrue( "Tile fetched on thread " + thread + ".", thread.startsWith( "tile-fetch-" ) );
+        }
+    }
+
+    private void render( int maxConcurrentFetches, CountDownLatch gate )
+                            throws InterruptedException {
+        int width = COLS * TILE_SIZE;
+        int height = ROWS * TILE_SIZE;
+        Envelope bbox = level.getMetadata().getSpatialMetadata().getEnvelope();
+        RenderingInfo info = new RenderingInfo( "image/png", width, height, true, null, bbox, 0.28, null );
+        BufferedImage image = new BufferedImage( width, height, TYPE_INT_ARGB );
+        RenderContext ctx = ImageRenderContext.createInstance( info, image, null );
+        List<Tile> tiles = new ArrayList<Tile>();
+        for ( int x = 0; x < COLS; ++x ) {
+            for ( int y = 0; y < ROWS; ++y ) {
+                tiles.add( new ObservedTile( level.getTile( x, y ), gate ) );
+            }
+        }
+        new TileLayerData( tiles.iterator(), maxConcurrentFetches ).render( ctx );
+        ctx.close();
+        // make sure every tile has been drawn in place
+        for ( int x = 0; x < COLS; ++x ) {
+            for ( int y = 0; y < ROWS; ++y ) {
+                int rgb = image.getRGB( x * TILE_SIZE + TILE_SIZE / 2, y * TILE_SIZE + TILE_SIZE / 2 );
+                assertEquals( "Tile " + x + "/" + y, getColor( x, y ).getRGB(), rgb );
+            }
+        }
+    }
+
+    private static Color getColor( int x, int y ) {
+        return new Color( x * 30, y * 50, 128 );
+    }
+
+    /**
+     * Records concurrency of the fetches, optionally blocking the first fetches until enough fetches are in flight.
+     */
+    private class ObservedTile implements Tile {
+
+        private final Tile tile;
+
+        private final CountDownLatch gate;
+
+        private ObservedTile( Tile tile, CountDownLatch gate ) {
+            this.tile = tile;
+            this.gate = gate;
+        }
+
+        @Override
+        public BufferedImage getAsImage()
+                                throws TileIOException {
+            fetchThreads.add( Thread.currentThread().getName() );
+            int current = active.incrementAndGet();
+            try {
+                int max = maxActive.get();
+                while ( current > max && !maxActive.compareAndSet( max, current ) ) {
+                    max = maxActive.get();
+                }
+                if ( gate != null ) {
+                    gate.countDown();
+                    gate.await( 10, TimeUnit.SECONDS );
+                }
+                return tile.getAsImage();
+            } catch ( InterruptedException e ) {
+                throw new TileIOException( e.getMessage(), e );
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Override
+        public InputStream getAsStream()
+                                throws TileIOException {
+            return tile.getAsStream();
+        }
+
+        @Override
+        public Envelope getEnvelope() {
+            return tile.getEnvelope();
+        }
+
+        @Override
+        public FeatureCollection getFeatures( int i, int j, int limit ) {
+            return null;
+        }
+    }
+
+    /**
+     * In-memory tile used to fill the tile store.
+     */
+    private static class ImageTile implements Tile {
+
+        private final BufferedImage image;
+
+        private ImageTile( BufferedImage image ) {
+            this.image = image;
+        }
+
+        @Override
+        public BufferedImage getAsImage() {
+            return image;
+        }
+
+        @Override
+        public InputStream getAsStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Envelope getEnvelope() {
+            return null;
+        }
+
+        @Override
+        public FeatureCollection getFeatures( int i, int j, int limit ) {
+            return null;
+        }
+    }
+
+}